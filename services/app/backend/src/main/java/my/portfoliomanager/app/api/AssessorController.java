@@ -3,12 +3,15 @@ package my.portfoliomanager.app.api;
 import my.portfoliomanager.app.dto.AssessorRunJobResponseDto;
 import my.portfoliomanager.app.dto.AssessorRunRequestDto;
 import my.portfoliomanager.app.service.AssessorJobService;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/assessor")
@@ -28,4 +31,10 @@ public class AssessorController {
 	public AssessorRunJobResponseDto get(@PathVariable("jobId") String jobId) {
 		return assessorJobService.get(jobId);
 	}
+
+	@GetMapping(value = "/run/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter events(@PathVariable("jobId") String jobId,
+							 @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+		return assessorJobService.stream(jobId, lastEventId);
+	}
 }
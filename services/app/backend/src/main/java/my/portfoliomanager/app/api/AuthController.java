@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import my.portfoliomanager.app.config.AppProperties;
 import my.portfoliomanager.app.dto.AuthRequest;
 import my.portfoliomanager.app.dto.AuthResponse;
+import my.portfoliomanager.app.dto.AuthTokenCacheStatsDto;
 import my.portfoliomanager.app.service.AuthTokenService;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -95,6 +96,11 @@ public class AuthController {
 		return ResponseEntity.noContent().build();
 	}
 
+	@GetMapping("/token-cache")
+	public AuthTokenCacheStatsDto tokenCacheStats() {
+		return authTokenService.cacheStats();
+	}
+
 	@GetMapping("/health")
 	public ResponseEntity<Map<String, String>> health() {
 		return ResponseEntity.ok(Map.of("status", "ok"));
@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/backups")
@@ -25,16 +26,17 @@ public class BackupController {
 	}
 
 	@GetMapping(path = "/export")
-	public ResponseEntity<byte[]> exportLegacyBackup() {
-		return backupResponse(backupService.exportBackup(), "backup.zip");
+	public ResponseEntity<StreamingResponseBody> exportLegacyBackup() {
+		return backupResponse(backupService::exportBackup, "backup.zip");
 	}
 
 	@PostMapping(path = "/export", consumes = MediaType.APPLICATION_JSON_VALUE)
-	public ResponseEntity<byte[]> exportBackup(@Valid @RequestBody BackupExportRequestDto request) {
-		return backupResponse(backupService.exportBackup(request.password()), "backup.pmbk");
+	public ResponseEntity<StreamingResponseBody> exportBackup(@Valid @RequestBody BackupExportRequestDto request) {
+		String password = request.password();
+		return backupResponse(outputStream -> backupService.exportBackup(outputStream, password), "backup.pmbk");
 	}
 
-	private ResponseEntity<byte[]> backupResponse(byte[] payload, String filename) {
+	private ResponseEntity<StreamingResponseBody> backupResponse(StreamingResponseBody payload, String filename) {
 		return ResponseEntity.ok()
 				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
 				.header(HttpHeaders.CACHE_CONTROL, "no-store, no-cache, must-revalidate, private")
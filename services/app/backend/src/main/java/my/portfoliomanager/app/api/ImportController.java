@@ -1,13 +1,19 @@
 package my.portfoliomanager.app.api;
 
+import my.portfoliomanager.app.dto.DepotImportJobResponseDto;
 import my.portfoliomanager.app.dto.ImportResultDto;
+import my.portfoliomanager.app.service.DepotImportJobService;
 import my.portfoliomanager.app.service.ImportService;
 import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.security.Principal;
 
@@ -15,9 +21,11 @@ import java.security.Principal;
 @RequestMapping("/api/imports")
 public class ImportController {
 	private final ImportService importService;
+	private final DepotImportJobService depotImportJobService;
 
-	public ImportController(ImportService importService) {
+	public ImportController(ImportService importService, DepotImportJobService depotImportJobService) {
 		this.importService = importService;
+		this.depotImportJobService = depotImportJobService;
 	}
 
 	@PostMapping(path = "/depot-statement", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -30,4 +38,26 @@ public class ImportController {
 		String editedBy = principal == null ? "system" : principal.getName();
 		return importService.importDepotStatement(file, depotCode, forceReimport, pruneMissing, applyRules, editedBy);
 	}
+
+	@PostMapping(path = "/depot-statement/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+	public DepotImportJobResponseDto startDepotStatementImport(@RequestParam("depotCode") String depotCode,
+															   @RequestParam("file") MultipartFile file,
+															   @RequestParam(value = "forceReimport", defaultValue = "false") boolean forceReimport,
+															   @RequestParam(value = "pruneMissing", defaultValue = "true") boolean pruneMissing,
+															   @RequestParam(value = "applyRules", defaultValue = "true") boolean applyRules,
+															   Principal principal) {
+		String editedBy = principal == null ? "system" : principal.getName();
+		return depotImportJobService.start(file, depotCode, forceReimport, pruneMissing, applyRules, editedBy);
+	}
+
+	@GetMapping("/depot-statement/jobs/{jobId}")
+	public DepotImportJobResponseDto getDepotStatementImport(@PathVariable("jobId") String jobId) {
+		return depotImportJobService.get(jobId);
+	}
+
+	@GetMapping(value = "/depot-statement/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter depotStatementImportEvents(@PathVariable("jobId") String jobId,
+												 @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+		return depotImportJobService.stream(jobId, lastEventId);
+	}
 }
@@ -22,7 +22,8 @@ public class InstrumentController {
 	public InstrumentEffectivePageDto listEffective(@RequestParam(required = false) String q,
 													@RequestParam(defaultValue = "false") boolean onlyOverrides,
 													@RequestParam(defaultValue = "50") int limit,
-													@RequestParam(defaultValue = "0") int offset) {
-		return instrumentEffectiveService.listEffective(q, onlyOverrides, limit, offset);
+													@RequestParam(defaultValue = "0") int offset,
+													@RequestParam(required = false) String cursor) {
+		return instrumentEffectiveService.listEffective(q, onlyOverrides, limit, offset, cursor);
 	}
 }
@@ -1,5 +1,7 @@
 package my.portfoliomanager.app.api;
 
+import jakarta.validation.Valid;
+import my.portfoliomanager.app.dto.BackupExportRequestDto;
 import my.portfoliomanager.app.dto.KnowledgeBaseImportResultDto;
 import my.portfoliomanager.app.service.KnowledgeBaseBackupService;
 import org.springframework.http.HttpHeaders;
@@ -7,6 +9,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -23,9 +26,23 @@ public class KnowledgeBaseBackupController {
 
 	@GetMapping("/export")
 	public ResponseEntity<byte[]> exportKnowledgeBase() {
-		byte[] payload = knowledgeBaseBackupService.exportKnowledgeBase();
+		return backupResponse(knowledgeBaseBackupService.exportKnowledgeBase(), "knowledge-base.zip");
+	}
+
+	@PostMapping(path = "/export", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<byte[]> exportEncryptedKnowledgeBase(@Valid @RequestBody BackupExportRequestDto request) {
+		return backupResponse(knowledgeBaseBackupService.exportKnowledgeBase(request.password()), "knowledge-base.pmbk");
+	}
+
+	@PostMapping(path = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+	public KnowledgeBaseImportResultDto importKnowledgeBase(@RequestParam("file") MultipartFile file,
+														@RequestParam(value = "password", required = false) String password) {
+		return knowledgeBaseBackupService.importKnowledgeBase(file, password);
+	}
+
+	private ResponseEntity<byte[]> backupResponse(byte[] payload, String filename) {
 		return ResponseEntity.ok()
-				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=knowledge-base.zip")
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
 				.header(HttpHeaders.CACHE_CONTROL, "no-store, no-cache, must-revalidate, private")
 				.header(HttpHeaders.PRAGMA, "no-cache")
 				.header(HttpHeaders.EXPIRES, "0")
@@ -33,9 +50,4 @@ public class KnowledgeBaseBackupController {
 				.contentType(MediaType.APPLICATION_OCTET_STREAM)
 				.body(payload);
 	}
-
-	@PostMapping(path = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-	public KnowledgeBaseImportResultDto importKnowledgeBase(@RequestParam("file") MultipartFile file) {
-		return knowledgeBaseBackupService.importKnowledgeBase(file);
-	}
 }
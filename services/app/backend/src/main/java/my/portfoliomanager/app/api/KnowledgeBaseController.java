@@ -27,14 +27,17 @@ import my.portfoliomanager.app.service.KnowledgeBaseBulkWebsearchJobService;
 import my.portfoliomanager.app.service.KnowledgeBaseLlmActionService;
 import my.portfoliomanager.app.service.KnowledgeBaseService;
 import my.portfoliomanager.app.service.KnowledgeBaseWebsearchJobService;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.security.Principal;
 import java.util.List;
@@ -80,7 +83,8 @@ public class KnowledgeBaseController {
 											 @RequestParam(required = false, defaultValue = "0") int page,
 											 @RequestParam(required = false, defaultValue = "50") int size,
 											 @RequestParam(required = false) Integer limit,
-											 @RequestParam(required = false) Integer offset) {
+											 @RequestParam(required = false) Integer offset,
+											 @RequestParam(required = false) String cursor) {
 		availabilityService.assertEnabled();
 		String finalQuery = q != null ? q : query;
 		int requestedLimit = limit != null ? limit : size;
@@ -108,6 +112,7 @@ public class KnowledgeBaseController {
 				stale,
 				finalLimit,
 				finalOffset,
+				cursor,
 				sortBy,
 				finalSortDirection);
 	}
@@ -197,6 +202,14 @@ public class KnowledgeBaseController {
 		return websearchJobService.get(jobId);
 	}
 
+	@GetMapping(value = "/dossiers/websearch/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@Operation(summary = "Stream LLM websearch draft job events")
+	public SseEmitter streamWebsearchDraft(@PathVariable("jobId") String jobId,
+										   @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+		availabilityService.assertWebsearchAvailable();
+		return websearchJobService.stream(jobId, lastEventId);
+	}
+
 	@GetMapping("/dossiers/websearch/bulk/{jobId}")
 	@Operation(summary = "Get bulk LLM websearch draft job")
 	public InstrumentDossierBulkWebsearchJobResponseDto getBulkWebsearchDraft(@PathVariable("jobId") String jobId) {
@@ -204,6 +217,14 @@ public class KnowledgeBaseController {
 		return bulkWebsearchJobService.get(jobId);
 	}
 
+	@GetMapping(value = "/dossiers/websearch/bulk/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@Operation(summary = "Stream bulk LLM websearch draft job events")
+	public SseEmitter streamBulkWebsearchDraft(@PathVariable("jobId") String jobId,
+											   @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+		availabilityService.assertWebsearchAvailable();
+		return bulkWebsearchJobService.stream(jobId, lastEventId);
+	}
+
 	@GetMapping("/dossiers/{isin:[A-Z0-9]{12}}")
 	@Operation(summary = "Get dossier detail by ISIN")
 	public KnowledgeBaseDossierDetailDto getDossierByIsin(@PathVariable("isin") String isin) {
@@ -247,10 +268,11 @@ public class KnowledgeBaseController {
 	@PostMapping("/dossiers/{id:\\d+}/extract")
 	@Operation(summary = "Run extraction for dossier")
 	public KnowledgeBaseLlmActionDto runExtraction(@PathVariable("id") Long dossierId,
+								   @RequestParam(name = "bypassCache", defaultValue = "false") boolean bypassCache,
 								   Principal principal) {
 		availabilityService.assertExtractionAvailable();
 		String actor = actorName(principal);
-		return actionService.startExtraction(dossierId, actor, KnowledgeBaseLlmActionTrigger.USER);
+		return actionService.startExtraction(dossierId, actor, KnowledgeBaseLlmActionTrigger.USER, bypassCache);
 	}
 
 	@PostMapping("/dossiers/{id:\\d+}/complete-missing-metrics")
@@ -5,12 +5,15 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import my.portfoliomanager.app.dto.KnowledgeBaseLlmActionDto;
 import my.portfoliomanager.app.service.KnowledgeBaseAvailabilityService;
 import my.portfoliomanager.app.service.KnowledgeBaseLlmActionService;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -41,6 +44,14 @@ public class KnowledgeBaseLlmActionController {
 		return actionService.getAction(actionId);
 	}
 
+	@GetMapping(value = "/{actionId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@Operation(summary = "Stream LLM action events")
+	public SseEmitter streamAction(@PathVariable("actionId") String actionId,
+								   @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+		availabilityService.assertEnabled();
+		return actionService.streamAction(actionId, lastEventId);
+	}
+
 	@PostMapping("/{actionId}/cancel")
 	@Operation(summary = "Cancel LLM action")
 	public KnowledgeBaseLlmActionDto cancelAction(@PathVariable("actionId") String actionId) {
@@ -2,11 +2,14 @@ package my.portfoliomanager.app.api;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import my.portfoliomanager.app.dto.LlmResponseCacheStatsDto;
 import my.portfoliomanager.app.dto.LlmRuntimeConfigDto;
 import my.portfoliomanager.app.dto.LlmRuntimeConfigUpdateDto;
+import my.portfoliomanager.app.service.LlmResponseCacheService;
 import my.portfoliomanager.app.service.LlmRuntimeConfigService;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -18,9 +21,12 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "LLM Config")
 public class LlmConfigController {
 	private final LlmRuntimeConfigService llmRuntimeConfigService;
+	private final LlmResponseCacheService llmResponseCacheService;
 
-	public LlmConfigController(LlmRuntimeConfigService llmRuntimeConfigService) {
+	public LlmConfigController(LlmRuntimeConfigService llmRuntimeConfigService,
+							   LlmResponseCacheService llmResponseCacheService) {
 		this.llmRuntimeConfigService = llmRuntimeConfigService;
+		this.llmResponseCacheService = llmResponseCacheService;
 	}
 
 	@GetMapping
@@ -35,6 +41,19 @@ public class LlmConfigController {
 		return noStoreResponse(llmRuntimeConfigService.updateConfig(request));
 	}
 
+	@GetMapping("/response-cache")
+	@Operation(summary = "Get LLM response cache statistics")
+	public LlmResponseCacheStatsDto getResponseCacheStats() {
+		return llmResponseCacheService.stats();
+	}
+
+	@DeleteMapping("/response-cache")
+	@Operation(summary = "Clear LLM response cache")
+	public LlmResponseCacheStatsDto clearResponseCache() {
+		llmResponseCacheService.clear();
+		return llmResponseCacheService.stats();
+	}
+
 	private ResponseEntity<LlmRuntimeConfigDto> noStoreResponse(LlmRuntimeConfigDto body) {
 		return ResponseEntity.ok()
 				.header(HttpHeaders.CACHE_CONTROL, "no-store, no-cache, must-revalidate, private")
@@ -6,18 +6,21 @@ import my.portfoliomanager.app.dto.AdvisorRunDto;
 import my.portfoliomanager.app.dto.ReclassificationDto;
 import my.portfoliomanager.app.dto.RebalancerRunJobResponseDto;
 import my.portfoliomanager.app.dto.RebalancerRunRequestDto;
-import my.portfoliomanager.app.rules.RulesetDefinition;
+import my.portfoliomanager.app.rules.CompiledRuleset;
 import my.portfoliomanager.app.service.RebalancerService;
 import my.portfoliomanager.app.service.ClassificationService;
 import my.portfoliomanager.app.service.RebalancerJobService;
 import my.portfoliomanager.app.service.RulesetService;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -49,6 +52,12 @@ public class RebalancerController {
 		return rebalancerJobService.get(jobId);
 	}
 
+	@GetMapping(value = "/run/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter events(@PathVariable("jobId") String jobId,
+							 @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+		return rebalancerJobService.stream(jobId, lastEventId);
+	}
+
 	@GetMapping("/runs")
 	public List<AdvisorRunDto> listRuns() {
 		return rebalancerService.listRuns();
@@ -63,7 +72,7 @@ public class RebalancerController {
 	public List<ReclassificationDto> reclassifications(
 			@RequestParam(defaultValue = "0.0") double minConfidence,
 			@RequestParam(defaultValue = "true") boolean onlyDifferent) {
-		RulesetDefinition ruleset = resolveActiveRuleset();
+		CompiledRuleset ruleset = resolveActiveRuleset();
 		List<ReclassificationDto> results = classificationService.simulate(ruleset);
 		return results.stream()
 				.filter(r -> r.confidence() >= minConfidence)
@@ -71,10 +80,10 @@ public class RebalancerController {
 				.toList();
 	}
 
-	private RulesetDefinition resolveActiveRuleset() {
+	private CompiledRuleset resolveActiveRuleset() {
 		Ruleset ruleset = rulesetService.getActiveRuleset("default")
 				.orElseThrow(() -> new IllegalArgumentException("Active ruleset not found"));
-		return rulesetService.parseRuleset(ruleset.getContentYaml());
+		return rulesetService.compileStored(ruleset);
 	}
 
 	private boolean different(ReclassificationDto dto) {
@@ -10,10 +10,12 @@ import my.portfoliomanager.app.dto.RulesetUpsertRequest;
 import my.portfoliomanager.app.dto.RulesetValidateRequest;
 import my.portfoliomanager.app.dto.RulesetValidateResponse;
 import my.portfoliomanager.app.dto.SimulationRequest;
-import my.portfoliomanager.app.rules.RulesetDefinition;
+import my.portfoliomanager.app.rules.CompiledRuleset;
 import my.portfoliomanager.app.service.ClassificationService;
 import my.portfoliomanager.app.service.RulesetService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -22,7 +24,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.security.Principal;
 import java.util.List;
 
@@ -31,10 +37,13 @@ import java.util.List;
 public class RulesetController {
 	private final RulesetService rulesetService;
 	private final ClassificationService classificationService;
+	private final ObjectMapper objectMapper;
 
-	public RulesetController(RulesetService rulesetService, ClassificationService classificationService) {
+	public RulesetController(RulesetService rulesetService, ClassificationService classificationService,
+							 ObjectMapper objectMapper) {
 		this.rulesetService = rulesetService;
 		this.classificationService = classificationService;
+		this.objectMapper = objectMapper;
 	}
 
 	@GetMapping
@@ -68,36 +77,46 @@ public class RulesetController {
 	@PostMapping("/{name}/simulate")
 	public List<ReclassificationDto> simulate(@PathVariable String name,
 												 @RequestBody(required = false) SimulationRequest request) {
-		RulesetDefinition ruleset = resolveRuleset(name, request == null ? null : request.contentJson());
+		CompiledRuleset ruleset = resolveRuleset(name, request == null ? null : request.contentJson());
 		return classificationService.simulate(ruleset);
 	}
 
+	@PostMapping(path = "/{name}/simulate/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> simulateStream(@PathVariable String name,
+																@RequestBody(required = false) SimulationRequest request) {
+		CompiledRuleset ruleset = resolveRuleset(name, request == null ? null : request.contentJson());
+		StreamingResponseBody body = outputStream -> classificationService.simulateStream(ruleset, null, chunk -> {
+			try {
+				for (ReclassificationDto result : chunk) {
+					outputStream.write(objectMapper.writeValueAsBytes(result));
+					outputStream.write('\n');
+				}
+				outputStream.flush();
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		});
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.body(body);
+	}
+
 	@PostMapping("/{name}/apply")
 	public List<ReclassificationDto> apply(@PathVariable String name,
 											 @RequestBody ApplyRequest request,
 											 Principal principal) {
 		String editedBy = principal == null ? "system" : principal.getName();
-		RulesetDefinition ruleset = resolveRuleset(name, request == null ? null : request.contentJson());
+		CompiledRuleset ruleset = resolveRuleset(name, request == null ? null : request.contentJson());
 		boolean dryRun = request != null && request.dryRun();
 		return classificationService.apply(ruleset, dryRun, editedBy, request == null ? null : request.isins());
 	}
 
-	private RulesetDefinition resolveRuleset(String name, String contentJson) {
+	private CompiledRuleset resolveRuleset(String name, String contentJson) {
 		if (contentJson != null && !contentJson.isBlank()) {
-			RulesetDefinition definition = rulesetService.parseRuleset(contentJson);
-			List<String> errors = rulesetService.validateDefinition(definition);
-			if (!errors.isEmpty()) {
-				throw new IllegalArgumentException("Ruleset validation failed: " + String.join("; ", errors));
-			}
-			return definition;
+			return rulesetService.compileValidated(contentJson, "Ruleset validation failed");
 		}
 		Ruleset ruleset = rulesetService.getActiveRuleset(name)
 				.orElseThrow(() -> new IllegalArgumentException("Active ruleset not found"));
-		RulesetDefinition definition = rulesetService.parseRuleset(ruleset.getContentYaml());
-		List<String> errors = rulesetService.validateDefinition(definition);
-		if (!errors.isEmpty()) {
-			throw new IllegalArgumentException("Active ruleset invalid: " + String.join("; ", errors));
-		}
-		return definition;
+		return rulesetService.compileStored(ruleset);
 	}
 }
@@ -0,0 +1,12 @@
+package my.portfoliomanager.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "app.backup")
+public record BackupProperties(
+		Integer importBatchSize,
+		Integer exportParallelism,
+		DataSize maxImportSize
+) {
+}
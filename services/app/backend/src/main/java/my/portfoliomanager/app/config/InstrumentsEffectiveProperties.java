@@ -0,0 +1,10 @@
+package my.portfoliomanager.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.instruments-effective")
+public record InstrumentsEffectiveProperties(
+		Boolean consistencyCheckEnabled,
+		Long consistencyCheckIntervalSeconds
+) {
+}
@@ -0,0 +1,15 @@
+package my.portfoliomanager.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.jobs")
+public record JobQueueProperties(
+		Boolean workersEnabled,
+		Long pollIntervalMillis,
+		Long leaseSeconds,
+		Long cleanupIntervalSeconds,
+		Long eventPollIntervalMillis,
+		Long streamTimeoutSeconds,
+		Long shutdownGraceSeconds
+) {
+}
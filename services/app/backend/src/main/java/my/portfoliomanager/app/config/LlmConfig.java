@@ -3,7 +3,9 @@ package my.portfoliomanager.app.config;
 import my.portfoliomanager.app.llm.DbBackedLlmClient;
 import my.portfoliomanager.app.llm.KnowledgeBaseLlmProvider;
 import my.portfoliomanager.app.llm.LlmClient;
+import my.portfoliomanager.app.llm.LlmConcurrencyLimiter;
 import my.portfoliomanager.app.llm.NoopLlmClient;
+import my.portfoliomanager.app.service.LlmResponseCacheService;
 import my.portfoliomanager.app.service.LlmRuntimeConfigService;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
@@ -12,10 +14,22 @@ import org.springframework.context.annotation.Primary;
 
 @Configuration
 public class LlmConfig {
+	private static final int DEFAULT_MAX_CONCURRENT_CALLS = 4;
+
+	@Bean
+	public LlmConcurrencyLimiter llmConcurrencyLimiter(LlmProperties properties) {
+		Integer configured = properties == null ? null : properties.maxConcurrentCalls();
+		return new LlmConcurrencyLimiter(configured == null || configured < 1 ? DEFAULT_MAX_CONCURRENT_CALLS : configured);
+	}
+
 	@Bean
 	@ConditionalOnMissingBean(LlmClient.class)
-	public LlmClient llmClient(LlmRuntimeConfigService configService) {
-		return new DbBackedLlmClient(configService);
+	public LlmClient llmClient(LlmRuntimeConfigService configService,
+							   LlmConcurrencyLimiter concurrencyLimiter,
+							   LlmResponseCacheService responseCache,
+							   LlmProperties properties) {
+		boolean streamResponses = properties != null && Boolean.TRUE.equals(properties.streamResponses());
+		return new DbBackedLlmClient(configService, concurrencyLimiter, responseCache, streamResponses);
 	}
 
 	@Bean
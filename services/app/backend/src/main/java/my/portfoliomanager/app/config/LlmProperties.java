@@ -0,0 +1,12 @@
+package my.portfoliomanager.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.llm")
+public record LlmProperties(
+		Integer maxConcurrentCalls,
+		Integer responseCacheTtlHours,
+		Integer responseCacheMaxEntries,
+		Boolean streamResponses
+) {
+}
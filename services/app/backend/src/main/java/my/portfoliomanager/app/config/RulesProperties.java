@@ -0,0 +1,9 @@
+package my.portfoliomanager.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.rules")
+public record RulesProperties(
+		Integer simulationParallelism
+) {
+}
@@ -153,6 +153,7 @@ public class SecurityConfig {
 				.requestMatchers("/api/auth/token", "/auth/token", "/api/auth/health", "/auth/health").permitAll()
 				.requestMatchers("/", "/index.html", "/assets/**").permitAll()
 				.requestMatchers("/api/backups/**").hasRole("ADMIN")
+				.requestMatchers("/api/auth/token-cache").hasRole("ADMIN")
 				.requestMatchers("/api/llm/**").hasRole("ADMIN")
 				.requestMatchers("/api/kb/**").hasRole("ADMIN")
 				.requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/api/**").authenticated()
@@ -0,0 +1,13 @@
+package my.portfoliomanager.app.domain;
+
+public enum JobStatus {
+	QUEUED,
+	RUNNING,
+	DONE,
+	FAILED,
+	CANCELED;
+
+	public boolean isActive() {
+		return this == QUEUED || this == RUNNING;
+	}
+}
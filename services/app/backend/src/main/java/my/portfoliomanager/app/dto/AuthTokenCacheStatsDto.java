@@ -0,0 +1,11 @@
+package my.portfoliomanager.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record AuthTokenCacheStatsDto(
+		@JsonProperty("entries") long entries,
+		@JsonProperty("hits") long hits,
+		@JsonProperty("misses") long misses,
+		@JsonProperty("invalidations") long invalidations
+) {
+}
@@ -0,0 +1,12 @@
+package my.portfoliomanager.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record DepotImportJobResponseDto(
+		@JsonProperty("job_id") String jobId,
+		@JsonProperty("status") DepotImportJobStatus status,
+		@JsonProperty("progress") DepotImportProgressDto progress,
+		@JsonProperty("result") ImportResultDto result,
+		@JsonProperty("error") String error
+) {
+}
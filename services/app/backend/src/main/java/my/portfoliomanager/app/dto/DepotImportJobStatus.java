@@ -0,0 +1,8 @@
+package my.portfoliomanager.app.dto;
+
+public enum DepotImportJobStatus {
+	PENDING,
+	RUNNING,
+	DONE,
+	FAILED
+}
@@ -0,0 +1,9 @@
+package my.portfoliomanager.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record DepotImportProgressDto(
+		@JsonProperty("phase") String phase,
+		@JsonProperty("positions") Integer positions
+) {
+}
@@ -6,6 +6,7 @@ public record InstrumentDossierSearchPageDto(
 		List<InstrumentDossierSearchItemDto> items,
 		int total,
 		int limit,
-		int offset
+		int offset,
+		String nextCursor
 ) {
 }
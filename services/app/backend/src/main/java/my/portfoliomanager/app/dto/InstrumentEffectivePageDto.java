@@ -6,6 +6,7 @@ public record InstrumentEffectivePageDto(
 		List<InstrumentEffectiveDto> items,
 		int total,
 		int limit,
-		int offset
+		int offset,
+		String nextCursor
 ) {
 }
@@ -0,0 +1,14 @@
+package my.portfoliomanager.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record LlmResponseCacheStatsDto(
+		@JsonProperty("enabled") boolean enabled,
+		@JsonProperty("entries") long entries,
+		@JsonProperty("hits") long hits,
+		@JsonProperty("misses") long misses,
+		@JsonProperty("bypassed") long bypassed,
+		@JsonProperty("stores") long stores,
+		@JsonProperty("evictions") long evictions
+) {
+}
@@ -4,10 +4,16 @@ import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
 import java.math.BigDecimal;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -24,12 +30,30 @@ public class DekaCsvParser implements DepotParser {
 
 	@Override
 	public List<Position> parse(byte[] payload, String filename, String depotCode, String fileHash) {
-		String content = decode(payload);
+		return parse(new StringReader(decode(payload)), filename, depotCode, fileHash);
+	}
+
+	// Reads the records straight from the spooled file, decoding like decode() does.
+	@Override
+	public List<Position> parse(Path file, String filename, String depotCode, String fileHash) {
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8))) {
+			reader.mark(1);
+			if (reader.read() != '\uFEFF') {
+				reader.reset();
+			}
+			return parse(reader, filename, depotCode, fileHash);
+		} catch (IOException exc) {
+			throw new IllegalArgumentException("Failed to read Deka CSV: " + exc.getMessage(), exc);
+		}
+	}
+
+	private List<Position> parse(Reader reader, String filename, String depotCode, String fileHash) {
 		LocalDate asOf = inferAsOfDate(filename);
 
 		Map<String, Aggregation> aggregatedByIsin = new HashMap<>();
 		try (CSVParser parser = CSVParser.parse(
-				new StringReader(content),
+				reader,
 				CSVFormat.DEFAULT.withDelimiter(';').withFirstRecordAsHeader()
 		)) {
 			for (CSVRecord csvRecord : parser) {
@@ -1,7 +1,19 @@
 package my.portfoliomanager.app.importer;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 public interface DepotParser {
 	List<Position> parse(byte[] payload, String filename, String depotCode, String fileHash);
+
+	// Parses an upload spooled to disk; parsers that can read it incrementally override this.
+	default List<Position> parse(Path file, String filename, String depotCode, String fileHash) {
+		try {
+			return parse(Files.readAllBytes(file), filename, depotCode, fileHash);
+		} catch (IOException exc) {
+			throw new IllegalArgumentException("Failed to read upload: " + exc.getMessage(), exc);
+		}
+	}
 }
@@ -6,6 +6,7 @@ import org.apache.pdfbox.text.PDFTextStripper;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -42,7 +43,25 @@ public class TrPdfParser implements DepotParser {
 
 	@Override
 	public List<Position> parse(byte[] payload, String filename, String depotCode, String fileHash) {
-		List<String> lines = extractLines(payload);
+		try (PDDocument doc = Loader.loadPDF(payload)) {
+			return parse(doc, filename, depotCode, fileHash);
+		} catch (IOException exc) {
+			throw new IllegalArgumentException("Failed to read TR PDF: " + exc.getMessage(), exc);
+		}
+	}
+
+	// Loading from the file lets PDFBox read it with random access instead of holding the whole statement in memory.
+	@Override
+	public List<Position> parse(Path file, String filename, String depotCode, String fileHash) {
+		try (PDDocument doc = Loader.loadPDF(file.toFile())) {
+			return parse(doc, filename, depotCode, fileHash);
+		} catch (IOException exc) {
+			throw new IllegalArgumentException("Failed to read TR PDF: " + exc.getMessage(), exc);
+		}
+	}
+
+	private List<Position> parse(PDDocument doc, String filename, String depotCode, String fileHash) throws IOException {
+		List<String> lines = extractLines(doc);
 		LocalDate asOf = inferAsOfDate(lines, filename);
 		return parseLines(lines, depotCode, fileHash, asOf);
 	}
@@ -131,18 +150,14 @@ public class TrPdfParser implements DepotParser {
 		));
 	}
 
-	private List<String> extractLines(byte[] payload) {
-		try (PDDocument doc = Loader.loadPDF(payload)) {
-			PDFTextStripper stripper = new PDFTextStripper();
-			String text = stripper.getText(doc);
-			List<String> lines = new ArrayList<>();
-			for (String line : text.split("\\R")) {
-				lines.add(line == null ? "" : line);
-			}
-			return lines;
-		} catch (IOException exc) {
-			throw new IllegalArgumentException("Failed to read TR PDF: " + exc.getMessage(), exc);
+	private List<String> extractLines(PDDocument doc) throws IOException {
+		PDFTextStripper stripper = new PDFTextStripper();
+		String text = stripper.getText(doc);
+		List<String> lines = new ArrayList<>();
+		for (String line : text.split("\\R")) {
+			lines.add(line == null ? "" : line);
 		}
+		return lines;
 	}
 
 	private LocalDate inferAsOfDate(List<String> lines, String filename) {
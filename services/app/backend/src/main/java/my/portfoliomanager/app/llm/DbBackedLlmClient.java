@@ -1,48 +1,82 @@
 package my.portfoliomanager.app.llm;
 
+import my.portfoliomanager.app.service.LlmResponseCacheService;
 import my.portfoliomanager.app.service.LlmRuntimeConfigService;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 public class DbBackedLlmClient implements LlmClient, KnowledgeBaseLlmProvider, LlmActionSupport {
 	private static final int TIMEOUT_SECONDS = 300;
 
 	private final LlmRuntimeConfigService configService;
-
-	public DbBackedLlmClient(LlmRuntimeConfigService configService) {
+	private final LlmConcurrencyLimiter concurrencyLimiter;
+	private final LlmResponseCacheService responseCache;
+	private final boolean streamResponses;
+	private final JdkClientHttpRequestFactory requestFactory;
+	// The map and the config version it was built for are swapped together, so a client can never be filed under a
+	// newer version than the config it was created from.
+	private final AtomicReference<ClientCache> clients = new AtomicReference<>(new ClientCache(0, new ConcurrentHashMap<>()));
+
+	public DbBackedLlmClient(LlmRuntimeConfigService configService, LlmConcurrencyLimiter concurrencyLimiter) {
+		this(configService, concurrencyLimiter, null, false);
+	}
+
+	public DbBackedLlmClient(LlmRuntimeConfigService configService,
+							 LlmConcurrencyLimiter concurrencyLimiter,
+							 LlmResponseCacheService responseCache,
+							 boolean streamResponses) {
 		this.configService = configService;
+		this.concurrencyLimiter = concurrencyLimiter == null ? new LlmConcurrencyLimiter(Integer.MAX_VALUE) : concurrencyLimiter;
+		this.responseCache = responseCache;
+		this.streamResponses = streamResponses;
+		HttpClient httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_2)
+				.connectTimeout(Duration.ofSeconds(TIMEOUT_SECONDS))
+				.followRedirects(HttpClient.Redirect.NEVER)
+				.build();
+		this.requestFactory = new JdkClientHttpRequestFactory(httpClient);
+		this.requestFactory.setReadTimeout(Duration.ofSeconds(TIMEOUT_SECONDS));
 	}
 
 	@Override
 	public LlmSuggestion suggestReclassification(String context) {
-		return clientFor(LlmActionType.NARRATIVE).suggestReclassification(context);
+		return concurrencyLimiter.call(() -> clientFor(LlmActionType.NARRATIVE).suggestReclassification(context));
 	}
 
 	@Override
 	public LlmSuggestion suggestSavingPlanProposal(String context) {
-		return clientFor(LlmActionType.NARRATIVE).suggestSavingPlanProposal(context);
+		return concurrencyLimiter.call(() -> clientFor(LlmActionType.NARRATIVE).suggestSavingPlanProposal(context));
 	}
 
 	@Override
 	public LlmSuggestion extractInstrumentDossierFields(String context) {
-		return clientFor(LlmActionType.EXTRACTION).extractInstrumentDossierFields(context);
+		return concurrencyLimiter.call(() -> clientFor(LlmActionType.EXTRACTION).extractInstrumentDossierFields(context));
 	}
 
 	@Override
 	public LlmSuggestion createInstrumentDossierViaWebSearch(String context) {
-		return clientFor(LlmActionType.WEBSEARCH).createInstrumentDossierViaWebSearch(context);
+		return concurrencyLimiter.call(() -> clientFor(LlmActionType.WEBSEARCH).createInstrumentDossierViaWebSearch(context));
 	}
 
 	@Override
 	public LlmSuggestion createInstrumentDossierViaWebSearch(String context, String reasoningEffort) {
-		return clientFor(LlmActionType.WEBSEARCH).createInstrumentDossierViaWebSearch(context, reasoningEffort);
+		return concurrencyLimiter.call(() -> clientFor(LlmActionType.WEBSEARCH).createInstrumentDossierViaWebSearch(context, reasoningEffort));
 	}
 
 	@Override
 	public LlmSuggestion createInstrumentDossierViaWebSearch(String context, String schemaName, Map<String, Object> schema) {
-		return clientFor(LlmActionType.WEBSEARCH).createInstrumentDossierViaWebSearch(context, schemaName, schema);
+		return concurrencyLimiter.call(() -> clientFor(LlmActionType.WEBSEARCH).createInstrumentDossierViaWebSearch(context, schemaName, schema));
 	}
 
 	@Override
@@ -50,22 +84,22 @@ public class DbBackedLlmClient implements LlmClient, KnowledgeBaseLlmProvider, L
 													 String schemaName,
 													 Map<String, Object> schema,
 													 String reasoningEffort) {
-		return clientFor(LlmActionType.WEBSEARCH).createInstrumentDossierViaWebSearch(context, schemaName, schema, reasoningEffort);
+		return concurrencyLimiter.call(() -> clientFor(LlmActionType.WEBSEARCH).createInstrumentDossierViaWebSearch(context, schemaName, schema, reasoningEffort));
 	}
 
 	@Override
 	public KnowledgeBaseLlmResponse runWebSearch(String prompt, List<String> allowedDomains) {
-		return providerFor(LlmActionType.WEBSEARCH).runWebSearch(prompt, allowedDomains);
+		return concurrencyLimiter.call(() -> providerFor(LlmActionType.WEBSEARCH).runWebSearch(prompt, allowedDomains));
 	}
 
 	@Override
 	public KnowledgeBaseLlmResponse runWebSearch(String prompt, List<String> allowedDomains, String reasoningEffort) {
-		return providerFor(LlmActionType.WEBSEARCH).runWebSearch(prompt, allowedDomains, reasoningEffort);
+		return concurrencyLimiter.call(() -> providerFor(LlmActionType.WEBSEARCH).runWebSearch(prompt, allowedDomains, reasoningEffort));
 	}
 
 	@Override
 	public KnowledgeBaseLlmResponse runWebSearch(String prompt, List<String> allowedDomains, String schemaName, Map<String, Object> schema) {
-		return providerFor(LlmActionType.WEBSEARCH).runWebSearch(prompt, allowedDomains, schemaName, schema);
+		return concurrencyLimiter.call(() -> providerFor(LlmActionType.WEBSEARCH).runWebSearch(prompt, allowedDomains, schemaName, schema));
 	}
 
 	@Override
@@ -74,17 +108,19 @@ public class DbBackedLlmClient implements LlmClient, KnowledgeBaseLlmProvider, L
 													 String reasoningEffort,
 													 String schemaName,
 													 Map<String, Object> schema) {
-		return providerFor(LlmActionType.WEBSEARCH).runWebSearch(prompt, allowedDomains, reasoningEffort, schemaName, schema);
+		return concurrencyLimiter.call(() -> providerFor(LlmActionType.WEBSEARCH).runWebSearch(prompt, allowedDomains, reasoningEffort, schemaName, schema));
 	}
 
 	@Override
 	public KnowledgeBaseLlmResponse runJsonPrompt(String prompt) {
-		return providerFor(LlmActionType.EXTRACTION).runJsonPrompt(prompt);
+		return cached(LlmActionType.EXTRACTION, null, prompt,
+				() -> concurrencyLimiter.call(() -> providerFor(LlmActionType.EXTRACTION).runJsonPrompt(prompt)));
 	}
 
 	@Override
 	public KnowledgeBaseLlmResponse runJsonPrompt(String prompt, String schemaName, Map<String, Object> schema) {
-		return providerFor(LlmActionType.EXTRACTION).runJsonPrompt(prompt, schemaName, schema);
+		return cached(LlmActionType.EXTRACTION, schemaName, prompt,
+				() -> concurrencyLimiter.call(() -> providerFor(LlmActionType.EXTRACTION).runJsonPrompt(prompt, schemaName, schema)));
 	}
 
 	@Override
@@ -103,18 +139,48 @@ public class DbBackedLlmClient implements LlmClient, KnowledgeBaseLlmProvider, L
 		return configService.resolveAction(actionType).externalProvider();
 	}
 
+	private KnowledgeBaseLlmResponse cached(LlmActionType actionType,
+											String schemaName,
+											String prompt,
+											Supplier<KnowledgeBaseLlmResponse> call) {
+		if (responseCache == null) {
+			return call.get();
+		}
+		LlmRuntimeConfigService.ResolvedActionConfig config = configService.resolveAction(actionType);
+		if (!config.enabled()) {
+			return call.get();
+		}
+		return responseCache.getOrCompute(actionType, config.model(), schemaName, prompt, call);
+	}
+
 	private LlmClient clientFor(LlmActionType actionType) {
+		// The version is read before the config: a config saved in between only files the new client under the older
+		// version, which the next call replaces.
+		long version = configService.configVersion();
 		LlmRuntimeConfigService.ResolvedActionConfig config = configService.resolveAction(actionType);
 		if (!config.enabled() || !LlmRuntimeConfigService.DEFAULT_PROVIDER.equals(config.provider())) {
 			return new NoopLlmClient();
 		}
-		return new OpenAiLlmClient(
+		ClientKey key = new ClientKey(config.provider(), config.baseUrl(), config.model(), fingerprint(config.apiKey()));
+		return clientCache(version).clients().computeIfAbsent(key, ignored -> new OpenAiLlmClient(
 				config.baseUrl(),
 				config.apiKey(),
 				config.model(),
-				Duration.ofSeconds(TIMEOUT_SECONDS),
-				Duration.ofSeconds(TIMEOUT_SECONDS)
-		);
+				requestFactory,
+				streamResponses
+		));
+	}
+
+	private ClientCache clientCache(long version) {
+		ClientCache current = clients.get();
+		while (current.version() < version) {
+			ClientCache next = new ClientCache(version, new ConcurrentHashMap<>());
+			if (clients.compareAndSet(current, next)) {
+				return next;
+			}
+			current = clients.get();
+		}
+		return current;
 	}
 
 	private KnowledgeBaseLlmProvider providerFor(LlmActionType actionType) {
@@ -124,4 +190,20 @@ public class DbBackedLlmClient implements LlmClient, KnowledgeBaseLlmProvider, L
 		}
 		return new NoopLlmClient();
 	}
+
+	private String fingerprint(String apiKey) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte[] hash = digest.digest(apiKey.getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(hash);
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 not available", ex);
+		}
+	}
+
+	private record ClientCache(long version, Map<ClientKey, OpenAiLlmClient> clients) {
+	}
+
+	private record ClientKey(String provider, String baseUrl, String model, String apiKeyFingerprint) {
+	}
 }
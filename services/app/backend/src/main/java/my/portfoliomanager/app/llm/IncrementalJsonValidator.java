@@ -0,0 +1,162 @@
+package my.portfoliomanager.app.llm;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+
+final class IncrementalJsonValidator {
+	private static final int MAX_KEY_LENGTH = 256;
+
+	private final Set<String> allowedTopLevelKeys;
+	private final Deque<Character> containers = new ArrayDeque<>();
+	private final StringBuilder key = new StringBuilder();
+	private boolean started;
+	private boolean completed;
+	private boolean inString;
+	private boolean escaped;
+	private int unicodeDigits;
+	private int unicodeValue;
+	private boolean capturingKey;
+	private boolean expectingKey;
+	private String failure;
+
+	IncrementalJsonValidator(Set<String> allowedTopLevelKeys) {
+		this.allowedTopLevelKeys = allowedTopLevelKeys;
+	}
+
+	static IncrementalJsonValidator forSchema(Map<String, Object> schema) {
+		if (schema == null || !Boolean.FALSE.equals(schema.get("additionalProperties"))) {
+			return new IncrementalJsonValidator(null);
+		}
+		Object properties = schema.get("properties");
+		if (!(properties instanceof Map<?, ?> map)) {
+			return new IncrementalJsonValidator(null);
+		}
+		return new IncrementalJsonValidator(Set.copyOf(map.keySet().stream().map(String::valueOf).toList()));
+	}
+
+	String failure() {
+		return failure;
+	}
+
+	boolean isComplete() {
+		return completed;
+	}
+
+	void feed(CharSequence chunk) {
+		if (chunk == null) {
+			return;
+		}
+		for (int i = 0; i < chunk.length() && failure == null; i++) {
+			accept(chunk.charAt(i));
+		}
+	}
+
+	private void accept(char c) {
+		if (inString) {
+			acceptStringChar(c);
+			return;
+		}
+		if (Character.isWhitespace(c)) {
+			return;
+		}
+		if (completed) {
+			failure = "Unexpected content after JSON document";
+			return;
+		}
+		if (!started) {
+			if (c != '{') {
+				failure = "Output does not start with a JSON object";
+				return;
+			}
+			started = true;
+		}
+		switch (c) {
+			case '{', '[' -> {
+				containers.push(c);
+				expectingKey = c == '{' && containers.size() == 1;
+			}
+			case '}', ']' -> close(c == '}' ? '{' : '[');
+			case ',' -> expectingKey = containers.size() == 1;
+			case '"' -> {
+				inString = true;
+				capturingKey = expectingKey && containers.size() == 1;
+				key.setLength(0);
+			}
+			default -> {
+			}
+		}
+	}
+
+	// Keys are compared decoded, so escapes are resolved; a unicode escape consumes its four hex digits.
+	private void acceptStringChar(char c) {
+		if (unicodeDigits > 0) {
+			int digit = Character.digit(c, 16);
+			if (digit < 0) {
+				failure = "Invalid unicode escape in JSON output";
+				return;
+			}
+			unicodeValue = unicodeValue * 16 + digit;
+			if (--unicodeDigits == 0) {
+				appendKey((char) unicodeValue);
+			}
+			return;
+		}
+		if (escaped) {
+			escaped = false;
+			if (c == 'u') {
+				unicodeDigits = 4;
+				unicodeValue = 0;
+				return;
+			}
+			appendKey(unescape(c));
+			return;
+		}
+		if (c == '\\') {
+			escaped = true;
+			return;
+		}
+		if (c != '"') {
+			appendKey(c);
+			return;
+		}
+		inString = false;
+		if (capturingKey) {
+			capturingKey = false;
+			expectingKey = false;
+			String name = key.toString();
+			if (allowedTopLevelKeys != null && !allowedTopLevelKeys.contains(name)) {
+				failure = "Unexpected property '" + name + "'";
+			}
+		}
+	}
+
+	private char unescape(char c) {
+		return switch (c) {
+			case 'b' -> '\b';
+			case 'f' -> '\f';
+			case 'n' -> '\n';
+			case 'r' -> '\r';
+			case 't' -> '\t';
+			default -> c;
+		};
+	}
+
+	private void appendKey(char c) {
+		if (capturingKey && key.length() < MAX_KEY_LENGTH) {
+			key.append(c);
+		}
+	}
+
+	private void close(char expectedOpen) {
+		if (containers.isEmpty() || containers.peek() != expectedOpen) {
+			failure = "Mismatched bracket in JSON output";
+			return;
+		}
+		containers.pop();
+		if (containers.isEmpty()) {
+			completed = true;
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package my.portfoliomanager.app.llm;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+public class LlmConcurrencyLimiter {
+	private static final Duration MIN_THROTTLE_PAUSE = Duration.ofSeconds(1);
+	private static final Duration MAX_THROTTLE_PAUSE = Duration.ofMinutes(5);
+	private static final Duration DECREASE_INTERVAL = Duration.ofSeconds(1);
+	private static final long MIN_RETRY_DELAY_MILLIS = 500L;
+
+	private final int maxConcurrentCalls;
+	private final ReentrantLock lock = new ReentrantLock(true);
+	private final Condition available = lock.newCondition();
+	private int limit;
+	private int inFlight;
+	private int successesSinceIncrease;
+	private long pausedUntilNanos;
+	private long lastDecreaseNanos;
+
+	public LlmConcurrencyLimiter(int maxConcurrentCalls) {
+		this.maxConcurrentCalls = Math.max(1, maxConcurrentCalls);
+		this.limit = this.maxConcurrentCalls;
+		long now = System.nanoTime();
+		this.pausedUntilNanos = now;
+		this.lastDecreaseNanos = now - DECREASE_INTERVAL.toNanos();
+	}
+
+	public int maxConcurrentCalls() {
+		return maxConcurrentCalls;
+	}
+
+	public int currentLimit() {
+		lock.lock();
+		try {
+			return limit;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public <T> T call(Supplier<T> action) {
+		acquire();
+		boolean success = false;
+		try {
+			T result = action.get();
+			success = true;
+			return result;
+		} catch (LlmRequestException ex) {
+			if (ex.isThrottled()) {
+				onThrottled(ex.getRetryAfter());
+			}
+			throw ex;
+		} finally {
+			release(success);
+		}
+	}
+
+	public static Duration retryDelay(LlmRequestException ex, int attempt, int baseBackoffSeconds, int maxBackoffSeconds) {
+		int exponent = Math.min(Math.max(0, attempt - 1), 20);
+		long backoffSeconds = Math.min((long) maxBackoffSeconds, (long) baseBackoffSeconds << exponent);
+		double jitterFactor = 0.5 + ThreadLocalRandom.current().nextDouble();
+		long delayMillis = Math.max(MIN_RETRY_DELAY_MILLIS, Math.round(backoffSeconds * 1000.0 * jitterFactor));
+		Duration retryAfter = ex == null ? null : ex.getRetryAfter();
+		if (retryAfter != null) {
+			long retryAfterMillis = Math.min(retryAfter.toMillis(), MAX_THROTTLE_PAUSE.toMillis());
+			delayMillis = Math.max(delayMillis, retryAfterMillis);
+		}
+		return Duration.ofMillis(delayMillis);
+	}
+
+	private void acquire() {
+		lock.lock();
+		try {
+			while (true) {
+				long pauseNanos = pausedUntilNanos - System.nanoTime();
+				if (pauseNanos > 0) {
+					available.awaitNanos(pauseNanos);
+					continue;
+				}
+				if (inFlight < limit) {
+					inFlight++;
+					return;
+				}
+				available.await();
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Canceled");
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void release(boolean success) {
+		lock.lock();
+		try {
+			inFlight--;
+			if (success && limit < maxConcurrentCalls) {
+				successesSinceIncrease++;
+				if (successesSinceIncrease >= limit) {
+					limit++;
+					successesSinceIncrease = 0;
+				}
+			}
+			available.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void onThrottled(Duration retryAfter) {
+		lock.lock();
+		try {
+			long now = System.nanoTime();
+			// Calls that were already in flight report the same overload; halve once per interval.
+			if (now - lastDecreaseNanos >= DECREASE_INTERVAL.toNanos()) {
+				limit = Math.max(1, limit / 2);
+				successesSinceIncrease = 0;
+				lastDecreaseNanos = now;
+			}
+			Duration pause = retryAfter == null ? MIN_THROTTLE_PAUSE : retryAfter;
+			if (pause.compareTo(MIN_THROTTLE_PAUSE) < 0) {
+				pause = MIN_THROTTLE_PAUSE;
+			}
+			if (pause.compareTo(MAX_THROTTLE_PAUSE) > 0) {
+				pause = MAX_THROTTLE_PAUSE;
+			}
+			long until = now + pause.toNanos();
+			if (until - pausedUntilNanos > 0) {
+				pausedUntilNanos = until;
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	long pauseRemainingMillis() {
+		lock.lock();
+		try {
+			return Math.max(0, TimeUnit.NANOSECONDS.toMillis(pausedUntilNanos - System.nanoTime()));
+		} finally {
+			lock.unlock();
+		}
+	}
+}
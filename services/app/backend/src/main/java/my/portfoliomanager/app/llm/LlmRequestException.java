@@ -1,13 +1,21 @@
 package my.portfoliomanager.app.llm;
 
+import java.time.Duration;
+
 public class LlmRequestException extends RuntimeException {
 	private final Integer statusCode;
 	private final boolean retryable;
+	private final Duration retryAfter;
 
 	public LlmRequestException(String message, Integer statusCode, boolean retryable, Throwable cause) {
+		this(message, statusCode, retryable, null, cause);
+	}
+
+	public LlmRequestException(String message, Integer statusCode, boolean retryable, Duration retryAfter, Throwable cause) {
 		super(message, cause);
 		this.statusCode = statusCode;
 		this.retryable = retryable;
+		this.retryAfter = retryAfter;
 	}
 
 	public Integer getStatusCode() {
@@ -17,4 +25,12 @@ public class LlmRequestException extends RuntimeException {
 	public boolean isRetryable() {
 		return retryable;
 	}
+
+	public Duration getRetryAfter() {
+		return retryAfter;
+	}
+
+	public boolean isThrottled() {
+		return statusCode != null && (statusCode == 429 || statusCode >= 500);
+	}
 }
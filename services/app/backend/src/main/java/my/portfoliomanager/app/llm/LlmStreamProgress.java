@@ -0,0 +1,35 @@
+package my.portfoliomanager.app.llm;
+
+import java.util.function.IntConsumer;
+
+public final class LlmStreamProgress {
+	private static final ThreadLocal<IntConsumer> LISTENER = new ThreadLocal<>();
+
+	private LlmStreamProgress() {
+	}
+
+	public static void run(IntConsumer listener, Runnable action) {
+		IntConsumer previous = LISTENER.get();
+		LISTENER.set(listener);
+		try {
+			action.run();
+		} finally {
+			if (previous == null) {
+				LISTENER.remove();
+			} else {
+				LISTENER.set(previous);
+			}
+		}
+	}
+
+	public static IntConsumer current() {
+		return LISTENER.get();
+	}
+
+	static void report(int receivedChars) {
+		IntConsumer listener = LISTENER.get();
+		if (listener != null) {
+			listener.accept(receivedChars);
+		}
+	}
+}
@@ -5,12 +5,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientResponseException;
-
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -30,6 +42,7 @@ public class OpenAiLlmClient implements LlmClient, KnowledgeBaseLlmProvider {
     private static final String REASONING_KEY = "reasoning";
     private static final String EFFORT_KEY = "effort";
     private static final String UNKNOWN_VALUE = "unknown";
+    private static final ObjectMapper STREAM_MAPPER = JsonMapper.builder().build();
     public static final List<String> allowedWebSearchDomains = List.of("justetf.com", "ishares.com", "vanguard.com", "ssga.com",
             "spdrs.com", "amundietf.com", "wisdomtree.eu", "invesco.com", "vaneck.com",
             "xtrackers.com", "blackrock.com", "statestreet.com", "lyxoretf.com", "openfigi.com",
@@ -40,15 +53,25 @@ public class OpenAiLlmClient implements LlmClient, KnowledgeBaseLlmProvider {
             "deka-etf.de", "boerse-hamburg.de", "marketscreener.com", "statista.com", "finbox.com");
     private final RestClient restClient;
     private final String model;
+    private final boolean streamResponses;
 
     public OpenAiLlmClient(String baseUrl, String apiKey, String model) {
         this(baseUrl, apiKey, model, DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT);
     }
 
     public OpenAiLlmClient(String baseUrl, String apiKey, String model, Duration connectTimeout, Duration readTimeout) {
-        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
-        requestFactory.setConnectTimeout(ensureMinimumTimeout(connectTimeout, DEFAULT_CONNECT_TIMEOUT));
-        requestFactory.setReadTimeout(ensureMinimumTimeout(readTimeout, DEFAULT_READ_TIMEOUT));
+        this(baseUrl, apiKey, model, simpleRequestFactory(connectTimeout, readTimeout));
+    }
+
+    public OpenAiLlmClient(String baseUrl, String apiKey, String model, ClientHttpRequestFactory requestFactory) {
+        this(baseUrl, apiKey, model, requestFactory, false);
+    }
+
+    public OpenAiLlmClient(String baseUrl,
+                           String apiKey,
+                           String model,
+                           ClientHttpRequestFactory requestFactory,
+                           boolean streamResponses) {
         this.restClient = RestClient.builder()
                 .baseUrl(baseUrl)
                 .requestFactory(requestFactory)
@@ -56,6 +79,7 @@ public class OpenAiLlmClient implements LlmClient, KnowledgeBaseLlmProvider {
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .build();
         this.model = model;
+        this.streamResponses = streamResponses;
     }
 
     @Override
@@ -67,7 +91,12 @@ public class OpenAiLlmClient implements LlmClient, KnowledgeBaseLlmProvider {
     }
 
     private @NonNull LlmSuggestion getSuggestionFromChatCompletionsAPI(Map<String, Object> request) {
-        Map<?, ?> response = restClient.post().uri("/chat/completions").body(request).retrieve().body(Map.class);
+        Map<?, ?> response;
+        try {
+            response = restClient.post().uri("/chat/completions").body(request).retrieve().body(Map.class);
+        } catch (Exception ex) {
+            throw requestFailure(ex, request);
+        }
         if (response == null || response.get("choices") == null) {
             return new LlmSuggestion("", "No response");
         }
@@ -157,7 +186,7 @@ public class OpenAiLlmClient implements LlmClient, KnowledgeBaseLlmProvider {
     @Override
     public KnowledgeBaseLlmResponse runWebSearch(String prompt, List<String> allowedDomains, String schemaName, Map<String, Object> schema) {
         Map<String, Object> request = buildWebSearchRequest(prompt, allowedDomains, schemaName, schema, null);
-        return callResponsesApi(request);
+        return callResponsesApi(request, schema);
     }
 
     @Override
@@ -172,7 +201,7 @@ public class OpenAiLlmClient implements LlmClient, KnowledgeBaseLlmProvider {
                                                  String schemaName,
                                                  Map<String, Object> schema) {
         Map<String, Object> request = buildWebSearchRequest(prompt, allowedDomains, schemaName, schema, reasoningEffort);
-        return callResponsesApi(request);
+        return callResponsesApi(request, schema);
     }
 
     @Override
@@ -183,7 +212,7 @@ public class OpenAiLlmClient implements LlmClient, KnowledgeBaseLlmProvider {
     @Override
     public KnowledgeBaseLlmResponse runJsonPrompt(String prompt, String schemaName, Map<String, Object> schema) {
         Map<String, Object> request = buildJsonPromptRequest(prompt, schemaName, schema);
-        return callResponsesApi(request);
+        return callResponsesApi(request, schema);
     }
 
     private Map<String, Object> buildJsonPromptRequest(String prompt,
@@ -244,19 +273,15 @@ public class OpenAiLlmClient implements LlmClient, KnowledgeBaseLlmProvider {
         };
     }
 
-    private KnowledgeBaseLlmResponse callResponsesApi(Map<String, Object> request) {
+    private KnowledgeBaseLlmResponse callResponsesApi(Map<String, Object> request, Map<String, Object> schema) {
+        if (streamResponses) {
+            return streamResponsesApi(request, schema);
+        }
         Map<?, ?> response;
         try {
             response = restClient.post().uri("/responses").body(request).retrieve().body(Map.class);
-        } catch (RestClientResponseException ex) {
-            logResponseError(ex, request);
-            throw new LlmRequestException(safeMessage(ex), ex.getStatusCode().value(), isRetryable(ex), ex);
-        } catch (ResourceAccessException ex) {
-            logRequestError(ex, request);
-            throw new LlmRequestException(safeMessage(ex), null, true, ex);
         } catch (Exception ex) {
-            logRequestError(ex, request);
-            throw new LlmRequestException(safeMessage(ex), null, false, ex);
+            throw requestFailure(ex, request);
         }
         String text = extractOutputText(response);
         if (text == null || text.isBlank()) {
@@ -265,6 +290,135 @@ public class OpenAiLlmClient implements LlmClient, KnowledgeBaseLlmProvider {
         return new KnowledgeBaseLlmResponse(text, model);
     }
 
+    private KnowledgeBaseLlmResponse streamResponsesApi(Map<String, Object> request, Map<String, Object> schema) {
+        Map<String, Object> streamingRequest = new HashMap<>(request);
+        streamingRequest.put("stream", true);
+        String text;
+        try {
+            text = restClient.post()
+                    .uri("/responses")
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .body(streamingRequest)
+                    .exchange((clientRequest, clientResponse) -> readEventStream(clientResponse, schema));
+        } catch (LlmRequestException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw requestFailure(ex, request);
+        }
+        if (text == null || text.isBlank()) {
+            throw new LlmRequestException("No output_text", null, false, null);
+        }
+        return new KnowledgeBaseLlmResponse(text, model);
+    }
+
+    private String readEventStream(ClientHttpResponse response, Map<String, Object> schema) throws IOException {
+        if (response.getStatusCode().isError()) {
+            throw new RestClientResponseException(
+                    "OpenAI responses API returned " + response.getStatusCode().value(),
+                    response.getStatusCode(),
+                    response.getStatusText(),
+                    response.getHeaders(),
+                    response.getBody().readAllBytes(),
+                    StandardCharsets.UTF_8
+            );
+        }
+        StringBuilder output = new StringBuilder();
+        IncrementalJsonValidator validator = IncrementalJsonValidator.forSchema(schema);
+        StringBuilder data = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    if (handleEvent(data.toString(), output, validator)) {
+                        break;
+                    }
+                    data.setLength(0);
+                } else if (line.startsWith("data:")) {
+                    if (!data.isEmpty()) {
+                        data.append('\n');
+                    }
+                    data.append(line.substring(5).stripLeading());
+                }
+            }
+            if (!data.isEmpty()) {
+                handleEvent(data.toString(), output, validator);
+            }
+        }
+        return output.toString();
+    }
+
+    private boolean handleEvent(String data, StringBuilder output, IncrementalJsonValidator validator) {
+        if (data.isBlank() || "[DONE]".equals(data)) {
+            return false;
+        }
+        Map<?, ?> event;
+        try {
+            event = STREAM_MAPPER.readValue(data, Map.class);
+        } catch (JacksonException ex) {
+            logger.warn("Skipping unparseable OpenAI stream event (model={}, length={})", model, data.length());
+            return false;
+        }
+        Object type = event.get("type");
+        if ("response.output_text.delta".equals(type) && event.get("delta") instanceof String delta) {
+            output.append(delta);
+            // Structured output is validated as it arrives so a broken answer does not keep the connection busy.
+            validator.feed(delta);
+            if (validator.failure() != null) {
+                throw new LlmRequestException("Streamed output rejected: " + validator.failure(), null, false, null);
+            }
+            LlmStreamProgress.report(output.length());
+            return false;
+        }
+        // An incomplete response keeps whatever text it produced, as on the buffered path.
+        if ("response.completed".equals(type) || "response.incomplete".equals(type)) {
+            if (output.isEmpty() && event.get("response") instanceof Map<?, ?> completed) {
+                String text = extractOutputText(completed);
+                if (text != null) {
+                    output.append(text);
+                }
+            }
+            return true;
+        }
+        if ("response.failed".equals(type) || "error".equals(type)) {
+            throw streamFailure(event);
+        }
+        return false;
+    }
+
+    // Stream errors arrive after a 200, so they carry the status the buffered call would have had; otherwise the
+    // limiter never sees a 429 and does not back off in streaming mode.
+    private LlmRequestException streamFailure(Map<?, ?> event) {
+        Object error = event.get("error");
+        if (error == null && event.get("response") instanceof Map<?, ?> response) {
+            error = response.get("error");
+        }
+        if (error == null && "error".equals(event.get("type"))) {
+            error = event;
+        }
+        String code = null;
+        String message = null;
+        if (error instanceof Map<?, ?> errorMap) {
+            code = errorMap.get("code") == null ? null : errorMap.get("code").toString();
+            message = errorMap.get("message") == null ? null : errorMap.get("message").toString();
+        }
+        Integer statusCode = streamErrorStatus(code);
+        String text = message == null || message.isBlank() ? "Streamed response failed" : message;
+        return new LlmRequestException(text, statusCode, statusCode != null, null);
+    }
+
+    private Integer streamErrorStatus(String code) {
+        if (code == null) {
+            return null;
+        }
+        if (code.startsWith("rate_limit")) {
+            return 429;
+        }
+        if (code.contains("server_error")) {
+            return 500;
+        }
+        return null;
+    }
+
     private String extractOutputText(Map<?, ?> response) {
         if (response == null) {
             return null;
@@ -318,6 +472,17 @@ public class OpenAiLlmClient implements LlmClient, KnowledgeBaseLlmProvider {
         return type == null || "output_text".equals(type.toString());
     }
 
+    // Every endpoint maps failures the same way, so throttling and Retry-After reach the limiter from any call path.
+    private LlmRequestException requestFailure(Exception ex, Map<String, Object> request) {
+        if (ex instanceof RestClientResponseException responseEx) {
+            logResponseError(responseEx, request);
+            return new LlmRequestException(safeMessage(ex), responseEx.getStatusCode().value(), isRetryable(responseEx),
+                    retryAfter(responseEx), ex);
+        }
+        logRequestError(ex, request);
+        return new LlmRequestException(safeMessage(ex), null, ex instanceof ResourceAccessException, ex);
+    }
+
     private boolean isRetryable(RestClientResponseException ex) {
         if (ex == null || ex.getStatusCode() == null) {
             return false;
@@ -326,7 +491,33 @@ public class OpenAiLlmClient implements LlmClient, KnowledgeBaseLlmProvider {
         return status == 408 || status == 429 || status >= 500;
     }
 
-    private Duration ensureMinimumTimeout(Duration value, Duration minimum) {
+    private Duration retryAfter(RestClientResponseException ex) {
+        String value = ex.getResponseHeaders() == null ? null : ex.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException ignored) {
+            // HTTP-date form
+        }
+        try {
+            ZonedDateTime until = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration delay = Duration.between(ZonedDateTime.now(until.getZone()), until);
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException ignored) {
+            return null;
+        }
+    }
+
+    private static ClientHttpRequestFactory simpleRequestFactory(Duration connectTimeout, Duration readTimeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(ensureMinimumTimeout(connectTimeout, DEFAULT_CONNECT_TIMEOUT));
+        requestFactory.setReadTimeout(ensureMinimumTimeout(readTimeout, DEFAULT_READ_TIMEOUT));
+        return requestFactory;
+    }
+
+    private static Duration ensureMinimumTimeout(Duration value, Duration minimum) {
         if (value == null) {
             return minimum;
         }
@@ -343,13 +534,13 @@ public class OpenAiLlmClient implements LlmClient, KnowledgeBaseLlmProvider {
         int bodyLength = ex.getResponseBodyAsByteArray() == null ? 0 : ex.getResponseBodyAsByteArray().length;
         String effort = extractReasoningEffort(request);
         int status = ex.getStatusCode() == null ? 0 : ex.getStatusCode().value();
-        logger.error("OpenAI responses API error (model={}, effort={}, status={}, contentType={}, bodyLength={})",
+        logger.error("OpenAI API error (model={}, effort={}, status={}, contentType={}, bodyLength={})",
                 model, effort, status, contentType, bodyLength, ex);
     }
 
     private void logRequestError(Exception ex, Map<String, Object> request) {
         String effort = extractReasoningEffort(request);
-        logger.error("OpenAI responses API request failed (model={}, effort={}, error={})",
+        logger.error("OpenAI API request failed (model={}, effort={}, error={})",
                 model, effort, safeMessage(ex), ex);
     }
 
@@ -0,0 +1,138 @@
+package my.portfoliomanager.app.repository;
+
+import my.portfoliomanager.app.domain.Instrument;
+import my.portfoliomanager.app.domain.InstrumentOverride;
+import my.portfoliomanager.app.domain.SavingPlan;
+import my.portfoliomanager.app.domain.SnapshotPosition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+// JDBC batch upserts for the CSV/statement import paths. Rows are written with INSERT ... ON CONFLICT in batches
+// instead of one JPA merge per row, which costs a SELECT per assigned-id entity and cannot be batched at all for
+// IDENTITY ids (sparplans). Callers must not rely on entities of these tables loaded earlier in the same persistence
+// context being refreshed by these writes.
+@Repository
+public class BulkUpsertRepository {
+	static final int BATCH_SIZE = 500;
+
+	// Existing instruments keep a non-blank name; the WHERE clause skips no-op updates so the effective-instrument
+	// and data-version triggers only fire for rows that actually changed.
+	private static final String UPSERT_INSTRUMENT_SQL = """
+			insert into instruments (isin, name, depot_code, layer, layer_last_changed, is_deleted)
+			values (?, ?, ?, ?, ?, false)
+			on conflict (isin) do update set
+				name = case when coalesce(btrim(instruments.name), '') = '' then excluded.name else instruments.name end,
+				depot_code = excluded.depot_code,
+				is_deleted = false
+			where instruments.depot_code is distinct from excluded.depot_code
+				or instruments.is_deleted
+				or coalesce(btrim(instruments.name), '') = ''
+			""";
+
+	private static final String UPSERT_SNAPSHOT_POSITION_SQL = """
+			insert into snapshot_positions (snapshot_id, isin, name, shares, value_eur, currency)
+			values (?, ?, ?, ?, ?, ?)
+			on conflict (snapshot_id, isin) do update set
+				name = excluded.name,
+				shares = excluded.shares,
+				value_eur = excluded.value_eur,
+				currency = excluded.currency
+			""";
+
+	private static final String UPSERT_SAVING_PLAN_SQL = """
+			insert into sparplans (depot_id, isin, name, amount_eur, frequency, day_of_month, active, last_changed)
+			values (?, ?, ?, ?, ?, ?, ?, ?)
+			on conflict (depot_id, isin) do update set
+				name = excluded.name,
+				amount_eur = excluded.amount_eur,
+				frequency = excluded.frequency,
+				day_of_month = excluded.day_of_month,
+				active = excluded.active,
+				last_changed = excluded.last_changed
+			""";
+
+	private static final String UPSERT_OVERRIDE_SQL = """
+			insert into instrument_overrides (isin, name, instrument_type, asset_class, sub_class, layer,
+				layer_last_changed, layer_notes, updated_at)
+			values (?, ?, ?, ?, ?, ?, ?, ?, ?)
+			on conflict (isin) do update set
+				name = excluded.name,
+				instrument_type = excluded.instrument_type,
+				asset_class = excluded.asset_class,
+				sub_class = excluded.sub_class,
+				layer = excluded.layer,
+				layer_last_changed = excluded.layer_last_changed,
+				layer_notes = excluded.layer_notes,
+				updated_at = excluded.updated_at
+			""";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public BulkUpsertRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	public void upsertInstruments(List<Instrument> instruments) {
+		if (instruments == null || instruments.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate(UPSERT_INSTRUMENT_SQL, instruments, BATCH_SIZE, (ps, instrument) -> {
+			ps.setString(1, instrument.getIsin());
+			ps.setString(2, instrument.getName());
+			ps.setString(3, instrument.getDepotCode());
+			ps.setInt(4, instrument.getLayer());
+			ps.setObject(5, instrument.getLayerLastChanged(), Types.DATE);
+		});
+	}
+
+	public void upsertSnapshotPositions(List<SnapshotPosition> positions) {
+		if (positions == null || positions.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate(UPSERT_SNAPSHOT_POSITION_SQL, positions, BATCH_SIZE, (ps, position) -> {
+			ps.setLong(1, position.getId().getSnapshotId());
+			ps.setString(2, position.getId().getIsin());
+			ps.setString(3, position.getName());
+			ps.setObject(4, position.getShares(), Types.NUMERIC);
+			ps.setObject(5, position.getValueEur(), Types.NUMERIC);
+			ps.setString(6, position.getCurrency());
+		});
+	}
+
+	public void upsertSavingPlans(List<SavingPlan> savingPlans) {
+		if (savingPlans == null || savingPlans.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate(UPSERT_SAVING_PLAN_SQL, savingPlans, BATCH_SIZE, (ps, savingPlan) -> {
+			ps.setLong(1, savingPlan.getDepotId());
+			ps.setString(2, savingPlan.getIsin());
+			ps.setString(3, savingPlan.getName());
+			ps.setBigDecimal(4, savingPlan.getAmountEur());
+			ps.setString(5, savingPlan.getFrequency());
+			ps.setObject(6, savingPlan.getDayOfMonth(), Types.INTEGER);
+			ps.setBoolean(7, savingPlan.isActive());
+			ps.setObject(8, savingPlan.getLastChanged(), Types.DATE);
+		});
+	}
+
+	public void upsertOverrides(List<InstrumentOverride> overrides) {
+		if (overrides == null || overrides.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate(UPSERT_OVERRIDE_SQL, overrides, BATCH_SIZE, (ps, override) -> {
+			ps.setString(1, override.getIsin());
+			ps.setString(2, override.getName());
+			ps.setString(3, override.getInstrumentType());
+			ps.setString(4, override.getAssetClass());
+			ps.setString(5, override.getSubClass());
+			ps.setObject(6, override.getLayer(), Types.INTEGER);
+			ps.setObject(7, override.getLayerLastChanged(), Types.DATE);
+			ps.setString(8, override.getLayerNotes());
+			ps.setTimestamp(9, Timestamp.valueOf(override.getUpdatedAt()));
+		});
+	}
+}
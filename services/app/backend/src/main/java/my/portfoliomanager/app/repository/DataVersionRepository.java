@@ -0,0 +1,51 @@
+package my.portfoliomanager.app.repository;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-table write versions (changeset 024). Statement triggers bump the row of the table they fire on, so writers to
+// different tables never wait on each other; cached results compare the versions of every table they were built from.
+@Repository
+public class DataVersionRepository {
+	public static final List<String> PORTFOLIO_TABLES =
+			List.of("depots", "snapshots", "snapshot_positions", "instruments_effective");
+	public static final List<String> RUN_INPUT_TABLES = List.of("sparplans", "layer_target_config",
+			"knowledge_base_extractions", "instrument_dossiers", "instrument_dossier_extractions", "instrument_blacklists",
+			"kb_config", "llm_config");
+
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	public DataVersionRepository(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+	}
+
+	// Versions in the order of the given tables; null when one of them has no row or the table cannot be read.
+	public List<Long> read(List<String> tables) {
+		Map<String, Long> versions = new HashMap<>();
+		try {
+			namedParameterJdbcTemplate.query("SELECT table_name, version FROM data_versions WHERE table_name IN (:tables)",
+					new MapSqlParameterSource("tables", tables),
+					rs -> {
+						versions.put(rs.getString("table_name"), rs.getLong("version"));
+					});
+		} catch (DataAccessException ex) {
+			return null;
+		}
+		List<Long> result = new ArrayList<>(tables.size());
+		for (String table : tables) {
+			Long version = versions.get(table);
+			if (version == null) {
+				return null;
+			}
+			result.add(version);
+		}
+		return List.copyOf(result);
+	}
+}
@@ -0,0 +1,71 @@
+package my.portfoliomanager.app.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+// Uploaded statements waiting for their depot-import job (changeset 029). The content lives in the database
+// rather than on local disk because the job may be claimed by another replica; rows go away with their job. It is
+// written and read one chunk per statement, so at most one chunk of a statement is held in memory.
+@Repository
+public class ImportUploadRepository {
+	static final int CHUNK_SIZE = 1024 * 1024;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public ImportUploadRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	// Callers run this in the transaction that enqueues the job, so the chunks become visible together.
+	public void insert(String jobId, Path content) {
+		jdbcTemplate.update("INSERT INTO import_uploads (job_id) VALUES (?)", jobId);
+		try (InputStream in = Files.newInputStream(content)) {
+			byte[] buffer = new byte[CHUNK_SIZE];
+			int chunkNo = 0;
+			int read;
+			while ((read = in.readNBytes(buffer, 0, buffer.length)) > 0) {
+				byte[] data = read == buffer.length ? buffer : Arrays.copyOf(buffer, read);
+				jdbcTemplate.update("INSERT INTO import_upload_chunks (job_id, chunk_no, data) VALUES (?, ?, ?)",
+						jobId, chunkNo++, data);
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	// Returns false when no upload is stored for the job.
+	public boolean copyContent(String jobId, Path target) {
+		Integer found = jdbcTemplate.queryForObject("SELECT count(*) FROM import_uploads WHERE job_id = ?",
+				Integer.class, jobId);
+		if (found == null || found == 0) {
+			return false;
+		}
+		try (OutputStream out = Files.newOutputStream(target)) {
+			for (int chunkNo = 0; ; chunkNo++) {
+				List<byte[]> chunk = jdbcTemplate.query(
+						"SELECT data FROM import_upload_chunks WHERE job_id = ? AND chunk_no = ?",
+						(rs, rowNum) -> rs.getBytes(1), jobId, chunkNo);
+				if (chunk.isEmpty()) {
+					break;
+				}
+				out.write(chunk.get(0));
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return true;
+	}
+
+	public void delete(String jobId) {
+		jdbcTemplate.update("DELETE FROM import_uploads WHERE job_id = ?", jobId);
+	}
+}
@@ -0,0 +1,192 @@
+package my.portfoliomanager.app.repository;
+
+import my.portfoliomanager.app.repository.projection.InstrumentDossierSearchRow;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Reads the per-ISIN instrument_dossier_search summary maintained by triggers (changeset 025). Sort columns are
+// whitelisted, so ORDER BY and keyset predicates can be plain column comparisons instead of CASE expressions.
+@Repository
+public class InstrumentDossierSearchRepository {
+	public static final String SORT_ISIN = "isin";
+	public static final String SORT_UPDATED_AT = "updatedAt";
+
+	private static final Map<String, String> RANK_COLUMNS = Map.of(
+			"status", "status_rank",
+			"approvalStatus", "approval_rank",
+			"extractionStatus", "extraction_rank",
+			"freshnessStatus", "freshness_rank",
+			"blacklistStatus", "blacklist_rank"
+	);
+
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	public InstrumentDossierSearchRepository(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+	}
+
+	public long count(Criteria criteria) {
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		String sql = "SELECT COUNT(*) FROM instrument_dossier_search s WHERE " + where(criteria, params);
+		Long total = namedParameterJdbcTemplate.queryForObject(sql, params, Long.class);
+		return total == null ? 0L : total;
+	}
+
+	public List<InstrumentDossierSearchRow> search(Criteria criteria,
+												   String sortBy,
+												   String sortDirection,
+												   Keyset after,
+												   int limit,
+												   int offset) {
+		boolean descending = "desc".equals(sortDirection);
+		String direction = descending ? "DESC" : "ASC";
+		String comparison = descending ? "<" : ">";
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		StringBuilder sql = new StringBuilder("""
+				SELECT s.isin, s.name, s.effective_layer, s.dossier_id, s.dossier_status, s.dossier_updated_at,
+				       s.dossier_version, s.dossier_approved_at, s.approval_status, s.latest_extraction_status,
+				       s.blacklist_scope, s.blacklist_pending_change, s.extraction_freshness, s.isin_key,
+				       s.dossier_approved_at IS NOT NULL AS has_approved_dossier,
+				       s.extraction_approved_at IS NOT NULL AS has_approved_extraction,
+				       COALESCE(s.dossier_approved_at < :staleBefore, FALSE) AS stale,
+				""");
+		String sortColumn;
+		String orderBy;
+		if (SORT_ISIN.equals(sortBy)) {
+			sortColumn = null;
+			orderBy = "s.isin_key " + direction;
+		} else if (SORT_UPDATED_AT.equals(sortBy)) {
+			sortColumn = "s.dossier_updated_at";
+			orderBy = "s.dossier_updated_at " + direction + " NULLS LAST, s.isin_key ASC";
+		} else {
+			String rankColumn = RANK_COLUMNS.get(sortBy);
+			if (rankColumn == null) {
+				throw new IllegalArgumentException("Invalid sort field.");
+			}
+			sortColumn = "s." + rankColumn;
+			orderBy = sortColumn + " " + direction + ", s.isin_key ASC";
+		}
+		sql.append(sortColumn == null ? "NULL" : sortColumn).append(" AS sort_value\n");
+		sql.append("FROM instrument_dossier_search s\nWHERE ").append(where(criteria, params));
+		params.addValue("staleBefore", criteria.staleBefore());
+		if (after != null) {
+			params.addValue("afterIsin", after.isinKey());
+			if (sortColumn == null) {
+				sql.append("\n  AND s.isin_key ").append(comparison).append(" :afterIsin");
+			} else if (SORT_UPDATED_AT.equals(sortBy)) {
+				if (after.sortValue() == null) {
+					sql.append("\n  AND s.dossier_updated_at IS NULL AND s.isin_key > :afterIsin");
+				} else {
+					params.addValue("afterValue", parseTimestamp(after.sortValue()));
+					sql.append("\n  AND (s.dossier_updated_at IS NULL OR s.dossier_updated_at ").append(comparison)
+							.append(" :afterValue OR (s.dossier_updated_at = :afterValue AND s.isin_key > :afterIsin))");
+				}
+			} else {
+				params.addValue("afterValue", parseRank(after.sortValue()));
+				sql.append("\n  AND (").append(sortColumn).append(' ').append(comparison).append(" :afterValue OR (")
+						.append(sortColumn).append(" = :afterValue AND s.isin_key > :afterIsin))");
+			}
+		}
+		sql.append("\nORDER BY ").append(orderBy).append("\nLIMIT :limit OFFSET :offset");
+		params.addValue("limit", limit);
+		params.addValue("offset", offset);
+		return namedParameterJdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> toRow(rs));
+	}
+
+	private String where(Criteria criteria, MapSqlParameterSource params) {
+		StringBuilder where = new StringBuilder("TRUE");
+		if (criteria.queryContainsPattern() != null) {
+			params.addValue("query", criteria.queryContainsPattern());
+			where.append("""
+
+					  AND (s.isin_key LIKE :query ESCAPE '\\'
+					    OR lower(s.name) LIKE :query ESCAPE '\\'
+					    OR lower(s.dossier_display_name) LIKE :query ESCAPE '\\')""");
+		}
+		appendEquals(where, params, "s.dossier_status", "status", criteria.status());
+		appendEquals(where, params, "s.approval_status", "approvalStatus", criteria.approvalStatus());
+		appendEquals(where, params, "s.latest_extraction_status", "extractionStatus", criteria.extractionStatus());
+		appendEquals(where, params, "s.extraction_freshness", "freshnessStatus", criteria.freshnessStatus());
+		appendEquals(where, params, "s.blacklist_scope", "blacklistStatus", criteria.blacklistStatus());
+		if (criteria.stale() != null) {
+			params.addValue("staleBefore", criteria.staleBefore());
+			where.append(Boolean.TRUE.equals(criteria.stale())
+					? "\n  AND s.dossier_approved_at < :staleBefore"
+					: "\n  AND (s.dossier_approved_at IS NULL OR s.dossier_approved_at >= :staleBefore)");
+		}
+		return where.toString();
+	}
+
+	private void appendEquals(StringBuilder where, MapSqlParameterSource params, String column, String name, String value) {
+		if (value == null) {
+			return;
+		}
+		params.addValue(name, value);
+		where.append("\n  AND ").append(column).append(" = :").append(name);
+	}
+
+	private InstrumentDossierSearchRow toRow(ResultSet rs) throws SQLException {
+		Object sortValue = rs.getObject("sort_value");
+		if (sortValue instanceof java.sql.Timestamp timestamp) {
+			sortValue = timestamp.toLocalDateTime();
+		}
+		return new InstrumentDossierSearchRow(
+				rs.getString("isin"),
+				rs.getString("name"),
+				rs.getObject("effective_layer", Integer.class),
+				rs.getObject("dossier_id", Long.class),
+				rs.getString("dossier_status"),
+				rs.getObject("dossier_updated_at", LocalDateTime.class),
+				rs.getObject("dossier_version", Integer.class),
+				rs.getObject("dossier_approved_at", LocalDateTime.class),
+				rs.getString("approval_status"),
+				rs.getString("latest_extraction_status"),
+				rs.getString("blacklist_scope"),
+				rs.getBoolean("blacklist_pending_change"),
+				rs.getBoolean("has_approved_dossier"),
+				rs.getBoolean("has_approved_extraction"),
+				rs.getBoolean("stale"),
+				rs.getString("extraction_freshness"),
+				rs.getString("isin_key"),
+				sortValue == null ? null : sortValue.toString()
+		);
+	}
+
+	private LocalDateTime parseTimestamp(String value) {
+		try {
+			return LocalDateTime.parse(value);
+		} catch (RuntimeException ex) {
+			throw new IllegalArgumentException("Invalid cursor.");
+		}
+	}
+
+	private int parseRank(String value) {
+		try {
+			return Integer.parseInt(value);
+		} catch (RuntimeException ex) {
+			throw new IllegalArgumentException("Invalid cursor.");
+		}
+	}
+
+	public record Criteria(String queryContainsPattern,
+						   String status,
+						   String approvalStatus,
+						   String extractionStatus,
+						   String freshnessStatus,
+						   String blacklistStatus,
+						   Boolean stale,
+						   LocalDateTime staleBefore) {
+	}
+
+	// Position of the last row of the previous page: its sort column value (null for ISIN sorting or a missing
+	// update timestamp) and its lower-cased ISIN as tie-breaker.
+	public record Keyset(String sortValue, String isinKey) {
+	}
+}
@@ -0,0 +1,331 @@
+package my.portfoliomanager.app.repository;
+
+import my.portfoliomanager.app.domain.JobStatus;
+import my.portfoliomanager.app.repository.projection.JobEventRow;
+import my.portfoliomanager.app.repository.projection.JobRow;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Rows of the jobs table (changeset 027) and their event log (changeset 028). A RUNNING row belongs to the worker
+// named in lease_owner until lease_expires_at; every write made on behalf of a running job is guarded by that owner, so
+// a worker that lost its lease cannot overwrite the state of the replica that took the job over.
+@Repository
+public class JobQueueRepository {
+	private static final String COLUMNS = """
+			job_id, job_type, status, payload, progress, result, message, error, created_by, attempts,
+			cancel_requested, created_at, updated_at, finished_at
+			""";
+
+	private static final RowMapper<JobRow> ROW_MAPPER = (rs, rowNum) -> new JobRow(
+			rs.getString("job_id"),
+			rs.getString("job_type"),
+			JobStatus.valueOf(rs.getString("status")),
+			rs.getString("payload"),
+			rs.getString("progress"),
+			rs.getString("result"),
+			rs.getString("message"),
+			rs.getString("error"),
+			rs.getString("created_by"),
+			rs.getInt("attempts"),
+			rs.getBoolean("cancel_requested"),
+			rs.getObject("created_at", LocalDateTime.class),
+			rs.getObject("updated_at", LocalDateTime.class),
+			rs.getObject("finished_at", LocalDateTime.class)
+	);
+
+	private static final RowMapper<JobEventRow> EVENT_ROW_MAPPER = (rs, rowNum) -> new JobEventRow(
+			rs.getLong("event_id"),
+			rs.getString("job_id"),
+			rs.getString("event_type"),
+			rs.getString("data"),
+			rs.getObject("created_at", LocalDateTime.class)
+	);
+
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	public JobQueueRepository(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+	}
+
+	public JobRow insert(String jobId,
+						 String jobType,
+						 JobStatus status,
+						 String payload,
+						 String progress,
+						 String result,
+						 String message,
+						 String createdBy,
+						 int maxAttempts,
+						 long retentionSeconds) {
+		boolean finished = !status.isActive();
+		MapSqlParameterSource params = new MapSqlParameterSource()
+				.addValue("jobId", jobId)
+				.addValue("jobType", jobType)
+				.addValue("status", status.name())
+				.addValue("payload", payload)
+				.addValue("progress", progress)
+				.addValue("result", result)
+				.addValue("message", message)
+				.addValue("createdBy", createdBy)
+				.addValue("maxAttempts", maxAttempts)
+				.addValue("retentionSeconds", retentionSeconds)
+				.addValue("finished", finished);
+		String sql = """
+				INSERT INTO jobs (job_id, job_type, status, payload, progress, result, message, created_by,
+				                  max_attempts, retention_seconds, finished_at, expires_at)
+				VALUES (:jobId, :jobType, :status, CAST(:payload AS jsonb), CAST(:progress AS jsonb),
+				        CAST(:result AS jsonb), :message, :createdBy, :maxAttempts, :retentionSeconds,
+				        CASE WHEN :finished THEN now() END,
+				        CASE WHEN :finished THEN now() + :retentionSeconds * interval '1 second' END)
+				RETURNING
+				""" + COLUMNS;
+		return namedParameterJdbcTemplate.queryForObject(sql, params, ROW_MAPPER);
+	}
+
+	public Optional<JobRow> findById(String jobId) {
+		String sql = "SELECT " + COLUMNS + "FROM jobs WHERE job_id = :jobId";
+		return namedParameterJdbcTemplate.query(sql, new MapSqlParameterSource("jobId", jobId), ROW_MAPPER)
+				.stream()
+				.findFirst();
+	}
+
+	public List<JobRow> findByType(String jobType) {
+		String sql = "SELECT " + COLUMNS + "FROM jobs WHERE job_type = :jobType ORDER BY updated_at DESC, job_id";
+		return namedParameterJdbcTemplate.query(sql, new MapSqlParameterSource("jobType", jobType), ROW_MAPPER);
+	}
+
+	// The advisory lock serializes claims per job type across replicas, so the running count read below cannot be
+	// raced past maxConcurrency. SKIP LOCKED keeps claims from waiting on rows that are being cancelled or updated.
+	// Rows whose lease expired are claimed again until they run out of attempts.
+	@Transactional
+	public List<JobRow> claim(String jobType, int maxConcurrency, int limit, String owner, long leaseSeconds) {
+		MapSqlParameterSource params = new MapSqlParameterSource()
+				.addValue("lockKey", "jobs:" + jobType)
+				.addValue("jobType", jobType)
+				.addValue("maxConcurrency", maxConcurrency)
+				.addValue("limit", limit)
+				.addValue("owner", owner)
+				.addValue("leaseSeconds", leaseSeconds);
+		namedParameterJdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext(:lockKey))", params, rs -> {
+		});
+		String sql = """
+				WITH active AS (
+				  SELECT COUNT(*) AS running
+				  FROM jobs
+				  WHERE job_type = :jobType AND status = 'RUNNING' AND lease_expires_at >= now()
+				), candidates AS (
+				  SELECT job_id
+				  FROM jobs
+				  WHERE job_type = :jobType
+				    AND NOT cancel_requested
+				    AND (status = 'QUEUED' OR (status = 'RUNNING' AND lease_expires_at < now() AND attempts < max_attempts))
+				  ORDER BY created_at, job_id
+				  LIMIT GREATEST(LEAST(:limit, :maxConcurrency - (SELECT running FROM active)), 0)
+				  FOR UPDATE SKIP LOCKED
+				)
+				UPDATE jobs j
+				SET status = 'RUNNING',
+				    lease_owner = :owner,
+				    lease_expires_at = now() + :leaseSeconds * interval '1 second',
+				    heartbeat_at = now(),
+				    started_at = COALESCE(j.started_at, now()),
+				    attempts = j.attempts + 1,
+				    updated_at = now()
+				FROM candidates c
+				WHERE j.job_id = c.job_id
+				RETURNING
+				""" + prefixed(COLUMNS);
+		return namedParameterJdbcTemplate.query(sql, params, ROW_MAPPER);
+	}
+
+	// Extends the leases of the given jobs and reports their cancel flags. Jobs missing from the result are no longer
+	// held by this owner.
+	public Map<String, Boolean> heartbeat(String owner, Collection<String> jobIds, long leaseSeconds) {
+		Map<String, Boolean> alive = new HashMap<>();
+		if (jobIds == null || jobIds.isEmpty()) {
+			return alive;
+		}
+		MapSqlParameterSource params = new MapSqlParameterSource()
+				.addValue("owner", owner)
+				.addValue("jobIds", jobIds)
+				.addValue("leaseSeconds", leaseSeconds);
+		String sql = """
+				UPDATE jobs
+				SET lease_expires_at = now() + :leaseSeconds * interval '1 second',
+				    heartbeat_at = now()
+				WHERE job_id IN (:jobIds) AND lease_owner = :owner AND status = 'RUNNING'
+				RETURNING job_id, cancel_requested
+				""";
+		namedParameterJdbcTemplate.query(sql, params, rs -> {
+			alive.put(rs.getString("job_id"), rs.getBoolean("cancel_requested"));
+		});
+		return alive;
+	}
+
+	// Null arguments leave the stored value untouched.
+	public boolean updateProgress(String jobId, String owner, String message, String progress, String result) {
+		MapSqlParameterSource params = new MapSqlParameterSource()
+				.addValue("jobId", jobId)
+				.addValue("owner", owner)
+				.addValue("message", message)
+				.addValue("progress", progress)
+				.addValue("result", result);
+		String sql = """
+				UPDATE jobs
+				SET message = COALESCE(:message, message),
+				    progress = COALESCE(CAST(:progress AS jsonb), progress),
+				    result = COALESCE(CAST(:result AS jsonb), result),
+				    updated_at = now()
+				WHERE job_id = :jobId AND lease_owner = :owner AND status = 'RUNNING'
+				""";
+		return namedParameterJdbcTemplate.update(sql, params) > 0;
+	}
+
+	public boolean complete(String jobId,
+							String owner,
+							JobStatus status,
+							String message,
+							String error,
+							String result) {
+		MapSqlParameterSource params = new MapSqlParameterSource()
+				.addValue("jobId", jobId)
+				.addValue("owner", owner)
+				.addValue("status", status.name())
+				.addValue("message", message)
+				.addValue("error", error)
+				.addValue("result", result);
+		String sql = """
+				UPDATE jobs
+				SET status = :status,
+				    message = COALESCE(:message, message),
+				    error = :error,
+				    result = COALESCE(CAST(:result AS jsonb), result),
+				    lease_owner = NULL,
+				    lease_expires_at = NULL,
+				    finished_at = now(),
+				    updated_at = now(),
+				    expires_at = now() + retention_seconds * interval '1 second'
+				WHERE job_id = :jobId AND lease_owner = :owner AND status = 'RUNNING'
+				""";
+		return namedParameterJdbcTemplate.update(sql, params) > 0;
+	}
+
+	// Queued jobs are cancelled right away; running jobs are flagged and stopped by the worker holding the lease.
+	public Optional<JobRow> requestCancel(String jobId) {
+		String sql = """
+				UPDATE jobs
+				SET cancel_requested = TRUE,
+				    status = CASE WHEN status = 'QUEUED' THEN 'CANCELED' ELSE status END,
+				    message = CASE WHEN status = 'QUEUED' THEN 'Canceled' ELSE 'Cancel requested' END,
+				    finished_at = CASE WHEN status = 'QUEUED' THEN now() ELSE finished_at END,
+				    expires_at = CASE WHEN status = 'QUEUED' THEN now() + retention_seconds * interval '1 second' END,
+				    updated_at = now()
+				WHERE job_id = :jobId AND status IN ('QUEUED', 'RUNNING')
+				RETURNING
+				""" + COLUMNS;
+		return namedParameterJdbcTemplate.query(sql, new MapSqlParameterSource("jobId", jobId), ROW_MAPPER)
+				.stream()
+				.findFirst();
+	}
+
+	public boolean deleteFinished(String jobId) {
+		String sql = "DELETE FROM jobs WHERE job_id = :jobId AND status NOT IN ('QUEUED', 'RUNNING')";
+		return namedParameterJdbcTemplate.update(sql, new MapSqlParameterSource("jobId", jobId)) > 0;
+	}
+
+	// Hands the jobs of a stopping worker back to the queue without charging the attempt it gave up.
+	public int release(String owner) {
+		String sql = """
+				UPDATE jobs
+				SET status = CASE WHEN cancel_requested THEN 'CANCELED' ELSE 'QUEUED' END,
+				    message = CASE WHEN cancel_requested THEN 'Canceled' ELSE message END,
+				    attempts = GREATEST(attempts - 1, 0),
+				    lease_owner = NULL,
+				    lease_expires_at = NULL,
+				    finished_at = CASE WHEN cancel_requested THEN now() END,
+				    expires_at = CASE WHEN cancel_requested THEN now() + retention_seconds * interval '1 second' END,
+				    updated_at = now()
+				WHERE lease_owner = :owner AND status = 'RUNNING'
+				""";
+		return namedParameterJdbcTemplate.update(sql, new MapSqlParameterSource("owner", owner));
+	}
+
+	// Finishes jobs whose worker vanished and that may not be claimed again.
+	public int failAbandoned() {
+		String sql = """
+				UPDATE jobs
+				SET status = CASE WHEN cancel_requested THEN 'CANCELED' ELSE 'FAILED' END,
+				    message = CASE WHEN cancel_requested THEN 'Canceled' ELSE 'Job lease expired' END,
+				    error = CASE WHEN cancel_requested THEN error ELSE 'Job lease expired' END,
+				    lease_owner = NULL,
+				    lease_expires_at = NULL,
+				    finished_at = now(),
+				    updated_at = now(),
+				    expires_at = now() + retention_seconds * interval '1 second'
+				WHERE status = 'RUNNING'
+				  AND lease_expires_at < now()
+				  AND (cancel_requested OR attempts >= max_attempts)
+				""";
+		return namedParameterJdbcTemplate.update(sql, new MapSqlParameterSource());
+	}
+
+	public int deleteExpired() {
+		return namedParameterJdbcTemplate.update("DELETE FROM jobs WHERE expires_at < now()", new MapSqlParameterSource());
+	}
+
+	// Status and progress events are written by the jobs trigger (changeset 028); this is for events a handler
+	// publishes itself, such as completed items. Only the lease owner may publish. Locking the job row serializes this
+	// insert with the trigger writes of the same job, so a job's event ids commit in order and a reader resuming after
+	// the last id it saw cannot skip an event that was still in flight.
+	public boolean insertEvent(String jobId, String owner, String eventType, String data) {
+		MapSqlParameterSource params = new MapSqlParameterSource()
+				.addValue("jobId", jobId)
+				.addValue("owner", owner)
+				.addValue("eventType", eventType)
+				.addValue("data", data);
+		String sql = """
+				INSERT INTO job_events (job_id, event_type, data)
+				SELECT job_id, :eventType, CAST(:data AS jsonb)
+				FROM jobs
+				WHERE job_id = :jobId AND lease_owner = :owner AND status = 'RUNNING'
+				FOR UPDATE
+				""";
+		return namedParameterJdbcTemplate.update(sql, params) > 0;
+	}
+
+	public List<JobEventRow> findEvents(String jobId, long afterEventId, int limit) {
+		MapSqlParameterSource params = new MapSqlParameterSource()
+				.addValue("jobId", jobId)
+				.addValue("afterEventId", afterEventId)
+				.addValue("limit", limit);
+		String sql = """
+				SELECT event_id, job_id, event_type, data, created_at
+				FROM job_events
+				WHERE job_id = :jobId AND event_id > :afterEventId
+				ORDER BY event_id
+				LIMIT :limit
+				""";
+		return namedParameterJdbcTemplate.query(sql, params, EVENT_ROW_MAPPER);
+	}
+
+	private static String prefixed(String columns) {
+		StringBuilder result = new StringBuilder();
+		for (String column : columns.split(",")) {
+			if (!result.isEmpty()) {
+				result.append(", ");
+			}
+			result.append("j.").append(column.trim());
+		}
+		return result.append('\n').toString();
+	}
+}
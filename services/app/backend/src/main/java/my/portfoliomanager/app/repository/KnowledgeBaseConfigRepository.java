@@ -2,6 +2,10 @@ package my.portfoliomanager.app.repository;
 
 import my.portfoliomanager.app.domain.KnowledgeBaseConfig;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface KnowledgeBaseConfigRepository extends JpaRepository<KnowledgeBaseConfig, Integer> {
+	@Query(value = "select cast(xmin as text) from kb_config where id = :id", nativeQuery = true)
+	String findVersionById(@Param("id") Integer id);
 }
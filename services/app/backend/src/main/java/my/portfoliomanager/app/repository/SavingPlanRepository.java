@@ -5,12 +5,15 @@ import my.portfoliomanager.app.repository.projection.SavingPlanListProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface SavingPlanRepository extends JpaRepository<SavingPlan, Long> {
 	Optional<SavingPlan> findByDepotIdAndIsin(Long depotId, String isin);
 
+	List<SavingPlan> findByDepotIdInAndIsinIn(Collection<Long> depotIds, Collection<String> isins);
+
 	List<SavingPlan> findAllByIsinAndActiveTrueOrderByDepotIdAsc(String isin);
 
 	@Query(value = "select isin, sum(amount_eur) as amount_eur from sparplans where active = true group by isin", nativeQuery = true)
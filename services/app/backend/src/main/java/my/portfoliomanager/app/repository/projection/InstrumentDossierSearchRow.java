@@ -0,0 +1,25 @@
+package my.portfoliomanager.app.repository.projection;
+
+import java.time.LocalDateTime;
+
+public record InstrumentDossierSearchRow(
+		String isin,
+		String name,
+		Integer effectiveLayer,
+		Long dossierId,
+		String dossierStatus,
+		LocalDateTime dossierUpdatedAt,
+		Integer dossierVersion,
+		LocalDateTime dossierApprovedAt,
+		String approvalStatus,
+		String latestExtractionStatus,
+		String blacklistScope,
+		boolean blacklistPendingChange,
+		boolean hasApprovedDossier,
+		boolean hasApprovedExtraction,
+		boolean stale,
+		String extractionFreshness,
+		String isinKey,
+		String sortValue
+) {
+}
@@ -0,0 +1,12 @@
+package my.portfoliomanager.app.repository.projection;
+
+import java.time.LocalDateTime;
+
+public record JobEventRow(
+		long eventId,
+		String jobId,
+		String eventType,
+		String data,
+		LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,23 @@
+package my.portfoliomanager.app.repository.projection;
+
+import my.portfoliomanager.app.domain.JobStatus;
+
+import java.time.LocalDateTime;
+
+public record JobRow(
+		String jobId,
+		String jobType,
+		JobStatus status,
+		String payload,
+		String progress,
+		String result,
+		String message,
+		String error,
+		String createdBy,
+		int attempts,
+		boolean cancelRequested,
+		LocalDateTime createdAt,
+		LocalDateTime updatedAt,
+		LocalDateTime finishedAt
+) {
+}
@@ -0,0 +1,170 @@
+package my.portfoliomanager.app.rules;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public final class CompiledRuleset {
+	private final RulesetDefaults defaults;
+	private final PoliciesDefinition policies;
+	private final List<CompiledRule> rules;
+	private final Map<FactField, List<CompiledRule>> rulesByField;
+
+	private CompiledRuleset(RulesetDefaults defaults,
+							PoliciesDefinition policies,
+							List<CompiledRule> rules,
+							Map<FactField, List<CompiledRule>> rulesByField) {
+		this.defaults = defaults;
+		this.policies = policies;
+		this.rules = rules;
+		this.rulesByField = rulesByField;
+	}
+
+	public static CompiledRuleset compile(RulesetDefinition ruleset) {
+		List<RuleDefinition> definitions = ruleset == null || ruleset.getRules() == null ? List.of() : ruleset.getRules();
+		List<RuleDefinition> sorted = new ArrayList<>(definitions);
+		sorted.sort(Comparator.comparing((RuleDefinition r) -> r.getPriority() == null ? 0 : r.getPriority()).reversed());
+
+		List<CompiledRule> rules = new ArrayList<>(sorted.size());
+		Map<FactField, List<CompiledRule>> rulesByField = new EnumMap<>(FactField.class);
+		for (RuleDefinition definition : sorted) {
+			MatchDefinition match = definition.getMatch();
+			FactField field = match == null ? null : FactField.fromKey(match.getField());
+			CompiledMatch compiledMatch = field == null ? null : CompiledMatch.compile(match);
+			CompiledRule rule = new CompiledRule(rules.size(), definition, field, compiledMatch, score(definition));
+			rules.add(rule);
+			if (compiledMatch != null && !compiledMatch.isNever()) {
+				rulesByField.computeIfAbsent(field, ignored -> new ArrayList<>()).add(rule);
+			}
+		}
+		rulesByField.replaceAll((field, list) -> List.copyOf(list));
+		return new CompiledRuleset(
+				ruleset == null ? null : ruleset.getDefaults(),
+				ruleset == null ? null : ruleset.getPolicies(),
+				List.copyOf(rules),
+				rulesByField
+		);
+	}
+
+	public RulesetDefaults defaults() {
+		return defaults;
+	}
+
+	public PoliciesDefinition policies() {
+		return policies;
+	}
+
+	public List<CompiledRule> rules() {
+		return rules;
+	}
+
+	public Map<FactField, List<CompiledRule>> rulesByField() {
+		return rulesByField;
+	}
+
+	boolean[] match(RuleFacts facts) {
+		boolean[] matched = new boolean[rules.size()];
+		for (Map.Entry<FactField, List<CompiledRule>> entry : rulesByField.entrySet()) {
+			Object value = facts.value(entry.getKey());
+			if (value == null) {
+				continue;
+			}
+			String text = value.toString();
+			String lower = text.toLowerCase(Locale.ROOT);
+			for (CompiledRule rule : entry.getValue()) {
+				matched[rule.index()] = rule.match().test(text, lower);
+			}
+		}
+		return matched;
+	}
+
+	private static int score(RuleDefinition rule) {
+		int base = rule.getScore() == null ? 0 : rule.getScore();
+		ActionsDefinition actions = rule.getActions();
+		if (actions != null && actions.getScoreBoost() != null) {
+			base += actions.getScoreBoost();
+		}
+		return base;
+	}
+
+	public record CompiledRule(int index, RuleDefinition definition, FactField field, CompiledMatch match, int score) {
+	}
+
+	public record CompiledMatch(String operator, String value, Set<String> valueSet, List<String> valueList, Pattern pattern) {
+		public static CompiledMatch compile(MatchDefinition match) {
+			String operator = match.getOperator();
+			if (operator == null) {
+				return never();
+			}
+			return switch (operator) {
+				case "EQ", "CONTAINS" -> match.getValue() == null
+						? never()
+						: new CompiledMatch(operator, "EQ".equals(operator) ? match.getValue() : lower(match.getValue()), null, null, null);
+				case "IN" -> match.getValues() == null ? never() : new CompiledMatch(operator, null, lowerSet(match.getValues()), null, null);
+				case "CONTAINS_ANY" -> match.getValues() == null ? never() : new CompiledMatch(operator, null, null, lowerList(match.getValues()), null);
+				case "REGEX" -> match.getValue() == null
+						? never()
+						: new CompiledMatch(operator, null, null, null, Pattern.compile(match.getValue(), Pattern.CASE_INSENSITIVE));
+				default -> never();
+			};
+		}
+
+		public boolean test(String text, String lower) {
+			return switch (operator) {
+				case "EQ" -> text.equalsIgnoreCase(value);
+				case "IN" -> valueSet.contains(lower);
+				case "CONTAINS" -> lower.contains(value);
+				case "CONTAINS_ANY" -> containsAny(lower);
+				case "REGEX" -> pattern.matcher(text).find();
+				default -> false;
+			};
+		}
+
+		boolean isNever() {
+			return operator == null;
+		}
+
+		private boolean containsAny(String lower) {
+			for (String candidate : valueList) {
+				if (lower.contains(candidate)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private static CompiledMatch never() {
+			return new CompiledMatch(null, null, null, null, null);
+		}
+
+		private static String lower(String value) {
+			return value.toLowerCase(Locale.ROOT);
+		}
+
+		private static Set<String> lowerSet(List<String> values) {
+			Set<String> set = new HashSet<>();
+			for (String value : values) {
+				if (value != null) {
+					set.add(lower(value));
+				}
+			}
+			return Set.copyOf(set);
+		}
+
+		private static List<String> lowerList(List<String> values) {
+			List<String> list = new ArrayList<>();
+			for (String value : values) {
+				if (value != null) {
+					list.add(lower(value));
+				}
+			}
+			return List.copyOf(list);
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package my.portfoliomanager.app.rules;
+
+public enum FactField {
+	ISIN("isin"),
+	NAME("name"),
+	INSTRUMENT_TYPE("instrument_type"),
+	ASSET_CLASS("asset_class"),
+	SUB_CLASS("sub_class"),
+	LAYER("layer"),
+	IS_SAVINGPLAN_ACTIVE(RulesEngine.FACT_IS_SAVINGPLAN_ACTIVE),
+	NAME_NORM(RulesEngine.FACT_NAME_NORM),
+	IS_STOCK(RulesEngine.FACT_IS_STOCK),
+	IS_ETF(RulesEngine.FACT_IS_ETF);
+
+	private final String key;
+
+	FactField(String key) {
+		this.key = key;
+	}
+
+	public String key() {
+		return key;
+	}
+
+	public static FactField fromKey(String key) {
+		if (key == null) {
+			return null;
+		}
+		for (FactField field : values()) {
+			if (field.key.equals(key)) {
+				return field;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,64 @@
+package my.portfoliomanager.app.rules;
+
+import my.portfoliomanager.app.domain.Instrument;
+
+import java.util.Locale;
+
+public record RuleFacts(
+		String isin,
+		String name,
+		String instrumentType,
+		String assetClass,
+		String subClass,
+		Integer layer,
+		boolean savingPlanActive,
+		String nameNorm,
+		boolean stock,
+		boolean etf
+) {
+	public static RuleFacts of(Instrument instrument, boolean isSavingPlanActive) {
+		String name = instrument.getName();
+		String type = instrument.getInstrumentType();
+		return new RuleFacts(
+				instrument.getIsin(),
+				name,
+				type,
+				instrument.getAssetClass(),
+				instrument.getSubClass(),
+				instrument.getLayer(),
+				isSavingPlanActive,
+				normalizeName(name),
+				containsToken(type, "stock") || containsToken(name, "aktie") || containsToken(name, "stock"),
+				containsToken(type, "etf") || containsToken(name, "etf")
+		);
+	}
+
+	public Object value(FactField field) {
+		return switch (field) {
+			case ISIN -> isin;
+			case NAME -> name;
+			case INSTRUMENT_TYPE -> instrumentType;
+			case ASSET_CLASS -> assetClass;
+			case SUB_CLASS -> subClass;
+			case LAYER -> layer;
+			case IS_SAVINGPLAN_ACTIVE -> savingPlanActive;
+			case NAME_NORM -> nameNorm;
+			case IS_STOCK -> stock;
+			case IS_ETF -> etf;
+		};
+	}
+
+	private static String normalizeName(String name) {
+		if (name == null) {
+			return "";
+		}
+		return name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", " ").trim();
+	}
+
+	private static boolean containsToken(String value, String token) {
+		if (value == null) {
+			return false;
+		}
+		return value.toLowerCase(Locale.ROOT).contains(token);
+	}
+}
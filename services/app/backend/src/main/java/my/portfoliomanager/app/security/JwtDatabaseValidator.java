@@ -39,7 +39,7 @@ public class JwtDatabaseValidator implements OAuth2TokenValidator<Jwt> {
 			return OAuth2TokenValidatorResult.failure(MISSING_JTI);
 		}
 		try {
-			boolean active = tokenService.isTokenActive(jti, now);
+			boolean active = tokenService.isTokenActive(jti, expiresAt, now);
 			return active ? OAuth2TokenValidatorResult.success() : OAuth2TokenValidatorResult.failure(NOT_ACTIVE);
 		} catch (Exception ex) {
 			return OAuth2TokenValidatorResult.failure(VALIDATION_FAILED);
@@ -1,12 +1,9 @@
 package my.portfoliomanager.app.service;
 
-import tools.jackson.databind.ObjectMapper;
 import my.portfoliomanager.app.config.AppProperties;
 import my.portfoliomanager.app.dto.InstrumentDossierExtractionPayload;
 import my.portfoliomanager.app.model.LayerTargetRiskThresholds;
 import my.portfoliomanager.app.service.util.RiskThresholdsUtil;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
@@ -25,7 +22,6 @@ import java.util.Set;
 
 @Service
 public class AssessorInstrumentAssessmentService {
-	private static final Logger logger = LoggerFactory.getLogger(AssessorInstrumentAssessmentService.class);
 	private static final Set<String> COMPLETE_STATUSES = Set.of("COMPLETE", "APPROVED", "APPLIED");
 	private static final Set<String> APPROVED_EXTRACTION_STATUSES = Set.of("APPROVED", "APPLIED");
 	private static final double DATA_QUALITY_MISSING_WEIGHT = 3.0;
@@ -52,15 +48,15 @@ public class AssessorInstrumentAssessmentService {
 	private static final double REIT_PROFITABILITY_WEIGHT = 0.10;
 
 	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
-	private final ObjectMapper objectMapper;
 	private final AppProperties properties;
+	private final KnowledgeBaseProfileStore profileStore;
 
 	public AssessorInstrumentAssessmentService(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
-										ObjectMapper objectMapper,
-										AppProperties properties) {
+										AppProperties properties,
+										KnowledgeBaseProfileStore profileStore) {
 		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
-		this.objectMapper = objectMapper;
 		this.properties = properties;
+		this.profileStore = profileStore;
 	}
 
 	public AssessmentResult assess(List<String> instrumentIsins,
@@ -178,25 +174,10 @@ public class AssessorInstrumentAssessmentService {
 
 
 	private Map<String, KbExtraction> loadLatestExtractions(Set<String> isins) {
-		if (isins == null || isins.isEmpty()) {
-			return Map.of();
-		}
-		String sql = """
-				SELECT isin, status, extracted_json
-				FROM knowledge_base_extractions
-				WHERE isin IN (:isins)
-				""";
-		MapSqlParameterSource params = new MapSqlParameterSource("isins", isins);
 		Map<String, KbExtraction> result = new HashMap<>();
-		namedParameterJdbcTemplate.query(sql, params, rs -> {
-			String isin = normalizeIsin(rs.getString("isin"));
-			String status = rs.getString("status");
-			String json = rs.getString("extracted_json");
-			InstrumentDossierExtractionPayload payload = parsePayload(isin, json);
-			if (isin != null) {
-				result.put(isin, new KbExtraction(isin, status, payload));
-			}
-		});
+		for (KnowledgeBaseProfileStore.StoredExtraction stored : profileStore.load(isins).values()) {
+			result.put(stored.isin(), new KbExtraction(stored.isin(), stored.status(), stored.payload()));
+		}
 		return result;
 	}
 
@@ -287,18 +268,6 @@ public class AssessorInstrumentAssessmentService {
 		return APPROVED_EXTRACTION_STATUSES.contains(status.toUpperCase(Locale.ROOT));
 	}
 
-	private InstrumentDossierExtractionPayload parsePayload(String isin, String json) {
-		if (json == null || json.isBlank()) {
-			return null;
-		}
-		try {
-			return objectMapper.readValue(json, InstrumentDossierExtractionPayload.class);
-		} catch (Exception ex) {
-			logger.debug("Failed to parse KB extraction payload for {}: {}", isin, ex.getMessage());
-			return null;
-		}
-	}
-
 	private String resolveName(InstrumentDossierExtractionPayload payload, InstrumentFallback fallback, String isin) {
 		String name = payload == null ? null : payload.name();
 		if (name == null || name.isBlank()) {
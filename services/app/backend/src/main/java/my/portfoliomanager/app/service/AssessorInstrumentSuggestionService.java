@@ -1,8 +1,8 @@
 package my.portfoliomanager.app.service;
 
-import tools.jackson.databind.ObjectMapper;
 import my.portfoliomanager.app.dto.InstrumentDossierExtractionPayload;
 import my.portfoliomanager.app.model.LayerTargetRiskThresholds;
+import my.portfoliomanager.app.service.util.HoldingsOverlapIndex;
 import my.portfoliomanager.app.service.util.RiskThresholdsUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -92,20 +92,19 @@ public class AssessorInstrumentSuggestionService {
 			"infra",
 			"infrastructure"
 	);
-	private static final BigDecimal DEFAULT_EPS_FLOOR = new BigDecimal("0.10");
 	private static final double DEFAULT_PB_TARGET = 2.0;
 
 	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
-	private final ObjectMapper objectMapper;
+	private final KnowledgeBaseProfileStore profileStore;
 	private final AssessorInstrumentAssessmentService assessmentService;
 	private final InstrumentBlacklistService blacklistService;
 
 	public AssessorInstrumentSuggestionService(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
-									   ObjectMapper objectMapper,
+									   KnowledgeBaseProfileStore profileStore,
 									   AssessorInstrumentAssessmentService assessmentService,
 									   InstrumentBlacklistService blacklistService) {
 		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
-		this.objectMapper = objectMapper;
+		this.profileStore = profileStore;
 		this.assessmentService = assessmentService;
 		this.blacklistService = blacklistService;
 	}
@@ -153,7 +152,7 @@ public class AssessorInstrumentSuggestionService {
 		}
 		Map<Integer, LayerCoverage> existingCoverage = buildCoverage(existingProfiles.values());
 		Map<Integer, LayerCoverage> savingPlanCoverage = buildCoverage(savingPlanProfiles.values());
-		Map<Integer, List<InstrumentProfile>> existingByLayer = groupByLayer(existingProfiles.values());
+		Map<Integer, ExistingProfiles> existingByLayer = indexByLayer(groupByLayer(existingProfiles.values()));
 
 		Map<String, InstrumentProfile> candidateProfiles = loadCandidateProfiles();
 		Map<String, InstrumentProfile> fallbackCandidates = loadEffectiveProfiles(coverageIsins, candidateProfiles.keySet());
@@ -233,10 +232,10 @@ public class AssessorInstrumentSuggestionService {
 				if (maxSuggestions > 0 && !preferOneTime) {
 					List<NewInstrumentSuggestion> suggestions = savingPlanMissing.isEmpty()
 							? selectSuggestionsWithoutGaps(savingPlanCandidates,
-						existingByLayer.getOrDefault(layer, List.of()),
+						existingByLayer.getOrDefault(layer, ExistingProfiles.EMPTY),
 						budget, savingPlanMinimumAmount, maxSuggestions, preferredSavingPlanIsins, riskThresholds, riskThresholdsByLayer)
 						: selectSuggestions(savingPlanCandidates,
-				existingByLayer.getOrDefault(layer, List.of()),
+				existingByLayer.getOrDefault(layer, ExistingProfiles.EMPTY),
 				savingPlanMissing,
 						budget, savingPlanMinimumAmount, maxSuggestions, preferredSavingPlanIsins, riskThresholds, riskThresholdsByLayer);
 					savingPlanSuggestions.addAll(suggestions);
@@ -262,15 +261,15 @@ public class AssessorInstrumentSuggestionService {
 				if (maxSuggestions > 0) {
 					List<NewInstrumentSuggestion> suggestions = oneTimeMissing.isEmpty()
 							? selectSuggestionsWithoutGaps(oneTimeCandidates,
-						existingByLayer.getOrDefault(layer, List.of()),
+						existingByLayer.getOrDefault(layer, ExistingProfiles.EMPTY),
 						budget, request.minimumInstrumentAmount(), maxSuggestions, preferredOneTimeIsins, riskThresholds, riskThresholdsByLayer)
 						: selectSuggestions(oneTimeCandidates,
-				existingByLayer.getOrDefault(layer, List.of()),
+				existingByLayer.getOrDefault(layer, ExistingProfiles.EMPTY),
 				oneTimeMissing,
 						budget, request.minimumInstrumentAmount(), maxSuggestions, preferredOneTimeIsins, riskThresholds, riskThresholdsByLayer);
 					if (suggestions.isEmpty() && !oneTimeMissing.isEmpty()) {
 						suggestions = selectSuggestionsWithoutGaps(oneTimeCandidates,
-							existingByLayer.getOrDefault(layer, List.of()),
+							existingByLayer.getOrDefault(layer, ExistingProfiles.EMPTY),
 							budget, request.minimumInstrumentAmount(), maxSuggestions, preferredOneTimeIsins, riskThresholds,
 							riskThresholdsByLayer);
 					}
@@ -311,7 +310,7 @@ public class AssessorInstrumentSuggestionService {
 		}
 		Map<Integer, LayerCoverage> existingCoverage = buildCoverage(existingProfiles.values());
 		Map<Integer, LayerCoverage> savingPlanCoverage = buildCoverage(savingPlanProfiles.values());
-		Map<Integer, List<InstrumentProfile>> existingByLayer = groupByLayer(existingProfiles.values());
+		Map<Integer, ExistingProfiles> existingByLayer = indexByLayer(groupByLayer(existingProfiles.values()));
 
 		Map<String, InstrumentProfile> candidateProfiles = loadCandidateProfiles();
 		Map<String, InstrumentProfile> fallbackCandidates = loadEffectiveProfiles(coverageIsins, candidateProfiles.keySet());
@@ -341,7 +340,7 @@ public class AssessorInstrumentSuggestionService {
 					.sorted(Comparator.comparing(InstrumentProfile::isin))
 					.toList();
 			for (InstrumentProfile profile : savingPlanLayerProfiles) {
-				double score = scoreCandidate(profile, existingByLayer.getOrDefault(layer, List.of()), missing);
+				double score = scoreCandidate(profile, existingByLayer.getOrDefault(layer, ExistingProfiles.EMPTY), missing);
 				if (score <= 0) {
 					score = 0.1;
 				}
@@ -428,7 +427,7 @@ public class AssessorInstrumentSuggestionService {
 	}
 
 	private List<NewInstrumentSuggestion> selectSuggestions(List<InstrumentProfile> candidates,
-													List<InstrumentProfile> existingProfiles,
+													ExistingProfiles existingProfiles,
 													MissingCategories missing,
 													BigDecimal budget,
 													int minimumAmount,
@@ -497,7 +496,7 @@ public class AssessorInstrumentSuggestionService {
 	}
 
 	private List<NewInstrumentSuggestion> selectSuggestionsWithoutGaps(List<InstrumentProfile> candidates,
-													   List<InstrumentProfile> existingProfiles,
+													   ExistingProfiles existingProfiles,
 													   BigDecimal budget,
 													   int minimumAmount,
 													   int maxSuggestions,
@@ -545,7 +544,7 @@ public class AssessorInstrumentSuggestionService {
 	}
 
 	private String buildBaselineRationale(InstrumentProfile candidate,
-										  List<InstrumentProfile> existingProfiles) {
+										  ExistingProfiles existingProfiles) {
 		if (candidate == null) {
 			return "";
 		}
@@ -726,7 +725,7 @@ public class AssessorInstrumentSuggestionService {
 	}
 
 	private InstrumentProfile selectCandidateForGap(List<InstrumentProfile> candidates,
-													List<InstrumentProfile> existingProfiles,
+													ExistingProfiles existingProfiles,
 													MissingCategories missing,
 													CoverageGap gap,
 													Set<String> selectedIsins,
@@ -740,7 +739,7 @@ public class AssessorInstrumentSuggestionService {
 	}
 
 	private double scoreCandidate(InstrumentProfile candidate,
-								  List<InstrumentProfile> existingProfiles,
+								  ExistingProfiles existingProfiles,
 								  MissingCategories missing) {
 		double costScore = candidate.ongoingChargesPct() == null
 				? 0.5
@@ -758,7 +757,7 @@ public class AssessorInstrumentSuggestionService {
 	}
 
 	private double scoreCandidate(InstrumentProfile candidate,
-								  List<InstrumentProfile> existingProfiles,
+								  ExistingProfiles existingProfiles,
 								  MissingCategories missing,
 								  Set<String> preferredIsins) {
 		double score = scoreCandidate(candidate, existingProfiles, missing);
@@ -778,7 +777,7 @@ public class AssessorInstrumentSuggestionService {
 		return Math.min(MAX_DATA_QUALITY_PENALTY, penalty);
 	}
 
-	private double computeRedundancy(InstrumentProfile candidate, java.util.Collection<InstrumentProfile> existing) {
+	private double computeRedundancy(InstrumentProfile candidate, ExistingProfiles existing) {
 		if (existing == null || existing.isEmpty()) {
 			return 0.0;
 		}
@@ -788,35 +787,35 @@ public class AssessorInstrumentSuggestionService {
 		if (candidate.benchmarkIndex() != null) {
 			components += 1;
 			int matches = 0;
-			for (InstrumentProfile profile : existing) {
+			for (InstrumentProfile profile : existing.profiles()) {
 				if (candidate.benchmarkIndex().equalsIgnoreCase(profile.benchmarkIndex())) {
 					matches += 1;
 				}
 			}
-			sum += (double) matches / (double) existing.size();
+			sum += (double) matches / (double) existing.profiles().size();
 		}
 
-		double regionOverlap = averageWeightedOverlap(candidate.regionWeights(), existing, InstrumentProfile::regionWeights);
+		double regionOverlap = existing.regions().averageWeightedOverlapWith(candidate.regionWeights());
 		if (regionOverlap < 0) {
-			regionOverlap = averageOverlap(candidate.regions(), existing, InstrumentProfile::regions);
+			regionOverlap = existing.regions().averageOverlapWith(candidate.regions());
 		}
 		if (regionOverlap >= 0) {
 			components += 1;
 			sum += regionOverlap;
 		}
 
-		double holdingOverlap = averageWeightedOverlap(candidate.holdingWeights(), existing, InstrumentProfile::holdingWeights);
+		double holdingOverlap = existing.holdings().averageWeightedOverlapWith(candidate.holdingWeights());
 		if (holdingOverlap < 0) {
-			holdingOverlap = averageOverlap(candidate.holdings(), existing, InstrumentProfile::holdings);
+			holdingOverlap = existing.holdings().averageOverlapWith(candidate.holdings());
 		}
 		if (holdingOverlap >= 0) {
 			components += 1;
 			sum += holdingOverlap;
 		}
 
-		double sectorOverlap = averageWeightedOverlap(candidate.sectorWeights(), existing, InstrumentProfile::sectorWeights);
+		double sectorOverlap = existing.sectors().averageWeightedOverlapWith(candidate.sectorWeights());
 		if (sectorOverlap < 0) {
-			sectorOverlap = averageOverlap(candidate.sectors(), existing, InstrumentProfile::sectors);
+			sectorOverlap = existing.sectors().averageOverlapWith(candidate.sectors());
 		}
 		if (sectorOverlap >= 0) {
 			components += 1;
@@ -909,11 +908,11 @@ public class AssessorInstrumentSuggestionService {
 		return baseScore * valuationQualityMultiplier(candidate.peMethod(), candidate.peHorizon(), candidate.negEarningsHandling());
 	}
 
-	private double scoreEarningsYield(BigDecimal earningsYield) {
+	private double scoreEarningsYield(Double earningsYield) {
 		if (earningsYield == null) {
 			return 0.0;
 		}
-		double value = earningsYield.doubleValue();
+		double value = earningsYield;
 		if (value <= 0) {
 			return 0.0;
 		}
@@ -921,11 +920,11 @@ public class AssessorInstrumentSuggestionService {
 		return Math.min(value / cap, 1.0);
 	}
 
-	private double scoreEvToEbitda(BigDecimal evToEbitda) {
+	private double scoreEvToEbitda(Double evToEbitda) {
 		if (evToEbitda == null) {
 			return 0.0;
 		}
-		double value = evToEbitda.doubleValue();
+		double value = evToEbitda;
 		if (value <= 0) {
 			return 0.0;
 		}
@@ -933,11 +932,11 @@ public class AssessorInstrumentSuggestionService {
 		return Math.min(target / value, 1.0);
 	}
 
-	private double scoreDividendYield(BigDecimal dividendYield) {
+	private double scoreDividendYield(Double dividendYield) {
 		if (dividendYield == null) {
 			return 0.0;
 		}
-		double value = dividendYield.doubleValue();
+		double value = dividendYield;
 		if (value <= 0) {
 			return 0.0;
 		}
@@ -945,22 +944,22 @@ public class AssessorInstrumentSuggestionService {
 		return Math.min(value / cap, 1.0);
 	}
 
-	private double scorePriceToBook(BigDecimal priceToBook) {
+	private double scorePriceToBook(Double priceToBook) {
 		if (priceToBook == null) {
 			return 0.0;
 		}
-		double value = priceToBook.doubleValue();
+		double value = priceToBook;
 		if (value <= 0) {
 			return 0.0;
 		}
 		return Math.min(DEFAULT_PB_TARGET / value, 1.0);
 	}
 
-	private double scoreEbitdaEur(BigDecimal ebitdaEur) {
+	private double scoreEbitdaEur(Double ebitdaEur) {
 		if (ebitdaEur == null) {
 			return 0.0;
 		}
-		double value = ebitdaEur.doubleValue();
+		double value = ebitdaEur;
 		if (value <= 0) {
 			return 0.0;
 		}
@@ -969,11 +968,11 @@ public class AssessorInstrumentSuggestionService {
 		return Math.max(0.0, Math.min(scaled, 1.0));
 	}
 
-	private double scoreNetIncomeEur(BigDecimal netIncomeEur) {
+	private double scoreNetIncomeEur(Double netIncomeEur) {
 		if (netIncomeEur == null) {
 			return 0.0;
 		}
-		double value = netIncomeEur.doubleValue();
+		double value = netIncomeEur;
 		if (value <= 0) {
 			return 0.0;
 		}
@@ -982,11 +981,11 @@ public class AssessorInstrumentSuggestionService {
 		return Math.max(0.0, Math.min(scaled, 1.0));
 	}
 
-	private double scoreRevenueEur(BigDecimal revenueEur) {
+	private double scoreRevenueEur(Double revenueEur) {
 		if (revenueEur == null) {
 			return 0.0;
 		}
-		double value = revenueEur.doubleValue();
+		double value = revenueEur;
 		if (value <= 0) {
 			return 0.0;
 		}
@@ -995,76 +994,6 @@ public class AssessorInstrumentSuggestionService {
 		return Math.max(0.0, Math.min(scaled, 1.0));
 	}
 
-	private double averageOverlap(Set<String> base,
-								  java.util.Collection<InstrumentProfile> existing,
-								  java.util.function.Function<InstrumentProfile, Set<String>> extractor) {
-		if (base == null || base.isEmpty() || existing == null || existing.isEmpty()) {
-			return -1.0;
-		}
-		double sum = 0.0;
-		int count = 0;
-		for (InstrumentProfile profile : existing) {
-			Set<String> other = extractor.apply(profile);
-			if (other == null || other.isEmpty()) {
-				continue;
-			}
-			int maxSize = Math.max(base.size(), other.size());
-			if (maxSize == 0) {
-				continue;
-			}
-			int common = 0;
-			for (String name : base) {
-				if (other.contains(name)) {
-					common += 1;
-				}
-			}
-			sum += (double) common / (double) maxSize;
-			count += 1;
-		}
-		if (count == 0) {
-			return -1.0;
-		}
-		return sum / (double) count;
-	}
-
-	private double averageWeightedOverlap(Map<String, BigDecimal> base,
-										  java.util.Collection<InstrumentProfile> existing,
-										  java.util.function.Function<InstrumentProfile, Map<String, BigDecimal>> extractor) {
-		if (base == null || base.isEmpty() || existing == null || existing.isEmpty()) {
-			return -1.0;
-		}
-		double sum = 0.0;
-		int count = 0;
-		for (InstrumentProfile profile : existing) {
-			Map<String, BigDecimal> other = extractor.apply(profile);
-			if (other == null || other.isEmpty()) {
-				continue;
-			}
-			double baseTotal = base.values().stream().mapToDouble(value -> value == null ? 0.0 : value.doubleValue()).sum();
-			double otherTotal = other.values().stream().mapToDouble(value -> value == null ? 0.0 : value.doubleValue()).sum();
-			if (baseTotal <= 0.0 || otherTotal <= 0.0) {
-				continue;
-			}
-			double overlap = 0.0;
-			for (Map.Entry<String, BigDecimal> entry : base.entrySet()) {
-				BigDecimal otherValue = other.get(entry.getKey());
-				if (otherValue == null) {
-					continue;
-				}
-				double left = entry.getValue() == null ? 0.0 : entry.getValue().doubleValue();
-				double right = otherValue.doubleValue();
-				overlap += Math.min(left, right);
-			}
-			double denom = Math.max(baseTotal, otherTotal);
-			sum += denom <= 0.0 ? 0.0 : overlap / denom;
-			count += 1;
-		}
-		if (count == 0) {
-			return -1.0;
-		}
-		return sum / (double) count;
-	}
-
 	private boolean isPreferredInstrument(InstrumentProfile candidate) {
 		if (candidate == null) {
 			return false;
@@ -1202,52 +1131,55 @@ public class AssessorInstrumentSuggestionService {
 			return Map.of();
 		}
 		String sql = """
-				SELECT kbe.isin, kbe.status, kbe.extracted_json, ie.name AS instrument_name, ie.layer AS instrument_layer
-				FROM knowledge_base_extractions kbe
-				LEFT JOIN instruments_effective ie ON ie.isin = kbe.isin
-				WHERE kbe.isin IN (:isins)
+				SELECT isin, name, layer
+				FROM instruments_effective
+				WHERE isin IN (:isins)
 				""";
-		MapSqlParameterSource params = new MapSqlParameterSource("isins", isins);
-		Map<String, InstrumentProfile> profiles = new LinkedHashMap<>();
-		namedParameterJdbcTemplate.query(sql, params, rs -> {
-			String isin = normalizeIsin(rs.getString("isin"));
-			String status = rs.getString("status");
-			if (isin == null || !isComplete(status)) {
-				return;
-			}
-			String json = rs.getString("extracted_json");
-			String name = rs.getString("instrument_name");
-			Integer layer = rs.getObject("instrument_layer") == null ? null : rs.getInt("instrument_layer");
-			InstrumentProfile profile = parseProfile(isin, json, name, layer);
-			if (profile != null) {
-				profiles.put(isin, profile);
-			}
-		});
-		return profiles;
+		Map<String, ProfileFallback> fallbacks = loadProfileFallbacks(sql, new MapSqlParameterSource("isins", isins));
+		return buildProfiles(profileStore.load(isins), fallbacks, true);
 	}
 
 	private Map<String, InstrumentProfile> loadCandidateProfiles() {
 		String sql = """
-				SELECT kbe.isin, kbe.status, kbe.extracted_json, ie.name AS instrument_name, ie.layer AS instrument_layer
+				SELECT ie.isin, ie.name, ie.layer
 				FROM knowledge_base_extractions kbe
-				LEFT JOIN instruments_effective ie ON ie.isin = kbe.isin
+				JOIN instruments_effective ie ON ie.isin = kbe.isin
 				WHERE kbe.status IN (:statuses)
 				""";
-		MapSqlParameterSource params = new MapSqlParameterSource("statuses", COMPLETE_STATUSES);
-		Map<String, InstrumentProfile> profiles = new LinkedHashMap<>();
+		Map<String, ProfileFallback> fallbacks = loadProfileFallbacks(sql,
+				new MapSqlParameterSource("statuses", COMPLETE_STATUSES));
+		return buildProfiles(profileStore.loadByStatus(COMPLETE_STATUSES), fallbacks, false);
+	}
+
+	private Map<String, ProfileFallback> loadProfileFallbacks(String sql, MapSqlParameterSource params) {
+		Map<String, ProfileFallback> fallbacks = new HashMap<>();
 		namedParameterJdbcTemplate.query(sql, params, rs -> {
 			String isin = normalizeIsin(rs.getString("isin"));
 			if (isin == null) {
 				return;
 			}
-			String json = rs.getString("extracted_json");
-			String name = rs.getString("instrument_name");
-			Integer layer = rs.getObject("instrument_layer") == null ? null : rs.getInt("instrument_layer");
-			InstrumentProfile profile = parseProfile(isin, json, name, layer);
+			Integer layer = rs.getObject("layer") == null ? null : rs.getInt("layer");
+			fallbacks.put(isin, new ProfileFallback(rs.getString("name"), layer));
+		});
+		return fallbacks;
+	}
+
+	private Map<String, InstrumentProfile> buildProfiles(Map<String, KnowledgeBaseProfileStore.StoredExtraction> extractions,
+														 Map<String, ProfileFallback> fallbacks,
+														 boolean requireComplete) {
+		Map<String, InstrumentProfile> profiles = new LinkedHashMap<>();
+		for (KnowledgeBaseProfileStore.StoredExtraction extraction : extractions.values()) {
+			if (requireComplete && !isComplete(extraction.status())) {
+				continue;
+			}
+			ProfileFallback fallback = fallbacks.get(extraction.isin());
+			InstrumentProfile profile = parseProfile(extraction,
+					fallback == null ? null : fallback.name(),
+					fallback == null ? null : fallback.layer());
 			if (profile != null) {
-				profiles.put(isin, profile);
+				profiles.put(extraction.isin(), profile);
 			}
-		});
+		}
 		return profiles;
 	}
 
@@ -1301,12 +1233,16 @@ public class AssessorInstrumentSuggestionService {
 		return profiles;
 	}
 
-	private InstrumentProfile parseProfile(String isin, String json, String fallbackName, Integer fallbackLayer) {
-		if (json == null || json.isBlank()) {
+	private InstrumentProfile parseProfile(KnowledgeBaseProfileStore.StoredExtraction extraction,
+										   String fallbackName,
+										   Integer fallbackLayer) {
+		InstrumentDossierExtractionPayload payload = extraction.payload();
+		if (payload == null) {
 			return null;
 		}
+		String isin = extraction.isin();
+		ValuationMetrics metrics = extraction.metrics();
 		try {
-			InstrumentDossierExtractionPayload payload = objectMapper.readValue(json, InstrumentDossierExtractionPayload.class);
 			String name = trimToNull(payload.name());
 			if (name == null) {
 				name = trimToNull(fallbackName);
@@ -1331,15 +1267,6 @@ public class AssessorInstrumentSuggestionService {
 			String gicsSector = normalizeLabel(payload.gicsSector());
 			Set<String> sectors = normalizeSectorNames(payload.sectors(), payload.gicsSector());
 			Map<String, BigDecimal> sectorWeights = normalizeSectorWeights(payload.sectors(), payload.gicsSector());
-			BigDecimal earningsYieldLongterm = extractLongtermEarningsYield(payload);
-			BigDecimal earningsYieldHoldings = extractHoldingsEarningsYield(payload);
-			BigDecimal earningsYieldCurrent = extractCurrentEarningsYield(payload);
-			BigDecimal dividendYield = extractDividendYield(payload);
-			BigDecimal priceToBook = extractPriceToBook(payload);
-			BigDecimal evToEbitda = extractEvToEbitda(payload);
-			BigDecimal ebitdaEur = extractEbitdaEur(payload);
-			BigDecimal netIncomeEur = extractNetIncomeEur(payload);
-			BigDecimal revenueEur = extractRevenueEur(payload);
 			String peMethod = payload.valuation() == null ? null : trimToNull(payload.valuation().peMethod());
 			String peHorizon = payload.valuation() == null ? null : trimToNull(payload.valuation().peHorizon());
 			String negEarningsHandling = payload.valuation() == null ? null : trimToNull(payload.valuation().negEarningsHandling());
@@ -1351,297 +1278,14 @@ public class AssessorInstrumentSuggestionService {
 			int warningCount = payload.warnings() == null ? 0 : payload.warnings().size();
 			return new InstrumentProfile(isin, name, layer, instrumentType, assetClass, subClass, layerNotes, ter,
 					benchmark, regions, holdings, regionWeights, holdingWeights, gicsSector, sectors, sectorWeights,
-					distribution, themes, locales, singleStock, earningsYieldLongterm, earningsYieldHoldings,
-					earningsYieldCurrent, dividendYield, priceToBook, evToEbitda, ebitdaEur, netIncomeEur, revenueEur,
-					peMethod, peHorizon, negEarningsHandling, missingFieldCount, warningCount);
+					distribution, themes, locales, singleStock, metrics.earningsYieldLongterm(),
+					metrics.earningsYieldHoldings(), metrics.earningsYieldCurrent(), metrics.dividendYield(),
+					metrics.priceToBook(), metrics.evToEbitda(), metrics.ebitdaEur(), metrics.netIncomeEur(),
+					metrics.revenueEur(), peMethod, peHorizon, negEarningsHandling, missingFieldCount, warningCount);
 		} catch (Exception ex) {
-			logger.debug("Failed to parse KB extraction payload for {}: {}", isin, ex.getMessage());
-			return null;
-		}
-	}
-
-	private BigDecimal extractLongtermEarningsYield(InstrumentDossierExtractionPayload payload) {
-		if (payload == null || payload.valuation() == null) {
-			return null;
-		}
-		InstrumentDossierExtractionPayload.ValuationPayload valuation = payload.valuation();
-		BigDecimal yield = valuation.earningsYieldLongterm();
-		if (yield != null) {
-			return yield;
-		}
-		BigDecimal pe = valuation.peLongterm();
-		if (pe != null && pe.compareTo(BigDecimal.ZERO) > 0) {
-			return BigDecimal.ONE.divide(pe, 8, RoundingMode.HALF_UP);
-		}
-		BigDecimal computedYield = computeLongtermEarningsYield(valuation);
-		if (computedYield != null) {
-			return computedYield;
-		}
-		return null;
-	}
-
-	private BigDecimal extractHoldingsEarningsYield(InstrumentDossierExtractionPayload payload) {
-		if (payload == null || payload.valuation() == null) {
-			return null;
-		}
-		InstrumentDossierExtractionPayload.ValuationPayload valuation = payload.valuation();
-		BigDecimal yield = valuation.earningsYieldTtmHoldings();
-		if (yield != null) {
-			return yield;
-		}
-		BigDecimal peHoldings = valuation.peTtmHoldings();
-		if (peHoldings != null && peHoldings.compareTo(BigDecimal.ZERO) > 0) {
-			return BigDecimal.ONE.divide(peHoldings, 8, RoundingMode.HALF_UP);
-		}
-		return null;
-	}
-
-	private BigDecimal extractCurrentEarningsYield(InstrumentDossierExtractionPayload payload) {
-		if (payload == null || payload.valuation() == null) {
-			return null;
-		}
-		InstrumentDossierExtractionPayload.ValuationPayload valuation = payload.valuation();
-		BigDecimal peCurrent = valuation.peCurrent();
-		if (peCurrent != null && peCurrent.compareTo(BigDecimal.ZERO) > 0) {
-			return BigDecimal.ONE.divide(peCurrent, 8, RoundingMode.HALF_UP);
-		}
-		return null;
-	}
-
-	private BigDecimal extractPriceToBook(InstrumentDossierExtractionPayload payload) {
-		if (payload == null || payload.valuation() == null) {
-			return null;
-		}
-		return payload.valuation().pbCurrent();
-	}
-
-	private BigDecimal computeLongtermEarningsYield(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
-		if (valuation == null) {
-			return null;
-		}
-		BigDecimal epsNorm = computeEpsNormFromHistory(valuation);
-		BigDecimal price = extractPrice(valuation);
-		if (epsNorm == null || price == null) {
-			return null;
-		}
-		if (epsNorm.compareTo(BigDecimal.ZERO) <= 0 || price.compareTo(BigDecimal.ZERO) <= 0) {
-			return null;
-		}
-		return epsNorm.divide(price, 8, RoundingMode.HALF_UP);
-	}
-
-	private BigDecimal computeEpsNormFromHistory(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
-		List<InstrumentDossierExtractionPayload.EpsHistoryPayload> history = valuation.epsHistory();
-		if (history == null || history.isEmpty()) {
-			return null;
-		}
-		List<InstrumentDossierExtractionPayload.EpsHistoryPayload> selected = selectPreferredEpsHistory(history);
-		List<BigDecimal> values = new ArrayList<>();
-		selected.stream()
-				.filter(entry -> entry != null && entry.year() != null && entry.eps() != null)
-				.sorted(Comparator.comparing(InstrumentDossierExtractionPayload.EpsHistoryPayload::year).reversed())
-				.limit(7)
-				.forEach(entry -> values.add(applyEpsFloor(entry.eps(), valuation)));
-		if (values.size() < 3) {
-			return null;
-		}
-		values.sort(Comparator.naturalOrder());
-		int mid = values.size() / 2;
-		if (values.size() % 2 == 1) {
-			return values.get(mid);
-		}
-		return values.get(mid - 1).add(values.get(mid)).divide(BigDecimal.valueOf(2), 8, RoundingMode.HALF_UP);
-	}
-
-	private List<InstrumentDossierExtractionPayload.EpsHistoryPayload> selectPreferredEpsHistory(
-			List<InstrumentDossierExtractionPayload.EpsHistoryPayload> history) {
-		boolean hasAdjusted = history.stream().anyMatch(entry -> isAdjustedEpsType(entry == null ? null : entry.epsType()));
-		if (!hasAdjusted) {
-			return history;
-		}
-		return history.stream()
-				.filter(entry -> isAdjustedEpsType(entry == null ? null : entry.epsType()))
-				.toList();
-	}
-
-	private boolean isAdjustedEpsType(String epsType) {
-		if (epsType == null || epsType.isBlank()) {
-			return false;
-		}
-		String normalized = epsType.trim().toLowerCase(Locale.ROOT);
-		return normalized.contains("adjusted")
-				|| normalized.contains("normalized")
-				|| normalized.contains("non-gaap")
-				|| normalized.contains("non gaap");
-	}
-
-	private BigDecimal applyEpsFloor(BigDecimal value, InstrumentDossierExtractionPayload.ValuationPayload valuation) {
-		if (value == null) {
-			return null;
-		}
-		if (value.compareTo(BigDecimal.ZERO) <= 0) {
-			return value;
-		}
-		if (!shouldApplyEpsFloor(valuation == null ? null : valuation.epsFloorPolicy())) {
-			return value;
-		}
-		BigDecimal floor = valuation == null || valuation.epsFloorValue() == null
-				? DEFAULT_EPS_FLOOR
-				: valuation.epsFloorValue();
-		if (floor == null || floor.compareTo(BigDecimal.ZERO) <= 0) {
-			return value;
-		}
-		return value.compareTo(floor) < 0 ? floor : value;
-	}
-
-	private boolean shouldApplyEpsFloor(String policy) {
-		if (policy == null || policy.isBlank()) {
-			return true;
-		}
-		String normalized = policy.trim().toLowerCase(Locale.ROOT);
-		return !(normalized.equals("none") || normalized.equals("off") || normalized.equals("no_floor"));
-	}
-
-	private BigDecimal extractPrice(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
-		if (valuation == null) {
-			return null;
-		}
-		BigDecimal price = valuation.price();
-		if (price != null) {
-			return price;
-		}
-		BigDecimal marketCap = valuation.marketCap();
-		BigDecimal shares = valuation.sharesOutstanding();
-		if (marketCap != null && shares != null && shares.compareTo(BigDecimal.ZERO) > 0) {
-			return marketCap.divide(shares, 8, RoundingMode.HALF_UP);
-		}
-		return null;
-	}
-
-	private BigDecimal extractEvToEbitda(InstrumentDossierExtractionPayload payload) {
-		if (payload == null || payload.valuation() == null) {
-			return null;
-		}
-		InstrumentDossierExtractionPayload.ValuationPayload valuation = payload.valuation();
-		BigDecimal evToEbitda = valuation.evToEbitda();
-		if (evToEbitda != null) {
-			return evToEbitda;
-		}
-		BigDecimal enterpriseValue = valuation.enterpriseValue();
-		BigDecimal ebitda = valuation.ebitda();
-		if (enterpriseValue != null && ebitda != null && ebitda.compareTo(BigDecimal.ZERO) > 0) {
-			return enterpriseValue.divide(ebitda, 8, RoundingMode.HALF_UP);
-		}
-		return null;
-	}
-
-	private BigDecimal extractEbitdaEur(InstrumentDossierExtractionPayload payload) {
-		if (payload == null || payload.valuation() == null) {
-			return null;
-		}
-		return extractProfitabilityEur(payload.valuation());
-	}
-
-	private BigDecimal extractProfitabilityEur(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
-		if (valuation == null) {
-			return null;
-		}
-		BigDecimal ebitdaEur = valuation.ebitdaEur();
-		if (ebitdaEur != null) {
-			return ebitdaEur;
-		}
-		BigDecimal ebitda = convertMetricToEur(valuation.ebitda(), valuation.ebitdaCurrency(), valuation.fxRateToEur());
-		if (ebitda != null) {
-			return ebitda;
-		}
-		BigDecimal affo = convertMetricToEur(valuation.affo(), valuation.affoCurrency(), valuation.fxRateToEur());
-		if (affo != null) {
-			return affo;
-		}
-		BigDecimal ffo = convertMetricToEur(valuation.ffo(), valuation.ffoCurrency(), valuation.fxRateToEur());
-		if (ffo != null) {
-			return ffo;
-		}
-		BigDecimal noi = convertMetricToEur(valuation.noi(), valuation.noiCurrency(), valuation.fxRateToEur());
-		if (noi != null) {
-			return noi;
-		}
-		return convertMetricToEur(valuation.netRent(), valuation.netRentCurrency(), valuation.fxRateToEur());
-	}
-
-	private BigDecimal extractNetIncomeEur(InstrumentDossierExtractionPayload payload) {
-		if (payload == null || payload.financials() == null) {
-			return null;
-		}
-		InstrumentDossierExtractionPayload.FinancialsPayload financials = payload.financials();
-		if (financials.netIncomeEur() != null) {
-			return financials.netIncomeEur();
-		}
-		BigDecimal fxRate = resolveFinancialsFxRate(financials, payload);
-		return convertMetricToEur(financials.netIncome(), financials.netIncomeCurrency(), fxRate);
-	}
-
-	private BigDecimal extractRevenueEur(InstrumentDossierExtractionPayload payload) {
-		if (payload == null || payload.financials() == null) {
+			logger.debug("Failed to build profile from KB extraction for {}: {}", isin, ex.getMessage());
 			return null;
 		}
-		InstrumentDossierExtractionPayload.FinancialsPayload financials = payload.financials();
-		if (financials.revenueEur() != null) {
-			return financials.revenueEur();
-		}
-		BigDecimal fxRate = resolveFinancialsFxRate(financials, payload);
-		return convertMetricToEur(financials.revenue(), financials.revenueCurrency(), fxRate);
-	}
-
-	private BigDecimal extractDividendYield(InstrumentDossierExtractionPayload payload) {
-		if (payload == null || payload.financials() == null || payload.valuation() == null) {
-			return null;
-		}
-		InstrumentDossierExtractionPayload.FinancialsPayload financials = payload.financials();
-		BigDecimal dividend = financials.dividendPerShare();
-		if (dividend == null || dividend.compareTo(BigDecimal.ZERO) <= 0) {
-			return null;
-		}
-		BigDecimal price = extractPrice(payload.valuation());
-		if (price == null || price.compareTo(BigDecimal.ZERO) <= 0) {
-			return null;
-		}
-		String dividendCcy = financials.dividendCurrency();
-		String priceCcy = payload.valuation().priceCurrency();
-		if (dividendCcy != null && priceCcy != null && !dividendCcy.equalsIgnoreCase(priceCcy)) {
-			BigDecimal fxDividend = resolveFinancialsFxRate(financials, payload);
-			BigDecimal dividendEur = convertMetricToEur(dividend, dividendCcy, fxDividend);
-			BigDecimal priceEur = convertMetricToEur(price, priceCcy, payload.valuation().fxRateToEur());
-			if (dividendEur == null || priceEur == null || priceEur.compareTo(BigDecimal.ZERO) <= 0) {
-				return null;
-			}
-			return dividendEur.divide(priceEur, 8, RoundingMode.HALF_UP);
-		}
-		return dividend.divide(price, 8, RoundingMode.HALF_UP);
-	}
-
-	private BigDecimal resolveFinancialsFxRate(InstrumentDossierExtractionPayload.FinancialsPayload financials,
-											   InstrumentDossierExtractionPayload payload) {
-		if (financials != null && financials.fxRateToEur() != null) {
-			return financials.fxRateToEur();
-		}
-		if (payload != null && payload.valuation() != null) {
-			return payload.valuation().fxRateToEur();
-		}
-		return null;
-	}
-
-	private BigDecimal convertMetricToEur(BigDecimal value, String currency, BigDecimal fxRate) {
-		if (value == null) {
-			return null;
-		}
-		if (currency == null || currency.isBlank() || currency.equalsIgnoreCase("EUR")) {
-			return value;
-		}
-		if (fxRate == null || fxRate.compareTo(BigDecimal.ZERO) <= 0) {
-			return null;
-		}
-		return value.multiply(fxRate);
 	}
 
 	private Map<Integer, LayerCoverage> buildCoverage(java.util.Collection<InstrumentProfile> profiles) {
@@ -1687,6 +1331,14 @@ public class AssessorInstrumentSuggestionService {
 		return grouped;
 	}
 
+	private Map<Integer, ExistingProfiles> indexByLayer(Map<Integer, List<InstrumentProfile>> grouped) {
+		Map<Integer, ExistingProfiles> indexed = new HashMap<>();
+		for (Map.Entry<Integer, List<InstrumentProfile>> entry : grouped.entrySet()) {
+			indexed.put(entry.getKey(), ExistingProfiles.of(entry.getValue()));
+		}
+		return indexed;
+	}
+
 	private Map<String, InstrumentProfile> filterCandidatesByRisk(Map<String, InstrumentProfile> candidates,
 													LayerTargetRiskThresholds riskThresholds,
 													Map<Integer, LayerTargetRiskThresholds> riskThresholdsByLayer) {
@@ -2038,6 +1690,41 @@ public class AssessorInstrumentSuggestionService {
 	private record SelectedSuggestion(InstrumentProfile profile, String rationale) {
 	}
 
+	private record ExistingProfiles(List<InstrumentProfile> profiles,
+									HoldingsOverlapIndex regions,
+									HoldingsOverlapIndex holdings,
+									HoldingsOverlapIndex sectors) {
+		private static final ExistingProfiles EMPTY = of(List.of());
+
+		static ExistingProfiles of(List<InstrumentProfile> profiles) {
+			Map<String, Set<String>> regions = new LinkedHashMap<>();
+			Map<String, Set<String>> holdings = new LinkedHashMap<>();
+			Map<String, Set<String>> sectors = new LinkedHashMap<>();
+			Map<String, Map<String, BigDecimal>> regionWeights = new LinkedHashMap<>();
+			Map<String, Map<String, BigDecimal>> holdingWeights = new LinkedHashMap<>();
+			Map<String, Map<String, BigDecimal>> sectorWeights = new LinkedHashMap<>();
+			for (InstrumentProfile profile : profiles) {
+				regions.put(profile.isin(), profile.regions());
+				holdings.put(profile.isin(), profile.holdings());
+				sectors.put(profile.isin(), profile.sectors());
+				regionWeights.put(profile.isin(), profile.regionWeights());
+				holdingWeights.put(profile.isin(), profile.holdingWeights());
+				sectorWeights.put(profile.isin(), profile.sectorWeights());
+			}
+			return new ExistingProfiles(List.copyOf(profiles),
+					HoldingsOverlapIndex.build(regions, regionWeights),
+					HoldingsOverlapIndex.build(holdings, holdingWeights),
+					HoldingsOverlapIndex.build(sectors, sectorWeights));
+		}
+
+		boolean isEmpty() {
+			return profiles.isEmpty();
+		}
+	}
+
+	private record ProfileFallback(String name, Integer layer) {
+	}
+
 	private record InstrumentProfile(String isin,
 										 String name,
 										 Integer layer,
@@ -2058,15 +1745,15 @@ public class AssessorInstrumentSuggestionService {
 		Set<String> themes,
 		Set<String> locales,
 		boolean singleStock,
-		BigDecimal earningsYieldLongterm,
-	 BigDecimal earningsYieldHoldings,
-	 BigDecimal earningsYieldCurrent,
-	 BigDecimal dividendYield,
-	 BigDecimal priceToBook,
-	 BigDecimal evToEbitda,
-	 BigDecimal ebitdaEur,
-	 BigDecimal netIncomeEur,
-	 BigDecimal revenueEur,
+		Double earningsYieldLongterm,
+	 Double earningsYieldHoldings,
+	 Double earningsYieldCurrent,
+	 Double dividendYield,
+	 Double priceToBook,
+	 Double evToEbitda,
+	 Double ebitdaEur,
+	 Double netIncomeEur,
+	 Double revenueEur,
 	 String peMethod,
 	 String peHorizon,
 	 String negEarningsHandling,
@@ -1,114 +1,101 @@
 package my.portfoliomanager.app.service;
 
-import jakarta.annotation.PreDestroy;
 import my.portfoliomanager.app.dto.AssessorRunJobResponseDto;
 import my.portfoliomanager.app.dto.AssessorRunJobStatus;
 import my.portfoliomanager.app.dto.AssessorRunRequestDto;
 import my.portfoliomanager.app.dto.AssessorRunResponseDto;
+import my.portfoliomanager.app.repository.projection.JobRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Duration;
-import java.time.Instant;
 import java.util.Locale;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Semaphore;
 
 @Service
 public class AssessorJobService {
 	private static final Logger logger = LoggerFactory.getLogger(AssessorJobService.class);
+	static final String JOB_TYPE = "assessor-run";
 	private static final Duration JOB_TTL = Duration.ofMinutes(30);
 	private static final int MAX_CONCURRENT_JOBS = 2;
+	private static final int MAX_ATTEMPTS = 1;
+	private static final String CACHE_KIND = "assessor";
 
 	private final AssessorService assessorService;
-	private final Map<String, JobState> jobs = new ConcurrentHashMap<>();
-	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
-	private final Semaphore concurrency = new Semaphore(MAX_CONCURRENT_JOBS);
-
-	public AssessorJobService(AssessorService assessorService) {
+	private final RunResultCacheService resultCache;
+	private final JobQueueService jobQueue;
+	private final JobEventStreamService jobEvents;
+
+	public AssessorJobService(AssessorService assessorService,
+							  RunResultCacheService resultCache,
+							  JobQueueService jobQueue,
+							  JobEventStreamService jobEvents) {
 		this.assessorService = assessorService;
+		this.resultCache = resultCache;
+		this.jobQueue = jobQueue;
+		this.jobEvents = jobEvents;
+		jobQueue.register(new JobQueueService.JobDefinition(JOB_TYPE, MAX_CONCURRENT_JOBS, MAX_ATTEMPTS, JOB_TTL),
+				this::runJob);
 	}
 
 	public AssessorRunJobResponseDto start(AssessorRunRequestDto request) {
-		cleanupExpired();
-		String jobId = UUID.randomUUID().toString();
-		JobState job = new JobState(jobId, request, Instant.now());
-		jobs.put(jobId, job);
-		executor.submit(() -> runJob(jobId));
-		return toDto(job);
+		AssessorRunResponseDto cached = resultCache.get(CACHE_KIND, request, resultCache.fingerprint());
+		if (cached != null) {
+			return toDto(jobQueue.record(JOB_TYPE, request, null, cached, null, null));
+		}
+		return toDto(jobQueue.enqueue(JOB_TYPE, request, null, null, null));
 	}
 
 	public AssessorRunJobResponseDto get(String jobId) {
-		cleanupExpired();
-		JobState job = jobs.get(jobId);
-		if (job == null) {
-			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Assessor job not found");
-		}
+		JobRow job = jobQueue.find(JOB_TYPE, jobId)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Assessor job not found"));
 		return toDto(job);
 	}
 
-	@PreDestroy
-	public void shutdown() {
-		executor.shutdownNow();
+	public SseEmitter stream(String jobId, String lastEventId) {
+		return jobEvents.stream(JOB_TYPE, jobId, lastEventId, this::toDto)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Assessor job not found"));
 	}
 
-	private void runJob(String jobId) {
-		JobState job = jobs.get(jobId);
-		if (job == null) {
-			return;
-		}
-		try {
-			concurrency.acquire();
-		} catch (InterruptedException ex) {
-			Thread.currentThread().interrupt();
-			job.status = AssessorRunJobStatus.FAILED;
-			job.error = failWithReference(job, ex);
-			job.finishedAt = Instant.now();
-			return;
-		}
+	private JobQueueService.JobOutcome runJob(JobQueueService.JobContext context) {
+		AssessorRunRequestDto request = context.payload(AssessorRunRequestDto.class);
 		try {
-			job.status = AssessorRunJobStatus.RUNNING;
-			job.result = assessorService.run(job.request);
-			job.status = AssessorRunJobStatus.DONE;
+			RunResultCacheService.Fingerprint fingerprint = resultCache.fingerprint();
+			AssessorRunResponseDto result = assessorService.run(request);
+			resultCache.put(CACHE_KIND, request, fingerprint, result);
+			return JobQueueService.JobOutcome.done(result, null);
 		} catch (Exception ex) {
-			job.status = AssessorRunJobStatus.FAILED;
-			job.error = failWithReference(job, ex);
-		} finally {
-			job.finishedAt = Instant.now();
-			concurrency.release();
+			return JobQueueService.JobOutcome.failed(null, null, failWithReference(context.jobId(), request, ex));
 		}
 	}
 
-	private AssessorRunJobResponseDto toDto(JobState job) {
+	private AssessorRunJobResponseDto toDto(JobRow job) {
 		return new AssessorRunJobResponseDto(
-				job.jobId,
-				job.status,
-				job.result,
-				job.error
+				job.jobId(),
+				toStatus(job),
+				jobQueue.read(job.result(), AssessorRunResponseDto.class),
+				job.error()
 		);
 	}
 
-	private void cleanupExpired() {
-		Instant now = Instant.now();
-		jobs.entrySet().removeIf(entry -> {
-			JobState job = entry.getValue();
-			Instant base = job.finishedAt == null ? job.createdAt : job.finishedAt;
-			return base.plus(JOB_TTL).isBefore(now);
-		});
+	private AssessorRunJobStatus toStatus(JobRow job) {
+		return switch (job.status()) {
+			case QUEUED -> AssessorRunJobStatus.PENDING;
+			case RUNNING -> AssessorRunJobStatus.RUNNING;
+			case DONE -> AssessorRunJobStatus.DONE;
+			case FAILED, CANCELED -> AssessorRunJobStatus.FAILED;
+		};
 	}
 
-	private String failWithReference(JobState job, Exception ex) {
+	private String failWithReference(String jobId, AssessorRunRequestDto request, Exception ex) {
 		String message = ex == null ? null : ex.getMessage();
 		String reference = "AS-" + UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase(Locale.ROOT);
 		logger.error("Assessor job failed (ref={}, jobId={}, request={}, error={})",
-				reference, job.jobId, formatRequest(job.request), message, ex);
+				reference, jobId, formatRequest(request), message, ex);
 		return "Error ref " + reference;
 	}
 
@@ -129,22 +116,4 @@ public class AssessorJobService {
 				+ ", gapDetectionPolicy=" + request.gapDetectionPolicy()
 				+ "}";
 	}
-
-	private static final class JobState {
-		private final String jobId;
-		private final AssessorRunRequestDto request;
-		private final Instant createdAt;
-
-		private volatile Instant finishedAt;
-		private volatile AssessorRunJobStatus status;
-		private volatile AssessorRunResponseDto result;
-		private volatile String error;
-
-		private JobState(String jobId, AssessorRunRequestDto request, Instant createdAt) {
-			this.jobId = jobId;
-			this.request = request;
-			this.createdAt = createdAt;
-			this.status = AssessorRunJobStatus.PENDING;
-		}
-	}
 }
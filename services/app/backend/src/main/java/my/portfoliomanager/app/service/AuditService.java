@@ -1,20 +1,52 @@
 package my.portfoliomanager.app.service;
 
 import my.portfoliomanager.app.domain.InstrumentEdit;
-import my.portfoliomanager.app.repository.InstrumentEditRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class AuditService {
-	private final InstrumentEditRepository repository;
+	private static final String INSERT_EDIT_SQL = """
+			insert into instrument_edits (isin, field, old_value, new_value, edited_at, edited_by, source)
+			values (?, ?, ?, ?, ?, ?, ?)
+			""";
 
-	public AuditService(InstrumentEditRepository repository) {
-		this.repository = repository;
+	private final JdbcTemplate jdbcTemplate;
+
+	public AuditService(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
 	}
 
 	public void recordEdit(String isin, String field, String oldValue, String newValue, String editedBy, String source) {
+		recordEdits(List.of(newEdit(isin, field, oldValue, newValue, editedBy, source)));
+	}
+
+	public void recordEdits(List<InstrumentEdit> edits) {
+		if (edits == null || edits.isEmpty()) {
+			return;
+		}
+		List<Object[]> rows = new ArrayList<>(edits.size());
+		for (InstrumentEdit edit : edits) {
+			rows.add(new Object[]{
+					edit.getIsin(),
+					edit.getField(),
+					edit.getOldValue(),
+					edit.getNewValue(),
+					Timestamp.valueOf(edit.getEditedAt()),
+					edit.getEditedBy(),
+					edit.getSource()
+			});
+		}
+		jdbcTemplate.batchUpdate(INSERT_EDIT_SQL, rows);
+	}
+
+	public static InstrumentEdit newEdit(String isin, String field, String oldValue, String newValue, String editedBy,
+										 String source) {
 		InstrumentEdit edit = new InstrumentEdit();
 		edit.setIsin(isin);
 		edit.setField(field);
@@ -23,6 +55,6 @@ public class AuditService {
 		edit.setEditedAt(LocalDateTime.now());
 		edit.setEditedBy(editedBy);
 		edit.setSource(source);
-		repository.save(edit);
+		return edit;
 	}
 }
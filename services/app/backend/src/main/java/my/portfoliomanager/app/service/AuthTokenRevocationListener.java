@@ -0,0 +1,111 @@
+package my.portfoliomanager.app.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Keeps one connection LISTENing for revocations made on other replicas, so their cached "active" decisions are
+// dropped right away instead of at token expiry. Whenever the connection has to be re-established the whole cache is
+// cleared, because notifications sent in between are lost. The connection is opened next to the pool rather than
+// borrowed from it: it is held for the lifetime of the application and would otherwise permanently shrink the pool
+// (and trip Hikari's leak detection).
+@Service
+@ConditionalOnProperty(name = "app.jwt.revocation-listener-enabled", havingValue = "true", matchIfMissing = true)
+public class AuthTokenRevocationListener {
+	private static final Logger logger = LoggerFactory.getLogger(AuthTokenRevocationListener.class);
+	private static final int POLL_TIMEOUT_MILLIS = 1000;
+	private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+	private final DataSource dataSource;
+	private final AuthTokenService tokenService;
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+	private volatile boolean stopping;
+
+	public AuthTokenRevocationListener(DataSource dataSource, AuthTokenService tokenService) {
+		this.dataSource = dataSource;
+		this.tokenService = tokenService;
+	}
+
+	@PostConstruct
+	public void start() {
+		executor.execute(this::run);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		stopping = true;
+		executor.shutdownNow();
+		try {
+			executor.awaitTermination(POLL_TIMEOUT_MILLIS * 2L, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void run() {
+		while (!stopping) {
+			try {
+				listen();
+			} catch (Exception ex) {
+				if (stopping) {
+					return;
+				}
+				logger.warn("Auth token revocation listener failed, reconnecting: {}", ex.getMessage());
+				tokenService.clearCachedDecisions();
+				try {
+					Thread.sleep(RECONNECT_DELAY_MILLIS);
+				} catch (InterruptedException interrupted) {
+					return;
+				}
+			}
+		}
+	}
+
+	private void listen() throws Exception {
+		try (Connection connection = openConnection()) {
+			connection.setAutoCommit(true);
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("LISTEN " + AuthTokenService.REVOCATION_CHANNEL);
+			}
+			tokenService.clearCachedDecisions();
+			PGConnection pgConnection = connection.unwrap(PGConnection.class);
+			while (!stopping) {
+				PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+				if (notifications == null) {
+					continue;
+				}
+				for (PGNotification notification : notifications) {
+					if (AuthTokenService.REVOKE_ALL_PAYLOAD.equals(notification.getParameter())) {
+						tokenService.clearCachedDecisions();
+					} else {
+						tokenService.evictCachedDecision(notification.getParameter());
+					}
+				}
+			}
+		}
+	}
+
+	// Uses the pool's own connection settings; other data sources are only borrowed from.
+	private Connection openConnection() throws SQLException {
+		if (dataSource.isWrapperFor(HikariDataSource.class)) {
+			HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+			return DriverManager.getConnection(hikari.getJdbcUrl(), hikari.getUsername(), hikari.getPassword());
+		}
+		return dataSource.getConnection();
+	}
+}
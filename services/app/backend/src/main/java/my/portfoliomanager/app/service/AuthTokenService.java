@@ -1,27 +1,47 @@
 package my.portfoliomanager.app.service;
 
 import my.portfoliomanager.app.domain.AuthToken;
+import my.portfoliomanager.app.dto.AuthTokenCacheStatsDto;
 import my.portfoliomanager.app.repository.AuthTokenRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class AuthTokenService {
 	public static final long DEFAULT_EXPIRES_IN_SECONDS = 3600L;
 	public static final long DEFAULT_CLEANUP_INTERVAL_SECONDS = 300L;
 	public static final int DEFAULT_CLEANUP_BATCH_SIZE = 1000;
+	public static final String REVOCATION_CHANNEL = "auth_token_revoked";
+	// Payload telling the listeners to drop every cached decision instead of a single token.
+	public static final String REVOKE_ALL_PAYLOAD = "*";
+	static final int MAX_CACHED_DECISIONS = 10_000;
+	// Outlives any lookup that read the row before the revocation committed and stores its answer afterwards.
+	private static final Duration REVOCATION_TOMBSTONE_TTL = Duration.ofMinutes(1);
 
 	private final AuthTokenRepository repository;
 	private final JwtTokenHasher hasher;
 	private final Clock clock;
+	private final JdbcTemplate jdbcTemplate;
+	private final Map<String, CachedDecision> decisions = new ConcurrentHashMap<>();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong invalidations = new AtomicLong();
 
-	public AuthTokenService(AuthTokenRepository repository, JwtTokenHasher hasher, Clock clock) {
+	public AuthTokenService(AuthTokenRepository repository, JwtTokenHasher hasher, Clock clock, JdbcTemplate jdbcTemplate) {
 		this.repository = repository;
 		this.hasher = hasher;
 		this.clock = clock;
+		this.jdbcTemplate = jdbcTemplate;
 	}
 
 	@Transactional
@@ -48,11 +68,27 @@ public class AuthTokenService {
 	}
 
 	public boolean isTokenActive(String jti, Instant now) {
+		return isTokenActive(jti, null, now);
+	}
+
+	// Decisions are cached until the token's own expiry, which is when the stored row stops being active anyway.
+	// Revocations replace the entry right away here and, through NOTIFY, on the other replicas.
+	public boolean isTokenActive(String jti, Instant expiresAt, Instant now) {
 		if (jti == null || jti.isBlank() || now == null) {
 			return false;
 		}
 		String hash = hasher.hashJti(jti);
-		return repository.existsByJtiHashAndRevokedAtIsNullAndExpiresAtAfter(hash, now);
+		CachedDecision cached = decisions.get(hash);
+		if (cached != null && now.isBefore(cached.validUntil())) {
+			hits.incrementAndGet();
+			return cached.active();
+		}
+		misses.incrementAndGet();
+		boolean active = repository.existsByJtiHashAndRevokedAtIsNullAndExpiresAtAfter(hash, now);
+		if (expiresAt != null && now.isBefore(expiresAt)) {
+			cacheDecision(hash, new CachedDecision(active, false, expiresAt), now);
+		}
+		return active;
 	}
 
 	@Transactional
@@ -62,7 +98,42 @@ public class AuthTokenService {
 		}
 		String hash = hasher.hashJti(jti);
 		Instant now = clock.instant();
-		return repository.revokeByJtiHash(hash, now) > 0;
+		boolean revoked = repository.revokeByJtiHash(hash, now) > 0;
+		evictCachedDecision(hash);
+		// Delivered to the listeners of all replicas when the transaction commits.
+		jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> {
+		}, REVOCATION_CHANNEL, hash);
+		return revoked;
+	}
+
+	// Lookups until the revoking transaction commits still read the row as active, so inside a transaction the
+	// tombstone is placed again after the commit and its TTL counts from there.
+	public void evictCachedDecision(String jtiHash) {
+		if (jtiHash == null || jtiHash.isBlank()) {
+			return;
+		}
+		invalidations.incrementAndGet();
+		placeTombstone(jtiHash);
+		afterCommit(() -> placeTombstone(jtiHash));
+	}
+
+	public void clearCachedDecisions() {
+		decisions.clear();
+	}
+
+	// For bulk changes of the token table such as a backup restore: this replica drops its cache now and after the
+	// commit, the other replicas when the NOTIFY is delivered.
+	@Transactional
+	public void invalidateCachedDecisions() {
+		invalidations.incrementAndGet();
+		clearCachedDecisions();
+		afterCommit(this::clearCachedDecisions);
+		jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> {
+		}, REVOCATION_CHANNEL, REVOKE_ALL_PAYLOAD);
+	}
+
+	public AuthTokenCacheStatsDto cacheStats() {
+		return new AuthTokenCacheStatsDto(decisions.size(), hits.get(), misses.get(), invalidations.get());
 	}
 
 	@Transactional
@@ -76,4 +147,35 @@ public class AuthTokenService {
 	public Instant now() {
 		return clock.instant();
 	}
+
+	private void placeTombstone(String jtiHash) {
+		decisions.put(jtiHash, new CachedDecision(false, true, clock.instant().plus(REVOCATION_TOMBSTONE_TTL)));
+	}
+
+	private void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+	private void cacheDecision(String hash, CachedDecision decision, Instant now) {
+		if (decisions.size() >= MAX_CACHED_DECISIONS) {
+			decisions.values().removeIf(entry -> !now.isBefore(entry.validUntil()));
+			if (decisions.size() >= MAX_CACHED_DECISIONS) {
+				decisions.clear();
+			}
+		}
+		// A revocation tombstone wins over an answer that may have been read before the revocation committed.
+		decisions.compute(hash, (key, existing) -> existing != null && existing.revocation()
+				&& now.isBefore(existing.validUntil()) ? existing : decision);
+	}
+
+	private record CachedDecision(boolean active, boolean revocation, Instant validUntil) {
+	}
 }
@@ -1,6 +1,9 @@
 package my.portfoliomanager.app.service;
 
 import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
 import tools.jackson.core.type.TypeReference;
 import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectMapper;
@@ -9,25 +12,43 @@ import tools.jackson.databind.json.JsonMapper;
 import javax.sql.DataSource;
 import org.postgresql.util.PGobject;
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import my.portfoliomanager.app.config.BackupProperties;
 import my.portfoliomanager.app.dto.BackupImportResultDto;
 import my.portfoliomanager.app.dto.LlmConfigBackupDto;
 import my.portfoliomanager.app.service.util.BackupContainerCrypto;
-import my.portfoliomanager.app.service.util.ZipEntryReader;
+import my.portfoliomanager.app.service.util.NonClosingOutputStream;
+import my.portfoliomanager.app.service.util.SpooledZipArchive;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -36,15 +57,17 @@ import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.io.PushbackInputStream;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -52,6 +75,14 @@ import java.util.zip.ZipOutputStream;
 @Service
 public class BackupService {
 	private static final int FORMAT_VERSION = 2;
+	private static final int EXPORT_FETCH_SIZE = 500;
+	private static final int DEFAULT_IMPORT_BATCH_SIZE = 500;
+	private static final int DEFAULT_EXPORT_PARALLELISM = 4;
+	private static final long EXPORT_SHUTDOWN_TIMEOUT_SECONDS = 60;
+	private static final long DEFAULT_MAX_IMPORT_BYTES = 4L * 1024 * 1024 * 1024;
+	private static final int MAX_METADATA_BYTES = 10 * 1024 * 1024;
+	private static final TypeReference<Map<String, Object>> ROW_TYPE = new TypeReference<>() {
+	};
 	private static final String METADATA_ENTRY = "metadata.json";
 	private static final String DATA_PREFIX = "data/";
 	private static final String LLM_CONFIG_ENTRY = "llm-config.json";
@@ -65,7 +96,9 @@ public class BackupService {
 	private static final String COLUMN_SUPERSEDES_ID = "supersedes_id";
 	private static final String TYPE_JSON = "json";
 	private static final String TYPE_JSONB = "jsonb";
-	private static final Set<String> EXCLUDED_TABLES = Set.of("databasechangelog", "databasechangeloglock", TABLE_AUTH_TOKENS);
+	private static final Set<String> EXCLUDED_TABLES = Set.of("databasechangelog", "databasechangeloglock", TABLE_AUTH_TOKENS,
+			"llm_response_cache", "instruments_effective", "data_versions", "import_uploads", "import_upload_chunks", "jobs",
+			"job_events", "instrument_dossier_search");
 	private static final List<String> KNOWN_IMPORT_ORDER = List.of(
 			TABLE_DEPOTS,
 			"instruments",
@@ -110,64 +143,65 @@ public class BackupService {
 	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 	private final DataSource dataSource;
 	private final LlmRuntimeConfigService llmRuntimeConfigService;
+	private final AuthTokenService authTokenService;
 	private final ObjectMapper objectMapper;
 	private final String databaseProductName;
+	private final int importBatchSize;
+	private final int exportParallelism;
+	private final long maxImportBytes;
 	private final Map<String, Map<String, ColumnInfo>> columnInfoCache = new ConcurrentHashMap<>();
 
 	public BackupService(JdbcTemplate jdbcTemplate,
 						 NamedParameterJdbcTemplate namedParameterJdbcTemplate,
 						 DataSource dataSource,
-						 LlmRuntimeConfigService llmRuntimeConfigService) {
+						 LlmRuntimeConfigService llmRuntimeConfigService,
+						 AuthTokenService authTokenService,
+						 BackupProperties backupProperties) {
 		this.jdbcTemplate = jdbcTemplate;
 		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
 		this.dataSource = dataSource;
 		this.llmRuntimeConfigService = llmRuntimeConfigService;
+		this.authTokenService = authTokenService;
+		this.importBatchSize = resolveImportBatchSize(backupProperties);
+		this.exportParallelism = resolveExportParallelism(backupProperties);
+		this.maxImportBytes = resolveMaxImportBytes(backupProperties);
 		this.objectMapper = JsonMapper.builder()
 				.disable(DateTimeFeature.WRITE_DATES_AS_TIMESTAMPS)
 				.build();
 		this.databaseProductName = resolveDatabaseProductName();
 	}
 
+	@Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
 	public byte[] exportBackup(String password) {
-		String backupPassword = requirePassword(password);
-		List<String> tables = fetchTableNames();
-		List<TableExport> exports = tables.stream()
-				.map(this::exportTable)
-				.collect(Collectors.toList());
-		LlmConfigBackupDto llmConfig = llmRuntimeConfigService.exportBackupConfig();
-		List<String> importOrder = buildImportOrder(tables);
-		List<TableMetadata> metadataTables = exports.stream()
-				.map(export -> new TableMetadata(export.tableName(), export.rowCount(), export.sha256()))
-				.toList();
-		BackupMetadata metadata = new BackupMetadata(
-				FORMAT_VERSION,
-				Instant.now().toString(),
-				metadataTables,
-				importOrder,
-				llmConfig == null ? null : new LlmConfigMetadata(LLM_CONFIG_ENTRY, sha256(writeJson(llmConfig)))
-		);
-		byte[] zip = writeZip(metadata, exports, llmConfig);
-		return BackupContainerCrypto.encrypt(zip, backupPassword);
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		exportBackup(buffer, password);
+		return buffer.toByteArray();
 	}
 
+	@Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
 	public byte[] exportBackup() {
-		List<String> tables = fetchTableNames();
-		List<TableExport> exports = tables.stream()
-				.map(this::exportTable)
-				.collect(Collectors.toList());
-		LlmConfigBackupDto llmConfig = llmRuntimeConfigService.exportBackupConfig();
-		List<String> importOrder = buildImportOrder(tables);
-		List<TableMetadata> metadataTables = exports.stream()
-				.map(export -> new TableMetadata(export.tableName(), export.rowCount(), export.sha256()))
-				.toList();
-		BackupMetadata metadata = new BackupMetadata(
-				FORMAT_VERSION,
-				Instant.now().toString(),
-				metadataTables,
-				importOrder,
-				llmConfig == null ? null : new LlmConfigMetadata(LLM_CONFIG_ENTRY, sha256(writeJson(llmConfig)))
-		);
-		return writeZip(metadata, exports, llmConfig);
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		exportBackup(buffer);
+		return buffer.toByteArray();
+	}
+
+	@Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+	public void exportBackup(OutputStream outputStream, String password) {
+		String backupPassword = requirePassword(password);
+		try (OutputStream encrypted = BackupContainerCrypto.encrypt(new NonClosingOutputStream(outputStream), backupPassword)) {
+			writeZip(encrypted);
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to write backup archive.", e);
+		}
+	}
+
+	@Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+	public void exportBackup(OutputStream outputStream) {
+		try {
+			writeZip(new NonClosingOutputStream(outputStream));
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to write backup archive.", e);
+		}
 	}
 
 	@Transactional
@@ -177,9 +211,8 @@ public class BackupService {
 
 	@Transactional
 	public BackupImportResultDto importBackup(MultipartFile file, String password) {
-		try {
-			Map<String, byte[]> entries = readEntries(file, password);
-			byte[] metadataBytes = entries.remove(METADATA_ENTRY);
+		try (SpooledZipArchive archive = openArchive(file, password)) {
+			byte[] metadataBytes = archive.readAllBytes(METADATA_ENTRY, MAX_METADATA_BYTES);
 			if (metadataBytes == null) {
 				throw new IllegalArgumentException("Backup is missing metadata.");
 			}
@@ -188,9 +221,9 @@ public class BackupService {
 				throw new IllegalArgumentException("Unsupported backup format version: " + metadata.formatVersion());
 			}
 
-			LlmConfigBackupDto llmConfig = readLlmConfig(metadata, entries);
+			LlmConfigBackupDto llmConfig = readLlmConfig(metadata, archive);
 			List<TableMetadata> importedTables = filterImportedTables(metadata.tables());
-			Map<String, byte[]> tableData = prepareTableData(importedTables, entries);
+			requireTableEntries(importedTables, archive);
 			List<String> tables = importedTables.stream()
 					.map(TableMetadata::name)
 					.toList();
@@ -199,32 +232,32 @@ public class BackupService {
 			truncateTables(tablesToReset);
 			List<String> importOrder = determineImportOrder(metadata);
 			List<DepotActiveSnapshot> depotActiveSnapshots = new ArrayList<>();
-			long rowsImported = insertTables(importOrder, importedTables, tableData, depotActiveSnapshots);
+			long rowsImported = insertTables(importOrder, importedTables, archive, depotActiveSnapshots);
 			applyDepotActiveSnapshotUpdates(depotActiveSnapshots);
 			resetSequences(tablesToReset);
 			llmRuntimeConfigService.importBackupConfig(llmConfig);
+			// auth_tokens was truncated, so cached "active" decisions on every replica are stale.
+			authTokenService.invalidateCachedDecisions();
 			return new BackupImportResultDto(tables.size(), rowsImported, metadata.formatVersion(), metadata.exportedAt());
 		} catch (IOException e) {
 			throw new IllegalArgumentException("Unable to read backup archive.", e);
 		}
 	}
 
-	private Map<String, byte[]> readEntries(MultipartFile file, String password) throws IOException {
+	private SpooledZipArchive openArchive(MultipartFile file, String password) throws IOException {
 		try (InputStream inputStream = file.getInputStream();
 			 PushbackInputStream pushbackInputStream = new PushbackInputStream(inputStream, BackupContainerCrypto.headerLength())) {
 			byte[] header = pushbackInputStream.readNBytes(BackupContainerCrypto.headerLength());
+			pushbackInputStream.unread(header);
 			if (BackupContainerCrypto.isEncrypted(header)) {
 				String backupPassword = requirePassword(password);
 				try {
-					return ZipEntryReader.readZipEntries(new java.util.zip.ZipInputStream(
-						BackupContainerCrypto.decrypt(pushbackInputStream, backupPassword),
-						StandardCharsets.UTF_8));
+					return SpooledZipArchive.spool(BackupContainerCrypto.decrypt(pushbackInputStream, backupPassword), maxImportBytes);
 				} catch (IOException e) {
 					throw new IllegalArgumentException("Unable to decrypt backup container.", e);
 				}
 			}
-			pushbackInputStream.unread(header);
-			return ZipEntryReader.readZipEntries(new java.util.zip.ZipInputStream(pushbackInputStream, StandardCharsets.UTF_8));
+			return SpooledZipArchive.spool(pushbackInputStream, maxImportBytes);
 		}
 	}
 
@@ -243,12 +276,142 @@ public class BackupService {
 				.toList();
 	}
 
-	private TableExport exportTable(String tableName) {
-		String selectSql = "SELECT * FROM " + quoteIdentifier(tableName);
-		List<Map<String, Object>> rows = jdbcTemplate.queryForList(selectSql);
-		byte[] bytes = writeJson(rows);
-		String sha = sha256(bytes);
-		return new TableExport(tableName, rows.size(), bytes, sha);
+	private TableMetadata exportTable(String tableName, ZipOutputStream zip) throws IOException {
+		zip.putNextEntry(new ZipEntry(DATA_PREFIX + tableName + ".json"));
+		TableMetadata metadata = writeTableJson(tableName, zip, generator -> jdbcTemplate.query(
+				connection -> prepareExportQuery(connection, tableName),
+				(ResultSetExtractor<Long>) rs -> writeRows(rs, generator)));
+		zip.closeEntry();
+		return metadata;
+	}
+
+	private List<TableMetadata> exportTablesInParallel(List<String> tables, ZipOutputStream zip) throws IOException {
+		String snapshotId = jdbcTemplate.queryForObject("SELECT pg_export_snapshot()", String.class);
+		if (snapshotId == null || !snapshotId.matches("[0-9A-Fa-f-]+")) {
+			throw new IllegalStateException("Unable to export database snapshot for backup.");
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(exportParallelism, tables.size()));
+		List<Future<TableSpool>> futures = new ArrayList<>();
+		try {
+			for (String table : tables) {
+				futures.add(executor.submit(() -> spoolTable(table, snapshotId)));
+			}
+			List<TableMetadata> metadataTables = new ArrayList<>();
+			for (Future<TableSpool> future : futures) {
+				TableSpool spool = awaitSpool(future);
+				try {
+					zip.putNextEntry(new ZipEntry(DATA_PREFIX + spool.metadata().name() + ".json"));
+					Files.copy(spool.file(), zip);
+					zip.closeEntry();
+				} finally {
+					Files.deleteIfExists(spool.file());
+				}
+				metadataTables.add(spool.metadata());
+			}
+			return metadataTables;
+		} finally {
+			executor.shutdownNow();
+			awaitTermination(executor);
+			for (Future<TableSpool> future : futures) {
+				discardSpool(future);
+			}
+		}
+	}
+
+	private TableSpool spoolTable(String tableName, String snapshotId) throws IOException, SQLException {
+		Path file = Files.createTempFile("pm-backup-table-", ".json");
+		try (Connection connection = dataSource.getConnection()) {
+			connection.setAutoCommit(false);
+			try {
+				try (Statement statement = connection.createStatement()) {
+					statement.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ, READ ONLY");
+					statement.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+				}
+				try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(file));
+					 PreparedStatement statement = prepareExportQuery(connection, tableName);
+					 ResultSet rs = statement.executeQuery()) {
+					TableMetadata metadata = writeTableJson(tableName, outputStream, generator -> writeRows(rs, generator));
+					return new TableSpool(metadata, file);
+				}
+			} finally {
+				connection.rollback();
+				connection.setAutoCommit(true);
+			}
+		} catch (IOException | SQLException | RuntimeException ex) {
+			Files.deleteIfExists(file);
+			throw ex;
+		}
+	}
+
+	private TableSpool awaitSpool(Future<TableSpool> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Backup export was interrupted.", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException ioException) {
+				throw ioException;
+			}
+			if (cause instanceof DataAccessException dataAccessException) {
+				throw dataAccessException;
+			}
+			throw new IllegalStateException("Unable to export backup table: " + extractRootCauseMessage(cause), cause);
+		}
+	}
+
+	private void awaitTermination(ExecutorService executor) {
+		try {
+			executor.awaitTermination(EXPORT_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void discardSpool(Future<TableSpool> future) {
+		if (!future.isDone() || future.isCancelled()) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(future.get().file());
+		} catch (Exception ignored) {
+			// Spool was never created or is already gone.
+		}
+	}
+
+	private TableMetadata writeTableJson(String tableName, OutputStream outputStream, RowWriter rowWriter) {
+		MessageDigest digest = newSha256Digest();
+		long rowCount;
+		try (JsonGenerator generator = objectMapper.createGenerator(
+				new DigestOutputStream(new NonClosingOutputStream(outputStream), digest))) {
+			generator.writeStartArray();
+			rowCount = rowWriter.write(generator);
+			generator.writeEndArray();
+		} catch (JacksonException e) {
+			throw new IllegalStateException("Unable to serialize table data.", e);
+		} catch (SQLException e) {
+			throw new IllegalStateException("Unable to read table data: " + tableName, e);
+		}
+		return new TableMetadata(tableName, Math.toIntExact(rowCount), toHex(digest.digest()));
+	}
+
+	private PreparedStatement prepareExportQuery(Connection connection, String tableName) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement("SELECT * FROM " + quoteIdentifier(tableName),
+				ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		statement.setFetchSize(EXPORT_FETCH_SIZE);
+		return statement;
+	}
+
+	private long writeRows(ResultSet rs, JsonGenerator generator) throws SQLException {
+		ColumnMapRowMapper rowMapper = new ColumnMapRowMapper();
+		long rowCount = 0;
+		while (rs.next()) {
+			Map<String, Object> row = rowMapper.mapRow(rs, (int) rowCount);
+			generator.writePOJO(row);
+			rowCount++;
+		}
+		return rowCount;
 	}
 
 	private byte[] writeJson(Object value) {
@@ -276,48 +439,48 @@ public class BackupService {
 		return ordered;
 	}
 
-	private byte[] writeZip(BackupMetadata metadata, List<TableExport> exports, LlmConfigBackupDto llmConfig) {
-		try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			 ZipOutputStream zip = new ZipOutputStream(baos, StandardCharsets.UTF_8)) {
-			for (TableExport export : exports) {
-				ZipEntry entry = new ZipEntry(DATA_PREFIX + export.tableName() + ".json");
-				zip.putNextEntry(entry);
-				zip.write(export.bytes());
-				zip.closeEntry();
+	private void writeZip(OutputStream outputStream) throws IOException {
+		List<String> tables = fetchTableNames();
+		LlmConfigBackupDto llmConfig = llmRuntimeConfigService.exportBackupConfig();
+		try (ZipOutputStream zip = new ZipOutputStream(outputStream, StandardCharsets.UTF_8)) {
+			List<TableMetadata> metadataTables = new ArrayList<>();
+			if (isPostgres() && exportParallelism > 1 && tables.size() > 1) {
+				metadataTables.addAll(exportTablesInParallel(tables, zip));
+			} else {
+				for (String table : tables) {
+					metadataTables.add(exportTable(table, zip));
+				}
 			}
+			LlmConfigMetadata llmConfigMetadata = null;
 			if (llmConfig != null) {
+				byte[] llmConfigBytes = writeJson(llmConfig);
 				ZipEntry llmEntry = new ZipEntry(LLM_CONFIG_ENTRY);
 				zip.putNextEntry(llmEntry);
-				zip.write(writeJson(llmConfig));
+				zip.write(llmConfigBytes);
 				zip.closeEntry();
+				llmConfigMetadata = new LlmConfigMetadata(LLM_CONFIG_ENTRY, sha256(llmConfigBytes));
 			}
-			byte[] metadataBytes = objectMapper.writeValueAsBytes(metadata);
+			BackupMetadata metadata = new BackupMetadata(
+					FORMAT_VERSION,
+					Instant.now().toString(),
+					List.copyOf(metadataTables),
+					buildImportOrder(tables),
+					llmConfigMetadata
+			);
 			ZipEntry metaEntry = new ZipEntry(METADATA_ENTRY);
 			zip.putNextEntry(metaEntry);
-			zip.write(metadataBytes);
+			zip.write(writeJson(metadata));
 			zip.closeEntry();
 			zip.finish();
-			return baos.toByteArray();
-		} catch (IOException e) {
-			throw new IllegalStateException("Unable to write backup archive.", e);
 		}
 	}
 
-	private Map<String, byte[]> prepareTableData(List<TableMetadata> tables, Map<String, byte[]> entries) {
-		Map<String, byte[]> tableData = new HashMap<>();
+	private void requireTableEntries(List<TableMetadata> tables, SpooledZipArchive archive) {
 		for (TableMetadata table : tables) {
-			String entryName = DATA_PREFIX + table.name() + ".json";
-			byte[] data = entries.remove(entryName);
-			if (data == null) {
+			if (!archive.contains(DATA_PREFIX + table.name() + ".json")) {
 				throw new IllegalArgumentException("Missing data for table: " + table.name());
 			}
-			String computed = sha256(data);
-			if (!computed.equals(table.sha256())) {
-				throw new IllegalArgumentException("Backup corrupted for table: " + table.name());
-			}
-			tableData.put(table.name(), data);
 		}
-		return tableData;
 	}
 
 	private List<TableMetadata> filterImportedTables(List<TableMetadata> tables) {
@@ -326,8 +489,10 @@ public class BackupService {
 		}
 		return tables.stream()
 				.filter(table -> table != null
+						&& table.name() != null
 						&& !TABLE_LLM_CONFIG.equalsIgnoreCase(table.name())
-						&& !TABLE_AUTH_TOKENS.equalsIgnoreCase(table.name()))
+						// Archives written before a table was excluded may still carry it; derived tables are rebuilt by triggers.
+						&& !EXCLUDED_TABLES.contains(table.name().toLowerCase(Locale.ROOT)))
 				.toList();
 	}
 
@@ -344,13 +509,13 @@ public class BackupService {
 				.toList());
 	}
 
-	private LlmConfigBackupDto readLlmConfig(BackupMetadata metadata, Map<String, byte[]> entries) throws IOException {
+	private LlmConfigBackupDto readLlmConfig(BackupMetadata metadata, SpooledZipArchive archive) throws IOException {
 		LlmConfigMetadata llmConfig = metadata.llmConfig();
 		if (llmConfig != null) {
 			String entryName = llmConfig.entryName() == null || llmConfig.entryName().isBlank()
 					? LLM_CONFIG_ENTRY
 					: llmConfig.entryName();
-			byte[] data = entries.remove(entryName);
+			byte[] data = archive.readAllBytes(entryName, MAX_METADATA_BYTES);
 			if (data == null) {
 				throw new IllegalArgumentException("Missing data for llm_config backup.");
 			}
@@ -361,15 +526,15 @@ public class BackupService {
 			return objectMapper.readValue(data, LlmConfigBackupDto.class);
 		}
 
-			TableMetadata legacyTable = metadata.tables() == null ? null : metadata.tables().stream()
-					.filter(table -> table != null && TABLE_LLM_CONFIG.equalsIgnoreCase(table.name()))
-					.findFirst()
-					.orElse(null);
+		TableMetadata legacyTable = metadata.tables() == null ? null : metadata.tables().stream()
+				.filter(table -> table != null && TABLE_LLM_CONFIG.equalsIgnoreCase(table.name()))
+				.findFirst()
+				.orElse(null);
 		if (legacyTable == null) {
 			return null;
 		}
 		String entryName = DATA_PREFIX + legacyTable.name() + ".json";
-		byte[] data = entries.remove(entryName);
+		byte[] data = archive.readAllBytes(entryName, MAX_METADATA_BYTES);
 		if (data == null) {
 			throw new IllegalArgumentException("Missing data for legacy llm_config backup.");
 		}
@@ -436,7 +601,7 @@ public class BackupService {
 
 	private long insertTables(List<String> importOrder,
 							  List<TableMetadata> metadata,
-							  Map<String, byte[]> tableData,
+							  SpooledZipArchive archive,
 							  List<DepotActiveSnapshot> depotActiveSnapshots) throws IOException {
 		long rowsImported = 0;
 		Map<String, TableMetadata> metadataByName = metadata.stream()
@@ -446,35 +611,48 @@ public class BackupService {
 			if (meta == null) {
 				continue;
 			}
-			byte[] dataBytes = tableData.get(table);
-			if (dataBytes == null) {
-				continue;
+			try (InputStream data = archive.open(DATA_PREFIX + table + ".json")) {
+				if (data == null) {
+					continue;
+				}
+				rowsImported += insertTableRows(meta, data, depotActiveSnapshots);
 			}
-			rowsImported += insertTableRows(table, dataBytes, meta.rowCount(), depotActiveSnapshots);
 		}
 		return rowsImported;
 	}
 
-	private long insertTableRows(String tableName,
-								 byte[] jsonData,
-								 int expectedRows,
+	private long insertTableRows(TableMetadata meta,
+								 InputStream data,
 								 List<DepotActiveSnapshot> depotActiveSnapshots) throws IOException {
+		String tableName = meta.name();
 		validateTableName(tableName);
-		List<Map<String, Object>> rows = deserializeRows(jsonData);
-		validateExpectedRowCount(tableName, expectedRows, rows.size());
-		if (rows.isEmpty()) {
-			return 0;
+		MessageDigest digest = newSha256Digest();
+		DigestInputStream digestStream = new DigestInputStream(data, digest);
+		TableRowWriter writer = new TableRowWriter(tableName);
+		try (JsonParser parser = objectMapper.createParser(digestStream)) {
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				throw new IllegalArgumentException("Backup data is not a row array for table: " + tableName);
+			}
+			while (parser.nextToken() == JsonToken.START_OBJECT) {
+				Map<String, Object> row = objectMapper.readValue(parser, ROW_TYPE);
+				collectSupersedesUpdateIfNeeded(tableName, row, writer.supersedesUpdates());
+				collectDepotActiveSnapshotIfNeeded(tableName, row, depotActiveSnapshots);
+				writer.add(row);
+			}
+			if (parser.currentToken() != JsonToken.END_ARRAY) {
+				throw new IllegalArgumentException("Backup data is not a row array for table: " + tableName);
+			}
+			digestStream.transferTo(OutputStream.nullOutputStream());
 		}
-		List<DossierSupersedes> supersedesUpdates = collectSupersedesUpdatesIfNeeded(tableName, rows);
-		collectDepotActiveSnapshotsIfNeeded(tableName, rows, depotActiveSnapshots);
-		Map<String, ColumnInfo> columnInfos = getColumnInfos(tableName);
-		List<String> columns = resolveInsertColumns(tableName, rows, columnInfos);
-		String sql = buildInsertSql(tableName, columns);
-		insertRows(tableName, rows, columns, columnInfos, sql);
-		if (!supersedesUpdates.isEmpty()) {
-			applySupersedesUpdates(supersedesUpdates);
+		writer.flush();
+		if (!toHex(digest.digest()).equals(meta.sha256())) {
+			throw new IllegalArgumentException("Backup corrupted for table: " + tableName);
 		}
-		return rows.size();
+		validateExpectedRowCount(tableName, meta.rowCount(), writer.rowCount());
+		if (!writer.supersedesUpdates().isEmpty()) {
+			applySupersedesUpdates(writer.supersedesUpdates());
+		}
+		return writer.rowCount();
 	}
 
 	private void validateTableName(String tableName) {
@@ -483,42 +661,42 @@ public class BackupService {
 		}
 	}
 
-	private void validateExpectedRowCount(String tableName, int expectedRows, int actualRows) {
+	private void validateExpectedRowCount(String tableName, int expectedRows, long actualRows) {
 		if (expectedRows != actualRows) {
 			throw new IllegalArgumentException("Row count mismatch for table: " + tableName);
 		}
 	}
 
-	private List<DossierSupersedes> collectSupersedesUpdatesIfNeeded(String tableName, List<Map<String, Object>> rows) {
+	private void collectSupersedesUpdateIfNeeded(String tableName,
+												 Map<String, Object> row,
+												 List<DossierSupersedes> supersedesUpdates) {
 		if (!TABLE_INSTRUMENT_DOSSIERS.equalsIgnoreCase(tableName)) {
-			return List.of();
+			return;
 		}
-		return collectSupersedesUpdates(rows);
+		collectSupersedesUpdate(row, supersedesUpdates);
 	}
 
-	private void collectDepotActiveSnapshotsIfNeeded(String tableName,
-												 List<Map<String, Object>> rows,
-												 List<DepotActiveSnapshot> depotActiveSnapshots) {
-		if (!TABLE_DEPOTS.equalsIgnoreCase(tableName)) {
+	private void collectDepotActiveSnapshotIfNeeded(String tableName,
+												   Map<String, Object> row,
+												   List<DepotActiveSnapshot> depotActiveSnapshots) {
+		if (!TABLE_DEPOTS.equalsIgnoreCase(tableName) || row == null) {
 			return;
 		}
-		for (Map<String, Object> row : rows) {
-			Object active = row.get(COLUMN_ACTIVE_SNAPSHOT_ID);
-			if (active != null) {
-				Long depotId = toLong(row.get(COLUMN_DEPOT_ID));
-				Long snapshotId = toLong(active);
-				if (depotId != null && snapshotId != null) {
-					depotActiveSnapshots.add(new DepotActiveSnapshot(depotId, snapshotId));
-				}
+		Object active = row.get(COLUMN_ACTIVE_SNAPSHOT_ID);
+		if (active != null) {
+			Long depotId = toLong(row.get(COLUMN_DEPOT_ID));
+			Long snapshotId = toLong(active);
+			if (depotId != null && snapshotId != null) {
+				depotActiveSnapshots.add(new DepotActiveSnapshot(depotId, snapshotId));
 			}
-			row.put(COLUMN_ACTIVE_SNAPSHOT_ID, null);
 		}
+		row.put(COLUMN_ACTIVE_SNAPSHOT_ID, null);
 	}
 
 	private List<String> resolveInsertColumns(String tableName,
-										 List<Map<String, Object>> rows,
-										 Map<String, ColumnInfo> columnInfos) {
-		List<String> requestedColumns = new ArrayList<>(rows.get(0).keySet());
+											 Map<String, Object> firstRow,
+											 Map<String, ColumnInfo> columnInfos) {
+		List<String> requestedColumns = new ArrayList<>(firstRow.keySet());
 		List<String> columns = requestedColumns.stream()
 				.filter(this::isValidIdentifier)
 				.filter(col -> columnInfos.containsKey(col.toLowerCase(Locale.ROOT)))
@@ -542,25 +720,53 @@ public class BackupService {
 		return "INSERT INTO " + quoteIdentifier(tableName) + " (" + columnList + ") VALUES (" + values + ")";
 	}
 
-	private void insertRows(String tableName,
-						 List<Map<String, Object>> rows,
-						 List<String> columns,
-						 Map<String, ColumnInfo> columnInfos,
-						 String sql) {
-		for (Map<String, Object> row : rows) {
+	private void insertBatch(String tableName,
+							 List<Map<String, Object>> rows,
+							 long firstRowIndex,
+							 List<String> columns,
+							 Map<String, ColumnInfo> columnInfos,
+							 String sql) {
+		MapSqlParameterSource[] batch = new MapSqlParameterSource[rows.size()];
+		for (int i = 0; i < rows.size(); i++) {
+			Map<String, Object> row = rows.get(i);
 			MapSqlParameterSource params = new MapSqlParameterSource();
 			for (String column : columns) {
 				ColumnInfo info = columnInfos.get(column.toLowerCase(Locale.ROOT));
 				params.addValue(column, prepareValue(row.get(column), info));
 			}
-			try {
-				namedParameterJdbcTemplate.update(sql, params);
-			} catch (DataAccessException ex) {
-				String message = "Backup import failed for table '" + tableName + "' (" + buildRowContext(row)
-						+ "): " + extractRootCauseMessage(ex);
-				throw new IllegalArgumentException(message, ex);
+			batch[i] = params;
+		}
+		try {
+			namedParameterJdbcTemplate.batchUpdate(sql, batch);
+		} catch (DataAccessException ex) {
+			int failedIndex = findFailedBatchIndex(ex, rows.size());
+			String context = failedIndex >= 0
+					? buildRowContext(rows.get(failedIndex))
+					: "rows " + (firstRowIndex + 1) + "-" + (firstRowIndex + rows.size());
+			String message = "Backup import failed for table '" + tableName + "' (" + context
+					+ "): " + extractRootCauseMessage(ex);
+			throw new IllegalArgumentException(message, ex);
+		}
+	}
+
+	private int findFailedBatchIndex(Throwable throwable, int batchSize) {
+		Throwable current = throwable;
+		while (current != null) {
+			if (current instanceof BatchUpdateException batchException) {
+				int[] counts = batchException.getUpdateCounts();
+				if (counts == null) {
+					return -1;
+				}
+				for (int i = 0; i < counts.length; i++) {
+					if (counts[i] == Statement.EXECUTE_FAILED) {
+						return i;
+					}
+				}
+				return counts.length < batchSize ? counts.length : -1;
 			}
+			current = current.getCause() == current ? null : current.getCause();
 		}
+		return -1;
 	}
 
 	private boolean isValidIdentifier(String name) {
@@ -601,52 +807,43 @@ public class BackupService {
 		return current.getMessage();
 	}
 
-	private List<Map<String, Object>> deserializeRows(byte[] jsonData) throws IOException {
-		return objectMapper.readValue(jsonData, new TypeReference<>() {
-		});
-	}
-
 	private void applyDepotActiveSnapshotUpdates(List<DepotActiveSnapshot> updates) {
 		if (updates.isEmpty()) {
 			return;
 		}
 		String sql = "UPDATE " + quoteIdentifier(TABLE_DEPOTS) + " SET " + quoteIdentifier(COLUMN_ACTIVE_SNAPSHOT_ID) + " = :active WHERE " + quoteIdentifier(COLUMN_DEPOT_ID) + " = :" + COLUMN_DEPOT_ID;
-		for (DepotActiveSnapshot update : updates) {
-			MapSqlParameterSource params = new MapSqlParameterSource();
-			params.addValue("active", update.activeSnapshotId());
-			params.addValue(COLUMN_DEPOT_ID, update.depotId());
-			namedParameterJdbcTemplate.update(sql, params);
-		}
+		MapSqlParameterSource[] batch = updates.stream()
+				.map(update -> new MapSqlParameterSource()
+						.addValue("active", update.activeSnapshotId())
+						.addValue(COLUMN_DEPOT_ID, update.depotId()))
+				.toArray(MapSqlParameterSource[]::new);
+		namedParameterJdbcTemplate.batchUpdate(sql, batch);
 	}
 
-	private List<DossierSupersedes> collectSupersedesUpdates(List<Map<String, Object>> rows) {
-		if (rows == null || rows.isEmpty()) {
-			return List.of();
+	private void collectSupersedesUpdate(Map<String, Object> row, List<DossierSupersedes> updates) {
+		if (row == null) {
+			return;
 		}
-		List<DossierSupersedes> updates = new ArrayList<>();
-		for (Map<String, Object> row : rows) {
-			if (row == null) {
-				continue;
-			}
-			Long dossierId = toLong(row.get(COLUMN_DOSSIER_ID));
-			Long supersedesId = toLong(row.get(COLUMN_SUPERSEDES_ID));
-			if (dossierId != null && supersedesId != null) {
-				updates.add(new DossierSupersedes(dossierId, supersedesId));
-				row.put(COLUMN_SUPERSEDES_ID, null);
-			}
+		Long dossierId = toLong(row.get(COLUMN_DOSSIER_ID));
+		Long supersedesId = toLong(row.get(COLUMN_SUPERSEDES_ID));
+		if (dossierId != null && supersedesId != null) {
+			updates.add(new DossierSupersedes(dossierId, supersedesId));
+			row.put(COLUMN_SUPERSEDES_ID, null);
 		}
-		return List.copyOf(updates);
 	}
 
 	private void applySupersedesUpdates(List<DossierSupersedes> updates) {
 		String sql = "UPDATE " + quoteIdentifier(TABLE_INSTRUMENT_DOSSIERS)
 				+ " SET " + quoteIdentifier(COLUMN_SUPERSEDES_ID) + " = :supersedes"
 				+ " WHERE " + quoteIdentifier(COLUMN_DOSSIER_ID) + " = :dossier";
-		for (DossierSupersedes update : updates) {
-			MapSqlParameterSource params = new MapSqlParameterSource();
-			params.addValue("supersedes", update.supersedesId());
-			params.addValue("dossier", update.dossierId());
-			namedParameterJdbcTemplate.update(sql, params);
+		for (int start = 0; start < updates.size(); start += importBatchSize) {
+			MapSqlParameterSource[] batch = updates.subList(start, Math.min(start + importBatchSize, updates.size()))
+					.stream()
+					.map(update -> new MapSqlParameterSource()
+							.addValue("supersedes", update.supersedesId())
+							.addValue("dossier", update.dossierId()))
+					.toArray(MapSqlParameterSource[]::new);
+			namedParameterJdbcTemplate.batchUpdate(sql, batch);
 		}
 	}
 
@@ -965,9 +1162,12 @@ public class BackupService {
 	}
 
 	private String sha256(byte[] data) {
+		return toHex(newSha256Digest().digest(data));
+	}
+
+	private MessageDigest newSha256Digest() {
 		try {
-			MessageDigest digest = MessageDigest.getInstance("SHA-256");
-			return toHex(digest.digest(data));
+			return MessageDigest.getInstance("SHA-256");
 		} catch (NoSuchAlgorithmException e) {
 			throw new IllegalStateException("SHA-256 not available.", e);
 		}
@@ -995,8 +1195,19 @@ public class BackupService {
 		return builder.toString();
 	}
 
-	private Map<String, byte[]> readZipEntries(byte[] payload) throws IOException {
-		return ZipEntryReader.readZipEntries(payload);
+	private static int resolveImportBatchSize(BackupProperties properties) {
+		Integer configured = properties == null ? null : properties.importBatchSize();
+		return configured == null || configured < 1 ? DEFAULT_IMPORT_BATCH_SIZE : configured;
+	}
+
+	private static int resolveExportParallelism(BackupProperties properties) {
+		Integer configured = properties == null ? null : properties.exportParallelism();
+		return configured == null || configured < 1 ? DEFAULT_EXPORT_PARALLELISM : configured;
+	}
+
+	private static long resolveMaxImportBytes(BackupProperties properties) {
+		DataSize configured = properties == null ? null : properties.maxImportSize();
+		return configured == null || configured.toBytes() < 1 ? DEFAULT_MAX_IMPORT_BYTES : configured.toBytes();
 	}
 
 	private String requirePassword(String password) {
@@ -1018,36 +1229,54 @@ public class BackupService {
 		}
 	}
 
-	private record TableExport(String tableName, int rowCount, byte[] bytes, String sha256) {
-		@Override
-		public boolean equals(Object obj) {
-			if (this == obj) {
-				return true;
+	@FunctionalInterface
+	private interface RowWriter {
+		long write(JsonGenerator generator) throws SQLException;
+	}
+
+	private record TableSpool(TableMetadata metadata, Path file) {
+	}
+
+	private final class TableRowWriter {
+		private final String tableName;
+		private final List<Map<String, Object>> pending = new ArrayList<>();
+		private final List<DossierSupersedes> supersedesUpdates = new ArrayList<>();
+		private Map<String, ColumnInfo> columnInfos;
+		private List<String> columns;
+		private String sql;
+		private long rowCount;
+
+		private TableRowWriter(String tableName) {
+			this.tableName = tableName;
+		}
+
+		void add(Map<String, Object> row) {
+			if (columns == null) {
+				columnInfos = getColumnInfos(tableName);
+				columns = resolveInsertColumns(tableName, row, columnInfos);
+				sql = buildInsertSql(tableName, columns);
+			}
+			pending.add(row);
+			rowCount++;
+			if (pending.size() >= importBatchSize) {
+				flush();
 			}
-			if (!(obj instanceof TableExport other)) {
-				return false;
+		}
+
+		void flush() {
+			if (pending.isEmpty()) {
+				return;
 			}
-			return rowCount == other.rowCount
-					&& tableName.equals(other.tableName)
-					&& sha256.equals(other.sha256)
-					&& Arrays.equals(bytes, other.bytes);
-		}
-
-		@Override
-		public int hashCode() {
-			int result = tableName.hashCode();
-			result = 31 * result + Integer.hashCode(rowCount);
-			result = 31 * result + Arrays.hashCode(bytes);
-			result = 31 * result + sha256.hashCode();
-			return result;
-		}
-
-		@Override
-		public String toString() {
-			return "TableExport[tableName=" + tableName
-					+ ", rowCount=" + rowCount
-					+ ", bytes=" + (bytes == null ? 0 : bytes.length)
-					+ ", sha256=" + sha256 + "]";
+			insertBatch(tableName, pending, rowCount - pending.size(), columns, columnInfos, sql);
+			pending.clear();
+		}
+
+		long rowCount() {
+			return rowCount;
+		}
+
+		List<DossierSupersedes> supersedesUpdates() {
+			return supersedesUpdates;
 		}
 	}
 
@@ -1,6 +1,10 @@
 package my.portfoliomanager.app.service;
 
+import jakarta.annotation.PreDestroy;
+import my.portfoliomanager.app.config.RulesProperties;
 import my.portfoliomanager.app.domain.Instrument;
+import my.portfoliomanager.app.domain.InstrumentEdit;
+import my.portfoliomanager.app.domain.InstrumentOverride;
 import my.portfoliomanager.app.dto.ClassificationDto;
 import my.portfoliomanager.app.dto.FiredRuleDto;
 import my.portfoliomanager.app.dto.ImpactDto;
@@ -9,8 +13,11 @@ import my.portfoliomanager.app.repository.InstrumentRepository;
 import my.portfoliomanager.app.repository.InstrumentOverrideRepository;
 import my.portfoliomanager.app.repository.SavingPlanRepository;
 import my.portfoliomanager.app.repository.SnapshotPositionRepository;
+import my.portfoliomanager.app.rules.CompiledRuleset;
 import my.portfoliomanager.app.rules.RulesEngine;
 import my.portfoliomanager.app.rules.RulesetDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,9 +28,14 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 @Service
 public class ClassificationService {
+	private static final int PARALLEL_THRESHOLD = 256;
+	private static final int STREAM_CHUNK_SIZE = 500;
+
 	private final InstrumentRepository instrumentRepository;
 	private final InstrumentOverrideRepository overrideRepository;
 	private final SavingPlanRepository savingPlanRepository;
@@ -31,13 +43,28 @@ public class ClassificationService {
 	private final AuditService auditService;
 	private final KnowledgeBaseClassificationService knowledgeBaseClassificationService;
 	private final RulesEngine rulesEngine;
+	private final ForkJoinPool evaluationPool;
 
+	@Autowired
 	public ClassificationService(InstrumentRepository instrumentRepository,
 								InstrumentOverrideRepository overrideRepository,
 								SavingPlanRepository savingPlanRepository,
 								SnapshotPositionRepository snapshotPositionRepository,
 								AuditService auditService,
-								KnowledgeBaseClassificationService knowledgeBaseClassificationService) {
+								KnowledgeBaseClassificationService knowledgeBaseClassificationService,
+								RulesProperties rulesProperties) {
+		this(instrumentRepository, overrideRepository, savingPlanRepository, snapshotPositionRepository, auditService,
+				knowledgeBaseClassificationService, createEvaluationPool(resolveParallelism(rulesProperties)));
+	}
+
+	// Tests hand in their own pool so they can close it; a null pool evaluates sequentially.
+	ClassificationService(InstrumentRepository instrumentRepository,
+						  InstrumentOverrideRepository overrideRepository,
+						  SavingPlanRepository savingPlanRepository,
+						  SnapshotPositionRepository snapshotPositionRepository,
+						  AuditService auditService,
+						  KnowledgeBaseClassificationService knowledgeBaseClassificationService,
+						  ForkJoinPool evaluationPool) {
 		this.instrumentRepository = instrumentRepository;
 		this.overrideRepository = overrideRepository;
 		this.savingPlanRepository = savingPlanRepository;
@@ -45,88 +72,146 @@ public class ClassificationService {
 		this.auditService = auditService;
 		this.knowledgeBaseClassificationService = knowledgeBaseClassificationService;
 		this.rulesEngine = new RulesEngine();
+		this.evaluationPool = evaluationPool;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (evaluationPool != null) {
+			evaluationPool.shutdownNow();
+		}
 	}
 
 	public List<ReclassificationDto> simulate(RulesetDefinition ruleset) {
+		return simulate(CompiledRuleset.compile(ruleset));
+	}
+
+	public List<ReclassificationDto> simulate(CompiledRuleset ruleset) {
 		return simulateInternal(ruleset, null);
 	}
 
 	public List<ReclassificationDto> simulateAsOf(RulesetDefinition ruleset, LocalDate asOfDate) {
-		return simulateInternal(ruleset, asOfDate);
+		return simulateInternal(CompiledRuleset.compile(ruleset), asOfDate);
+	}
+
+	// Instruments are read one keyset page (ordered by ISIN) at a time, so the first lines go out before the rest of
+	// the universe is loaded; the per-ISIN aggregates are small and loaded once up front.
+	public void simulateStream(CompiledRuleset ruleset, LocalDate asOfDate, Consumer<List<ReclassificationDto>> sink) {
+		Map<String, BigDecimal> savingPlanTotals = loadSavingPlanTotals();
+		ImpactContext impactContext = loadImpactContext(asOfDate);
+		String afterIsin = "";
+		while (true) {
+			List<Instrument> page = instrumentRepository.findByIsinGreaterThanOrderByIsinAsc(afterIsin,
+					Limit.of(STREAM_CHUNK_SIZE));
+			if (page.isEmpty()) {
+				return;
+			}
+			ClassificationContext context = new ClassificationContext(page, savingPlanTotals, impactContext,
+					loadSuggestions(page));
+			sink.accept(evaluate(ruleset, context, page).stream().map(Classified::result).toList());
+			if (page.size() < STREAM_CHUNK_SIZE) {
+				return;
+			}
+			afterIsin = page.getLast().getIsin();
+		}
 	}
 
 	@Transactional
 	public List<ReclassificationDto> apply(RulesetDefinition ruleset, boolean dryRun, String editedBy,
 										   List<String> isins) {
-		List<ReclassificationDto> results = simulate(ruleset);
-		if (isins != null && !isins.isEmpty()) {
-			results = results.stream().filter(r -> isins.contains(r.isin())).toList();
-		}
+		return apply(CompiledRuleset.compile(ruleset), dryRun, editedBy, isins);
+	}
+
+	@Transactional
+	public List<ReclassificationDto> apply(CompiledRuleset ruleset, boolean dryRun, String editedBy,
+										   List<String> isins) {
+		List<Classified> classified = classify(ruleset, null, isins);
+		List<ReclassificationDto> results = classified.stream().map(Classified::result).toList();
 		if (dryRun) {
 			return results;
 		}
-		for (ReclassificationDto result : results) {
-			applyInstrumentChanges(result, editedBy);
-		}
+		applyChanges(classified, editedBy);
 		return results;
 	}
 
-	private List<ReclassificationDto> simulateInternal(RulesetDefinition ruleset, LocalDate asOfDate) {
+	private List<ReclassificationDto> simulateInternal(CompiledRuleset ruleset, LocalDate asOfDate) {
+		return classify(ruleset, asOfDate, null).stream().map(Classified::result).toList();
+	}
+
+	private List<Classified> classify(CompiledRuleset ruleset, LocalDate asOfDate, List<String> isins) {
+		ClassificationContext context = loadContext(asOfDate, isins);
+		return evaluate(ruleset, context, context.instruments());
+	}
+
+	private ClassificationContext loadContext(LocalDate asOfDate, List<String> isins) {
 		Map<String, BigDecimal> savingPlanTotals = loadSavingPlanTotals();
 		ImpactContext impactContext = loadImpactContext(asOfDate);
 
-		List<Instrument> instruments = instrumentRepository.findAll();
-		Map<String, KnowledgeBaseClassificationService.Suggestion> kbSuggestions =
-				knowledgeBaseClassificationService.findSuggestions(
-						instruments.stream().map(Instrument::getIsin).toList()
-				);
-
-		List<ReclassificationDto> results = new ArrayList<>();
-		for (Instrument instrument : instruments) {
-			boolean savingPlanActive = savingPlanRepository.existsActiveByIsin(instrument.getIsin());
-			var evaluation = rulesEngine.evaluate(instrument, savingPlanActive, ruleset);
-			ClassificationDto proposed = toDto(evaluation.proposed());
-			double confidence = evaluation.confidence();
-			List<FiredRuleDto> firedRules = evaluation.firedRules()
-					.stream()
-					.map(fr -> new FiredRuleDto(fr.id(), fr.priority(), fr.score()))
-					.toList();
-			KnowledgeBaseClassificationService.Suggestion kbSuggestion = kbSuggestions.get(instrument.getIsin());
-			String suggestedName = kbSuggestion == null ? null : kbSuggestion.name();
-			if (kbSuggestion != null) {
-				proposed = mergeClassification(kbSuggestion.classification(), proposed);
-				confidence = 1.0d;
-			}
-			ClassificationDto current = new ClassificationDto(
-					instrument.getInstrumentType(),
-					instrument.getAssetClass(),
-					instrument.getSubClass(),
-					instrument.getLayer()
-			);
-			PolicyAdjustment policyAdjustment = applyPolicies(ruleset, proposed, savingPlanActive);
-			ImpactDto impact = buildImpact(instrument.getIsin(), impactContext, savingPlanTotals);
-
-			results.add(new ReclassificationDto(
-					instrument.getIsin(),
-					instrument.getName(),
-					suggestedName,
-					current,
-					proposed,
-					policyAdjustment.classification(),
-					confidence,
-					firedRules,
-					policyAdjustment.notes(),
-					impact
-			));
+		List<Instrument> instruments = isins == null || isins.isEmpty()
+				? instrumentRepository.findAll()
+				: instrumentRepository.findByIsinIn(isins.stream().distinct().toList());
+		return new ClassificationContext(instruments, savingPlanTotals, impactContext, loadSuggestions(instruments));
+	}
+
+	private Map<String, KnowledgeBaseClassificationService.Suggestion> loadSuggestions(List<Instrument> instruments) {
+		return knowledgeBaseClassificationService.findSuggestions(instruments.stream().map(Instrument::getIsin).toList());
+	}
+
+	private List<Classified> evaluate(CompiledRuleset ruleset, ClassificationContext context, List<Instrument> instruments) {
+		if (evaluationPool == null || evaluationPool.getParallelism() < 2 || instruments.size() < PARALLEL_THRESHOLD) {
+			return instruments.stream().map(instrument -> classifyOne(ruleset, context, instrument)).toList();
 		}
-		return results;
+		// Evaluation is a pure function of the instrument and the compiled ruleset; the ordered parallel
+		// stream keeps results in instrument order while running on the capped pool.
+		return evaluationPool.submit(() -> instruments.parallelStream()
+				.map(instrument -> classifyOne(ruleset, context, instrument))
+				.toList()).join();
 	}
 
-	private PolicyAdjustment applyPolicies(RulesetDefinition ruleset, ClassificationDto proposed, boolean savingPlanActive) {
+	private Classified classifyOne(CompiledRuleset ruleset, ClassificationContext context, Instrument instrument) {
+		// Totals are grouped over active plans only, so their keys are exactly the ISINs with an active saving plan.
+		boolean savingPlanActive = context.savingPlanTotals().containsKey(instrument.getIsin());
+		var evaluation = rulesEngine.evaluate(instrument, savingPlanActive, ruleset);
+		ClassificationDto proposed = toDto(evaluation.proposed());
+		double confidence = evaluation.confidence();
+		List<FiredRuleDto> firedRules = evaluation.firedRules()
+				.stream()
+				.map(fr -> new FiredRuleDto(fr.id(), fr.priority(), fr.score()))
+				.toList();
+		KnowledgeBaseClassificationService.Suggestion kbSuggestion = context.kbSuggestions().get(instrument.getIsin());
+		String suggestedName = kbSuggestion == null ? null : kbSuggestion.name();
+		if (kbSuggestion != null) {
+			proposed = mergeClassification(kbSuggestion.classification(), proposed);
+			confidence = 1.0d;
+		}
+		ClassificationDto current = new ClassificationDto(
+				instrument.getInstrumentType(),
+				instrument.getAssetClass(),
+				instrument.getSubClass(),
+				instrument.getLayer()
+		);
+		PolicyAdjustment policyAdjustment = applyPolicies(ruleset, proposed, savingPlanActive);
+		ImpactDto impact = buildImpact(instrument.getIsin(), context.impactContext(), context.savingPlanTotals());
+
+		return new Classified(instrument, new ReclassificationDto(
+				instrument.getIsin(),
+				instrument.getName(),
+				suggestedName,
+				current,
+				proposed,
+				policyAdjustment.classification(),
+				confidence,
+				firedRules,
+				policyAdjustment.notes(),
+				impact
+		));
+	}
+
+	private PolicyAdjustment applyPolicies(CompiledRuleset ruleset, ClassificationDto proposed, boolean savingPlanActive) {
 		List<String> notes = new ArrayList<>();
 		ClassificationDto adjusted = proposed;
-		if (ruleset.getPolicies() != null
-				&& ruleset.getPolicies().isLayer1RequiresSavingPlan()
+		if (ruleset.policies() != null
+				&& ruleset.policies().isLayer1RequiresSavingPlan()
 				&& proposed.layer() != null
 				&& proposed.layer() == 1
 				&& !savingPlanActive) {
@@ -170,81 +255,126 @@ public class ClassificationService {
 		return new ImpactDto(valueEur, weight, savingPlan);
 	}
 
+	private static ForkJoinPool createEvaluationPool(int parallelism) {
+		return parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+	}
+
+	private static int resolveParallelism(RulesProperties properties) {
+		Integer configured = properties == null ? null : properties.simulationParallelism();
+		int available = Runtime.getRuntime().availableProcessors();
+		return configured == null || configured < 1 ? available : Math.min(configured, available);
+	}
+
 	private ClassificationDto toDto(RulesEngine.Classification classification) {
 		return new ClassificationDto(classification.instrumentType(), classification.assetClass(), classification.subClass(),
 				classification.layer());
 	}
 
-	private void applyInstrumentChanges(ReclassificationDto result, String editedBy) {
-		instrumentRepository.findById(result.isin()).ifPresent(instrument -> {
-			ClassificationDto target = result.policyAdjusted();
-			updateField(instrument.getName(), result.suggestedName(), "name", instrument::setName, result.isin(), editedBy);
-			updateField(instrument.getInstrumentType(), target.instrumentType(), "instrument_type", instrument::setInstrumentType, result.isin(), editedBy);
-			updateField(instrument.getAssetClass(), target.assetClass(), "asset_class", instrument::setAssetClass, result.isin(), editedBy);
-			updateField(instrument.getSubClass(), target.subClass(), "sub_class", instrument::setSubClass, result.isin(), editedBy);
-			updateField(instrument.getLayer() == null ? null : instrument.getLayer().toString(),
-					target.layer() == null ? null : target.layer().toString(),
-						"layer", val -> instrument.setLayer(val == null ? instrument.getLayer() : Integer.valueOf(val)),
-						result.isin(), editedBy);
-			instrumentRepository.save(instrument);
-			applyOverrideChanges(result.isin(), target, result.suggestedName(), editedBy);
-		});
-	}
-
-	private void applyOverrideChanges(String isin, ClassificationDto target, String suggestedName, String editedBy) {
-		if (target == null) {
+	private void applyChanges(List<Classified> classified, String editedBy) {
+		if (classified.isEmpty()) {
 			return;
 		}
-		overrideRepository.findById(isin).ifPresent(override -> {
-			boolean changed = false;
-
-			changed = updateOverrideFieldIfPresent(
-					override.getName(),
-					suggestedName,
-					"name",
-					override::setName,
-					isin,
-					editedBy
-			) || changed;
-			changed = updateOverrideFieldIfPresent(
-					override.getInstrumentType(),
-					target.instrumentType(),
-					"instrument_type",
-					override::setInstrumentType,
-					isin,
-					editedBy
-			) || changed;
-			changed = updateOverrideFieldIfPresent(
-					override.getAssetClass(),
-					target.assetClass(),
-					"asset_class",
-					override::setAssetClass,
-					isin,
-					editedBy
-			) || changed;
-			changed = updateOverrideFieldIfPresent(
-					override.getSubClass(),
-					target.subClass(),
-					"sub_class",
-					override::setSubClass,
-					isin,
-					editedBy
-			) || changed;
-
-			Integer overrideLayer = override.getLayer();
-			Integer targetLayer = target.layer();
-			if (overrideLayer != null && targetLayer != null && !overrideLayer.equals(targetLayer)) {
-				override.setLayer(targetLayer);
-				override.setLayerLastChanged(LocalDate.now());
-				auditService.recordEdit(isin, "layer", overrideLayer.toString(), targetLayer.toString(), editedBy, "ruleset_apply_override");
-				changed = true;
+		List<InstrumentEdit> edits = new ArrayList<>();
+		List<Instrument> changedInstruments = new ArrayList<>();
+		for (Classified entry : classified) {
+			if (applyInstrumentChanges(entry.instrument(), entry.result(), editedBy, edits)) {
+				changedInstruments.add(entry.instrument());
 			}
+		}
+		if (!changedInstruments.isEmpty()) {
+			instrumentRepository.saveAll(changedInstruments);
+		}
 
-			if (changed) {
-				override.setUpdatedAt(LocalDateTime.now());
-				overrideRepository.save(override);
+		Map<String, ReclassificationDto> resultsByIsin = new HashMap<>();
+		for (Classified entry : classified) {
+			resultsByIsin.put(entry.result().isin(), entry.result());
+		}
+		List<InstrumentOverride> changedOverrides = new ArrayList<>();
+		for (InstrumentOverride override : overrideRepository.findAllById(resultsByIsin.keySet())) {
+			ReclassificationDto result = resultsByIsin.get(override.getIsin());
+			if (applyOverrideChanges(override, result.policyAdjusted(), result.suggestedName(), editedBy, edits)) {
+				changedOverrides.add(override);
 			}
-		});
+		}
+		if (!changedOverrides.isEmpty()) {
+			overrideRepository.saveAll(changedOverrides);
+		}
+		auditService.recordEdits(edits);
+	}
+
+	private boolean applyInstrumentChanges(Instrument instrument, ReclassificationDto result, String editedBy,
+										   List<InstrumentEdit> edits) {
+		ClassificationDto target = result.policyAdjusted();
+		String isin = result.isin();
+		boolean changed = updateField(instrument.getName(), result.suggestedName(), "name", instrument::setName, isin, editedBy, edits);
+		changed = updateField(instrument.getInstrumentType(), target.instrumentType(), "instrument_type", instrument::setInstrumentType, isin, editedBy, edits) || changed;
+		changed = updateField(instrument.getAssetClass(), target.assetClass(), "asset_class", instrument::setAssetClass, isin, editedBy, edits) || changed;
+		changed = updateField(instrument.getSubClass(), target.subClass(), "sub_class", instrument::setSubClass, isin, editedBy, edits) || changed;
+		changed = updateField(instrument.getLayer() == null ? null : instrument.getLayer().toString(),
+				target.layer() == null ? null : target.layer().toString(),
+				"layer", val -> instrument.setLayer(val == null ? instrument.getLayer() : Integer.valueOf(val)),
+				isin, editedBy, edits) || changed;
+		return changed;
+	}
+
+	private boolean applyOverrideChanges(InstrumentOverride override, ClassificationDto target, String suggestedName,
+										 String editedBy, List<InstrumentEdit> edits) {
+		if (target == null) {
+			return false;
+		}
+		String isin = override.getIsin();
+		boolean changed = false;
+
+		changed = updateOverrideFieldIfPresent(
+				override.getName(),
+				suggestedName,
+				"name",
+				override::setName,
+				isin,
+				editedBy,
+				edits
+		) || changed;
+		changed = updateOverrideFieldIfPresent(
+				override.getInstrumentType(),
+				target.instrumentType(),
+				"instrument_type",
+				override::setInstrumentType,
+				isin,
+				editedBy,
+				edits
+		) || changed;
+		changed = updateOverrideFieldIfPresent(
+				override.getAssetClass(),
+				target.assetClass(),
+				"asset_class",
+				override::setAssetClass,
+				isin,
+				editedBy,
+				edits
+		) || changed;
+		changed = updateOverrideFieldIfPresent(
+				override.getSubClass(),
+				target.subClass(),
+				"sub_class",
+				override::setSubClass,
+				isin,
+				editedBy,
+				edits
+		) || changed;
+
+		Integer overrideLayer = override.getLayer();
+		Integer targetLayer = target.layer();
+		if (overrideLayer != null && targetLayer != null && !overrideLayer.equals(targetLayer)) {
+			override.setLayer(targetLayer);
+			override.setLayerLastChanged(LocalDate.now());
+			edits.add(AuditService.newEdit(isin, "layer", overrideLayer.toString(), targetLayer.toString(), editedBy, "ruleset_apply_override"));
+			changed = true;
+		}
+
+		if (changed) {
+			override.setUpdatedAt(LocalDateTime.now());
+		}
+		return changed;
 	}
 
 	private ClassificationDto mergeClassification(ClassificationDto kb, ClassificationDto fallback) {
@@ -261,7 +391,7 @@ public class ClassificationService {
 
 	private boolean updateOverrideFieldIfPresent(String oldValue, String newValue, String field,
 												java.util.function.Consumer<String> updater,
-												String isin, String editedBy) {
+												String isin, String editedBy, List<InstrumentEdit> edits) {
 		if (oldValue == null) {
 			return false;
 		}
@@ -269,18 +399,19 @@ public class ClassificationService {
 			return false;
 		}
 		updater.accept(newValue);
-		auditService.recordEdit(isin, field, oldValue, newValue, editedBy, "ruleset_apply_override");
+		edits.add(AuditService.newEdit(isin, field, oldValue, newValue, editedBy, "ruleset_apply_override"));
 		return true;
 	}
 
-	private void updateField(String oldValue, String newValue, String field,
+	private boolean updateField(String oldValue, String newValue, String field,
 													java.util.function.Consumer<String> updater,
-													String isin, String editedBy) {
+													String isin, String editedBy, List<InstrumentEdit> edits) {
 		if (newValue == null || newValue.isBlank() || newValue.equals(oldValue)) {
-			return;
+			return false;
 		}
 		updater.accept(newValue);
-		auditService.recordEdit(isin, field, oldValue, newValue, editedBy, "ruleset_apply");
+		edits.add(AuditService.newEdit(isin, field, oldValue, newValue, editedBy, "ruleset_apply"));
+		return true;
 	}
 
 	private record ImpactContext(Map<String, BigDecimal> valueByIsin, double totalValue) {
@@ -288,4 +419,13 @@ public class ClassificationService {
 
 	private record PolicyAdjustment(ClassificationDto classification, List<String> notes) {
 	}
+
+	private record Classified(Instrument instrument, ReclassificationDto result) {
+	}
+
+	private record ClassificationContext(List<Instrument> instruments,
+										 Map<String, BigDecimal> savingPlanTotals,
+										 ImpactContext impactContext,
+										 Map<String, KnowledgeBaseClassificationService.Suggestion> kbSuggestions) {
+	}
 }
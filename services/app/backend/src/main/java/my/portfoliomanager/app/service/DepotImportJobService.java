@@ -0,0 +1,165 @@
+package my.portfoliomanager.app.service;
+
+import my.portfoliomanager.app.dto.DepotImportJobResponseDto;
+import my.portfoliomanager.app.dto.DepotImportJobStatus;
+import my.portfoliomanager.app.dto.DepotImportProgressDto;
+import my.portfoliomanager.app.dto.ImportResultDto;
+import my.portfoliomanager.app.repository.ImportUploadRepository;
+import my.portfoliomanager.app.repository.projection.JobRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+// Depot statement imports run as jobs: the request only spools and hashes the upload and answers duplicates right
+// away; parsing, the batched writes and the rule application happen on a job worker, possibly on another replica.
+@Service
+public class DepotImportJobService {
+	private static final Logger logger = LoggerFactory.getLogger(DepotImportJobService.class);
+	static final String JOB_TYPE = "depot-import";
+	private static final Duration JOB_TTL = Duration.ofMinutes(30);
+	// Imports of different depots touch the same instruments and rules, so they run one at a time.
+	private static final int MAX_CONCURRENT_JOBS = 1;
+	private static final int MAX_ATTEMPTS = 1;
+	private static final String PHASE_QUEUED = "queued";
+
+	private final ImportService importService;
+	private final ImportUploadRepository uploadRepository;
+	private final JobQueueService jobQueue;
+	private final JobEventStreamService jobEvents;
+	private final TransactionTemplate transactionTemplate;
+
+	public DepotImportJobService(ImportService importService,
+								 ImportUploadRepository uploadRepository,
+								 JobQueueService jobQueue,
+								 JobEventStreamService jobEvents,
+								 PlatformTransactionManager transactionManager) {
+		this.importService = importService;
+		this.uploadRepository = uploadRepository;
+		this.jobQueue = jobQueue;
+		this.jobEvents = jobEvents;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		jobQueue.register(new JobQueueService.JobDefinition(JOB_TYPE, MAX_CONCURRENT_JOBS, MAX_ATTEMPTS, JOB_TTL),
+				this::runJob);
+	}
+
+	public DepotImportJobResponseDto start(MultipartFile file, String depotCode, boolean forceReimport,
+										   boolean pruneMissing, boolean applyRules, String editedBy) {
+		ImportService.StagedUpload staged = importService.stage(file, depotCode);
+		try {
+			ImportPayload payload = new ImportPayload(staged.depotCode(), staged.filename(), staged.fileHash(),
+					forceReimport, pruneMissing, applyRules, editedBy);
+			Optional<ImportResultDto> skipped = importService.skipIfImported(staged, forceReimport);
+			if (skipped.isPresent()) {
+				return toDto(jobQueue.record(JOB_TYPE, payload, null, skipped.get(), null, editedBy));
+			}
+			// Job and upload are committed together, so a worker never claims a job whose upload is missing.
+			JobRow job = transactionTemplate.execute(status -> {
+				JobRow row = jobQueue.enqueue(JOB_TYPE, payload, new DepotImportProgressDto(PHASE_QUEUED, null), null,
+						editedBy);
+				uploadRepository.insert(row.jobId(), staged.path());
+				return row;
+			});
+			return toDto(job);
+		} finally {
+			importService.discard(staged);
+		}
+	}
+
+	public DepotImportJobResponseDto get(String jobId) {
+		JobRow job = jobQueue.find(JOB_TYPE, jobId)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Import job not found"));
+		return toDto(job);
+	}
+
+	public SseEmitter stream(String jobId, String lastEventId) {
+		return jobEvents.stream(JOB_TYPE, jobId, lastEventId, this::toDto)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Import job not found"));
+	}
+
+	private JobQueueService.JobOutcome runJob(JobQueueService.JobContext context) {
+		JobQueueService.JobOutcome outcome = importUpload(context);
+		// A job released during shutdown runs again on another replica and still needs its upload.
+		if (context.isFinal(outcome)) {
+			uploadRepository.delete(context.jobId());
+		}
+		return outcome;
+	}
+
+	private JobQueueService.JobOutcome importUpload(JobQueueService.JobContext context) {
+		ImportPayload payload = context.payload(ImportPayload.class);
+		Path file = null;
+		try {
+			file = Files.createTempFile("depot-import-", null);
+			if (payload == null || !uploadRepository.copyContent(context.jobId(), file)) {
+				return JobQueueService.JobOutcome.failed(null, null, "Upload not found");
+			}
+			ImportService.StagedUpload staged = new ImportService.StagedUpload(payload.depotCode(), payload.filename(),
+					file, payload.fileHash());
+			ImportResultDto result = importService.importStaged(staged, payload.forceReimport(), payload.pruneMissing(),
+					payload.applyRules(), payload.editedBy(), progress -> context.report(null, progress, null));
+			return JobQueueService.JobOutcome.done(result, null);
+		} catch (IllegalArgumentException ex) {
+			return JobQueueService.JobOutcome.failed(null, null, ex.getMessage());
+		} catch (Exception ex) {
+			return JobQueueService.JobOutcome.failed(null, null, failWithReference(context.jobId(), payload, ex));
+		} finally {
+			deleteQuietly(file);
+		}
+	}
+
+	private DepotImportJobResponseDto toDto(JobRow job) {
+		return new DepotImportJobResponseDto(
+				job.jobId(),
+				toStatus(job),
+				jobQueue.read(job.progress(), DepotImportProgressDto.class),
+				jobQueue.read(job.result(), ImportResultDto.class),
+				job.error()
+		);
+	}
+
+	private DepotImportJobStatus toStatus(JobRow job) {
+		return switch (job.status()) {
+			case QUEUED -> DepotImportJobStatus.PENDING;
+			case RUNNING -> DepotImportJobStatus.RUNNING;
+			case DONE -> DepotImportJobStatus.DONE;
+			case FAILED, CANCELED -> DepotImportJobStatus.FAILED;
+		};
+	}
+
+	private void deleteQuietly(Path path) {
+		if (path == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException ex) {
+			logger.warn("Failed to delete import file {}: {}", path, ex.getMessage());
+		}
+	}
+
+	private String failWithReference(String jobId, ImportPayload payload, Exception ex) {
+		String message = ex == null ? null : ex.getMessage();
+		String reference = "IMP-" + UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase(Locale.ROOT);
+		logger.error("Depot import job failed (ref={}, jobId={}, depot={}, error={})",
+				reference, jobId, payload == null ? null : payload.depotCode(), message, ex);
+		return "Error ref " + reference;
+	}
+
+	record ImportPayload(String depotCode, String filename, String fileHash, boolean forceReimport,
+						 boolean pruneMissing, boolean applyRules, String editedBy) {
+	}
+}
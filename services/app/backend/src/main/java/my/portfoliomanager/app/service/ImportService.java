@@ -6,57 +6,79 @@ import my.portfoliomanager.app.domain.Instrument;
 import my.portfoliomanager.app.domain.Snapshot;
 import my.portfoliomanager.app.domain.SnapshotPosition;
 import my.portfoliomanager.app.domain.SnapshotPositionId;
+import my.portfoliomanager.app.dto.DepotImportProgressDto;
 import my.portfoliomanager.app.dto.ImportResultDto;
 import my.portfoliomanager.app.importer.DekaCsvParser;
 import my.portfoliomanager.app.importer.DepotParser;
 import my.portfoliomanager.app.importer.Position;
 import my.portfoliomanager.app.importer.TrPdfParser;
+import my.portfoliomanager.app.repository.BulkUpsertRepository;
 import my.portfoliomanager.app.repository.DepotRepository;
 import my.portfoliomanager.app.repository.ImportFileRepository;
 import my.portfoliomanager.app.repository.InstrumentRepository;
-import my.portfoliomanager.app.repository.SnapshotPositionRepository;
 import my.portfoliomanager.app.repository.SnapshotRepository;
 import my.portfoliomanager.app.rules.RulesetDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 public class ImportService {
+	private static final Logger logger = LoggerFactory.getLogger(ImportService.class);
 	private static final String IMPORT_STATUS_IMPORTED = "imported";
+	static final String PHASE_PARSING = "parsing";
+	static final String PHASE_WRITING = "writing";
+	static final String PHASE_APPLYING_RULES = "applying_rules";
 
 	private final DepotRepository depotRepository;
 	private final InstrumentRepository instrumentRepository;
 	private final SnapshotRepository snapshotRepository;
-	private final SnapshotPositionRepository snapshotPositionRepository;
+	private final BulkUpsertRepository bulkUpsertRepository;
 	private final ImportFileRepository importFileRepository;
 	private final RulesetService rulesetService;
 	private final ClassificationService classificationService;
 	private final Map<String, DepotParser> parsers;
+	private final TransactionTemplate transactionTemplate;
+	private final TransactionTemplate progressTemplate;
 
 	public ImportService(DepotRepository depotRepository,
 						 InstrumentRepository instrumentRepository,
 						 SnapshotRepository snapshotRepository,
-						 SnapshotPositionRepository snapshotPositionRepository,
+						 BulkUpsertRepository bulkUpsertRepository,
 						 ImportFileRepository importFileRepository,
 						 RulesetService rulesetService,
-						 ClassificationService classificationService) {
+						 ClassificationService classificationService,
+						 PlatformTransactionManager transactionManager) {
 		this.depotRepository = depotRepository;
 		this.instrumentRepository = instrumentRepository;
 		this.snapshotRepository = snapshotRepository;
-		this.snapshotPositionRepository = snapshotPositionRepository;
+		this.bulkUpsertRepository = bulkUpsertRepository;
 		this.importFileRepository = importFileRepository;
 		this.rulesetService = rulesetService;
 		this.classificationService = classificationService;
@@ -64,48 +86,117 @@ public class ImportService {
 				"tr", new TrPdfParser(),
 				"deka", new DekaCsvParser()
 		);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		// Progress is stored on the job row; written from inside the import transaction it would stay invisible and
+		// hold that row's lock (blocking heartbeats and cancels) until the commit.
+		this.progressTemplate = new TransactionTemplate(transactionManager);
+		this.progressTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
 	}
 
-	@Transactional
+	// Synchronous import of a request upload; DepotImportJobService runs the same pipeline on a job worker.
 	public ImportResultDto importDepotStatement(MultipartFile file, String depotCode, boolean forceReimport,
 												boolean pruneMissing, boolean applyRules, String editedBy) {
+		StagedUpload staged = stage(file, depotCode);
+		try {
+			return importStaged(staged, forceReimport, pruneMissing, applyRules, editedBy, progress -> {
+			});
+		} finally {
+			discard(staged);
+		}
+	}
+
+	// Spools the upload to a temp file and hashes it on the way, so the statement is never held in memory as a whole.
+	// Callers own the returned file and release it with discard().
+	public StagedUpload stage(MultipartFile file, String depotCode) {
 		String normalizedDepot = normalizeDepotCode(depotCode);
-		DepotParser parser = parsers.get(normalizedDepot);
-		if (parser == null) {
+		if (!parsers.containsKey(normalizedDepot)) {
 			throw new IllegalArgumentException("Unsupported depot_code: " + depotCode);
 		}
 		String filename = file.getOriginalFilename() == null ? "upload" : file.getOriginalFilename();
 		validateSuffix(normalizedDepot, filename);
 
-		byte[] payload = readFile(file);
-		String fileHash = sha256(payload);
-		List<Position> positions = parser.parse(payload, filename, normalizedDepot, fileHash);
-		if (positions.isEmpty()) {
-			throw new IllegalArgumentException("Parser returned 0 positions");
+		Path path = null;
+		try {
+			path = Files.createTempFile("depot-import-", null);
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			long size;
+			try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+				size = Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+			if (size == 0) {
+				throw new IllegalArgumentException("File is empty");
+			}
+			return new StagedUpload(normalizedDepot, filename, path, HexFormat.of().formatHex(digest.digest()));
+		} catch (IOException | NoSuchAlgorithmException exc) {
+			deleteQuietly(path);
+			throw new IllegalArgumentException("Failed to read upload: " + exc.getMessage(), exc);
+		} catch (RuntimeException exc) {
+			deleteQuietly(path);
+			throw exc;
 		}
+	}
 
-		Depot depot = depotRepository.findByDepotCode(normalizedDepot)
-				.orElseThrow(() -> new IllegalArgumentException("Depot not found"));
+	public void discard(StagedUpload staged) {
+		if (staged != null) {
+			deleteQuietly(staged.path());
+		}
+	}
 
-		Position first = positions.get(0);
-		if (!forceReimport && importFileRepository.findByDepotCodeAndFileHashAndStatus(normalizedDepot, fileHash, IMPORT_STATUS_IMPORTED).isPresent()) {
-			snapshotRepository.findByDepotIdAndAsOfDateAndSourceAndFileHash(depot.getDepotId(), first.asOfDate(),
-							first.source(), fileHash)
+	// Answers an already imported file from the import record, before anything is parsed: the snapshot of that import
+	// becomes active again. Empty when the file has to be imported.
+	public Optional<ImportResultDto> skipIfImported(StagedUpload staged, boolean forceReimport) {
+		if (forceReimport) {
+			return Optional.empty();
+		}
+		Optional<ImportFile> imported = importFileRepository.findByDepotCodeAndFileHashAndStatus(staged.depotCode(),
+				staged.fileHash(), IMPORT_STATUS_IMPORTED);
+		if (imported.isEmpty()) {
+			return Optional.empty();
+		}
+		ImportFile importFile = imported.get();
+		return Optional.of(transactionTemplate.execute(status -> {
+			Depot depot = depotRepository.findByDepotCode(staged.depotCode())
+					.orElseThrow(() -> new IllegalArgumentException("Depot not found"));
+			snapshotRepository.findByDepotIdAndAsOfDateAndSourceAndFileHash(depot.getDepotId(), importFile.getAsOfDate(),
+							importFile.getSource(), staged.fileHash())
 					.ifPresent(snapshot -> {
 						depot.setActiveSnapshotId(snapshot.getSnapshotId());
 						depotRepository.save(depot);
 					});
 			return new ImportResultDto(0, "skipped", null, 0, 0);
-			}
+		}));
+	}
+
+	// The statement is parsed outside of any transaction; only the batched writes and the rule application share one,
+	// so a database connection is held for the write phase alone.
+	public ImportResultDto importStaged(StagedUpload staged, boolean forceReimport, boolean pruneMissing,
+										boolean applyRules, String editedBy, Consumer<DepotImportProgressDto> progress) {
+		Optional<ImportResultDto> skipped = skipIfImported(staged, forceReimport);
+		if (skipped.isPresent()) {
+			return skipped.get();
+		}
 
+		progress.accept(new DepotImportProgressDto(PHASE_PARSING, null));
+		List<Position> positions = parsers.get(staged.depotCode())
+				.parse(staged.path(), staged.filename(), staged.depotCode(), staged.fileHash());
+		if (positions.isEmpty()) {
+			throw new IllegalArgumentException("Parser returned 0 positions");
+		}
+
+		progress.accept(new DepotImportProgressDto(PHASE_WRITING, positions.size()));
+		return transactionTemplate.execute(status -> {
+			Depot depot = depotRepository.findByDepotCode(staged.depotCode())
+					.orElseThrow(() -> new IllegalArgumentException("Depot not found"));
+
+			Position first = positions.get(0);
 			UpsertResult upsertResult = upsertInstruments(positions, pruneMissing);
-			Snapshot snapshot = upsertSnapshot(depot, first, fileHash);
+			Snapshot snapshot = upsertSnapshot(depot, first, staged.fileHash());
 			int positionsImported = upsertSnapshotPositions(snapshot.getSnapshotId(), positions);
 
-		upsertImportFile(normalizedDepot, filename, fileHash, first, IMPORT_STATUS_IMPORTED, null);
+			upsertImportFile(staged.depotCode(), staged.filename(), staged.fileHash(), first, IMPORT_STATUS_IMPORTED, null);
 
-		depot.setActiveSnapshotId(snapshot.getSnapshotId());
-		depotRepository.save(depot);
+			depot.setActiveSnapshotId(snapshot.getSnapshotId());
+			depotRepository.save(depot);
 
 			int rulesAppliedCount = 0;
 			if (applyRules) {
@@ -115,15 +206,18 @@ public class ImportService {
 				if (ruleset != null) {
 					List<String> errors = rulesetService.validateDefinition(ruleset);
 					if (!errors.isEmpty()) {
-					throw new IllegalArgumentException("Active ruleset invalid: " + String.join("; ", errors));
+						throw new IllegalArgumentException("Active ruleset invalid: " + String.join("; ", errors));
+					}
+					DepotImportProgressDto applying = new DepotImportProgressDto(PHASE_APPLYING_RULES, positions.size());
+					progressTemplate.executeWithoutResult(suspended -> progress.accept(applying));
+					List<String> isins = positions.stream().map(Position::isin).distinct().toList();
+					rulesAppliedCount = classificationService.apply(ruleset, false, editedBy, isins).size();
 				}
-				List<String> isins = positions.stream().map(Position::isin).distinct().toList();
-				rulesAppliedCount = classificationService.apply(ruleset, false, editedBy, isins).size();
 			}
-		}
 
-		return new ImportResultDto(upsertResult.created, IMPORT_STATUS_IMPORTED, snapshot.getSnapshotId(), positionsImported,
-				rulesAppliedCount);
+			return new ImportResultDto(upsertResult.created, IMPORT_STATUS_IMPORTED, snapshot.getSnapshotId(),
+					positionsImported, rulesAppliedCount);
+		});
 	}
 
 	private String normalizeDepotCode(String depotCode) {
@@ -138,25 +232,14 @@ public class ImportService {
 		}
 	}
 
-	private byte[] readFile(MultipartFile file) {
-		try {
-			byte[] payload = file.getBytes();
-			if (payload.length == 0) {
-				throw new IllegalArgumentException("File is empty");
-			}
-			return payload;
-		} catch (IOException exc) {
-			throw new IllegalArgumentException("Failed to read upload: " + exc.getMessage(), exc);
+	private void deleteQuietly(Path path) {
+		if (path == null) {
+			return;
 		}
-	}
-
-	private String sha256(byte[] payload) {
 		try {
-			MessageDigest digest = MessageDigest.getInstance("SHA-256");
-			byte[] hash = digest.digest(payload);
-			return HexFormat.of().formatHex(hash);
-		} catch (Exception exc) {
-			throw new IllegalArgumentException("Failed to hash upload: " + exc.getMessage(), exc);
+			Files.deleteIfExists(path);
+		} catch (IOException exc) {
+			logger.warn("Failed to delete staged upload {}: {}", path, exc.getMessage());
 		}
 	}
 
@@ -166,37 +249,27 @@ public class ImportService {
 			dedup.putIfAbsent(position.isin(), position);
 		}
 		List<String> isins = new ArrayList<>(dedup.keySet());
-		Map<String, Instrument> existing = new LinkedHashMap<>();
-		for (Instrument instrument : instrumentRepository.findByIsinIn(isins)) {
-			existing.put(instrument.getIsin(), instrument);
-		}
+		// Only the ISINs are read here: instrument entities loaded into the persistence context would go stale after
+		// the JDBC upsert and could be written back by the rule application later in this transaction.
+		Set<String> existing = new HashSet<>(instrumentRepository.findExistingIsins(isins));
 
 		int created = 0;
 		LocalDate today = LocalDate.now();
-		List<Instrument> toSave = new ArrayList<>();
+		List<Instrument> toUpsert = new ArrayList<>(dedup.size());
 		for (Position position : dedup.values()) {
-			Instrument instrument = existing.get(position.isin());
-			if (instrument == null) {
-				instrument = new Instrument();
-				instrument.setIsin(position.isin());
-				instrument.setName(position.name());
-				instrument.setDepotCode(position.depotCode());
-				instrument.setLayer(5);
-				instrument.setLayerLastChanged(today);
-				instrument.setDeleted(false);
-				toSave.add(instrument);
+			Instrument instrument = new Instrument();
+			instrument.setIsin(position.isin());
+			instrument.setName(position.name());
+			instrument.setDepotCode(position.depotCode());
+			instrument.setLayer(5);
+			instrument.setLayerLastChanged(today);
+			instrument.setDeleted(false);
+			toUpsert.add(instrument);
+			if (!existing.contains(position.isin())) {
 				created += 1;
-			} else {
-				String existingName = instrument.getName();
-				if (existingName == null || existingName.isBlank()) {
-					instrument.setName(position.name());
-				}
-				instrument.setDepotCode(position.depotCode());
-				instrument.setDeleted(false);
-				toSave.add(instrument);
 			}
 		}
-		instrumentRepository.saveAll(toSave);
+		bulkUpsertRepository.upsertInstruments(toUpsert);
 		if (pruneMissing && !isins.isEmpty()) {
 			instrumentRepository.markDeletedForDepot(positions.get(0).depotCode(), isins);
 		}
@@ -243,7 +316,7 @@ public class ImportService {
 			sp.setCurrency(aggregation.position.currency());
 			toSave.add(sp);
 		}
-		snapshotPositionRepository.saveAll(toSave);
+		bulkUpsertRepository.upsertSnapshotPositions(toSave);
 		return toSave.size();
 	}
 
@@ -278,4 +351,7 @@ public class ImportService {
 			this.value = this.value.add(position.valueEur() == null ? BigDecimal.ZERO : position.valueEur());
 		}
 	}
+
+	public record StagedUpload(String depotCode, String filename, Path path, String fileHash) {
+	}
 }
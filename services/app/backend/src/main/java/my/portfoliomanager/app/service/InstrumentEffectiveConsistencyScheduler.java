@@ -0,0 +1,64 @@
+package my.portfoliomanager.app.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import my.portfoliomanager.app.config.InstrumentsEffectiveProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@ConditionalOnProperty(name = "app.instruments-effective.consistency-check-enabled", havingValue = "true", matchIfMissing = true)
+public class InstrumentEffectiveConsistencyScheduler {
+	private static final Logger logger = LoggerFactory.getLogger(InstrumentEffectiveConsistencyScheduler.class);
+	private final InstrumentEffectiveService instrumentEffectiveService;
+	private final InstrumentsEffectiveProperties properties;
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+	public InstrumentEffectiveConsistencyScheduler(InstrumentEffectiveService instrumentEffectiveService,
+												   InstrumentsEffectiveProperties properties) {
+		this.instrumentEffectiveService = instrumentEffectiveService;
+		this.properties = properties;
+	}
+
+	@PostConstruct
+	public void schedule() {
+		scheduleNext(resolveIntervalSeconds());
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private void scheduleNext(long delaySeconds) {
+		long delay = Math.max(1, delaySeconds);
+		executor.schedule(this::runOnce, delay, TimeUnit.SECONDS);
+	}
+
+	private void runOnce() {
+		try {
+			int repaired = instrumentEffectiveService.repairDrift();
+			if (repaired > 0) {
+				logger.warn("Repaired {} drifted instruments_effective rows", repaired);
+			}
+			scheduleNext(resolveIntervalSeconds());
+		} catch (Exception ex) {
+			logger.warn("instruments_effective consistency check failed: {}", ex.getMessage());
+			scheduleNext(60);
+		}
+	}
+
+	private long resolveIntervalSeconds() {
+		Long configured = properties == null ? null : properties.consistencyCheckIntervalSeconds();
+		if (configured == null || configured <= 0) {
+			return InstrumentEffectiveService.DEFAULT_CONSISTENCY_CHECK_INTERVAL_SECONDS;
+		}
+		return configured;
+	}
+}
@@ -2,58 +2,192 @@ package my.portfoliomanager.app.service;
 
 import my.portfoliomanager.app.dto.InstrumentEffectiveDto;
 import my.portfoliomanager.app.dto.InstrumentEffectivePageDto;
-import my.portfoliomanager.app.repository.InstrumentRepository;
-import my.portfoliomanager.app.repository.projection.InstrumentEffectiveProjection;
+import my.portfoliomanager.app.repository.DataVersionRepository;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 @Service
 public class InstrumentEffectiveService {
+	static final long DEFAULT_CONSISTENCY_CHECK_INTERVAL_SECONDS = 3600;
+
 	private static final int MAX_LIMIT = 1000;
-	private final InstrumentRepository instrumentRepository;
+	private static final int COUNT_CACHE_LIMIT = 64;
+	private static final List<String> EFFECTIVE_TABLES = List.of("instruments_effective");
+	private static final Pattern ISIN_RE = Pattern.compile("^[A-Z]{2}[A-Z0-9]{9}[0-9]$");
+
+	private static final String DRIFTED_ISINS_SQL = """
+			select isin from (
+			  (select * from instruments_effective_source except select * from instruments_effective)
+			  union
+			  (select * from instruments_effective except select * from instruments_effective_source)
+			) drift
+			""";
+
+	private static final String SELECT_EFFECTIVE_SQL = """
+			SELECT
+			  i.isin,
+			  i.name AS base_name,
+			  i.instrument_type AS base_instrument_type,
+			  i.asset_class AS base_asset_class,
+			  i.sub_class AS base_sub_class,
+			  i.layer AS base_layer,
+			  i.layer_notes AS base_layer_notes,
+			  o.name AS override_name,
+			  o.instrument_type AS override_instrument_type,
+			  o.asset_class AS override_asset_class,
+			  o.sub_class AS override_sub_class,
+			  o.layer AS override_layer,
+			  o.layer_notes AS override_layer_notes,
+			  ie.name AS effective_name,
+			  ie.instrument_type AS effective_instrument_type,
+			  ie.asset_class AS effective_asset_class,
+			  ie.sub_class AS effective_sub_class,
+			  ie.layer AS effective_layer,
+			  ie.layer_notes AS effective_layer_notes,
+			  ie.classified_by_rule,
+			  ie.applied_rule_id,
+			  ie.has_override,
+			  ie.effective_updated_at
+			FROM instruments i
+			LEFT JOIN instrument_overrides o USING (isin)
+			LEFT JOIN instruments_effective ie USING (isin)
+			""";
+
+	private static final RowMapper<InstrumentEffectiveDto> ROW_MAPPER = (rs, rowNum) -> new InstrumentEffectiveDto(
+			rs.getString("isin"),
+			rs.getString("base_name"),
+			rs.getString("base_instrument_type"),
+			rs.getString("base_asset_class"),
+			rs.getString("base_sub_class"),
+			rs.getObject("base_layer", Integer.class),
+			rs.getString("base_layer_notes"),
+			rs.getString("override_name"),
+			rs.getString("override_instrument_type"),
+			rs.getString("override_asset_class"),
+			rs.getString("override_sub_class"),
+			rs.getObject("override_layer", Integer.class),
+			rs.getString("override_layer_notes"),
+			rs.getString("effective_name"),
+			rs.getString("effective_instrument_type"),
+			rs.getString("effective_asset_class"),
+			rs.getString("effective_sub_class"),
+			rs.getObject("effective_layer", Integer.class),
+			rs.getString("effective_layer_notes"),
+			rs.getBoolean("classified_by_rule"),
+			rs.getObject("applied_rule_id", Long.class),
+			rs.getBoolean("has_override"),
+			rs.getObject("effective_updated_at", LocalDateTime.class)
+	);
 
-	public InstrumentEffectiveService(InstrumentRepository instrumentRepository) {
-		this.instrumentRepository = instrumentRepository;
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+	private final DataVersionRepository dataVersionRepository;
+	private final Map<CountKey, Long> countCache = new ConcurrentHashMap<>();
+
+	public InstrumentEffectiveService(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+									  DataVersionRepository dataVersionRepository) {
+		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+		this.dataVersionRepository = dataVersionRepository;
 	}
 
-	public InstrumentEffectivePageDto listEffective(String query, boolean onlyOverrides, int limit, int offset) {
+	// The cursor is the ISIN of the last row of the previous page; when given, the offset is ignored.
+	public InstrumentEffectivePageDto listEffective(String query, boolean onlyOverrides, int limit, int offset, String cursor) {
 		int finalLimit = Math.min(Math.max(limit, 1), MAX_LIMIT);
-		int finalOffset = Math.max(offset, 0);
+		String after = cursor == null || cursor.isBlank() ? null : cursor.trim().toUpperCase(Locale.ROOT);
+		int finalOffset = after == null ? Math.max(offset, 0) : 0;
 		String normalizedQuery = normalizeQuery(query);
-		List<InstrumentEffectiveProjection> rows = instrumentRepository.findEffective(normalizedQuery, onlyOverrides, finalLimit, finalOffset);
-		long total = instrumentRepository.countEffective(normalizedQuery, onlyOverrides);
-		List<InstrumentEffectiveDto> items = rows.stream().map(this::toDto).toList();
-		return new InstrumentEffectivePageDto(items, Math.toIntExact(total), finalLimit, finalOffset);
+
+		if (normalizedQuery != null && after == null && finalOffset == 0) {
+			String isin = normalizedQuery.toUpperCase(Locale.ROOT);
+			if (ISIN_RE.matcher(isin).matches()) {
+				List<InstrumentEffectiveDto> exact = findExact(isin, onlyOverrides);
+				if (!exact.isEmpty()) {
+					return new InstrumentEffectivePageDto(exact, exact.size(), finalLimit, finalOffset, null);
+				}
+			}
+		}
+
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		String where = where(normalizedQuery, onlyOverrides, params);
+		StringBuilder sql = new StringBuilder(SELECT_EFFECTIVE_SQL).append(where);
+		if (after != null) {
+			sql.append("\n  AND i.isin > :after");
+			params.addValue("after", after);
+		}
+		sql.append("\nORDER BY i.isin\nLIMIT :limit OFFSET :offset");
+		params.addValue("limit", finalLimit + 1);
+		params.addValue("offset", finalOffset);
+		List<InstrumentEffectiveDto> rows = namedParameterJdbcTemplate.query(sql.toString(), params, ROW_MAPPER);
+
+		String nextCursor = null;
+		if (rows.size() > finalLimit) {
+			rows = rows.subList(0, finalLimit);
+			nextCursor = rows.get(rows.size() - 1).isin();
+		}
+		long total = countEffective(normalizedQuery, onlyOverrides, where, params);
+		return new InstrumentEffectivePageDto(rows, Math.toIntExact(total), finalLimit, finalOffset, nextCursor);
 	}
 
-	private InstrumentEffectiveDto toDto(InstrumentEffectiveProjection row) {
-		return new InstrumentEffectiveDto(
-				row.getIsin(),
-				row.getBaseName(),
-				row.getBaseInstrumentType(),
-				row.getBaseAssetClass(),
-				row.getBaseSubClass(),
-				row.getBaseLayer(),
-				row.getBaseLayerNotes(),
-				row.getOverrideName(),
-				row.getOverrideInstrumentType(),
-				row.getOverrideAssetClass(),
-				row.getOverrideSubClass(),
-				row.getOverrideLayer(),
-				row.getOverrideLayerNotes(),
-				row.getEffectiveName(),
-				row.getEffectiveInstrumentType(),
-				row.getEffectiveAssetClass(),
-				row.getEffectiveSubClass(),
-				row.getEffectiveLayer(),
-				row.getEffectiveLayerNotes(),
-				Boolean.TRUE.equals(row.getClassifiedByRule()),
-				row.getAppliedRuleId(),
-				Boolean.TRUE.equals(row.getHasOverride()),
-				row.getEffectiveUpdatedAt()
+	// Row changes are propagated by triggers; this only repairs rows that drifted from the source view.
+	@Transactional
+	public int repairDrift() {
+		Integer repaired = namedParameterJdbcTemplate.getJdbcTemplate().queryForObject(
+				"select refresh_instruments_effective(array(select distinct isin::text from (" + DRIFTED_ISINS_SQL + ") d))",
+				Integer.class
 		);
+		return repaired == null ? 0 : repaired;
+	}
+
+	private List<InstrumentEffectiveDto> findExact(String isin, boolean onlyOverrides) {
+		String sql = SELECT_EFFECTIVE_SQL + "WHERE i.isin = :isin AND NOT i.is_deleted"
+				+ (onlyOverrides ? " AND o.isin IS NOT NULL" : "");
+		return namedParameterJdbcTemplate.query(sql, new MapSqlParameterSource("isin", isin), ROW_MAPPER);
+	}
+
+	// Every write that can change the filtered set refreshes instruments_effective and so bumps its data version,
+	// so counts stay exact while paging through an unchanged list.
+	private long countEffective(String normalizedQuery, boolean onlyOverrides, String where, MapSqlParameterSource params) {
+		List<Long> versions = dataVersionRepository.read(EFFECTIVE_TABLES);
+		CountKey key = versions == null ? null : new CountKey(versions, normalizedQuery, onlyOverrides);
+		if (key != null) {
+			Long cached = countCache.get(key);
+			if (cached != null) {
+				return cached;
+			}
+		}
+		Long total = namedParameterJdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM instruments i LEFT JOIN instrument_overrides o USING (isin)\n" + where,
+				params,
+				Long.class);
+		long count = total == null ? 0L : total;
+		if (key != null) {
+			if (countCache.size() >= COUNT_CACHE_LIMIT) {
+				countCache.clear();
+			}
+			countCache.put(key, count);
+		}
+		return count;
+	}
+
+	private String where(String normalizedQuery, boolean onlyOverrides, MapSqlParameterSource params) {
+		StringBuilder where = new StringBuilder("WHERE NOT i.is_deleted");
+		if (normalizedQuery != null) {
+			params.addValue("query", "%" + escapeLikePattern(normalizedQuery) + "%");
+			where.append("\n  AND (LOWER(i.isin) LIKE :query ESCAPE '\\' OR LOWER(i.name) LIKE :query ESCAPE '\\')");
+		}
+		if (onlyOverrides) {
+			where.append("\n  AND o.isin IS NOT NULL");
+		}
+		return where.toString();
 	}
 
 	private String normalizeQuery(String query) {
@@ -66,4 +200,14 @@ public class InstrumentEffectiveService {
 		}
 		return trimmed.toLowerCase(Locale.ROOT);
 	}
+
+	private String escapeLikePattern(String value) {
+		return value
+				.replace("\\", "\\\\")
+				.replace("%", "\\%")
+				.replace("_", "\\_");
+	}
+
+	private record CountKey(List<Long> versions, String query, boolean onlyOverrides) {
+	}
 }
@@ -1,22 +1,19 @@
 package my.portfoliomanager.app.service;
 
-import tools.jackson.databind.ObjectMapper;
 import my.portfoliomanager.app.config.AppProperties;
 import my.portfoliomanager.app.dto.InstrumentDossierExtractionPayload;
 import my.portfoliomanager.app.dto.InstrumentProposalDto;
 import my.portfoliomanager.app.dto.InstrumentProposalGatingDto;
 import my.portfoliomanager.app.service.AssessorInstrumentAssessmentService;
 import my.portfoliomanager.app.model.LayerTargetRiskThresholds;
+import my.portfoliomanager.app.service.util.HoldingsOverlapIndex;
 import my.portfoliomanager.app.service.util.RiskThresholdsUtil;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
-import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -26,10 +23,10 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class InstrumentRebalanceService {
-	private static final Logger logger = LoggerFactory.getLogger(InstrumentRebalanceService.class);
 	private static final Set<String> COMPLETE_STATUSES = Set.of("COMPLETE", "APPROVED", "APPLIED");
 	private static final String REASON_NO_CHANGE = "NO_CHANGE_WITHIN_TOLERANCE";
 	private static final String REASON_MIN_DROPPED = "MIN_AMOUNT_DROPPED";
@@ -59,23 +56,22 @@ public class InstrumentRebalanceService {
 	private static final double REIT_EV_WEIGHT = 0.20;
 	private static final double REIT_PB_WEIGHT = 0.10;
 	private static final double REIT_PROFITABILITY_WEIGHT = 0.10;
+	private static final int OVERLAP_CACHE_LIMIT = 32;
 
-	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
-	private final ObjectMapper objectMapper;
 	private final AppProperties properties;
 	private final SavingPlanDeltaAllocator savingPlanDeltaAllocator;
 	private final AssessorInstrumentAssessmentService assessmentService;
+	private final KnowledgeBaseProfileStore profileStore;
+	private final Map<Map<String, LocalDateTime>, OverlapIndexes> overlapCache = new ConcurrentHashMap<>();
 
-	public InstrumentRebalanceService(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
-									  ObjectMapper objectMapper,
-									  AppProperties properties,
+	public InstrumentRebalanceService(AppProperties properties,
 									  SavingPlanDeltaAllocator savingPlanDeltaAllocator,
-									  AssessorInstrumentAssessmentService assessmentService) {
-		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
-		this.objectMapper = objectMapper;
+									  AssessorInstrumentAssessmentService assessmentService,
+									  KnowledgeBaseProfileStore profileStore) {
 		this.properties = properties;
 		this.savingPlanDeltaAllocator = savingPlanDeltaAllocator;
 		this.assessmentService = assessmentService;
+		this.profileStore = profileStore;
 	}
 
 	public InstrumentProposalResult buildInstrumentProposals(List<SavingPlanInstrument> instruments,
@@ -505,9 +501,13 @@ public class InstrumentRebalanceService {
 		Map<String, Map<String, BigDecimal>> sectorWeights = new HashMap<>();
 		Map<String, BigDecimal> valuationScores = new HashMap<>();
 		Map<String, Double> dataPenalties = new HashMap<>();
+		Map<String, LocalDateTime> extractionVersions = new HashMap<>();
 
 		for (SavingPlanInstrument instrument : instruments) {
 			KbExtraction extraction = extractions.get(instrument.isin());
+			if (extraction != null) {
+				extractionVersions.put(instrument.isin(), extraction.updatedAt());
+			}
 			InstrumentDossierExtractionPayload payload = extraction == null ? null : extraction.payload();
 			BigDecimal ter = null;
 			String benchmark = null;
@@ -536,7 +536,7 @@ public class InstrumentRebalanceService {
 				if (sectorWeight != null && !sectorWeight.isEmpty()) {
 					sectorWeights.put(instrument.isin(), sectorWeight);
 				}
-				valuationScore = computeValuationScore(payload);
+				valuationScore = computeValuationScore(payload, extraction.metrics());
 				dataPenalty = computeDataQualityPenalty(payload);
 			}
 			if (ter == null) {
@@ -588,6 +588,11 @@ public class InstrumentRebalanceService {
 			}
 		}
 
+		OverlapIndexes overlaps = useRedundancy
+				? overlapIndexes(extractionVersions, regionNames, holdingNames, sectorNames,
+						regionWeights, holdingWeights, sectorWeights)
+				: null;
+
 		Map<String, BigDecimal> scores = new HashMap<>();
 		BigDecimal total = BigDecimal.ZERO;
 		for (SavingPlanInstrument instrument : instruments) {
@@ -601,8 +606,7 @@ public class InstrumentRebalanceService {
 			}
 			if (useRedundancy) {
 				double redundancy = computeRedundancy(instrument.isin(), instruments.size(),
-						benchmarks, benchmarkCounts, regionNames, holdingNames, sectorNames,
-						regionWeights, holdingWeights, sectorWeights,
+						benchmarks, benchmarkCounts, overlaps,
 						useBenchmark, useRegions, useHoldings, useSectors, sectorWeightFactor(layer));
 				BigDecimal uniqueness = BigDecimal.ONE.subtract(BigDecimal.valueOf(redundancy));
 				if (uniqueness.compareTo(BigDecimal.ZERO) < 0) {
@@ -715,24 +719,20 @@ public class InstrumentRebalanceService {
 		return normalized;
 	}
 
-	private BigDecimal computeValuationScore(InstrumentDossierExtractionPayload payload) {
+	private BigDecimal computeValuationScore(InstrumentDossierExtractionPayload payload, ValuationMetrics metrics) {
 		if (payload == null || payload.valuation() == null) {
 			return null;
 		}
-		BigDecimal longtermYield = extractLongtermEarningsYield(payload.valuation());
-		BigDecimal holdingsYield = extractHoldingsEarningsYield(payload.valuation());
-		BigDecimal currentYield = extractCurrentEarningsYield(payload.valuation());
-		BigDecimal priceToBook = extractPriceToBook(payload.valuation());
-		BigDecimal evToEbitda = extractEvToEbitda(payload.valuation());
-		BigDecimal ebitdaEur = extractEbitdaEur(payload.valuation());
-		BigDecimal dividendYield = extractDividendYield(payload);
-		double longtermYieldScore = scoreEarningsYield(longtermYield);
-		double holdingsYieldScore = scoreEarningsYield(holdingsYield);
-		double currentYieldScore = scoreEarningsYield(currentYield);
-		double dividendYieldScore = scoreDividendYield(dividendYield);
-		double evScore = scoreEvToEbitda(evToEbitda);
-		double profitabilityScore = scoreEbitdaEur(ebitdaEur);
-		double pbScore = scorePriceToBook(priceToBook);
+		if (metrics == null) {
+			metrics = ValuationMetrics.from(payload);
+		}
+		double longtermYieldScore = scoreEarningsYield(metrics.earningsYieldLongterm());
+		double holdingsYieldScore = scoreEarningsYield(metrics.earningsYieldHoldings());
+		double currentYieldScore = scoreEarningsYield(metrics.earningsYieldCurrent());
+		double dividendYieldScore = scoreDividendYield(metrics.dividendYield());
+		double evScore = scoreEvToEbitda(metrics.evToEbitda());
+		double profitabilityScore = scoreEbitdaEur(metrics.ebitdaEur());
+		double pbScore = scorePriceToBook(metrics.priceToBook());
 		double weightSum = 0.0;
 		double scoreSum = 0.0;
 		if (isEtf(payload)) {
@@ -805,288 +805,11 @@ public class InstrumentRebalanceService {
 		return BigDecimal.valueOf(baseScore * quality);
 	}
 
-	private BigDecimal extractLongtermEarningsYield(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
-		if (valuation == null) {
-			return null;
-		}
-		BigDecimal yield = valuation.earningsYieldLongterm();
-		if (yield != null) {
-			return yield;
-		}
-		BigDecimal pe = valuation.peLongterm();
-		if (pe != null && pe.compareTo(BigDecimal.ZERO) > 0) {
-			return BigDecimal.ONE.divide(pe, 8, RoundingMode.HALF_UP);
-		}
-		BigDecimal computedYield = computeLongtermEarningsYield(valuation);
-		if (computedYield != null) {
-			return computedYield;
-		}
-		return null;
-	}
-
-	private BigDecimal extractHoldingsEarningsYield(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
-		if (valuation == null) {
-			return null;
-		}
-		BigDecimal yield = valuation.earningsYieldTtmHoldings();
-		if (yield != null) {
-			return yield;
-		}
-		BigDecimal peHoldings = valuation.peTtmHoldings();
-		if (peHoldings != null && peHoldings.compareTo(BigDecimal.ZERO) > 0) {
-			return BigDecimal.ONE.divide(peHoldings, 8, RoundingMode.HALF_UP);
-		}
-		return null;
-	}
-
-	private BigDecimal extractCurrentEarningsYield(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
-		if (valuation == null) {
-			return null;
-		}
-		BigDecimal peCurrent = valuation.peCurrent();
-		if (peCurrent != null && peCurrent.compareTo(BigDecimal.ZERO) > 0) {
-			return BigDecimal.ONE.divide(peCurrent, 8, RoundingMode.HALF_UP);
-		}
-		return null;
-	}
-
-	private BigDecimal extractPriceToBook(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
-		if (valuation == null) {
-			return null;
-		}
-		return valuation.pbCurrent();
-	}
-
-	private BigDecimal computeLongtermEarningsYield(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
-		BigDecimal epsNorm = computeEpsNormFromHistory(valuation);
-		BigDecimal price = extractPrice(valuation);
-		if (epsNorm == null || price == null) {
-			return null;
-		}
-		if (epsNorm.compareTo(BigDecimal.ZERO) <= 0 || price.compareTo(BigDecimal.ZERO) <= 0) {
-			return null;
-		}
-		return epsNorm.divide(price, 8, RoundingMode.HALF_UP);
-	}
-
-	private BigDecimal computeEpsNormFromHistory(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
-		List<InstrumentDossierExtractionPayload.EpsHistoryPayload> history = valuation == null ? null : valuation.epsHistory();
-		if (history == null || history.isEmpty()) {
-			return null;
-		}
-		List<InstrumentDossierExtractionPayload.EpsHistoryPayload> selected = selectPreferredEpsHistory(history);
-		List<BigDecimal> values = new ArrayList<>();
-		selected.stream()
-				.filter(entry -> entry != null && entry.year() != null && entry.eps() != null)
-				.sorted(Comparator.comparing(InstrumentDossierExtractionPayload.EpsHistoryPayload::year).reversed())
-				.limit(7)
-				.forEach(entry -> values.add(applyEpsFloor(entry.eps(), valuation)));
-		if (values.size() < 3) {
-			return null;
-		}
-		values.sort(Comparator.naturalOrder());
-		int mid = values.size() / 2;
-		if (values.size() % 2 == 1) {
-			return values.get(mid);
-		}
-		return values.get(mid - 1).add(values.get(mid)).divide(BigDecimal.valueOf(2), 8, RoundingMode.HALF_UP);
-	}
-
-	private List<InstrumentDossierExtractionPayload.EpsHistoryPayload> selectPreferredEpsHistory(
-			List<InstrumentDossierExtractionPayload.EpsHistoryPayload> history) {
-		boolean hasAdjusted = history.stream().anyMatch(entry -> isAdjustedEpsType(entry == null ? null : entry.epsType()));
-		if (!hasAdjusted) {
-			return history;
-		}
-		return history.stream()
-				.filter(entry -> isAdjustedEpsType(entry == null ? null : entry.epsType()))
-				.toList();
-	}
-
-	private boolean isAdjustedEpsType(String epsType) {
-		if (epsType == null || epsType.isBlank()) {
-			return false;
-		}
-		String normalized = epsType.trim().toLowerCase(Locale.ROOT);
-		return normalized.contains("adjusted")
-				|| normalized.contains("normalized")
-				|| normalized.contains("non-gaap")
-				|| normalized.contains("non gaap");
-	}
-
-	private BigDecimal applyEpsFloor(BigDecimal value, InstrumentDossierExtractionPayload.ValuationPayload valuation) {
-		if (value == null) {
-			return null;
-		}
-		if (value.compareTo(BigDecimal.ZERO) <= 0) {
-			return value;
-		}
-		if (!shouldApplyEpsFloor(valuation == null ? null : valuation.epsFloorPolicy())) {
-			return value;
-		}
-		BigDecimal floor = valuation == null || valuation.epsFloorValue() == null
-				? new BigDecimal("0.10")
-				: valuation.epsFloorValue();
-		if (floor == null || floor.compareTo(BigDecimal.ZERO) <= 0) {
-			return value;
-		}
-		return value.compareTo(floor) < 0 ? floor : value;
-	}
-
-	private boolean shouldApplyEpsFloor(String policy) {
-		if (policy == null || policy.isBlank()) {
-			return true;
-		}
-		String normalized = policy.trim().toLowerCase(Locale.ROOT);
-		return !(normalized.equals("none") || normalized.equals("off") || normalized.equals("no_floor"));
-	}
-
-	private BigDecimal extractPrice(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
-		if (valuation == null) {
-			return null;
-		}
-		BigDecimal price = valuation.price();
-		if (price != null) {
-			return price;
-		}
-		BigDecimal marketCap = valuation.marketCap();
-		BigDecimal shares = valuation.sharesOutstanding();
-		if (marketCap != null && shares != null && shares.compareTo(BigDecimal.ZERO) > 0) {
-			return marketCap.divide(shares, 8, RoundingMode.HALF_UP);
-		}
-		return null;
-	}
-
-	private BigDecimal extractEvToEbitda(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
-		if (valuation == null) {
-			return null;
-		}
-		BigDecimal evToEbitda = valuation.evToEbitda();
-		if (evToEbitda != null) {
-			return evToEbitda;
-		}
-		BigDecimal enterpriseValue = valuation.enterpriseValue();
-		BigDecimal ebitda = valuation.ebitda();
-		if (enterpriseValue != null && ebitda != null && ebitda.compareTo(BigDecimal.ZERO) > 0) {
-			return enterpriseValue.divide(ebitda, 8, RoundingMode.HALF_UP);
-		}
-		return null;
-	}
-
-	private BigDecimal extractEbitdaEur(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
-		if (valuation == null) {
-			return null;
-		}
-		return extractProfitabilityEur(valuation);
-	}
-
-	private BigDecimal extractProfitabilityEur(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
-		if (valuation == null) {
-			return null;
-		}
-		BigDecimal ebitdaEur = valuation.ebitdaEur();
-		if (ebitdaEur != null) {
-			return ebitdaEur;
-		}
-		BigDecimal ebitda = convertMetricToEur(valuation.ebitda(), valuation.ebitdaCurrency(), valuation.fxRateToEur());
-		if (ebitda != null) {
-			return ebitda;
-		}
-		BigDecimal affo = convertMetricToEur(valuation.affo(), valuation.affoCurrency(), valuation.fxRateToEur());
-		if (affo != null) {
-			return affo;
-		}
-		BigDecimal ffo = convertMetricToEur(valuation.ffo(), valuation.ffoCurrency(), valuation.fxRateToEur());
-		if (ffo != null) {
-			return ffo;
-		}
-		BigDecimal noi = convertMetricToEur(valuation.noi(), valuation.noiCurrency(), valuation.fxRateToEur());
-		if (noi != null) {
-			return noi;
-		}
-		return convertMetricToEur(valuation.netRent(), valuation.netRentCurrency(), valuation.fxRateToEur());
-	}
-
-	private BigDecimal extractNetIncomeEur(InstrumentDossierExtractionPayload payload) {
-		if (payload == null || payload.financials() == null) {
-			return null;
-		}
-		InstrumentDossierExtractionPayload.FinancialsPayload financials = payload.financials();
-		if (financials.netIncomeEur() != null) {
-			return financials.netIncomeEur();
-		}
-		BigDecimal fxRate = resolveFinancialsFxRate(financials, payload);
-		return convertMetricToEur(financials.netIncome(), financials.netIncomeCurrency(), fxRate);
-	}
-
-	private BigDecimal extractRevenueEur(InstrumentDossierExtractionPayload payload) {
-		if (payload == null || payload.financials() == null) {
-			return null;
-		}
-		InstrumentDossierExtractionPayload.FinancialsPayload financials = payload.financials();
-		if (financials.revenueEur() != null) {
-			return financials.revenueEur();
-		}
-		BigDecimal fxRate = resolveFinancialsFxRate(financials, payload);
-		return convertMetricToEur(financials.revenue(), financials.revenueCurrency(), fxRate);
-	}
-
-	private BigDecimal extractDividendYield(InstrumentDossierExtractionPayload payload) {
-		if (payload == null || payload.financials() == null || payload.valuation() == null) {
-			return null;
-		}
-		InstrumentDossierExtractionPayload.FinancialsPayload financials = payload.financials();
-		BigDecimal dividend = financials.dividendPerShare();
-		if (dividend == null || dividend.compareTo(BigDecimal.ZERO) <= 0) {
-			return null;
-		}
-		BigDecimal price = extractPrice(payload.valuation());
-		if (price == null || price.compareTo(BigDecimal.ZERO) <= 0) {
-			return null;
-		}
-		String dividendCcy = financials.dividendCurrency();
-		String priceCcy = payload.valuation().priceCurrency();
-		if (dividendCcy != null && priceCcy != null && !dividendCcy.equalsIgnoreCase(priceCcy)) {
-			BigDecimal fxDividend = resolveFinancialsFxRate(financials, payload);
-			BigDecimal dividendEur = convertMetricToEur(dividend, dividendCcy, fxDividend);
-			BigDecimal priceEur = convertMetricToEur(price, priceCcy, payload.valuation().fxRateToEur());
-			if (dividendEur == null || priceEur == null || priceEur.compareTo(BigDecimal.ZERO) <= 0) {
-				return null;
-			}
-			return dividendEur.divide(priceEur, 8, RoundingMode.HALF_UP);
-		}
-		return dividend.divide(price, 8, RoundingMode.HALF_UP);
-	}
-
-	private BigDecimal resolveFinancialsFxRate(InstrumentDossierExtractionPayload.FinancialsPayload financials,
-											   InstrumentDossierExtractionPayload payload) {
-		if (financials != null && financials.fxRateToEur() != null) {
-			return financials.fxRateToEur();
-		}
-		if (payload != null && payload.valuation() != null) {
-			return payload.valuation().fxRateToEur();
-		}
-		return null;
-	}
-
-	private BigDecimal convertMetricToEur(BigDecimal value, String currency, BigDecimal fxRate) {
-		if (value == null) {
-			return null;
-		}
-		if (currency == null || currency.isBlank() || currency.equalsIgnoreCase("EUR")) {
-			return value;
-		}
-		if (fxRate == null || fxRate.compareTo(BigDecimal.ZERO) <= 0) {
-			return null;
-		}
-		return value.multiply(fxRate);
-	}
-
-	private double scoreEarningsYield(BigDecimal earningsYield) {
+	private double scoreEarningsYield(Double earningsYield) {
 		if (earningsYield == null) {
 			return 0.0;
 		}
-		double value = earningsYield.doubleValue();
+		double value = earningsYield;
 		if (value <= 0) {
 			return 0.0;
 		}
@@ -1094,11 +817,11 @@ public class InstrumentRebalanceService {
 		return Math.min(value / cap, 1.0);
 	}
 
-	private double scoreEvToEbitda(BigDecimal evToEbitda) {
+	private double scoreEvToEbitda(Double evToEbitda) {
 		if (evToEbitda == null) {
 			return 0.0;
 		}
-		double value = evToEbitda.doubleValue();
+		double value = evToEbitda;
 		if (value <= 0) {
 			return 0.0;
 		}
@@ -1106,11 +829,11 @@ public class InstrumentRebalanceService {
 		return Math.min(target / value, 1.0);
 	}
 
-	private double scoreDividendYield(BigDecimal dividendYield) {
+	private double scoreDividendYield(Double dividendYield) {
 		if (dividendYield == null) {
 			return 0.0;
 		}
-		double value = dividendYield.doubleValue();
+		double value = dividendYield;
 		if (value <= 0) {
 			return 0.0;
 		}
@@ -1118,22 +841,22 @@ public class InstrumentRebalanceService {
 		return Math.min(value / cap, 1.0);
 	}
 
-	private double scorePriceToBook(BigDecimal priceToBook) {
+	private double scorePriceToBook(Double priceToBook) {
 		if (priceToBook == null) {
 			return 0.0;
 		}
-		double value = priceToBook.doubleValue();
+		double value = priceToBook;
 		if (value <= 0) {
 			return 0.0;
 		}
 		return Math.min(DEFAULT_PB_TARGET / value, 1.0);
 	}
 
-	private double scoreEbitdaEur(BigDecimal ebitdaEur) {
+	private double scoreEbitdaEur(Double ebitdaEur) {
 		if (ebitdaEur == null) {
 			return 0.0;
 		}
-		double value = ebitdaEur.doubleValue();
+		double value = ebitdaEur;
 		if (value <= 0) {
 			return 0.0;
 		}
@@ -1577,12 +1300,7 @@ public class InstrumentRebalanceService {
 								 int instrumentCount,
 								 Map<String, String> benchmarks,
 								 Map<String, Integer> benchmarkCounts,
-								 Map<String, Set<String>> regionNames,
-								 Map<String, Set<String>> holdingNames,
-								 Map<String, Set<String>> sectorNames,
-								 Map<String, Map<String, BigDecimal>> regionWeights,
-								 Map<String, Map<String, BigDecimal>> holdingWeights,
-								 Map<String, Map<String, BigDecimal>> sectorWeights,
+								 OverlapIndexes overlaps,
 								 boolean useBenchmark,
 								 boolean useRegions,
 								 boolean useHoldings,
@@ -1601,17 +1319,17 @@ public class InstrumentRebalanceService {
 			weightSum += 1.0d;
 		}
 		if (useRegions) {
-			double overlap = averageWeightedOverlap(isin, regionWeights);
+			double overlap = overlaps.regions().averageWeightedOverlap(isin);
 			if (overlap < 0) {
-				overlap = averageOverlap(isin, regionNames, instrumentCount);
+				overlap = overlaps.regions().averageOverlap(isin, instrumentCount);
 			}
 			sum += overlap;
 			weightSum += 1.0d;
 		}
 		if (useHoldings) {
-			double overlap = averageWeightedOverlap(isin, holdingWeights);
+			double overlap = overlaps.holdings().averageWeightedOverlap(isin);
 			if (overlap < 0) {
-				overlap = averageOverlap(isin, holdingNames, instrumentCount);
+				overlap = overlaps.holdings().averageOverlap(isin, instrumentCount);
 			}
 			sum += overlap;
 			weightSum += 1.0d;
@@ -1619,9 +1337,9 @@ public class InstrumentRebalanceService {
 		if (useSectors) {
 			double weight = Math.max(0.0d, Math.min(1.0d, sectorWeightFactor));
 			if (weight > 0.0d) {
-				double overlap = averageWeightedOverlap(isin, sectorWeights);
+				double overlap = overlaps.sectors().averageWeightedOverlap(isin);
 				if (overlap < 0) {
-					overlap = averageOverlap(isin, sectorNames, instrumentCount);
+					overlap = overlaps.sectors().averageOverlap(isin, instrumentCount);
 				}
 				sum += overlap * weight;
 				weightSum += weight;
@@ -1633,114 +1351,42 @@ public class InstrumentRebalanceService {
 		return sum / weightSum;
 	}
 
-	private double averageOverlap(String isin, Map<String, Set<String>> entries, int instrumentCount) {
-		Set<String> base = entries.get(isin);
-		if (base == null || base.isEmpty()) {
-			return 0.0d;
-		}
-		double sum = 0.0d;
-		for (Map.Entry<String, Set<String>> entry : entries.entrySet()) {
-			if (entry.getKey().equals(isin)) {
-				continue;
-			}
-			Set<String> other = entry.getValue();
-			if (other == null || other.isEmpty()) {
-				continue;
-			}
-			int maxSize = Math.max(base.size(), other.size());
-			if (maxSize == 0) {
-				continue;
-			}
-			int common = 0;
-			for (String name : base) {
-				if (other.contains(name)) {
-					common += 1;
-				}
+	// The indexes only depend on the extracted payloads, so their pairwise matrices are reused for as long as
+	// none of the layer's extractions has been rewritten.
+	private OverlapIndexes overlapIndexes(Map<String, LocalDateTime> extractionVersions,
+										  Map<String, Set<String>> regionNames,
+										  Map<String, Set<String>> holdingNames,
+										  Map<String, Set<String>> sectorNames,
+										  Map<String, Map<String, BigDecimal>> regionWeights,
+										  Map<String, Map<String, BigDecimal>> holdingWeights,
+										  Map<String, Map<String, BigDecimal>> sectorWeights) {
+		boolean cacheable = !extractionVersions.isEmpty() && !extractionVersions.containsValue(null);
+		if (cacheable) {
+			OverlapIndexes cached = overlapCache.get(extractionVersions);
+			if (cached != null) {
+				return cached;
 			}
-			sum += (double) common / (double) maxSize;
 		}
-		return sum / (double) (instrumentCount - 1);
-	}
-
-	private double averageWeightedOverlap(String isin, Map<String, Map<String, BigDecimal>> entries) {
-		if (entries == null || entries.isEmpty()) {
-			return -1.0d;
-		}
-		Map<String, BigDecimal> base = entries.get(isin);
-		if (base == null || base.isEmpty()) {
-			return -1.0d;
-		}
-		double baseTotal = base.values().stream().mapToDouble(value -> value == null ? 0.0 : value.doubleValue()).sum();
-		if (baseTotal <= 0.0) {
-			return -1.0d;
-		}
-		double sum = 0.0d;
-		int count = 0;
-		for (Map.Entry<String, Map<String, BigDecimal>> entry : entries.entrySet()) {
-			if (isin.equals(entry.getKey())) {
-				continue;
-			}
-			Map<String, BigDecimal> other = entry.getValue();
-			if (other == null || other.isEmpty()) {
-				continue;
-			}
-			double otherTotal = other.values().stream().mapToDouble(value -> value == null ? 0.0 : value.doubleValue()).sum();
-			if (otherTotal <= 0.0) {
-				continue;
+		OverlapIndexes indexes = new OverlapIndexes(
+				HoldingsOverlapIndex.build(regionNames, regionWeights),
+				HoldingsOverlapIndex.build(holdingNames, holdingWeights),
+				HoldingsOverlapIndex.build(sectorNames, sectorWeights));
+		if (cacheable) {
+			if (overlapCache.size() >= OVERLAP_CACHE_LIMIT) {
+				overlapCache.clear();
 			}
-			double overlap = 0.0d;
-			for (Map.Entry<String, BigDecimal> baseEntry : base.entrySet()) {
-				BigDecimal otherValue = other.get(baseEntry.getKey());
-				if (otherValue == null) {
-					continue;
-				}
-				double left = baseEntry.getValue() == null ? 0.0 : baseEntry.getValue().doubleValue();
-				double right = otherValue.doubleValue();
-				overlap += Math.min(left, right);
-			}
-			double denom = Math.max(baseTotal, otherTotal);
-			sum += denom <= 0.0 ? 0.0 : overlap / denom;
-			count += 1;
+			overlapCache.put(Map.copyOf(extractionVersions), indexes);
 		}
-		if (count == 0) {
-			return -1.0d;
-		}
-		return sum / (double) count;
+		return indexes;
 	}
 
 	private Map<String, KbExtraction> loadLatestExtractions(Set<String> isins) {
-		if (isins == null || isins.isEmpty()) {
-			return Map.of();
-		}
-		String sql = """
-				SELECT isin, status, extracted_json
-				FROM knowledge_base_extractions
-				WHERE isin IN (:isins)
-				""";
-		MapSqlParameterSource params = new MapSqlParameterSource("isins", isins);
 		Map<String, KbExtraction> result = new HashMap<>();
-		namedParameterJdbcTemplate.query(sql, params, rs -> {
-			String isin = normalizeIsin(rs.getString("isin"));
-			String status = rs.getString("status");
-			String json = rs.getString("extracted_json");
-			InstrumentDossierExtractionPayload payload = parsePayload(isin, json);
-			if (isin != null) {
-				result.put(isin, new KbExtraction(isin, status, payload));
-			}
-		});
-		return result;
-	}
-
-	private InstrumentDossierExtractionPayload parsePayload(String isin, String json) {
-		if (json == null || json.isBlank()) {
-			return null;
-		}
-		try {
-			return objectMapper.readValue(json, InstrumentDossierExtractionPayload.class);
-		} catch (Exception ex) {
-			logger.debug("Failed to parse KB extraction payload for {}: {}", isin, ex.getMessage());
-			return null;
+		for (KnowledgeBaseProfileStore.StoredExtraction stored : profileStore.load(isins).values()) {
+			result.put(stored.isin(), new KbExtraction(stored.isin(), stored.status(), stored.updatedAt(),
+					stored.payload(), stored.metrics()));
 		}
+		return result;
 	}
 
 	private List<String> resolveMissingIsins(Set<String> isins, Map<String, KbExtraction> extractions, boolean kbEnabled) {
@@ -1830,7 +1476,13 @@ public class InstrumentRebalanceService {
 									Map<String, BigDecimal> weights) {
 	}
 
-	private record KbExtraction(String isin, String status, InstrumentDossierExtractionPayload payload) {
+	private record KbExtraction(String isin, String status, LocalDateTime updatedAt,
+								InstrumentDossierExtractionPayload payload, ValuationMetrics metrics) {
+	}
+
+	private record OverlapIndexes(HoldingsOverlapIndex regions,
+								  HoldingsOverlapIndex holdings,
+								  HoldingsOverlapIndex sectors) {
 	}
 
 	private record LayerAllocation(Map<String, BigDecimal> proposedAmounts,
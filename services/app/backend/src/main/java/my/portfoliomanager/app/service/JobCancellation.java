@@ -0,0 +1,52 @@
+package my.portfoliomanager.app.service;
+
+import java.util.concurrent.Callable;
+import java.util.function.BooleanSupplier;
+
+// Cooperative cancellation of queued jobs. The job queue installs the cancel check of the running job on its worker
+// thread; long-running services poll it between steps instead of being interrupted in the middle of a database call.
+// Pools that fan work out have to carry the check over to their threads via current() and run().
+public final class JobCancellation {
+	private static final ThreadLocal<BooleanSupplier> CHECK = new ThreadLocal<>();
+
+	private JobCancellation() {
+	}
+
+	public static void run(BooleanSupplier check, Runnable action) {
+		BooleanSupplier previous = CHECK.get();
+		CHECK.set(check);
+		try {
+			action.run();
+		} finally {
+			restore(previous);
+		}
+	}
+
+	static <T> T call(BooleanSupplier check, Callable<T> action) throws Exception {
+		BooleanSupplier previous = CHECK.get();
+		CHECK.set(check);
+		try {
+			return action.call();
+		} finally {
+			restore(previous);
+		}
+	}
+
+	public static BooleanSupplier current() {
+		return CHECK.get();
+	}
+
+	// Interrupts still count, so local pools that shut their tasks down keep working.
+	public static boolean isRequested() {
+		BooleanSupplier check = CHECK.get();
+		return (check != null && check.getAsBoolean()) || Thread.currentThread().isInterrupted();
+	}
+
+	private static void restore(BooleanSupplier previous) {
+		if (previous == null) {
+			CHECK.remove();
+		} else {
+			CHECK.set(previous);
+		}
+	}
+}
@@ -0,0 +1,228 @@
+package my.portfoliomanager.app.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import my.portfoliomanager.app.config.JobQueueProperties;
+import my.portfoliomanager.app.repository.JobQueueRepository;
+import my.portfoliomanager.app.repository.projection.JobEventRow;
+import my.portfoliomanager.app.repository.projection.JobRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+// Pushes the job_events rows of a job to server-sent event subscribers instead of having clients poll the full job
+// DTO. Events carry their event_id as SSE id, so a reconnecting client resumes with Last-Event-ID. Once the job has
+// finished and its events are drained, a final "job" event carries the same DTO the polling endpoint returns.
+@Service
+public class JobEventStreamService {
+	private static final Logger logger = LoggerFactory.getLogger(JobEventStreamService.class);
+	static final long DEFAULT_POLL_INTERVAL_MILLIS = 500;
+	static final long DEFAULT_STREAM_TIMEOUT_SECONDS = 1800;
+	static final String SNAPSHOT_EVENT = "job";
+	private static final long KEEP_ALIVE_MILLIS = 15_000;
+	private static final int EVENT_BATCH_SIZE = 200;
+
+	private final JobQueueService jobQueue;
+	private final JobQueueRepository repository;
+	private final JobQueueProperties properties;
+	private final Set<Subscription<?>> subscriptions = ConcurrentHashMap.newKeySet();
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+	private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+	public JobEventStreamService(JobQueueService jobQueue, JobQueueRepository repository, JobQueueProperties properties) {
+		this.jobQueue = jobQueue;
+		this.repository = repository;
+		this.properties = properties;
+	}
+
+	@PostConstruct
+	public void start() {
+		long interval = resolvePollIntervalMillis();
+		scheduler.scheduleWithFixedDelay(this::tickQuietly, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		scheduler.shutdownNow();
+		for (Subscription<?> subscription : subscriptions) {
+			subscription.emitter.complete();
+		}
+		subscriptions.clear();
+		senders.shutdownNow();
+	}
+
+	// Empty when the job does not exist; lastEventId is the SSE Last-Event-ID header of a reconnecting client.
+	public <T> Optional<SseEmitter> stream(String jobType, String jobId, String lastEventId, Function<JobRow, T> snapshot) {
+		long afterEventId = parseEventId(lastEventId);
+		if (jobQueue.find(jobType, jobId).isEmpty()) {
+			return Optional.empty();
+		}
+		SseEmitter emitter = new JobSseEmitter(TimeUnit.SECONDS.toMillis(resolveStreamTimeoutSeconds()));
+		Subscription<T> subscription = new Subscription<>(jobType, jobId, afterEventId, snapshot, emitter);
+		emitter.onCompletion(() -> subscriptions.remove(subscription));
+		emitter.onTimeout(emitter::complete);
+		emitter.onError(ex -> subscriptions.remove(subscription));
+		subscriptions.add(subscription);
+		submit(subscription);
+		return Optional.of(emitter);
+	}
+
+	int subscriberCount() {
+		return subscriptions.size();
+	}
+
+	private void tickQuietly() {
+		try {
+			for (Subscription<?> subscription : subscriptions) {
+				submit(subscription);
+			}
+		} catch (Exception ex) {
+			logger.warn("Job event tick failed: {}", ex.getMessage());
+		}
+	}
+
+	private void submit(Subscription<?> subscription) {
+		if (!subscription.inFlight.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			senders.execute(() -> {
+				try {
+					deliver(subscription);
+				} finally {
+					subscription.inFlight.set(false);
+				}
+			});
+		} catch (RejectedExecutionException ex) {
+			subscription.inFlight.set(false);
+		}
+	}
+
+	// The job row is read before the events: a job seen as finished has all of its events committed, so draining them
+	// afterwards cannot miss the final status change. The row is only read again after events arrived, which is the
+	// only way a job can have finished since the last look.
+	private <T> void deliver(Subscription<T> subscription) {
+		try {
+			JobRow job = null;
+			if (subscription.checkJob) {
+				job = jobQueue.find(subscription.jobType, subscription.jobId).orElse(null);
+				if (job == null) {
+					finish(subscription);
+					return;
+				}
+			}
+			boolean delivered = false;
+			List<JobEventRow> events;
+			do {
+				events = repository.findEvents(subscription.jobId, subscription.lastEventId, EVENT_BATCH_SIZE);
+				for (JobEventRow event : events) {
+					subscription.emitter.send(SseEmitter.event()
+							.id(Long.toString(event.eventId()))
+							.name(event.eventType())
+							.data(event.data() == null ? "{}" : event.data()));
+					subscription.lastEventId = event.eventId();
+					delivered = true;
+				}
+			} while (events.size() == EVENT_BATCH_SIZE);
+			long now = System.currentTimeMillis();
+			if (delivered) {
+				subscription.lastSentAt = now;
+			}
+			subscription.checkJob = delivered;
+			if (job != null && !job.status().isActive()) {
+				subscription.emitter.send(SseEmitter.event()
+						.id(Long.toString(subscription.lastEventId))
+						.name(SNAPSHOT_EVENT)
+						.data(subscription.snapshot.apply(job)));
+				finish(subscription);
+				return;
+			}
+			if (now - subscription.lastSentAt >= KEEP_ALIVE_MILLIS) {
+				subscription.emitter.send(SseEmitter.event().comment("keep-alive"));
+				subscription.lastSentAt = now;
+			}
+		} catch (IOException | IllegalStateException ex) {
+			// The client went away or the emitter already completed.
+			subscriptions.remove(subscription);
+		} catch (Exception ex) {
+			logger.warn("Failed to stream events of job {}: {}", subscription.jobId, ex.getMessage());
+			subscriptions.remove(subscription);
+			subscription.emitter.completeWithError(ex);
+		}
+	}
+
+	private void finish(Subscription<?> subscription) {
+		subscriptions.remove(subscription);
+		subscription.emitter.complete();
+	}
+
+	private long parseEventId(String lastEventId) {
+		if (lastEventId == null || lastEventId.isBlank()) {
+			return 0;
+		}
+		try {
+			return Math.max(0, Long.parseLong(lastEventId.trim()));
+		} catch (NumberFormatException ex) {
+			throw new IllegalArgumentException("Invalid Last-Event-ID: " + lastEventId);
+		}
+	}
+
+	private long resolvePollIntervalMillis() {
+		Long configured = properties == null ? null : properties.eventPollIntervalMillis();
+		return configured == null || configured <= 0 ? DEFAULT_POLL_INTERVAL_MILLIS : configured;
+	}
+
+	private long resolveStreamTimeoutSeconds() {
+		Long configured = properties == null ? null : properties.streamTimeoutSeconds();
+		return configured == null || configured <= 0 ? DEFAULT_STREAM_TIMEOUT_SECONDS : configured;
+	}
+
+	private static final class Subscription<T> {
+		private final String jobType;
+		private final String jobId;
+		private final Function<JobRow, T> snapshot;
+		private final SseEmitter emitter;
+		private final AtomicBoolean inFlight = new AtomicBoolean();
+		private volatile long lastEventId;
+		private volatile long lastSentAt = System.currentTimeMillis();
+		private volatile boolean checkJob = true;
+
+		private Subscription(String jobType, String jobId, long lastEventId, Function<JobRow, T> snapshot,
+							 SseEmitter emitter) {
+			this.jobType = jobType;
+			this.jobId = jobId;
+			this.lastEventId = lastEventId;
+			this.snapshot = snapshot;
+			this.emitter = emitter;
+		}
+	}
+
+	// Reverse proxies (nginx in the frontend image) buffer responses unless told otherwise.
+	private static final class JobSseEmitter extends SseEmitter {
+		private JobSseEmitter(Long timeout) {
+			super(timeout);
+		}
+
+		@Override
+		protected void extendResponse(ServerHttpResponse outputMessage) {
+			super.extendResponse(outputMessage);
+			outputMessage.getHeaders().set("X-Accel-Buffering", "no");
+			outputMessage.getHeaders().setCacheControl("no-cache");
+		}
+	}
+}
@@ -0,0 +1,431 @@
+package my.portfoliomanager.app.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import my.portfoliomanager.app.config.JobQueueProperties;
+import my.portfoliomanager.app.domain.JobStatus;
+import my.portfoliomanager.app.repository.JobQueueRepository;
+import my.portfoliomanager.app.repository.projection.JobRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Shared job subsystem on top of the jobs table. Every replica runs a dispatcher that claims queued jobs of the
+// registered types (bounded per type across all replicas), executes them on virtual threads and keeps their leases
+// alive. Jobs of a replica that dies are claimed again once their lease expires. Cancellation is cooperative: handlers
+// poll JobContext.isCancelRequested (or JobCancellation.isRequested) between steps and are never interrupted.
+@Service
+public class JobQueueService {
+	private static final Logger logger = LoggerFactory.getLogger(JobQueueService.class);
+	static final long DEFAULT_POLL_INTERVAL_MILLIS = 1000;
+	static final long DEFAULT_LEASE_SECONDS = 60;
+	static final long DEFAULT_CLEANUP_INTERVAL_SECONDS = 60;
+	static final long DEFAULT_SHUTDOWN_GRACE_SECONDS = 10;
+
+	private final JobQueueRepository repository;
+	private final ObjectMapper objectMapper;
+	private final JobQueueProperties properties;
+	private final String owner = resolveOwner();
+	private final Map<String, Registration> registrations = new ConcurrentHashMap<>();
+	private final Map<String, RunningJob> running = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+	private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+	private volatile boolean stopping;
+
+	public JobQueueService(JobQueueRepository repository, ObjectMapper objectMapper, JobQueueProperties properties) {
+		this.repository = repository;
+		this.objectMapper = objectMapper;
+		this.properties = properties;
+	}
+
+	@PostConstruct
+	public void start() {
+		if (workersEnabled()) {
+			scheduler.scheduleWithFixedDelay(this::dispatchQuietly, 0, resolvePollIntervalMillis(), TimeUnit.MILLISECONDS);
+			long heartbeatMillis = Math.max(1000, resolveLeaseSeconds() * 1000 / 3);
+			scheduler.scheduleWithFixedDelay(this::heartbeatQuietly, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+		}
+		long cleanupSeconds = resolveCleanupIntervalSeconds();
+		scheduler.scheduleWithFixedDelay(this::cleanupQuietly, cleanupSeconds, cleanupSeconds, TimeUnit.SECONDS);
+	}
+
+	// Running jobs are asked to stop and get a grace period to reach their next step; the ones still running go back
+	// to the queue so another replica (or this one after a restart) picks them up right away.
+	@PreDestroy
+	public void shutdown() {
+		stopping = true;
+		scheduler.shutdownNow();
+		workers.shutdown();
+		try {
+			workers.awaitTermination(resolveShutdownGraceSeconds(), TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		// Also covers jobs that already stopped during the grace period, as they leave their rows to this call.
+		try {
+			int released = repository.release(owner);
+			if (released > 0) {
+				logger.info("Released {} running jobs back to the queue", released);
+			}
+		} catch (Exception ex) {
+			logger.warn("Failed to release running jobs: {}", ex.getMessage());
+		}
+		workers.shutdownNow();
+	}
+
+	public void register(JobDefinition definition, JobHandler handler) {
+		if (registrations.putIfAbsent(definition.type(), new Registration(definition, handler)) != null) {
+			throw new IllegalStateException("Job type already registered: " + definition.type());
+		}
+		wakeUp();
+	}
+
+	public JobRow enqueue(String jobType, Object payload, Object progress, String message, String createdBy) {
+		JobDefinition definition = definition(jobType);
+		JobRow row = repository.insert(UUID.randomUUID().toString(), jobType, JobStatus.QUEUED, write(payload),
+				write(progress), null, message, createdBy, definition.maxAttempts(), definition.retention().toSeconds());
+		wakeUp();
+		return row;
+	}
+
+	// Stores a job that was answered without running, e.g. from a result cache, so it can be polled like any other.
+	public JobRow record(String jobType, Object payload, Object progress, Object result, String message, String createdBy) {
+		JobDefinition definition = definition(jobType);
+		return repository.insert(UUID.randomUUID().toString(), jobType, JobStatus.DONE, write(payload),
+				write(progress), write(result), message, createdBy, definition.maxAttempts(), definition.retention().toSeconds());
+	}
+
+	public Optional<JobRow> find(String jobType, String jobId) {
+		if (jobId == null || jobId.isBlank()) {
+			return Optional.empty();
+		}
+		return repository.findById(jobId).filter(row -> jobType.equals(row.jobType()));
+	}
+
+	public List<JobRow> list(String jobType) {
+		return repository.findByType(jobType);
+	}
+
+	// Returns the updated job, or empty when it does not exist or has already finished.
+	public Optional<JobRow> requestCancel(String jobType, String jobId) {
+		if (find(jobType, jobId).isEmpty()) {
+			return Optional.empty();
+		}
+		Optional<JobRow> updated = repository.requestCancel(jobId);
+		RunningJob job = running.get(jobId);
+		if (updated.isPresent() && job != null) {
+			job.cancel();
+		}
+		return updated;
+	}
+
+	public boolean deleteFinished(String jobType, String jobId) {
+		return find(jobType, jobId).isPresent() && repository.deleteFinished(jobId);
+	}
+
+	public <T> T read(String json, Class<T> type) {
+		if (json == null || json.isBlank()) {
+			return null;
+		}
+		return objectMapper.readValue(json, type);
+	}
+
+	private String write(Object value) {
+		return value == null ? null : objectMapper.writeValueAsString(value);
+	}
+
+	private JobDefinition definition(String jobType) {
+		Registration registration = registrations.get(jobType);
+		if (registration == null) {
+			throw new IllegalStateException("Unknown job type: " + jobType);
+		}
+		return registration.definition;
+	}
+
+	private void wakeUp() {
+		if (stopping || !workersEnabled()) {
+			return;
+		}
+		try {
+			scheduler.execute(this::dispatchQuietly);
+		} catch (RejectedExecutionException ignored) {
+			// Shutting down.
+		}
+	}
+
+	private void dispatchQuietly() {
+		try {
+			dispatch();
+		} catch (Exception ex) {
+			logger.warn("Job dispatch failed: {}", ex.getMessage());
+		}
+	}
+
+	private void dispatch() {
+		for (Registration registration : registrations.values()) {
+			if (stopping) {
+				return;
+			}
+			JobDefinition definition = registration.definition;
+			int free = definition.maxConcurrency() - registration.active.get();
+			if (free <= 0) {
+				continue;
+			}
+			List<JobRow> claimed = repository.claim(definition.type(), definition.maxConcurrency(), free, owner,
+					resolveLeaseSeconds());
+			for (JobRow row : claimed) {
+				launch(registration, row);
+			}
+		}
+	}
+
+	private void launch(Registration registration, JobRow row) {
+		RunningJob job = new RunningJob(registration, row);
+		running.put(row.jobId(), job);
+		registration.active.incrementAndGet();
+		try {
+			workers.execute(() -> execute(job));
+		} catch (RejectedExecutionException ex) {
+			running.remove(row.jobId());
+			registration.active.decrementAndGet();
+		}
+	}
+
+	private void execute(RunningJob job) {
+		JobRow row = job.row;
+		JobOutcome outcome;
+		try {
+			JobContext context = new JobContext(job);
+			outcome = job.cancelRequested
+					? JobOutcome.canceled(null, "Canceled")
+					: JobCancellation.call(context::isCancelRequested, () -> job.registration.handler.run(context));
+			if (outcome == null) {
+				outcome = JobOutcome.done(null, null);
+			}
+		} catch (Exception ex) {
+			if (!job.cancelRequested && !stopping) {
+				logger.error("Job failed (jobId={}, type={}, attempt={}, error={})",
+						row.jobId(), row.jobType(), row.attempts(), ex.getMessage(), ex);
+			}
+			outcome = JobOutcome.failed(null, null, "Job failed");
+		}
+		try {
+			// A job that gave up because the replica is stopping is left to release() and runs again elsewhere.
+			if (isReleasedOnStop(job, outcome)) {
+				return;
+			}
+			if (job.cancelRequested && outcome.status() != JobStatus.DONE) {
+				outcome = JobOutcome.canceled(outcome.result(), "Canceled");
+			}
+			repository.complete(row.jobId(), owner, outcome.status(), outcome.message(), outcome.error(),
+					write(outcome.result()));
+		} catch (Exception ex) {
+			logger.warn("Failed to store outcome of job {}: {}", row.jobId(), ex.getMessage());
+		} finally {
+			running.remove(row.jobId());
+			job.registration.active.decrementAndGet();
+			wakeUp();
+		}
+	}
+
+	private boolean isReleasedOnStop(RunningJob job, JobOutcome outcome) {
+		return stopping && !job.cancelRequested && outcome != null && outcome.status() != JobStatus.DONE;
+	}
+
+	private void heartbeatQuietly() {
+		try {
+			heartbeat();
+		} catch (Exception ex) {
+			logger.warn("Job heartbeat failed: {}", ex.getMessage());
+		}
+	}
+
+	void heartbeat() {
+		Set<String> jobIds = Set.copyOf(running.keySet());
+		if (jobIds.isEmpty()) {
+			return;
+		}
+		Map<String, Boolean> alive = repository.heartbeat(owner, jobIds, resolveLeaseSeconds());
+		for (String jobId : jobIds) {
+			RunningJob job = running.get(jobId);
+			if (job == null) {
+				continue;
+			}
+			Boolean cancelRequested = alive.get(jobId);
+			if (cancelRequested == null) {
+				logger.warn("Lost lease of job {} ({}), stopping it", jobId, job.row.jobType());
+				job.cancel();
+			} else if (cancelRequested) {
+				job.cancel();
+			}
+		}
+	}
+
+	private void cleanupQuietly() {
+		try {
+			int abandoned = repository.failAbandoned();
+			if (abandoned > 0) {
+				logger.warn("Finished {} jobs whose lease expired", abandoned);
+			}
+			repository.deleteExpired();
+		} catch (Exception ex) {
+			logger.warn("Job cleanup failed: {}", ex.getMessage());
+		}
+	}
+
+	private boolean workersEnabled() {
+		return properties == null || properties.workersEnabled() == null || properties.workersEnabled();
+	}
+
+	private long resolvePollIntervalMillis() {
+		Long configured = properties == null ? null : properties.pollIntervalMillis();
+		return configured == null || configured <= 0 ? DEFAULT_POLL_INTERVAL_MILLIS : configured;
+	}
+
+	private long resolveLeaseSeconds() {
+		Long configured = properties == null ? null : properties.leaseSeconds();
+		return configured == null || configured <= 0 ? DEFAULT_LEASE_SECONDS : configured;
+	}
+
+	private long resolveCleanupIntervalSeconds() {
+		Long configured = properties == null ? null : properties.cleanupIntervalSeconds();
+		return configured == null || configured <= 0 ? DEFAULT_CLEANUP_INTERVAL_SECONDS : configured;
+	}
+
+	private long resolveShutdownGraceSeconds() {
+		Long configured = properties == null ? null : properties.shutdownGraceSeconds();
+		return configured == null || configured < 0 ? DEFAULT_SHUTDOWN_GRACE_SECONDS : configured;
+	}
+
+	private static String resolveOwner() {
+		String host = System.getenv("HOSTNAME");
+		String prefix = host == null || host.isBlank() ? "worker" : host.trim();
+		if (prefix.length() > 80) {
+			prefix = prefix.substring(0, 80);
+		}
+		return prefix + "/" + UUID.randomUUID();
+	}
+
+	// maxConcurrency bounds the running jobs of a type across all replicas; a job whose worker vanished is retried
+	// until it has been claimed maxAttempts times. Finished jobs are kept for the retention period.
+	public record JobDefinition(String type, int maxConcurrency, int maxAttempts, Duration retention) {
+	}
+
+	@FunctionalInterface
+	public interface JobHandler {
+		JobOutcome run(JobContext context) throws Exception;
+	}
+
+	public record JobOutcome(JobStatus status, Object result, String message, String error) {
+		public static JobOutcome done(Object result, String message) {
+			return new JobOutcome(JobStatus.DONE, result, message, null);
+		}
+
+		public static JobOutcome failed(Object result, String message, String error) {
+			return new JobOutcome(JobStatus.FAILED, result, message, error);
+		}
+
+		public static JobOutcome canceled(Object result, String message) {
+			return new JobOutcome(JobStatus.CANCELED, result, message, null);
+		}
+	}
+
+	public final class JobContext {
+		private final RunningJob job;
+
+		private JobContext(RunningJob job) {
+			this.job = job;
+		}
+
+		public String jobId() {
+			return job.row.jobId();
+		}
+
+		public int attempt() {
+			return job.row.attempts();
+		}
+
+		public String createdBy() {
+			return job.row.createdBy();
+		}
+
+		public <T> T payload(Class<T> type) {
+			return read(job.row.payload(), type);
+		}
+
+		// Progress as stored when the job was enqueued or last claimed.
+		public <T> T initialProgress(Class<T> type) {
+			return read(job.row.progress(), type);
+		}
+
+		// Also true while the replica shuts down; handlers should return at the next step boundary.
+		public boolean isCancelRequested() {
+			return job.cancelRequested || stopping;
+		}
+
+		// False when the outcome will not be stored because the replica is stopping; the job then runs again, so
+		// handlers must keep whatever its next attempt needs.
+		public boolean isFinal(JobOutcome outcome) {
+			return !isReleasedOnStop(job, outcome);
+		}
+
+		// Null arguments keep the stored value; failures are logged and do not abort the job.
+		public void report(String message, Object progress, Object partialResult) {
+			try {
+				repository.updateProgress(jobId(), owner, message, write(progress), write(partialResult));
+			} catch (Exception ex) {
+				logger.debug("Failed to store progress of job {}: {}", jobId(), ex.getMessage());
+			}
+		}
+
+		// Appends an event for stream subscribers next to the status and progress events recorded for every job.
+		public void publish(String eventType, Object data) {
+			try {
+				repository.insertEvent(jobId(), owner, eventType, write(data));
+			} catch (Exception ex) {
+				logger.debug("Failed to publish {} event of job {}: {}", eventType, jobId(), ex.getMessage());
+			}
+		}
+	}
+
+	private static final class Registration {
+		private final JobDefinition definition;
+		private final JobHandler handler;
+		private final AtomicInteger active = new AtomicInteger();
+
+		private Registration(JobDefinition definition, JobHandler handler) {
+			this.definition = definition;
+			this.handler = handler;
+		}
+	}
+
+	private static final class RunningJob {
+		private final Registration registration;
+		private final JobRow row;
+		private volatile boolean cancelRequested;
+
+		private RunningJob(Registration registration, JobRow row) {
+			this.registration = registration;
+			this.row = row;
+		}
+
+		private void cancel() {
+			cancelRequested = true;
+		}
+	}
+}
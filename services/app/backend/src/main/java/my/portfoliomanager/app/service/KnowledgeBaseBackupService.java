@@ -19,9 +19,12 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.sql.DataSource;
+import my.portfoliomanager.app.service.util.BackupContainerCrypto;
 import my.portfoliomanager.app.service.util.ZipEntryReader;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -44,6 +47,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 @Service
@@ -103,13 +107,22 @@ public class KnowledgeBaseBackupService {
 		return writeZip(metadata, exports);
 	}
 
+	public byte[] exportKnowledgeBase(String password) {
+		return BackupContainerCrypto.encrypt(exportKnowledgeBase(), requirePassword(password));
+	}
+
 	@Transactional
 	public KnowledgeBaseImportResultDto importKnowledgeBase(MultipartFile file) {
+		return importKnowledgeBase(file, null);
+	}
+
+	@Transactional
+	public KnowledgeBaseImportResultDto importKnowledgeBase(MultipartFile file, String password) {
 		try {
 			logger.info("Importing knowledge base archive (name={}, size={})",
 					file == null ? null : file.getOriginalFilename(),
 					file == null ? null : file.getSize());
-			Map<String, byte[]> entries = readZipEntries(file);
+			Map<String, byte[]> entries = readZipEntries(file, password);
 			byte[] metadataBytes = entries.remove(METADATA_ENTRY);
 			if (metadataBytes == null) {
 				throw new IllegalArgumentException("Knowledge base archive is missing metadata.");
@@ -363,8 +376,30 @@ public class KnowledgeBaseBackupService {
 		});
 	}
 
-	private Map<String, byte[]> readZipEntries(MultipartFile file) throws IOException {
-		return ZipEntryReader.readZipEntries(file);
+	private Map<String, byte[]> readZipEntries(MultipartFile file, String password) throws IOException {
+		try (InputStream inputStream = file.getInputStream();
+			 PushbackInputStream pushbackInputStream = new PushbackInputStream(inputStream, BackupContainerCrypto.headerLength())) {
+			byte[] header = pushbackInputStream.readNBytes(BackupContainerCrypto.headerLength());
+			pushbackInputStream.unread(header);
+			if (!BackupContainerCrypto.isEncrypted(header)) {
+				return ZipEntryReader.readZipEntries(new ZipInputStream(pushbackInputStream, StandardCharsets.UTF_8));
+			}
+			String backupPassword = requirePassword(password);
+			try {
+				return ZipEntryReader.readZipEntries(new ZipInputStream(
+						BackupContainerCrypto.decrypt(pushbackInputStream, backupPassword),
+						StandardCharsets.UTF_8));
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to decrypt knowledge base container.", e);
+			}
+		}
+	}
+
+	private String requirePassword(String password) {
+		if (password == null || password.isBlank()) {
+			throw new IllegalStateException("Backup password is required for encrypted knowledge base containers.");
+		}
+		return password;
 	}
 
 	private void validateInstrumentReferences(Map<String, byte[]> tableData) throws IOException {
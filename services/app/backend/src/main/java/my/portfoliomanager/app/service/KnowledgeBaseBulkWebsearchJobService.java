@@ -1,49 +1,50 @@
 package my.portfoliomanager.app.service;
 
-import jakarta.annotation.PreDestroy;
 import my.portfoliomanager.app.dto.InstrumentDossierBulkWebsearchItemDto;
 import my.portfoliomanager.app.dto.InstrumentDossierBulkWebsearchItemStatus;
 import my.portfoliomanager.app.dto.InstrumentDossierBulkWebsearchJobResponseDto;
 import my.portfoliomanager.app.dto.InstrumentDossierBulkWebsearchJobStatus;
 import my.portfoliomanager.app.dto.InstrumentDossierBulkWebsearchResultDto;
+import my.portfoliomanager.app.llm.LlmRequestException;
+import my.portfoliomanager.app.repository.projection.JobRow;
 import my.portfoliomanager.app.service.util.ISINUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Duration;
-import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Semaphore;
-import java.util.regex.Pattern;
 
 @Service
 public class KnowledgeBaseBulkWebsearchJobService {
 	private static final Logger logger = LoggerFactory.getLogger(KnowledgeBaseBulkWebsearchJobService.class);
 
+	static final String JOB_TYPE = "kb-bulk-websearch";
 	private static final Duration JOB_TTL = Duration.ofMinutes(60);
 	private static final int MAX_CONCURRENT_JOBS = 1;
+	private static final int MAX_ATTEMPTS = 1;
 	private static final int BATCH_SIZE = 3;
 	private static final int MAX_ISINS = 30;
+	static final String ITEM_EVENT = "item";
 
 	private final KnowledgeBaseService knowledgeBaseService;
-	private final Map<String, BulkWebsearchJobState> jobs = new ConcurrentHashMap<>();
-	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
-	private final Semaphore concurrency = new Semaphore(MAX_CONCURRENT_JOBS);
+	private final JobQueueService jobQueue;
+	private final JobEventStreamService jobEvents;
 
-	public KnowledgeBaseBulkWebsearchJobService(KnowledgeBaseService knowledgeBaseService) {
+	public KnowledgeBaseBulkWebsearchJobService(KnowledgeBaseService knowledgeBaseService,
+												JobQueueService jobQueue,
+												JobEventStreamService jobEvents) {
 		this.knowledgeBaseService = knowledgeBaseService;
+		this.jobQueue = jobQueue;
+		this.jobEvents = jobEvents;
+		jobQueue.register(new JobQueueService.JobDefinition(JOB_TYPE, MAX_CONCURRENT_JOBS, MAX_ATTEMPTS, JOB_TTL),
+				this::runJob);
 	}
 
 	public InstrumentDossierBulkWebsearchJobResponseDto start(List<String> isins, String createdBy) {
@@ -54,102 +55,77 @@ public class KnowledgeBaseBulkWebsearchJobService {
 		if (normalized.size() > MAX_ISINS) {
 			throw new IllegalArgumentException("Too many ISINs (max " + MAX_ISINS + ")");
 		}
-		cleanupExpired();
-		String jobId = UUID.randomUUID().toString();
-		BulkWebsearchJobState job = new BulkWebsearchJobState(jobId, normalized, createdBy, Instant.now());
-		jobs.put(jobId, job);
-		executor.submit(() -> runJob(jobId));
-		return toDto(job);
+		String actor = createdBy == null || createdBy.isBlank() ? "system" : createdBy;
+		return toDto(jobQueue.enqueue(JOB_TYPE, new BulkWebsearchPayload(normalized), null, null, actor));
 	}
 
 	public InstrumentDossierBulkWebsearchJobResponseDto get(String jobId) {
-		cleanupExpired();
-		BulkWebsearchJobState job = jobs.get(jobId);
-		if (job == null) {
-			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Bulk websearch job not found");
-		}
+		JobRow job = jobQueue.find(JOB_TYPE, jobId)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Bulk websearch job not found"));
 		return toDto(job);
 	}
 
-	@PreDestroy
-	public void shutdown() {
-		executor.shutdownNow();
+	public SseEmitter stream(String jobId, String lastEventId) {
+		return jobEvents.stream(JOB_TYPE, jobId, lastEventId, this::toDto)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Bulk websearch job not found"));
 	}
 
-	private void runJob(String jobId) {
-		BulkWebsearchJobState job = jobs.get(jobId);
-		if (job == null) {
-			return;
-		}
-		try {
-			concurrency.acquire();
-		} catch (InterruptedException ex) {
-			Thread.currentThread().interrupt();
-			job.status = InstrumentDossierBulkWebsearchJobStatus.FAILED;
-			job.error = failWithReference(job, ex);
-			job.finishedAt = Instant.now();
-			return;
-		}
-
+	// Items are published after every batch, both into the stored result for pollers and as "item" events for stream
+	// subscribers. Cancellation is checked between batches; a job handed back on shutdown starts over with a fresh result.
+	private JobQueueService.JobOutcome runJob(JobQueueService.JobContext context) {
+		BulkWebsearchJob job = new BulkWebsearchJob(context.jobId(), payloadIsins(context.payload(BulkWebsearchPayload.class)),
+				context.createdBy());
 		List<InstrumentDossierBulkWebsearchItemDto> completedItems = new ArrayList<>();
 		try {
-			job.status = InstrumentDossierBulkWebsearchJobStatus.RUNNING;
-			updateResult(job, completedItems);
+			context.report(null, null, buildResult(job, completedItems));
 
 			for (int offset = 0; offset < job.isins.size(); offset += BATCH_SIZE) {
+				if (context.isCancelRequested()) {
+					return JobQueueService.JobOutcome.canceled(buildResult(job, completedItems), "Canceled");
+				}
 				List<String> batch = job.isins.subList(offset, Math.min(job.isins.size(), offset + BATCH_SIZE));
+				int published = completedItems.size();
 				processBatch(job, batch, completedItems);
-				updateResult(job, completedItems);
+				for (InstrumentDossierBulkWebsearchItemDto item : completedItems.subList(published, completedItems.size())) {
+					context.publish(ITEM_EVENT, item);
+				}
+				context.report(null, null, buildResult(job, completedItems));
 			}
 
-			job.status = InstrumentDossierBulkWebsearchJobStatus.DONE;
+			return JobQueueService.JobOutcome.done(buildResult(job, completedItems), null);
 		} catch (Exception ex) {
-			job.status = InstrumentDossierBulkWebsearchJobStatus.FAILED;
-			job.error = failWithReference(job, ex);
-		} finally {
-			updateResult(job, completedItems);
-			job.finishedAt = Instant.now();
-			concurrency.release();
+			return JobQueueService.JobOutcome.failed(buildResult(job, completedItems), null, failWithReference(job, ex));
 		}
 	}
 
-	private void processBatch(BulkWebsearchJobState job,
+	private void processBatch(BulkWebsearchJob job,
 							  List<String> batch,
 							  List<InstrumentDossierBulkWebsearchItemDto> completedItems) {
 		KnowledgeBaseService.BulkWebsearchDraftResult drafts;
 		try {
 			logger.info("Processing batch");
 			drafts = knowledgeBaseService.createDossierDraftsViaWebsearchBulk(batch);
-		} catch (Exception ex) {
-			logger.error("Could not execute batch, retry each single isin",ex);
+		} catch (LlmRequestException ex) {
+			if (!ex.isThrottled()) {
+				logger.error("Could not execute batch, retry each single isin", ex);
+				processSingles(job, batch, completedItems);
+				return;
+			}
+			// The provider is throttling us; fanning out into single calls would only add to the burst.
+			logger.warn("Bulk websearch throttled (status {}), failing batch of {} ISINs", ex.getStatusCode(), batch.size());
 			for (String isin : batch) {
-				try {
-					logger.info("Retry create Dossier for ISIN {}",isin);
-					var singleDraft = knowledgeBaseService.createDossierDraftViaWebsearch(isin);
-					KnowledgeBaseService.DossierUpsertResult upsert = knowledgeBaseService.upsertDossierFromWebsearchDraft(
-							isin,
-							singleDraft.contentMd(),
-							singleDraft.displayName(),
-							singleDraft.citations(),
-							job.createdBy
-					);
-					completedItems.add(new InstrumentDossierBulkWebsearchItemDto(
-							isin,
-							upsert.created() ? InstrumentDossierBulkWebsearchItemStatus.CREATED : InstrumentDossierBulkWebsearchItemStatus.UPDATED,
-							upsert.dossier().dossierId(),
-							null
-					));
-				} catch (Exception singleEx) {
-					String message = singleEx.getMessage();
-					completedItems.add(new InstrumentDossierBulkWebsearchItemDto(
-							isin,
-							InstrumentDossierBulkWebsearchItemStatus.FAILED,
-							null,
-							message == null || message.isBlank() ? singleEx.getClass().getSimpleName() : message
-					));
-				}
+				completedItems.add(new InstrumentDossierBulkWebsearchItemDto(
+						isin,
+						InstrumentDossierBulkWebsearchItemStatus.FAILED,
+						null,
+						"LLM provider rate limited"
+				));
 			}
 			return;
+		} catch (Exception ex) {
+			logger.error("Could not execute batch, retry each single isin",ex);
+			processSingles(job, batch, completedItems);
+			return;
 		}
 
 		for (KnowledgeBaseService.BulkWebsearchDraftItem item : drafts.items()) {
@@ -207,7 +183,40 @@ public class KnowledgeBaseBulkWebsearchJobService {
 		}
 	}
 
-	private void updateResult(BulkWebsearchJobState job, List<InstrumentDossierBulkWebsearchItemDto> completedItems) {
+	private void processSingles(BulkWebsearchJob job,
+								List<String> batch,
+								List<InstrumentDossierBulkWebsearchItemDto> completedItems) {
+		for (String isin : batch) {
+			try {
+				logger.info("Retry create Dossier for ISIN {}",isin);
+				var singleDraft = knowledgeBaseService.createDossierDraftViaWebsearch(isin);
+				KnowledgeBaseService.DossierUpsertResult upsert = knowledgeBaseService.upsertDossierFromWebsearchDraft(
+						isin,
+						singleDraft.contentMd(),
+						singleDraft.displayName(),
+						singleDraft.citations(),
+						job.createdBy
+				);
+				completedItems.add(new InstrumentDossierBulkWebsearchItemDto(
+						isin,
+						upsert.created() ? InstrumentDossierBulkWebsearchItemStatus.CREATED : InstrumentDossierBulkWebsearchItemStatus.UPDATED,
+						upsert.dossier().dossierId(),
+						null
+				));
+			} catch (Exception singleEx) {
+				String message = singleEx.getMessage();
+				completedItems.add(new InstrumentDossierBulkWebsearchItemDto(
+						isin,
+						InstrumentDossierBulkWebsearchItemStatus.FAILED,
+						null,
+						message == null || message.isBlank() ? singleEx.getClass().getSimpleName() : message
+				));
+			}
+		}
+	}
+
+	private InstrumentDossierBulkWebsearchResultDto buildResult(BulkWebsearchJob job,
+																List<InstrumentDossierBulkWebsearchItemDto> completedItems) {
 		int created = 0;
 		int updated = 0;
 		int failed = 0;
@@ -221,7 +230,7 @@ public class KnowledgeBaseBulkWebsearchJobService {
 				case FAILED -> failed++;
 			}
 		}
-		job.result = new InstrumentDossierBulkWebsearchResultDto(
+		return new InstrumentDossierBulkWebsearchResultDto(
 				job.isins.size(),
 				completedItems.size(),
 				created,
@@ -231,29 +240,34 @@ public class KnowledgeBaseBulkWebsearchJobService {
 		);
 	}
 
-	private InstrumentDossierBulkWebsearchJobResponseDto toDto(BulkWebsearchJobState job) {
+	private InstrumentDossierBulkWebsearchJobResponseDto toDto(JobRow job) {
+		InstrumentDossierBulkWebsearchResultDto result = jobQueue.read(job.result(), InstrumentDossierBulkWebsearchResultDto.class);
+		if (result == null) {
+			int total = payloadIsins(jobQueue.read(job.payload(), BulkWebsearchPayload.class)).size();
+			result = new InstrumentDossierBulkWebsearchResultDto(total, 0, 0, 0, 0, List.of());
+		}
 		return new InstrumentDossierBulkWebsearchJobResponseDto(
-				job.jobId,
-				job.status,
-				job.result,
-				job.error
+				job.jobId(),
+				toStatus(job),
+				result,
+				job.error()
 		);
 	}
 
-	private void cleanupExpired() {
-		Instant now = Instant.now();
-		jobs.entrySet().removeIf(entry -> {
-			BulkWebsearchJobState job = entry.getValue();
-			Instant base = job.finishedAt == null ? job.createdAt : job.finishedAt;
-			return base.plus(JOB_TTL).isBefore(now);
-		});
+	private InstrumentDossierBulkWebsearchJobStatus toStatus(JobRow job) {
+		return switch (job.status()) {
+			case QUEUED -> InstrumentDossierBulkWebsearchJobStatus.PENDING;
+			case RUNNING -> InstrumentDossierBulkWebsearchJobStatus.RUNNING;
+			case DONE -> InstrumentDossierBulkWebsearchJobStatus.DONE;
+			case FAILED, CANCELED -> InstrumentDossierBulkWebsearchJobStatus.FAILED;
+		};
 	}
 
+	private List<String> payloadIsins(BulkWebsearchPayload payload) {
+		return payload == null || payload.isins() == null ? List.of() : payload.isins();
+	}
 
-
-
-
-	private String failWithReference(BulkWebsearchJobState job, Exception ex) {
+	private String failWithReference(BulkWebsearchJob job, Exception ex) {
 		String message = ex == null ? null : ex.getMessage();
 		String reference = "KB-" + UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase(Locale.ROOT);
 		logger.error("KB bulk websearch job failed (ref={}, jobId={}, isins={}, error={})",
@@ -261,24 +275,18 @@ public class KnowledgeBaseBulkWebsearchJobService {
 		return "Error ref " + reference;
 	}
 
-	private static final class BulkWebsearchJobState {
+	record BulkWebsearchPayload(List<String> isins) {
+	}
+
+	private static final class BulkWebsearchJob {
 		private final String jobId;
 		private final List<String> isins;
 		private final String createdBy;
-		private final Instant createdAt;
-
-		private volatile Instant finishedAt;
-		private volatile InstrumentDossierBulkWebsearchJobStatus status;
-		private volatile InstrumentDossierBulkWebsearchResultDto result;
-		private volatile String error;
 
-		private BulkWebsearchJobState(String jobId, List<String> isins, String createdBy, Instant createdAt) {
+		private BulkWebsearchJob(String jobId, List<String> isins, String createdBy) {
 			this.jobId = jobId;
 			this.isins = List.copyOf(isins);
 			this.createdBy = createdBy == null || createdBy.isBlank() ? "system" : createdBy;
-			this.createdAt = createdAt;
-			this.status = InstrumentDossierBulkWebsearchJobStatus.PENDING;
-			this.result = new InstrumentDossierBulkWebsearchResultDto(isins.size(), 0, 0, 0, 0, List.of());
 		}
 	}
 }
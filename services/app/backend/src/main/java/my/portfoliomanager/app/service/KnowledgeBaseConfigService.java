@@ -8,6 +8,7 @@ import my.portfoliomanager.app.dto.KnowledgeBaseQualityGateConfigDto;
 import my.portfoliomanager.app.dto.KnowledgeBaseQualityGateProfileDto;
 import my.portfoliomanager.app.llm.OpenAiLlmClient;
 import my.portfoliomanager.app.repository.KnowledgeBaseConfigRepository;
+import my.portfoliomanager.app.service.util.VersionedConfigCache;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
@@ -52,6 +53,7 @@ public class KnowledgeBaseConfigService {
 	private final ResourceLoader resourceLoader;
 	private final LayerTargetConfigService layerTargetConfigService;
 	private final KnowledgeBaseQualityGateConfigSnapshot defaultQualityGateConfig;
+	private final VersionedConfigCache<KnowledgeBaseConfigSnapshot> snapshotCache = new VersionedConfigCache<>();
 
 	public KnowledgeBaseConfigService(KnowledgeBaseConfigRepository repository,
 									 ObjectMapper objectMapper,
@@ -75,10 +77,15 @@ public class KnowledgeBaseConfigService {
 		entity.setConfigJson(objectMapper.valueToTree(toDto(normalized)));
 		entity.setUpdatedAt(LocalDateTime.now());
 		repository.save(entity);
+		snapshotCache.invalidate();
 		return toDto(normalized);
 	}
 
 	public KnowledgeBaseConfigSnapshot getSnapshot() {
+		return snapshotCache.get(() -> repository.findVersionById(CONFIG_ID), this::loadSnapshot);
+	}
+
+	private KnowledgeBaseConfigSnapshot loadSnapshot() {
 		KnowledgeBaseConfig entity = repository.findById(CONFIG_ID).orElse(null);
 		if (entity == null || entity.getConfigJson() == null) {
 			return applyDefaults(null);
@@ -9,6 +9,7 @@ import my.portfoliomanager.app.repository.KnowledgeBaseExtractionRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Locale;
 
@@ -16,10 +17,14 @@ import java.util.Locale;
 public class KnowledgeBaseExtractionService {
 	private final KnowledgeBaseExtractionRepository repository;
 	private final ObjectMapper objectMapper;
+	private final KnowledgeBaseProfileStore profileStore;
 
-	public KnowledgeBaseExtractionService(KnowledgeBaseExtractionRepository repository, ObjectMapper objectMapper) {
+	public KnowledgeBaseExtractionService(KnowledgeBaseExtractionRepository repository,
+										  ObjectMapper objectMapper,
+										  KnowledgeBaseProfileStore profileStore) {
 		this.repository = repository;
 		this.objectMapper = objectMapper;
+		this.profileStore = profileStore;
 	}
 
 	public KnowledgeBaseExtraction upsert(String isin, KnowledgeBaseExtractionStatus status, JsonNode extractedJson, LocalDateTime updatedAt) {
@@ -31,15 +36,20 @@ public class KnowledgeBaseExtractionService {
 		extraction.setIsin(normalized);
 		extraction.setStatus(status);
 		extraction.setExtractedJson(extractedJson);
-		extraction.setUpdatedAt(updatedAt == null ? LocalDateTime.now() : updatedAt);
-		return repository.save(extraction);
+		// Postgres keeps microseconds; truncating here lets the profile store match the stored version exactly.
+		extraction.setUpdatedAt((updatedAt == null ? LocalDateTime.now() : updatedAt).truncatedTo(ChronoUnit.MICROS));
+		KnowledgeBaseExtraction saved = repository.save(extraction);
+		profileStore.remember(normalized, status.name(), saved.getUpdatedAt(), toPayload(extractedJson));
+		return saved;
 	}
 
 	public int deleteByIsins(List<String> isins) {
 		if (isins == null || isins.isEmpty()) {
 			return 0;
 		}
-		return repository.deleteByIsinIn(isins);
+		int deleted = repository.deleteByIsinIn(isins);
+		isins.forEach(profileStore::invalidate);
+		return deleted;
 	}
 
 	public InstrumentDossierExtractionPayload findPayload(String isin) {
@@ -51,8 +61,12 @@ public class KnowledgeBaseExtractionService {
 		if (extraction == null || extraction.getExtractedJson() == null) {
 			return null;
 		}
+		return toPayload(extraction.getExtractedJson());
+	}
+
+	private InstrumentDossierExtractionPayload toPayload(JsonNode extractedJson) {
 		try {
-			return objectMapper.treeToValue(extraction.getExtractedJson(), InstrumentDossierExtractionPayload.class);
+			return objectMapper.treeToValue(extractedJson, InstrumentDossierExtractionPayload.class);
 		} catch (Exception ex) {
 			return null;
 		}
@@ -1,8 +1,8 @@
 package my.portfoliomanager.app.service;
 
-import jakarta.annotation.PreDestroy;
 import my.portfoliomanager.app.domain.InstrumentDossier;
 import my.portfoliomanager.app.domain.DossierExtractionStatus;
+import my.portfoliomanager.app.domain.JobStatus;
 import my.portfoliomanager.app.dto.InstrumentDossierExtractionResponseDto;
 import my.portfoliomanager.app.dto.KnowledgeBaseAlternativesResponseDto;
 import my.portfoliomanager.app.dto.KnowledgeBaseBulkResearchItemDto;
@@ -18,68 +18,77 @@ import my.portfoliomanager.app.dto.KnowledgeBaseRefreshBatchRequestDto;
 import my.portfoliomanager.app.dto.KnowledgeBaseRefreshBatchResponseDto;
 import my.portfoliomanager.app.dto.KnowledgeBaseRefreshItemDto;
 import my.portfoliomanager.app.dto.KnowledgeBaseRefreshScopeDto;
+import my.portfoliomanager.app.llm.LlmStreamProgress;
 import my.portfoliomanager.app.repository.InstrumentDossierRepository;
+import my.portfoliomanager.app.repository.projection.JobRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.LinkedHashSet;
 import java.util.Locale;
-import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
+// Actions run as jobs of the shared queue. The ISINs an action is working on live in its stored progress, so the
+// "already running" checks also see actions executing on other replicas.
 @Service
 public class KnowledgeBaseLlmActionService {
 	private static final Logger logger = LoggerFactory.getLogger(KnowledgeBaseLlmActionService.class);
 	private static final Pattern ISIN_RE = Pattern.compile("^[A-Z]{2}[A-Z0-9]{9}[0-9]$");
+	static final String JOB_TYPE = "kb-llm-action";
 	private static final Duration JOB_TTL = Duration.ofMinutes(90);
 	private static final int MAX_CONCURRENT_ACTIONS = 2;
+	private static final int MAX_ATTEMPTS = 1;
+	private static final long STREAM_PROGRESS_INTERVAL_MILLIS = 1000;
 
 	private final KnowledgeBaseMaintenanceService maintenanceService;
 	private final KnowledgeBaseRefreshService refreshService;
 	private final KnowledgeBaseService knowledgeBaseService;
 	private final InstrumentDossierRepository dossierRepository;
-	private final Map<String, LlmActionState> actions = new ConcurrentHashMap<>();
-	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
-	private final Semaphore concurrency = new Semaphore(MAX_CONCURRENT_ACTIONS);
+	private final JobQueueService jobQueue;
+	private final JobEventStreamService jobEvents;
 
 	public KnowledgeBaseLlmActionService(KnowledgeBaseMaintenanceService maintenanceService,
 										 KnowledgeBaseRefreshService refreshService,
 										 KnowledgeBaseService knowledgeBaseService,
-										 InstrumentDossierRepository dossierRepository) {
+										 InstrumentDossierRepository dossierRepository,
+										 JobQueueService jobQueue,
+										 JobEventStreamService jobEvents) {
 		this.maintenanceService = maintenanceService;
 		this.refreshService = refreshService;
 		this.knowledgeBaseService = knowledgeBaseService;
 		this.dossierRepository = dossierRepository;
+		this.jobQueue = jobQueue;
+		this.jobEvents = jobEvents;
+		jobQueue.register(new JobQueueService.JobDefinition(JOB_TYPE, MAX_CONCURRENT_ACTIONS, MAX_ATTEMPTS, JOB_TTL),
+				this::runAction);
 	}
 
 	public List<KnowledgeBaseLlmActionDto> listActions() {
-		cleanupExpired();
-		return actions.values().stream()
-				.sorted(Comparator.comparing(LlmActionState::updatedAt).reversed())
-				.map(state -> toDto(state, false))
+		return jobQueue.list(JOB_TYPE).stream()
+				.map(job -> toDto(job, false))
 				.toList();
 	}
 
 	public boolean hasRunningType(KnowledgeBaseLlmActionType type) {
-		for (LlmActionState state : actions.values()) {
-			if (state.status == KnowledgeBaseLlmActionStatus.RUNNING && state.type == type) {
+		for (JobRow job : jobQueue.list(JOB_TYPE)) {
+			if (!job.status().isActive()) {
+				continue;
+			}
+			ActionPayload payload = jobQueue.read(job.payload(), ActionPayload.class);
+			if (payload != null && payload.type() == type) {
 				return true;
 			}
 		}
@@ -87,12 +96,12 @@ public class KnowledgeBaseLlmActionService {
 	}
 
 	public KnowledgeBaseLlmActionDto getAction(String actionId) {
-		cleanupExpired();
-		LlmActionState state = actions.get(actionId);
-		if (state == null) {
-			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "LLM action not found");
-		}
-		return toDto(state, true);
+		return toDto(findAction(actionId), true);
+	}
+
+	public SseEmitter streamAction(String actionId, String lastEventId) {
+		return jobEvents.stream(JOB_TYPE, actionId, lastEventId, job -> toDto(job, true))
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "LLM action not found"));
 	}
 
 	public KnowledgeBaseLlmActionDto startBulkResearch(List<String> isins,
@@ -101,34 +110,23 @@ public class KnowledgeBaseLlmActionService {
 													   String actor,
 													   KnowledgeBaseLlmActionTrigger trigger) {
 		List<String> normalized = normalizeIsins(isins, true);
-		cleanupExpired();
-		Set<String> active = resolveActiveIsins();
+		Set<String> active = resolveActiveIsins(null);
 		Set<String> blocked = intersect(active, normalized);
 		List<String> runnable = normalized.stream()
 				.filter(isin -> !blocked.contains(isin))
 				.toList();
 
-		Set<String> activeSet = ConcurrentHashMap.newKeySet();
-		activeSet.addAll(runnable);
-		LlmActionState state = new LlmActionState(UUID.randomUUID().toString(),
-				KnowledgeBaseLlmActionType.RESEARCH,
-				trigger,
-				List.copyOf(normalized),
-				activeSet);
-		actions.put(state.actionId, state);
-
+		ActionPayload payload = new ActionPayload(ActionKind.BULK_RESEARCH, KnowledgeBaseLlmActionType.RESEARCH, trigger,
+				actor, List.copyOf(normalized), List.copyOf(blocked), autoApprove, applyOverrides, null, null, false, null);
 		if (runnable.isEmpty()) {
-			state.status = KnowledgeBaseLlmActionStatus.DONE;
 			KnowledgeBaseBulkResearchResponseDto result = mergeBulkResults(null, blocked);
-			state.bulkResearchResult = result;
-			state.message = bulkSummary(result);
-			state.updatedAt = LocalDateTime.now();
-			return toDto(state, true);
+			JobRow job = jobQueue.record(JOB_TYPE, payload, new ActionProgress(payload.isins(), List.of(), 0),
+					ActionResult.bulkResearch(result), bulkSummary(result), actor);
+			return toDto(job, true);
 		}
 
-		state.message = blocked.isEmpty() ? "Queued bulk research" : "Queued; some ISINs already running";
-		state.future = executor.submit(() -> runBulkResearch(state, runnable, blocked, autoApprove, applyOverrides, actor));
-		return toDto(state, false);
+		String message = blocked.isEmpty() ? "Queued bulk research" : "Queued; some ISINs already running";
+		return enqueue(payload, runnable, message);
 	}
 
 	public KnowledgeBaseLlmActionDto startAlternatives(String baseIsin,
@@ -136,34 +134,18 @@ public class KnowledgeBaseLlmActionService {
 													   String actor,
 													   KnowledgeBaseLlmActionTrigger trigger) {
 		String normalized = normalizeIsin(baseIsin);
-		cleanupExpired();
 		ensureNotActive(List.of(normalized));
-		Set<String> activeSet = ConcurrentHashMap.newKeySet();
-		activeSet.add(normalized);
-		LlmActionState state = new LlmActionState(UUID.randomUUID().toString(),
-				KnowledgeBaseLlmActionType.ALTERNATIVES,
-				trigger,
-				List.of(normalized),
-				activeSet);
-		actions.put(state.actionId, state);
-		state.message = "Queued alternatives search";
-		state.future = executor.submit(() -> runAlternatives(state, normalized, autoApprove, actor));
-		return toDto(state, false);
+		ActionPayload payload = new ActionPayload(ActionKind.ALTERNATIVES, KnowledgeBaseLlmActionType.ALTERNATIVES,
+				trigger, actor, List.of(normalized), List.of(), autoApprove, null, null, null, false, null);
+		return enqueue(payload, List.of(normalized), "Queued alternatives search");
 	}
 
 	public KnowledgeBaseLlmActionDto startRefreshBatch(KnowledgeBaseRefreshBatchRequestDto request,
 													   String actor,
 													   KnowledgeBaseLlmActionTrigger trigger) {
-		cleanupExpired();
-		LlmActionState state = new LlmActionState(UUID.randomUUID().toString(),
-				KnowledgeBaseLlmActionType.REFRESH,
-				trigger,
-				List.of(),
-				ConcurrentHashMap.newKeySet());
-		actions.put(state.actionId, state);
-		state.message = "Queued refresh batch";
-		state.future = executor.submit(() -> runRefreshBatch(state, request, actor));
-		return toDto(state, false);
+		ActionPayload payload = new ActionPayload(ActionKind.REFRESH_BATCH, KnowledgeBaseLlmActionType.REFRESH, trigger,
+				actor, List.of(), List.of(), null, null, null, null, false, request);
+		return enqueue(payload, List.of(), "Queued refresh batch");
 	}
 
 	public KnowledgeBaseLlmActionDto startRefreshSingle(String isin,
@@ -172,40 +154,29 @@ public class KnowledgeBaseLlmActionService {
 									Boolean force,
 									KnowledgeBaseLlmActionTrigger trigger) {
 		String normalized = normalizeIsin(isin);
-		cleanupExpired();
 		ensureNotActive(List.of(normalized));
-		Set<String> activeSet = ConcurrentHashMap.newKeySet();
-		activeSet.add(normalized);
-		LlmActionState state = new LlmActionState(UUID.randomUUID().toString(),
-				KnowledgeBaseLlmActionType.REFRESH,
-				trigger,
-				List.of(normalized),
-				activeSet);
-		actions.put(state.actionId, state);
-		state.message = "Queued refresh";
-		state.future = executor.submit(() -> runRefreshSingle(state, normalized, autoApprove, force, actor));
-		return toDto(state, false);
+		ActionPayload payload = new ActionPayload(ActionKind.REFRESH_SINGLE, KnowledgeBaseLlmActionType.REFRESH, trigger,
+				actor, List.of(normalized), List.of(), autoApprove, null, force, null, false, null);
+		return enqueue(payload, List.of(normalized), "Queued refresh");
 	}
 
 	public KnowledgeBaseLlmActionDto startExtraction(Long dossierId,
 								 String actor,
 								 KnowledgeBaseLlmActionTrigger trigger) {
+		return startExtraction(dossierId, actor, trigger, false);
+	}
+
+	public KnowledgeBaseLlmActionDto startExtraction(Long dossierId,
+								 String actor,
+								 KnowledgeBaseLlmActionTrigger trigger,
+								 boolean bypassCache) {
 		InstrumentDossier dossier = dossierRepository.findById(dossierId)
 				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Dossier not found"));
 		String isin = dossier.getIsin();
-		cleanupExpired();
 		ensureNotActive(List.of(isin));
-		Set<String> activeSet = ConcurrentHashMap.newKeySet();
-		activeSet.add(isin);
-		LlmActionState state = new LlmActionState(UUID.randomUUID().toString(),
-				KnowledgeBaseLlmActionType.EXTRACTION,
-				trigger,
-				List.of(isin),
-				activeSet);
-		actions.put(state.actionId, state);
-		state.message = "Queued extraction";
-		state.future = executor.submit(() -> runExtraction(state, dossierId, actor));
-		return toDto(state, false);
+		ActionPayload payload = new ActionPayload(ActionKind.EXTRACTION, KnowledgeBaseLlmActionType.EXTRACTION, trigger,
+				actor, List.of(isin), List.of(), null, null, null, dossierId, bypassCache, null);
+		return enqueue(payload, List.of(isin), "Queued extraction");
 	}
 
 	public KnowledgeBaseLlmActionDto startMissingMetrics(Long dossierId,
@@ -214,299 +185,180 @@ public class KnowledgeBaseLlmActionService {
 		InstrumentDossier dossier = dossierRepository.findById(dossierId)
 				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Dossier not found"));
 		String isin = dossier.getIsin();
-		cleanupExpired();
 		ensureNotActive(List.of(isin));
-		Set<String> activeSet = ConcurrentHashMap.newKeySet();
-		activeSet.add(isin);
-		LlmActionState state = new LlmActionState(UUID.randomUUID().toString(),
-				KnowledgeBaseLlmActionType.MISSING_METRICS,
-				trigger,
-				List.of(isin),
-				activeSet);
-		actions.put(state.actionId, state);
-		state.message = "Queued missing metrics completion";
-		state.future = executor.submit(() -> runMissingMetrics(state, dossierId, actor));
-		return toDto(state, false);
+		ActionPayload payload = new ActionPayload(ActionKind.MISSING_METRICS, KnowledgeBaseLlmActionType.MISSING_METRICS,
+				trigger, actor, List.of(isin), List.of(), null, null, null, dossierId, false, null);
+		return enqueue(payload, List.of(isin), "Queued missing metrics completion");
 	}
 
 	public KnowledgeBaseLlmActionDto cancel(String actionId) {
-		LlmActionState state = actions.get(actionId);
-		if (state == null) {
-			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "LLM action not found");
-		}
-		if (state.status != KnowledgeBaseLlmActionStatus.RUNNING) {
+		JobRow job = findAction(actionId);
+		if (!job.status().isActive()) {
 			throw new ResponseStatusException(HttpStatus.CONFLICT, "Only running actions can be canceled");
 		}
-		state.message = "Cancel requested";
-		state.updatedAt = LocalDateTime.now();
-		if (state.future != null) {
-			state.future.cancel(true);
-		}
-		return toDto(state, false);
+		JobRow updated = jobQueue.requestCancel(JOB_TYPE, actionId)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT, "Only running actions can be canceled"));
+		return toDto(updated, false);
 	}
 
 	public void dismiss(String actionId) {
-		LlmActionState state = actions.get(actionId);
-		if (state == null) {
-			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "LLM action not found");
-		}
-		if (state.status == KnowledgeBaseLlmActionStatus.RUNNING) {
+		JobRow job = findAction(actionId);
+		if (job.status().isActive()) {
 			throw new ResponseStatusException(HttpStatus.CONFLICT, "Running actions cannot be dismissed");
 		}
-		actions.remove(actionId);
+		jobQueue.deleteFinished(JOB_TYPE, actionId);
 	}
 
-	@PreDestroy
-	public void shutdown() {
-		executor.shutdownNow();
+	private KnowledgeBaseLlmActionDto enqueue(ActionPayload payload, List<String> activeIsins, String message) {
+		ActionProgress progress = new ActionProgress(payload.isins(), List.copyOf(activeIsins), 0);
+		return toDto(jobQueue.enqueue(JOB_TYPE, payload, progress, message, payload.actor()), false);
 	}
 
-	private void runBulkResearch(LlmActionState state,
-								 List<String> runnable,
-								 Set<String> blocked,
-								 Boolean autoApprove,
-								 Boolean applyOverrides,
-								 String actor) {
-		if (!acquireSlot(state)) {
-			return;
-		}
-		try {
-			state.status = KnowledgeBaseLlmActionStatus.RUNNING;
-			state.message = "Running bulk research";
-			state.updatedAt = LocalDateTime.now();
-			KnowledgeBaseBulkResearchResponseDto result =
-					maintenanceService.bulkResearch(runnable, autoApprove, applyOverrides, actor);
-			KnowledgeBaseBulkResearchResponseDto merged = mergeBulkResults(result, blocked);
-			state.bulkResearchResult = merged;
-			state.status = KnowledgeBaseLlmActionStatus.DONE;
-			state.message = bulkSummary(merged);
-		} catch (CancellationException ex) {
-			state.status = KnowledgeBaseLlmActionStatus.CANCELED;
-			state.message = "Canceled";
-		} catch (Exception ex) {
-			state.status = KnowledgeBaseLlmActionStatus.FAILED;
-			state.message = failWithReference(state, ex);
-		} finally {
-			state.updatedAt = LocalDateTime.now();
-			concurrency.release();
-		}
+	private JobRow findAction(String actionId) {
+		return jobQueue.find(JOB_TYPE, actionId)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "LLM action not found"));
 	}
 
-	private void runAlternatives(LlmActionState state,
-								 String baseIsin,
-								 Boolean autoApprove,
-								 String actor) {
-		if (!acquireSlot(state)) {
-			return;
-		}
+	private JobQueueService.JobOutcome runAction(JobQueueService.JobContext context) {
+		ActionRun run = new ActionRun(context, context.payload(ActionPayload.class), context.initialProgress(ActionProgress.class));
+		AtomicReference<JobQueueService.JobOutcome> outcome = new AtomicReference<>();
+		LlmStreamProgress.run(run::streamed, () -> outcome.set(execute(run)));
+		return outcome.get();
+	}
+
+	private JobQueueService.JobOutcome execute(ActionRun run) {
 		try {
-			state.status = KnowledgeBaseLlmActionStatus.RUNNING;
-			state.message = "Running alternatives search";
-			state.updatedAt = LocalDateTime.now();
-			Set<String> blocked = resolveActiveIsins();
-			blocked.remove(baseIsin);
-			KnowledgeBaseAlternativesResponseDto result =
-					maintenanceService.findAlternatives(baseIsin, autoApprove, actor, blocked);
-			state.alternativesResult = result;
-			Set<String> allIsins = new LinkedHashSet<>();
-			allIsins.add(baseIsin);
-			if (result.alternatives() != null) {
-				for (var item : result.alternatives()) {
-					if (item != null && item.isin() != null) {
-						allIsins.add(item.isin());
-					}
-				}
-			}
-			state.isins = List.copyOf(allIsins);
-			state.status = KnowledgeBaseLlmActionStatus.DONE;
-			state.message = "Alternatives: " + (result.alternatives() == null ? 0 : result.alternatives().size());
+			return switch (run.payload.kind()) {
+				case BULK_RESEARCH -> runBulkResearch(run);
+				case ALTERNATIVES -> runAlternatives(run);
+				case REFRESH_BATCH -> runRefreshBatch(run);
+				case REFRESH_SINGLE -> runRefreshSingle(run);
+				case EXTRACTION -> runExtraction(run);
+				case MISSING_METRICS -> runMissingMetrics(run);
+			};
 		} catch (CancellationException ex) {
-			state.status = KnowledgeBaseLlmActionStatus.CANCELED;
-			state.message = "Canceled";
+			return JobQueueService.JobOutcome.canceled(null, "Canceled");
 		} catch (Exception ex) {
-			state.status = KnowledgeBaseLlmActionStatus.FAILED;
-			state.message = failWithReference(state, ex);
-		} finally {
-			state.updatedAt = LocalDateTime.now();
-			concurrency.release();
+			return failed(null, failWithReference(run, ex));
 		}
 	}
 
-	private void runRefreshBatch(LlmActionState state,
-								 KnowledgeBaseRefreshBatchRequestDto request,
-								 String actor) {
-		if (!acquireSlot(state)) {
-			return;
-		}
-		try {
-			state.status = KnowledgeBaseLlmActionStatus.RUNNING;
-			state.message = "Running refresh batch";
-			state.updatedAt = LocalDateTime.now();
-			List<String> candidates = refreshService.previewCandidates(request);
-			Set<String> blocked = resolveActiveIsins();
-			state.isins = List.copyOf(candidates);
-			state.activeIsins.clear();
-			for (String isin : candidates) {
-				if (!blocked.contains(isin)) {
-					state.activeIsins.add(isin);
+	private JobQueueService.JobOutcome runBulkResearch(ActionRun run) {
+		ActionPayload payload = run.payload;
+		Set<String> blocked = new LinkedHashSet<>(payload.blocked() == null ? List.of() : payload.blocked());
+		List<String> runnable = payload.isins().stream()
+				.filter(isin -> !blocked.contains(isin))
+				.toList();
+		run.report("Running bulk research");
+		KnowledgeBaseBulkResearchResponseDto result =
+				maintenanceService.bulkResearch(runnable, payload.autoApprove(), payload.applyOverrides(), payload.actor());
+		KnowledgeBaseBulkResearchResponseDto merged = mergeBulkResults(result, blocked);
+		return JobQueueService.JobOutcome.done(ActionResult.bulkResearch(merged), bulkSummary(merged));
+	}
+
+	private JobQueueService.JobOutcome runAlternatives(ActionRun run) {
+		ActionPayload payload = run.payload;
+		String baseIsin = payload.isins().get(0);
+		run.report("Running alternatives search");
+		Set<String> blocked = resolveActiveIsins(run.jobId());
+		blocked.remove(baseIsin);
+		KnowledgeBaseAlternativesResponseDto result =
+				maintenanceService.findAlternatives(baseIsin, payload.autoApprove(), payload.actor(), blocked);
+		Set<String> allIsins = new LinkedHashSet<>();
+		allIsins.add(baseIsin);
+		if (result.alternatives() != null) {
+			for (var item : result.alternatives()) {
+				if (item != null && item.isin() != null) {
+					allIsins.add(item.isin());
 				}
 			}
-			KnowledgeBaseRefreshBatchRequestDto scopedRequest = withScope(request, candidates);
-			KnowledgeBaseRefreshBatchResponseDto result = refreshService.refreshBatch(scopedRequest, actor, blocked);
-			state.refreshBatchResult = result;
-			state.status = KnowledgeBaseLlmActionStatus.DONE;
-			state.message = refreshSummary(result);
-		} catch (CancellationException ex) {
-			state.status = KnowledgeBaseLlmActionStatus.CANCELED;
-			state.message = "Canceled";
-		} catch (Exception ex) {
-			state.status = KnowledgeBaseLlmActionStatus.FAILED;
-			state.message = failWithReference(state, ex);
-		} finally {
-			state.updatedAt = LocalDateTime.now();
-			concurrency.release();
 		}
+		run.isins = List.copyOf(allIsins);
+		run.report(null);
+		String message = "Alternatives: " + (result.alternatives() == null ? 0 : result.alternatives().size());
+		return JobQueueService.JobOutcome.done(ActionResult.alternatives(result), message);
+	}
+
+	private JobQueueService.JobOutcome runRefreshBatch(ActionRun run) {
+		KnowledgeBaseRefreshBatchRequestDto request = run.payload.refreshRequest();
+		run.report("Running refresh batch");
+		List<String> candidates = refreshService.previewCandidates(request);
+		Set<String> blocked = resolveActiveIsins(run.jobId());
+		run.isins = List.copyOf(candidates);
+		run.activeIsins.clear();
+		for (String isin : candidates) {
+			if (!blocked.contains(isin)) {
+				run.activeIsins.add(isin);
+			}
+		}
+		run.report(null);
+		KnowledgeBaseRefreshBatchRequestDto scopedRequest = withScope(request, candidates);
+		KnowledgeBaseRefreshBatchResponseDto result = refreshService.refreshBatch(scopedRequest, run.payload.actor(), blocked,
+				run::streamed);
+		return JobQueueService.JobOutcome.done(ActionResult.refreshBatch(result), refreshSummary(result));
 	}
 
-	private void runRefreshSingle(LlmActionState state,
-								  String isin,
-								  Boolean autoApprove,
-								  Boolean force,
-								  String actor) {
-		if (!acquireSlot(state)) {
-			return;
-		}
-		try {
-			state.status = KnowledgeBaseLlmActionStatus.RUNNING;
-			state.message = "Running refresh";
-			state.updatedAt = LocalDateTime.now();
-			KnowledgeBaseRefreshItemDto result = refreshService.refreshSingle(isin, autoApprove, force, actor, Set.of());
-			state.refreshItemResult = result;
-			state.status = KnowledgeBaseLlmActionStatus.DONE;
-			state.message = "Refresh " + (result.status() == null ? "done" : result.status().name().toLowerCase(Locale.ROOT));
-		} catch (CancellationException ex) {
-			state.status = KnowledgeBaseLlmActionStatus.CANCELED;
-			state.message = "Canceled";
-		} catch (Exception ex) {
-			state.status = KnowledgeBaseLlmActionStatus.FAILED;
-			state.message = failWithReference(state, ex);
-		} finally {
-			state.updatedAt = LocalDateTime.now();
-			concurrency.release();
-		}
+	private JobQueueService.JobOutcome runRefreshSingle(ActionRun run) {
+		ActionPayload payload = run.payload;
+		run.report("Running refresh");
+		KnowledgeBaseRefreshItemDto result = refreshService.refreshSingle(payload.isins().get(0), payload.autoApprove(),
+				payload.force(), payload.actor(), Set.of());
+		String message = "Refresh " + (result.status() == null ? "done" : result.status().name().toLowerCase(Locale.ROOT));
+		return JobQueueService.JobOutcome.done(ActionResult.refreshItem(result), message);
 	}
 
-	private void runMissingMetrics(LlmActionState state, Long dossierId, String actor) {
-		if (!acquireSlot(state)) {
-			return;
-		}
-		try {
-			state.status = KnowledgeBaseLlmActionStatus.RUNNING;
-			state.message = "Completing missing metrics";
-			state.updatedAt = LocalDateTime.now();
-			KnowledgeBaseMissingMetricsResponseDto result = knowledgeBaseService.completeMissingMetrics(dossierId, actor);
-			state.missingMetricsResult = result;
-			state.status = KnowledgeBaseLlmActionStatus.DONE;
-			state.message = missingMetricsSummary(result);
-		} catch (CancellationException ex) {
-			state.status = KnowledgeBaseLlmActionStatus.CANCELED;
-			state.message = "Canceled";
-		} catch (Exception ex) {
-			state.status = KnowledgeBaseLlmActionStatus.FAILED;
-			state.message = failWithReference(state, ex);
-		} finally {
-			state.updatedAt = LocalDateTime.now();
-			concurrency.release();
-		}
+	private JobQueueService.JobOutcome runMissingMetrics(ActionRun run) {
+		run.report("Completing missing metrics");
+		KnowledgeBaseMissingMetricsResponseDto result =
+				knowledgeBaseService.completeMissingMetrics(run.payload.dossierId(), run.payload.actor());
+		return JobQueueService.JobOutcome.done(ActionResult.missingMetrics(result), missingMetricsSummary(result));
 	}
 
-	private void runExtraction(LlmActionState state, Long dossierId, String actor) {
-		if (!acquireSlot(state)) {
-			return;
-		}
-		try {
-			state.status = KnowledgeBaseLlmActionStatus.RUNNING;
-			state.message = "Running extraction";
-			state.updatedAt = LocalDateTime.now();
-			InstrumentDossierExtractionResponseDto extraction = knowledgeBaseService.runExtraction(dossierId);
-			state.extractionResult = extraction;
-			if (extraction.status() == null) {
-				state.status = KnowledgeBaseLlmActionStatus.DONE;
-				state.message = "Extraction completed";
-			} else if (extraction.status() == DossierExtractionStatus.FAILED) {
-				state.status = KnowledgeBaseLlmActionStatus.FAILED;
-				state.message = failWithReference(state, extraction.error());
-			} else {
-				state.status = KnowledgeBaseLlmActionStatus.DONE;
-				state.message = "Extraction completed";
-			}
-		} catch (CancellationException ex) {
-			state.status = KnowledgeBaseLlmActionStatus.CANCELED;
-			state.message = "Canceled";
-		} catch (Exception ex) {
-			state.status = KnowledgeBaseLlmActionStatus.FAILED;
-			state.message = failWithReference(state, ex);
-		} finally {
-			state.updatedAt = LocalDateTime.now();
-			concurrency.release();
+	private JobQueueService.JobOutcome runExtraction(ActionRun run) {
+		Long dossierId = run.payload.dossierId();
+		run.report("Running extraction");
+		InstrumentDossierExtractionResponseDto extraction = run.payload.bypassCache()
+				? LlmResponseCacheService.bypass(() -> knowledgeBaseService.runExtraction(dossierId))
+				: knowledgeBaseService.runExtraction(dossierId);
+		if (extraction.status() == DossierExtractionStatus.FAILED) {
+			return failed(ActionResult.extraction(extraction), failWithReference(run, extraction.error()));
 		}
+		return JobQueueService.JobOutcome.done(ActionResult.extraction(extraction), "Extraction completed");
 	}
 
-	private void runMissingDataFill(LlmActionState state, String isin, Boolean autoApprove, String actor) {
-		if (!acquireSlot(state)) {
-			return;
-		}
-		try {
-			state.status = KnowledgeBaseLlmActionStatus.RUNNING;
-			state.message = "Filling missing data";
-			state.updatedAt = LocalDateTime.now();
-			InstrumentDossierExtractionResponseDto extraction = maintenanceService.fillMissingData(isin, autoApprove, actor);
-			state.extractionResult = extraction;
-			if (extraction.status() == DossierExtractionStatus.FAILED) {
-				state.status = KnowledgeBaseLlmActionStatus.FAILED;
-				state.message = failWithReference(state, extraction.error());
-			} else {
-				state.status = KnowledgeBaseLlmActionStatus.DONE;
-				state.message = "Missing data fill completed";
-			}
-		} catch (CancellationException ex) {
-			state.status = KnowledgeBaseLlmActionStatus.CANCELED;
-			state.message = "Canceled";
-		} catch (Exception ex) {
-			state.status = KnowledgeBaseLlmActionStatus.FAILED;
-			state.message = failWithReference(state, ex);
-		} finally {
-			state.updatedAt = LocalDateTime.now();
-			concurrency.release();
+	private JobQueueService.JobOutcome runMissingDataFill(ActionRun run) {
+		ActionPayload payload = run.payload;
+		run.report("Filling missing data");
+		InstrumentDossierExtractionResponseDto extraction =
+				maintenanceService.fillMissingData(payload.isins().get(0), payload.autoApprove(), payload.actor());
+		if (extraction.status() == DossierExtractionStatus.FAILED) {
+			return failed(ActionResult.extraction(extraction), failWithReference(run, extraction.error()));
 		}
+		return JobQueueService.JobOutcome.done(ActionResult.extraction(extraction), "Missing data fill completed");
 	}
 
-	private boolean acquireSlot(LlmActionState state) {
-		try {
-			concurrency.acquire();
-			return true;
-		} catch (InterruptedException ex) {
-			Thread.currentThread().interrupt();
-			state.status = KnowledgeBaseLlmActionStatus.FAILED;
-			state.message = failWithReference(state, ex);
-			state.updatedAt = LocalDateTime.now();
-			return false;
-		}
+	private JobQueueService.JobOutcome failed(ActionResult result, String message) {
+		return JobQueueService.JobOutcome.failed(result, message, message);
 	}
 
 	private void ensureNotActive(List<String> isins) {
-		Set<String> active = resolveActiveIsins();
+		Set<String> active = resolveActiveIsins(null);
 		Set<String> blocked = intersect(active, isins);
 		if (!blocked.isEmpty()) {
 			throw new ResponseStatusException(HttpStatus.CONFLICT, "LLM action already running for " + String.join(", ", blocked));
 		}
 	}
 
-	private Set<String> resolveActiveIsins() {
+	// ISINs held by queued or running actions, read from their stored progress; excludeJobId skips the caller itself.
+	private Set<String> resolveActiveIsins(String excludeJobId) {
 		Set<String> active = new HashSet<>();
-		for (LlmActionState state : actions.values()) {
-			if (state.status == KnowledgeBaseLlmActionStatus.RUNNING) {
-				active.addAll(state.activeIsins);
+		for (JobRow job : jobQueue.list(JOB_TYPE)) {
+			if (!job.status().isActive() || job.jobId().equals(excludeJobId)) {
+				continue;
+			}
+			ActionProgress progress = jobQueue.read(job.progress(), ActionProgress.class);
+			if (progress != null && progress.activeIsins() != null) {
+				active.addAll(progress.activeIsins());
 			}
 		}
 		return active;
@@ -551,6 +403,7 @@ public class KnowledgeBaseLlmActionService {
 		return trimmed;
 	}
 
+
 	private KnowledgeBaseBulkResearchResponseDto mergeBulkResults(KnowledgeBaseBulkResearchResponseDto base,
 																  Set<String> blocked) {
 		List<KnowledgeBaseBulkResearchItemDto> items = new ArrayList<>();
@@ -631,55 +484,67 @@ public class KnowledgeBaseLlmActionService {
 		}
 	}
 
-	private KnowledgeBaseLlmActionDto toDto(LlmActionState state, boolean includeResults) {
-		List<KnowledgeBaseManualApprovalItemDto> manualApprovals = knowledgeBaseService.resolveManualApprovals(state.isins);
+	private KnowledgeBaseLlmActionDto toDto(JobRow job, boolean includeResults) {
+		ActionPayload payload = jobQueue.read(job.payload(), ActionPayload.class);
+		ActionProgress progress = jobQueue.read(job.progress(), ActionProgress.class);
+		List<String> isins = progress != null && progress.isins() != null
+				? progress.isins()
+				: payload == null || payload.isins() == null ? List.of() : payload.isins();
+		ActionResult result = includeResults ? jobQueue.read(job.result(), ActionResult.class) : null;
+		List<KnowledgeBaseManualApprovalItemDto> manualApprovals = knowledgeBaseService.resolveManualApprovals(isins);
 		return new KnowledgeBaseLlmActionDto(
-				state.actionId,
-				state.type,
-				state.status,
-				state.trigger,
-				state.isins,
-				state.createdAt,
-				state.updatedAt,
-				state.message,
+				job.jobId(),
+				payload == null ? null : payload.type(),
+				toStatus(job),
+				payload == null ? null : payload.trigger(),
+				isins,
+				job.createdAt(),
+				job.updatedAt(),
+				progressMessage(job, progress),
 				manualApprovals,
-				includeResults ? state.bulkResearchResult : null,
-				includeResults ? state.alternativesResult : null,
-				includeResults ? state.refreshBatchResult : null,
-				includeResults ? state.refreshItemResult : null,
-				includeResults ? state.extractionResult : null,
-				includeResults ? state.missingMetricsResult : null
+				result == null ? null : result.bulkResearchResult(),
+				result == null ? null : result.alternativesResult(),
+				result == null ? null : result.refreshBatchResult(),
+				result == null ? null : result.refreshItemResult(),
+				result == null ? null : result.extractionResult(),
+				result == null ? null : result.missingMetricsResult()
 		);
 	}
 
-	private void cleanupExpired() {
-		LocalDateTime now = LocalDateTime.now();
-		actions.entrySet().removeIf(entry -> {
-			LlmActionState state = entry.getValue();
-			if (state == null || state.status == KnowledgeBaseLlmActionStatus.RUNNING) {
-				return false;
-			}
-			return state.updatedAt.plus(JOB_TTL).isBefore(now);
-		});
+	private KnowledgeBaseLlmActionStatus toStatus(JobRow job) {
+		return switch (job.status()) {
+			case QUEUED, RUNNING -> KnowledgeBaseLlmActionStatus.RUNNING;
+			case DONE -> KnowledgeBaseLlmActionStatus.DONE;
+			case FAILED -> KnowledgeBaseLlmActionStatus.FAILED;
+			case CANCELED -> KnowledgeBaseLlmActionStatus.CANCELED;
+		};
+	}
+
+	private String progressMessage(JobRow job, ActionProgress progress) {
+		int received = progress == null ? 0 : progress.receivedChars();
+		if (job.status() != JobStatus.RUNNING || received <= 0 || job.message() == null) {
+			return job.message();
+		}
+		return job.message() + " (" + received + " chars received)";
 	}
 
-	private String failWithReference(LlmActionState state, Exception ex) {
+	private String failWithReference(ActionRun run, Exception ex) {
 		String message = ex == null ? null : ex.getMessage();
-		return failWithReference(state, message, ex);
+		return failWithReference(run, message, ex);
 	}
 
-	private String failWithReference(LlmActionState state, String error) {
-		return failWithReference(state, error, null);
+	private String failWithReference(ActionRun run, String error) {
+		return failWithReference(run, error, null);
 	}
 
-	private String failWithReference(LlmActionState state, String error, Exception ex) {
+	private String failWithReference(ActionRun run, String error, Exception ex) {
 		String reference = errorReference();
 		if (ex != null) {
 			logger.error("KB LLM action failed (ref={}, actionId={}, type={}, isins={}, error={})",
-					reference, state.actionId, state.type, state.isins, error, ex);
+					reference, run.jobId(), run.payload.type(), run.isins, error, ex);
 		} else {
 			logger.error("KB LLM action failed (ref={}, actionId={}, type={}, isins={}, error={})",
-					reference, state.actionId, state.type, state.isins, error);
+					reference, run.jobId(), run.payload.type(), run.isins, error);
 		}
 		return "Error ref " + reference;
 	}
@@ -696,41 +561,97 @@ public class KnowledgeBaseLlmActionService {
 		return new KnowledgeBaseRefreshBatchRequestDto(limit, batchSize, dryRun, scope);
 	}
 
-	private static final class LlmActionState {
-		private final String actionId;
-		private final KnowledgeBaseLlmActionType type;
-		private final KnowledgeBaseLlmActionTrigger trigger;
+	enum ActionKind {
+		BULK_RESEARCH,
+		ALTERNATIVES,
+		REFRESH_BATCH,
+		REFRESH_SINGLE,
+		EXTRACTION,
+		MISSING_METRICS
+	}
+
+	// Everything needed to run the action again on any replica.
+	record ActionPayload(ActionKind kind,
+						 KnowledgeBaseLlmActionType type,
+						 KnowledgeBaseLlmActionTrigger trigger,
+						 String actor,
+						 List<String> isins,
+						 List<String> blocked,
+						 Boolean autoApprove,
+						 Boolean applyOverrides,
+						 Boolean force,
+						 Long dossierId,
+						 boolean bypassCache,
+						 KnowledgeBaseRefreshBatchRequestDto refreshRequest) {
+	}
+
+	record ActionProgress(List<String> isins, List<String> activeIsins, int receivedChars) {
+	}
+
+	record ActionResult(KnowledgeBaseBulkResearchResponseDto bulkResearchResult,
+						KnowledgeBaseAlternativesResponseDto alternativesResult,
+						KnowledgeBaseRefreshBatchResponseDto refreshBatchResult,
+						KnowledgeBaseRefreshItemDto refreshItemResult,
+						InstrumentDossierExtractionResponseDto extractionResult,
+						KnowledgeBaseMissingMetricsResponseDto missingMetricsResult) {
+		static ActionResult bulkResearch(KnowledgeBaseBulkResearchResponseDto result) {
+			return new ActionResult(result, null, null, null, null, null);
+		}
+
+		static ActionResult alternatives(KnowledgeBaseAlternativesResponseDto result) {
+			return new ActionResult(null, result, null, null, null, null);
+		}
+
+		static ActionResult refreshBatch(KnowledgeBaseRefreshBatchResponseDto result) {
+			return new ActionResult(null, null, result, null, null, null);
+		}
+
+		static ActionResult refreshItem(KnowledgeBaseRefreshItemDto result) {
+			return new ActionResult(null, null, null, result, null, null);
+		}
+
+		static ActionResult extraction(InstrumentDossierExtractionResponseDto result) {
+			return new ActionResult(null, null, null, null, result, null);
+		}
+
+		static ActionResult missingMetrics(KnowledgeBaseMissingMetricsResponseDto result) {
+			return new ActionResult(null, null, null, null, null, result);
+		}
+	}
+
+	private static final class ActionRun {
+		private final JobQueueService.JobContext context;
+		private final ActionPayload payload;
+		private final Set<String> activeIsins = ConcurrentHashMap.newKeySet();
 		private volatile List<String> isins;
-		private final Set<String> activeIsins;
-		private final LocalDateTime createdAt;
-		private volatile LocalDateTime updatedAt;
-		private volatile KnowledgeBaseLlmActionStatus status;
-		private volatile String message;
-		private volatile KnowledgeBaseBulkResearchResponseDto bulkResearchResult;
-		private volatile KnowledgeBaseAlternativesResponseDto alternativesResult;
-		private volatile KnowledgeBaseRefreshBatchResponseDto refreshBatchResult;
-		private volatile KnowledgeBaseRefreshItemDto refreshItemResult;
-		private volatile InstrumentDossierExtractionResponseDto extractionResult;
-		private volatile KnowledgeBaseMissingMetricsResponseDto missingMetricsResult;
-		private volatile Future<?> future;
-
-		private LlmActionState(String actionId,
-							   KnowledgeBaseLlmActionType type,
-							   KnowledgeBaseLlmActionTrigger trigger,
-							   List<String> isins,
-							   Set<String> activeIsins) {
-			this.actionId = actionId;
-			this.type = type;
-			this.trigger = trigger;
-			this.isins = isins;
-			this.activeIsins = activeIsins;
-			this.createdAt = LocalDateTime.now();
-			this.updatedAt = this.createdAt;
-			this.status = KnowledgeBaseLlmActionStatus.RUNNING;
-		}
-
-		private LocalDateTime updatedAt() {
-			return updatedAt == null ? createdAt : updatedAt;
+		private volatile int receivedChars;
+		private volatile long lastStreamReport;
+
+		private ActionRun(JobQueueService.JobContext context, ActionPayload payload, ActionProgress progress) {
+			this.context = context;
+			this.payload = payload;
+			this.isins = payload.isins() == null ? List.of() : payload.isins();
+			if (progress != null && progress.activeIsins() != null) {
+				activeIsins.addAll(progress.activeIsins());
+			}
+		}
+
+		private String jobId() {
+			return context.jobId();
+		}
+
+		private void report(String message) {
+			context.report(message, new ActionProgress(isins, List.copyOf(activeIsins), receivedChars), null);
+		}
+
+		// Stream callbacks arrive per chunk; the stored counter is refreshed at most once per interval.
+		private void streamed(int chars) {
+			receivedChars = chars;
+			long now = System.currentTimeMillis();
+			if (now - lastStreamReport >= STREAM_PROGRESS_INTERVAL_MILLIS) {
+				lastStreamReport = now;
+				report(null);
+			}
 		}
 	}
 }
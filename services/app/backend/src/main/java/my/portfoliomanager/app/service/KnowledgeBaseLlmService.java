@@ -18,6 +18,7 @@ import my.portfoliomanager.app.llm.KnowledgeBaseLlmExtractionDraft;
 import my.portfoliomanager.app.llm.KnowledgeBaseLlmOutputException;
 import my.portfoliomanager.app.llm.KnowledgeBaseLlmProvider;
 import my.portfoliomanager.app.llm.KnowledgeBaseLlmResponse;
+import my.portfoliomanager.app.llm.LlmConcurrencyLimiter;
 import my.portfoliomanager.app.llm.LlmRequestException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +26,7 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -32,7 +34,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Random;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
@@ -459,7 +460,6 @@ public class KnowledgeBaseLlmService implements KnowledgeBaseLlmClient {
     private final Map<String, Object> alternativesResponseSchema;
     private final Map<String, Object> extractionResponseSchema;
     private final LlmPromptPolicy llmPromptPolicy;
-    private final Random jitter = new Random();
 
     public KnowledgeBaseLlmService(KnowledgeBaseLlmProvider llmProvider,
                                KnowledgeBaseConfigService configService,
@@ -1487,11 +1487,9 @@ public class KnowledgeBaseLlmService implements KnowledgeBaseLlmClient {
                     logger.error("Max retries reached, stopping");
                     break;
                 }
-                int sleepSeconds = Math.min(maxBackoff, baseBackoff * (1 << (attempt - 1)));
-                double jitterFactor = 0.5 + jitter.nextDouble();
-                long sleepMillis = Math.max(500L, Math.round(sleepSeconds * 1000.0 * jitterFactor));
+                Duration delay = LlmConcurrencyLimiter.retryDelay(ex, attempt, baseBackoff, maxBackoff);
                 try {
-                    Thread.sleep(sleepMillis);
+                    Thread.sleep(delay);
                 } catch (InterruptedException iex) {
                     Thread.currentThread().interrupt();
                     throw ex;
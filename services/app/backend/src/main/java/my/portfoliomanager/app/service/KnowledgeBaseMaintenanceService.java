@@ -38,6 +38,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
 import java.util.regex.Pattern;
 
 @Service
@@ -119,9 +120,11 @@ public class KnowledgeBaseMaintenanceService {
 
         ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxParallelBatches, batches.size()));
         List<Future<BatchResult>> futures = new ArrayList<>();
+        BooleanSupplier cancelCheck = JobCancellation.current();
         try {
             for (List<String> batch : batches) {
-                futures.add(executor.submit(() -> processBatch(batch, autoApproveFlag, applyOverrides, actor, batchId, config)));
+                futures.add(executor.submit(() -> JobCancellation.call(cancelCheck,
+                        () -> processBatch(batch, autoApproveFlag, applyOverrides, actor, batchId, config))));
             }
             List<BatchResult> results = new ArrayList<>();
             for (Future<BatchResult> future : futures) {
@@ -220,12 +223,12 @@ public class KnowledgeBaseMaintenanceService {
         runService.incrementAttempt(baseRun);
         List<KnowledgeBaseAlternativeItemDto> responseItems = new ArrayList<>();
         try {
-            if (Thread.currentThread().isInterrupted()) {
+            if (JobCancellation.isRequested()) {
                 throw new CancellationException("Canceled");
             }
             KnowledgeBaseLlmAlternativesDraft draft = llmClient.findAlternatives(normalizedBase, config.websearchAllowedDomains());
             for (KnowledgeBaseLlmAlternativeItem item : draft.items()) {
-                if (Thread.currentThread().isInterrupted()) {
+                if (JobCancellation.isRequested()) {
                     throw new CancellationException("Canceled");
                 }
                 KnowledgeBaseAlternative alternative = upsertAlternative(normalizedBase, item);
@@ -360,7 +363,7 @@ public class KnowledgeBaseMaintenanceService {
                                                    boolean autoApprove,
                                                    boolean applyOverrides,
                                                    List<String> dossierWarnings) {
-        if (Thread.currentThread().isInterrupted()) {
+        if (JobCancellation.isRequested()) {
             throw new CancellationException("Canceled");
         }
         KnowledgeBaseRun extractRun = runService.startRun(isin, KnowledgeBaseRunAction.EXTRACT, null, null);
@@ -442,7 +445,7 @@ public class KnowledgeBaseMaintenanceService {
         int skipped = 0;
         logger.info("Processing batch for {} ISINS", isins.size());
         for (String isin : isins) {
-            if (Thread.currentThread().isInterrupted()) {
+            if (JobCancellation.isRequested()) {
                 throw new CancellationException("Canceled");
             }
             logger.info("Start KnowledgeBaseRun for ISIN {}", isin);
@@ -0,0 +1,155 @@
+package my.portfoliomanager.app.service;
+
+import tools.jackson.databind.ObjectMapper;
+import my.portfoliomanager.app.dto.InstrumentDossierExtractionPayload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class KnowledgeBaseProfileStore {
+	private static final Logger logger = LoggerFactory.getLogger(KnowledgeBaseProfileStore.class);
+	private static final int FETCH_CHUNK_SIZE = 500;
+
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+	private final ObjectMapper objectMapper;
+	private final Map<String, StoredExtraction> entries = new ConcurrentHashMap<>();
+
+	public KnowledgeBaseProfileStore(NamedParameterJdbcTemplate namedParameterJdbcTemplate, ObjectMapper objectMapper) {
+		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+		this.objectMapper = objectMapper;
+	}
+
+	public Map<String, StoredExtraction> load(Set<String> isins) {
+		if (isins == null || isins.isEmpty()) {
+			return Map.of();
+		}
+		String sql = """
+				SELECT isin, status, updated_at
+				FROM knowledge_base_extractions
+				WHERE isin IN (:isins)
+				""";
+		return load(sql, new MapSqlParameterSource("isins", isins));
+	}
+
+	public Map<String, StoredExtraction> loadByStatus(Set<String> statuses) {
+		if (statuses == null || statuses.isEmpty()) {
+			return Map.of();
+		}
+		String sql = """
+				SELECT isin, status, updated_at
+				FROM knowledge_base_extractions
+				WHERE status IN (:statuses)
+				""";
+		return load(sql, new MapSqlParameterSource("statuses", statuses));
+	}
+
+	// Called after an extraction row was written; the payload is already at hand, so it is parsed here instead of
+	// on the next run. The version probe in load() discards the entry if the write did not commit.
+	public void remember(String isin, String status, LocalDateTime updatedAt, InstrumentDossierExtractionPayload payload) {
+		String normalized = normalizeIsin(isin);
+		if (normalized == null) {
+			return;
+		}
+		if (updatedAt == null) {
+			entries.remove(normalized);
+			return;
+		}
+		entries.put(normalized, new StoredExtraction(normalized, status, updatedAt, payload, ValuationMetrics.from(payload)));
+	}
+
+	public void invalidate(String isin) {
+		String normalized = normalizeIsin(isin);
+		if (normalized != null) {
+			entries.remove(normalized);
+		}
+	}
+
+	private Map<String, StoredExtraction> load(String versionSql, MapSqlParameterSource params) {
+		Map<String, StoredExtraction> result = new LinkedHashMap<>();
+		List<String> stale = new ArrayList<>();
+		namedParameterJdbcTemplate.query(versionSql, params, rs -> {
+			String rawIsin = rs.getString("isin");
+			String isin = normalizeIsin(rawIsin);
+			if (isin == null) {
+				return;
+			}
+			String status = rs.getString("status");
+			LocalDateTime updatedAt = rs.getObject("updated_at", LocalDateTime.class);
+			StoredExtraction cached = entries.get(isin);
+			if (updatedAt != null && cached != null
+					&& updatedAt.equals(cached.updatedAt())
+					&& Objects.equals(status, cached.status())) {
+				result.put(isin, cached);
+			} else {
+				result.put(isin, null);
+				stale.add(rawIsin);
+			}
+		});
+		if (stale.isEmpty()) {
+			return result;
+		}
+		String sql = """
+				SELECT isin, status, updated_at, extracted_json
+				FROM knowledge_base_extractions
+				WHERE isin IN (:isins)
+				""";
+		for (int start = 0; start < stale.size(); start += FETCH_CHUNK_SIZE) {
+			List<String> chunk = stale.subList(start, Math.min(stale.size(), start + FETCH_CHUNK_SIZE));
+			namedParameterJdbcTemplate.query(sql, new MapSqlParameterSource("isins", chunk), rs -> {
+				String isin = normalizeIsin(rs.getString("isin"));
+				if (isin == null || !result.containsKey(isin)) {
+					return;
+				}
+				String status = rs.getString("status");
+				LocalDateTime updatedAt = rs.getObject("updated_at", LocalDateTime.class);
+				InstrumentDossierExtractionPayload payload = parsePayload(isin, rs.getString("extracted_json"));
+				StoredExtraction stored = new StoredExtraction(isin, status, updatedAt, payload, ValuationMetrics.from(payload));
+				if (updatedAt != null) {
+					entries.put(isin, stored);
+				}
+				result.put(isin, stored);
+			});
+		}
+		result.values().removeIf(Objects::isNull);
+		return result;
+	}
+
+	private InstrumentDossierExtractionPayload parsePayload(String isin, String json) {
+		if (json == null || json.isBlank()) {
+			return null;
+		}
+		try {
+			return objectMapper.readValue(json, InstrumentDossierExtractionPayload.class);
+		} catch (Exception ex) {
+			logger.debug("Failed to parse KB extraction payload for {}: {}", isin, ex.getMessage());
+			return null;
+		}
+	}
+
+	private String normalizeIsin(String isin) {
+		if (isin == null || isin.isBlank()) {
+			return null;
+		}
+		return isin.trim().toUpperCase(Locale.ROOT);
+	}
+
+	public record StoredExtraction(String isin,
+								   String status,
+								   LocalDateTime updatedAt,
+								   InstrumentDossierExtractionPayload payload,
+								   ValuationMetrics metrics) {
+	}
+}
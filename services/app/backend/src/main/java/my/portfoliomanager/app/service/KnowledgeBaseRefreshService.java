@@ -8,8 +8,10 @@ import my.portfoliomanager.app.domain.KnowledgeBaseRunAction;
 import my.portfoliomanager.app.domain.KnowledgeBaseRunStatus;
 import my.portfoliomanager.app.dto.*;
 import my.portfoliomanager.app.llm.KnowledgeBaseLlmDossierDraft;
-import my.portfoliomanager.app.repository.InstrumentDossierRepository;
-import my.portfoliomanager.app.repository.projection.InstrumentDossierSearchProjection;
+import my.portfoliomanager.app.llm.LlmConcurrencyLimiter;
+import my.portfoliomanager.app.llm.LlmStreamProgress;
+import my.portfoliomanager.app.repository.InstrumentDossierSearchRepository;
+import my.portfoliomanager.app.repository.projection.InstrumentDossierSearchRow;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
@@ -20,6 +22,13 @@ import java.util.Locale;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
 import java.util.regex.Pattern;
 
 @Service
@@ -29,19 +38,22 @@ public class KnowledgeBaseRefreshService {
 	private final KnowledgeBaseService knowledgeBaseService;
 	private final KnowledgeBaseMaintenanceService maintenanceService;
 	private final KnowledgeBaseRunService runService;
-	private final InstrumentDossierRepository dossierRepository;
+	private final InstrumentDossierSearchRepository dossierSearchRepository;
+	private final LlmConcurrencyLimiter llmConcurrencyLimiter;
 	private final KnowledgeBaseBatchPlanner batchPlanner = new KnowledgeBaseBatchPlanner();
 
 	public KnowledgeBaseRefreshService(KnowledgeBaseConfigService configService,
 							   KnowledgeBaseService knowledgeBaseService,
 							   KnowledgeBaseMaintenanceService maintenanceService,
 							   KnowledgeBaseRunService runService,
-							   InstrumentDossierRepository dossierRepository) {
+							   InstrumentDossierSearchRepository dossierSearchRepository,
+							   LlmConcurrencyLimiter llmConcurrencyLimiter) {
 		this.configService = configService;
 		this.knowledgeBaseService = knowledgeBaseService;
 		this.maintenanceService = maintenanceService;
 		this.runService = runService;
-		this.dossierRepository = dossierRepository;
+		this.dossierSearchRepository = dossierSearchRepository;
+		this.llmConcurrencyLimiter = llmConcurrencyLimiter;
 	}
 
 	public KnowledgeBaseRefreshItemDto refreshSingle(String isin, Boolean autoApprove, String actor) {
@@ -73,12 +85,13 @@ public class KnowledgeBaseRefreshService {
     }
 
 	public KnowledgeBaseRefreshBatchResponseDto refreshBatch(KnowledgeBaseRefreshBatchRequestDto request, String actor) {
-		return refreshBatch(request, actor, Set.of());
+		return refreshBatch(request, actor, Set.of(), null);
 	}
 
 	public KnowledgeBaseRefreshBatchResponseDto refreshBatch(KnowledgeBaseRefreshBatchRequestDto request,
 															 String actor,
-															 Set<String> blockedIsins) {
+															 Set<String> blockedIsins,
+															 IntConsumer streamProgress) {
 		KnowledgeBaseConfigService.KnowledgeBaseConfigSnapshot config = configService.getSnapshot();
 		runService.markTimedOutRuns(Duration.ofMinutes(config.runTimeoutMinutes()));
 
@@ -93,58 +106,121 @@ public class KnowledgeBaseRefreshService {
 				this::estimateInputChars
 		);
 
-		int maxBatches = config.maxBatchesPerRun();
-		int maxInstruments = config.maxInstrumentsPerRun();
+		List<String> planned = planIsins(batches, config.maxBatchesPerRun(), config.maxInstrumentsPerRun());
+		KnowledgeBaseRefreshItemDto[] results = new KnowledgeBaseRefreshItemDto[planned.size()];
+		List<Integer> pending = new ArrayList<>();
+		for (int i = 0; i < planned.size(); i++) {
+			if (JobCancellation.isRequested()) {
+				throw new CancellationException("Canceled");
+			}
+			String isin = planned.get(i);
+			if (blockedIsins != null && blockedIsins.contains(isin)) {
+				results[i] = new KnowledgeBaseRefreshItemDto(isin, KnowledgeBaseBulkResearchItemStatus.SKIPPED, null, null, "already_running", null);
+			} else if (dryRun) {
+				results[i] = new KnowledgeBaseRefreshItemDto(isin, KnowledgeBaseBulkResearchItemStatus.SKIPPED, null, null, "dry_run", null);
+			} else {
+				pending.add(i);
+			}
+		}
+
+		String batchId = UUID.randomUUID().toString();
+		runPipeline(planned, pending, results, config, actor, batchId, streamProgress);
+
 		List<KnowledgeBaseRefreshItemDto> items = new ArrayList<>();
-		int processed = 0;
 		int succeeded = 0;
 		int failed = 0;
 		int skipped = 0;
+		for (KnowledgeBaseRefreshItemDto item : results) {
+			items.add(item);
+			switch (item.status()) {
+				case SUCCEEDED -> succeeded++;
+				case FAILED -> failed++;
+				case SKIPPED -> skipped++;
+			}
+		}
+		return new KnowledgeBaseRefreshBatchResponseDto(candidates.size(), items.size(), succeeded, skipped, failed, dryRun, items);
+	}
 
-		String batchId = UUID.randomUUID().toString();
+	public List<String> previewCandidates(KnowledgeBaseRefreshBatchRequestDto request) {
+		KnowledgeBaseConfigService.KnowledgeBaseConfigSnapshot config = configService.getSnapshot();
+		int limit = request != null && request.limit() != null ? request.limit() : config.maxInstrumentsPerRun();
+		return resolveCandidates(request, config, limit);
+	}
 
+	private List<String> planIsins(List<List<String>> batches, int maxBatches, int maxInstruments) {
+		List<String> planned = new ArrayList<>();
 		for (int i = 0; i < batches.size() && i < maxBatches; i++) {
-			List<String> batch = batches.get(i);
-			for (String isin : batch) {
-				if (processed >= maxInstruments) {
-					break;
-				}
-				if (Thread.currentThread().isInterrupted()) {
-					throw new CancellationException("Canceled");
-				}
-                if (blockedIsins != null && blockedIsins.contains(isin)) {
-                    items.add(new KnowledgeBaseRefreshItemDto(isin, KnowledgeBaseBulkResearchItemStatus.SKIPPED, null, null, "already_running", null));
-                    skipped++;
-                    processed++;
-                    continue;
-                }
-                if (dryRun) {
-                    items.add(new KnowledgeBaseRefreshItemDto(isin, KnowledgeBaseBulkResearchItemStatus.SKIPPED, null, null, "dry_run", null));
-                    skipped++;
-                    processed++;
-                    continue;
-                }
-				KnowledgeBaseRefreshItemDto item = runRefreshForIsin(isin, config.autoApprove(), config.applyExtractionsToOverrides(),
-						actor, batchId, false);
-				items.add(item);
-				processed++;
-				switch (item.status()) {
-					case SUCCEEDED -> succeeded++;
-					case FAILED -> failed++;
-					case SKIPPED -> skipped++;
+			for (String isin : batches.get(i)) {
+				if (planned.size() >= maxInstruments) {
+					return planned;
 				}
+				planned.add(isin);
 			}
-			if (processed >= maxInstruments) {
-				break;
+		}
+		return planned;
+	}
+
+	private void runPipeline(List<String> planned,
+							 List<Integer> pending,
+							 KnowledgeBaseRefreshItemDto[] results,
+							 KnowledgeBaseConfigService.KnowledgeBaseConfigSnapshot config,
+							 String actor,
+							 String batchId,
+							 IntConsumer streamProgress) {
+		if (pending.size() <= 1) {
+			for (int index : pending) {
+				withCallerContext(streamProgress, () -> results[index] = runRefreshForIsin(planned.get(index),
+						config.autoApprove(), config.applyExtractionsToOverrides(), actor, batchId, false)).run();
 			}
+			return;
+		}
+		// Keep a few ISINs queued behind the LLM permits so DB stages overlap with network calls.
+		Semaphore inFlight = new Semaphore(Math.max(2, llmConcurrencyLimiter.maxConcurrentCalls() * 2));
+		ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+		List<Future<?>> futures = new ArrayList<>();
+		try {
+			for (int index : pending) {
+				inFlight.acquire();
+				String isin = planned.get(index);
+				futures.add(executor.submit(withCallerContext(streamProgress, () -> {
+					try {
+						results[index] = runRefreshForIsin(isin, config.autoApprove(), config.applyExtractionsToOverrides(),
+								actor, batchId, false);
+					} finally {
+						inFlight.release();
+					}
+				})));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException runtime) {
+				throw runtime;
+			}
+			throw new IllegalStateException(cause);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Canceled");
+		} finally {
+			executor.shutdownNow();
 		}
-		return new KnowledgeBaseRefreshBatchResponseDto(candidates.size(), processed, succeeded, skipped, failed, dryRun, items);
 	}
 
-	public List<String> previewCandidates(KnowledgeBaseRefreshBatchRequestDto request) {
-		KnowledgeBaseConfigService.KnowledgeBaseConfigSnapshot config = configService.getSnapshot();
-		int limit = request != null && request.limit() != null ? request.limit() : config.maxInstrumentsPerRun();
-		return resolveCandidates(request, config, limit);
+	// Thread-bound LLM call state does not follow tasks onto the worker threads: the cache bypass and the job cancel
+	// check are captured on the calling thread, the stream progress sink is handed in by the caller, and all of them
+	// are installed around each task.
+	private Runnable withCallerContext(IntConsumer streamProgress, Runnable task) {
+		boolean bypassCache = LlmResponseCacheService.isBypassed();
+		BooleanSupplier cancelCheck = JobCancellation.current();
+		Runnable scoped = bypassCache
+				? () -> LlmResponseCacheService.bypass(() -> {
+					task.run();
+					return null;
+				})
+				: task;
+		return () -> JobCancellation.run(cancelCheck, () -> LlmStreamProgress.run(streamProgress, scoped));
 	}
 
 	private KnowledgeBaseRefreshItemDto runRefreshForIsin(String isin,
@@ -154,7 +230,7 @@ public class KnowledgeBaseRefreshService {
 									 String batchId,
 									 boolean forceRefresh) {
 		KnowledgeBaseConfigService.KnowledgeBaseConfigSnapshot config = configService.getSnapshot();
-		if (Thread.currentThread().isInterrupted()) {
+		if (JobCancellation.isRequested()) {
 			throw new CancellationException("Canceled");
 		}
 
@@ -198,7 +274,7 @@ public class KnowledgeBaseRefreshService {
 																 String actor,
 																 boolean autoApprove,
 																 boolean applyOverrides) {
-        if (Thread.currentThread().isInterrupted()) {
+        if (JobCancellation.isRequested()) {
             throw new CancellationException("Canceled");
         }
 		KnowledgeBaseRun extractRun = runService.startRun(isin, KnowledgeBaseRunAction.EXTRACT, null, null);
@@ -260,8 +336,7 @@ public class KnowledgeBaseRefreshService {
 				}
 			}
 		} else {
-			List<InstrumentDossierSearchProjection> rows = dossierRepository.searchDossiers(
-					null,
+			InstrumentDossierSearchRepository.Criteria criteria = new InstrumentDossierSearchRepository.Criteria(
 					null,
 					DossierStatus.APPROVED.name(),
 					null,
@@ -269,14 +344,18 @@ public class KnowledgeBaseRefreshService {
 					null,
 					null,
 					true,
-					staleBefore,
-					"isin",
+					staleBefore
+			);
+			List<InstrumentDossierSearchRow> rows = dossierSearchRepository.search(
+					criteria,
+					InstrumentDossierSearchRepository.SORT_ISIN,
 					"asc",
+					null,
 					limit,
 					0
 			);
-			for (InstrumentDossierSearchProjection row : rows) {
-				candidates.add(row.getIsin());
+			for (InstrumentDossierSearchRow row : rows) {
+				candidates.add(row.isin());
 			}
 		}
 		if (candidates.size() > limit) {
@@ -10,11 +10,13 @@ import my.portfoliomanager.app.llm.KnowledgeBaseLlmDossierDraft;
 import my.portfoliomanager.app.llm.LlmClient;
 import my.portfoliomanager.app.llm.LlmSuggestion;
 import my.portfoliomanager.app.repository.*;
-import my.portfoliomanager.app.repository.projection.InstrumentDossierSearchProjection;
+import my.portfoliomanager.app.repository.projection.InstrumentDossierSearchRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.net.URI;
@@ -44,6 +46,7 @@ public class KnowledgeBaseService {
     private static final String SORT_UPDATED_AT = "updatedAt";
     private final InstrumentRepository instrumentRepository;
     private final InstrumentDossierRepository dossierRepository;
+    private final InstrumentDossierSearchRepository dossierSearchRepository;
     private final InstrumentDossierExtractionRepository extractionRepository;
     private final InstrumentOverrideRepository overrideRepository;
     private final InstrumentFactRepository factRepository;
@@ -59,9 +62,11 @@ public class KnowledgeBaseService {
     private final LlmPromptPolicy llmPromptPolicy;
     private final KnowledgeBaseQualityGateService qualityGateService;
     private final InstrumentBlacklistService blacklistService;
+    private final TransactionTemplate transactionTemplate;
 
     public KnowledgeBaseService(InstrumentRepository instrumentRepository,
                                 InstrumentDossierRepository dossierRepository,
+                                InstrumentDossierSearchRepository dossierSearchRepository,
                                 InstrumentDossierExtractionRepository extractionRepository,
                                 InstrumentOverrideRepository overrideRepository,
                                 InstrumentFactRepository factRepository,
@@ -75,9 +80,11 @@ public class KnowledgeBaseService {
                                  ObjectMapper objectMapper,
                                  LlmPromptPolicy llmPromptPolicy,
                                  KnowledgeBaseQualityGateService qualityGateService,
-                                 InstrumentBlacklistService blacklistService) {
+                                 InstrumentBlacklistService blacklistService,
+                                 PlatformTransactionManager transactionManager) {
         this.instrumentRepository = instrumentRepository;
         this.dossierRepository = dossierRepository;
+        this.dossierSearchRepository = dossierSearchRepository;
         this.extractionRepository = extractionRepository;
         this.overrideRepository = overrideRepository;
         this.factRepository = factRepository;
@@ -93,6 +100,7 @@ public class KnowledgeBaseService {
         this.llmPromptPolicy = llmPromptPolicy;
         this.qualityGateService = qualityGateService;
         this.blacklistService = blacklistService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public InstrumentDossierSearchPageDto searchDossiers(String query,
@@ -104,6 +112,7 @@ public class KnowledgeBaseService {
                                                          Boolean stale,
                                                          int limit,
                                                          int offset,
+                                                         String cursor,
                                                          String sortBy,
                                                          String sortDirection) {
         int finalLimit = Math.min(Math.max(limit, 1), MAX_LIMIT);
@@ -112,42 +121,39 @@ public class KnowledgeBaseService {
             throw new IllegalArgumentException("Requested page is too deep.");
         }
         String normalizedQuery = normalizeQuery(query);
-        String queryContainsPattern = toContainsLikePattern(normalizedQuery);
-        String queryPrefixPattern = toPrefixLikePattern(normalizedQuery);
         DossierSearchSort sort = normalizeDossierSearchSort(sortBy, sortDirection);
+        InstrumentDossierSearchRepository.Keyset after = decodeDossierCursor(cursor, sort);
+        if (after != null) {
+            finalOffset = 0;
+        }
         KnowledgeBaseConfigService.KnowledgeBaseConfigSnapshot config = configService.getSnapshot();
         LocalDateTime staleBefore = LocalDateTime.now().minusDays(config.refreshIntervalDays());
-        String statusFilter = status == null ? null : status.name();
-        String approvalFilter = normalizeApprovalFilter(approvalStatus);
-        String extractionFilter = normalizeExtractionStatusFilter(extractionStatus);
-        String freshnessFilter = normalizeFreshnessStatusFilter(freshnessStatus);
-        String blacklistFilter = normalizeBlacklistStatusFilter(blacklistStatus);
-        long total = dossierRepository.countSearch(queryContainsPattern,
-                queryPrefixPattern,
-                statusFilter,
-                approvalFilter,
-                extractionFilter,
-                freshnessFilter,
-                blacklistFilter,
-                stale,
-                staleBefore);
-        List<InstrumentDossierSearchProjection> rows = dossierRepository.searchDossiers(
-                queryContainsPattern,
-                queryPrefixPattern,
-                statusFilter,
-                approvalFilter,
-                extractionFilter,
-                freshnessFilter,
-                blacklistFilter,
+        InstrumentDossierSearchRepository.Criteria criteria = new InstrumentDossierSearchRepository.Criteria(
+                toContainsLikePattern(normalizedQuery),
+                status == null ? null : status.name(),
+                normalizeApprovalFilter(approvalStatus),
+                normalizeExtractionStatusFilter(extractionStatus),
+                normalizeFreshnessStatusFilter(freshnessStatus),
+                normalizeBlacklistStatusFilter(blacklistStatus),
                 stale,
-                staleBefore,
+                staleBefore
+        );
+        long total = dossierSearchRepository.count(criteria);
+        List<InstrumentDossierSearchRow> rows = dossierSearchRepository.search(
+                criteria,
                 sort.key(),
                 sort.direction(),
-                finalLimit,
+                after,
+                finalLimit + 1,
                 finalOffset
         );
+        String nextCursor = null;
+        if (rows.size() > finalLimit) {
+            rows = rows.subList(0, finalLimit);
+            nextCursor = encodeDossierCursor(sort, rows.get(rows.size() - 1));
+        }
         List<InstrumentDossierSearchItemDto> items = rows.stream().map(this::toSearchItem).toList();
-        return new InstrumentDossierSearchPageDto(items, Math.toIntExact(total), finalLimit, finalOffset);
+        return new InstrumentDossierSearchPageDto(items, Math.toIntExact(total), finalLimit, finalOffset, nextCursor);
     }
 
     @Transactional
@@ -414,7 +420,8 @@ public class KnowledgeBaseService {
         return extractions.stream().map(this::toResponse).toList();
     }
 
-    @Transactional
+    // Not transactional: bulk refreshes run several extractions at once, and each would otherwise hold a pool
+    // connection for the whole LLM call. Only storing the result takes a transaction (or joins the caller's).
     public InstrumentDossierExtractionResponseDto runExtraction(Long dossierId) {
         InstrumentDossier dossier = dossierRepository.findById(dossierId)
                 .orElseThrow(() -> new IllegalArgumentException(ERROR_DOSSIER_NOT_FOUND));
@@ -424,7 +431,7 @@ public class KnowledgeBaseService {
         extraction.setCreatedAt(now);
         extraction.setAutoApproved(false);
         try {
-            if (Thread.currentThread().isInterrupted()) {
+            if (JobCancellation.isRequested()) {
                 throw new java.util.concurrent.CancellationException("Canceled");
             }
             ExtractionResult result = extractorService.extract(dossier);
@@ -458,9 +465,11 @@ public class KnowledgeBaseService {
             extraction.setStatus(DossierExtractionStatus.FAILED);
             extraction.setError(ex.getMessage());
         }
-        InstrumentDossierExtraction saved = extractionRepository.save(extraction);
-        syncKnowledgeBaseExtraction(dossier.getIsin(), saved);
-        return toResponse(saved);
+        return transactionTemplate.execute(status -> {
+            InstrumentDossierExtraction saved = extractionRepository.save(extraction);
+            syncKnowledgeBaseExtraction(dossier.getIsin(), saved);
+            return toResponse(saved);
+        });
     }
 
     @Transactional
@@ -486,7 +495,7 @@ public class KnowledgeBaseService {
 				new KnowledgeBaseQualityGateService.PrimarySourceRetryPlan(config.websearchAllowedDomains(), false, List.of());
 		List<String> warnings = new ArrayList<>();
 		for (int attempt = 0; attempt <= retryLimit; attempt++) {
-            if (Thread.currentThread().isInterrupted()) {
+            if (JobCancellation.isRequested()) {
                 throw new java.util.concurrent.CancellationException("Canceled");
             }
 			String baseContext = buildMissingMetricsContext(dossier, remainingMissing, targetMissing);
@@ -1907,33 +1916,33 @@ public class KnowledgeBaseService {
     }
 
 
-    private InstrumentDossierSearchItemDto toSearchItem(InstrumentDossierSearchProjection row) {
+    private InstrumentDossierSearchItemDto toSearchItem(InstrumentDossierSearchRow row) {
         if (row == null) {
             return null;
         }
-        boolean hasDossier = row.getDossierId() != null;
+        boolean hasDossier = row.dossierId() != null;
         DossierStatus dossierStatus = null;
-        if (row.getDossierStatus() != null && !row.getDossierStatus().isBlank()) {
-            dossierStatus = DossierStatus.valueOf(row.getDossierStatus());
+        if (row.dossierStatus() != null && !row.dossierStatus().isBlank()) {
+            dossierStatus = DossierStatus.valueOf(row.dossierStatus());
         }
-        DossierExtractionFreshness freshness = parseFreshness(row.getExtractionFreshness());
+        DossierExtractionFreshness freshness = parseFreshness(row.extractionFreshness());
         return new InstrumentDossierSearchItemDto(
-                row.getIsin(),
-                row.getName(),
-                row.getEffectiveLayer(),
+                row.isin(),
+                row.name(),
+                row.effectiveLayer(),
                 hasDossier,
-                hasDossier ? row.getDossierId() : null,
+                hasDossier ? row.dossierId() : null,
                 dossierStatus,
-                row.getDossierUpdatedAt(),
-                row.getDossierVersion(),
-                row.getDossierApprovedAt(),
-                normalizeApprovalFilter(row.getApprovalStatus()),
-                normalizeExtractionStatusFilter(row.getLatestExtractionStatus()),
-                parseBlacklistScope(row.getBlacklistScope()),
-                Boolean.TRUE.equals(row.getBlacklistPendingChange()),
-                Boolean.TRUE.equals(row.getHasApprovedDossier()),
-                Boolean.TRUE.equals(row.getHasApprovedExtraction()),
-                Boolean.TRUE.equals(row.getStale()),
+                row.dossierUpdatedAt(),
+                row.dossierVersion(),
+                row.dossierApprovedAt(),
+                normalizeApprovalFilter(row.approvalStatus()),
+                normalizeExtractionStatusFilter(row.latestExtractionStatus()),
+                parseBlacklistScope(row.blacklistScope()),
+                row.blacklistPendingChange(),
+                row.hasApprovedDossier(),
+                row.hasApprovedExtraction(),
+                row.stale(),
                 freshness
         );
     }
@@ -2029,11 +2038,34 @@ public class KnowledgeBaseService {
         return "%" + escapeLikePattern(query) + "%";
     }
 
-    private String toPrefixLikePattern(String query) {
-        if (query == null) {
+    // Cursors are opaque to clients: the sort they were issued for plus the last row's sort value and ISIN key.
+    private String encodeDossierCursor(DossierSearchSort sort, InstrumentDossierSearchRow last) {
+        String raw = String.join("|",
+                sort.key(),
+                sort.direction(),
+                last.sortValue() == null ? "" : last.sortValue(),
+                last.isinKey());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private InstrumentDossierSearchRepository.Keyset decodeDossierCursor(String cursor, DossierSearchSort sort) {
+        if (cursor == null || cursor.isBlank()) {
             return null;
         }
-        return escapeLikePattern(query) + "%";
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        String[] parts = raw.split("\\|", 4);
+        if (parts.length != 4 || parts[3].isEmpty()) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        if (!sort.key().equals(parts[0]) || !sort.direction().equals(parts[1])) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort.");
+        }
+        return new InstrumentDossierSearchRepository.Keyset(parts[2].isEmpty() ? null : parts[2], parts[3]);
     }
 
     private String escapeLikePattern(String value) {
@@ -13,6 +13,7 @@ import my.portfoliomanager.app.model.LayerTargetProfile;
 import my.portfoliomanager.app.model.LayerTargetRiskThresholds;
 import my.portfoliomanager.app.dto.LayerTargetRiskThresholdsDto;
 import my.portfoliomanager.app.service.util.RiskThresholdsUtil;
+import my.portfoliomanager.app.service.util.VersionedConfigCache;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.jdbc.core.ConnectionCallback;
@@ -25,6 +26,7 @@ import java.math.RoundingMode;
 import java.sql.Timestamp;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -80,6 +82,7 @@ public class LayerTargetConfigService {
 	private final ResourceLoader resourceLoader;
 	private final ObjectMapper jsonMapper;
 	private volatile Boolean isPostgres;
+	private final VersionedConfigCache<LayerTargetConfigModel> configCache = new VersionedConfigCache<>();
 
 	public LayerTargetConfigService(JdbcTemplate jdbcTemplate, ResourceLoader resourceLoader) {
 		this.jdbcTemplate = jdbcTemplate;
@@ -108,12 +111,36 @@ public class LayerTargetConfigService {
 
 	public LayerTargetConfigResponseDto resetToDefault() {
 		jdbcTemplate.update("delete from layer_target_config where id = 1");
+		configCache.invalidate();
 		LayerTargetConfigModel config = seedDefaultConfig();
 		return toResponse(config);
 	}
 
 	private LayerTargetConfigModel loadStoredOrSeed() {
-		return loadStoredConfig().orElseGet(this::seedDefaultConfig);
+		return configCache.get(this::loadStoredVersion,
+				() -> freeze(loadStoredConfig().orElseGet(this::seedDefaultConfig)));
+	}
+
+	private String loadStoredVersion() {
+		String sql = isPostgres()
+				? "select cast(xmin as text) from layer_target_config where id = 1"
+				: "select cast(updated_at as varchar) from layer_target_config where id = 1";
+		List<String> versions = jdbcTemplate.queryForList(sql, String.class);
+		return versions == null || versions.isEmpty() ? null : versions.getFirst();
+	}
+
+	private LayerTargetConfigModel freeze(LayerTargetConfigModel config) {
+		if (config == null) {
+			return null;
+		}
+		return new LayerTargetConfigModel(
+				config.getActiveProfile(),
+				config.getProfiles() == null ? null : Collections.unmodifiableMap(config.getProfiles()),
+				config.getLayerNames() == null ? null : Collections.unmodifiableMap(config.getLayerNames()),
+				config.getMaxSavingPlansPerLayer() == null ? null : Collections.unmodifiableMap(config.getMaxSavingPlansPerLayer()),
+				config.getCustomOverrides(),
+				config.getUpdatedAt()
+		);
 	}
 
 	private LayerTargetConfigModel seedDefaultConfig() {
@@ -248,6 +275,7 @@ public class LayerTargetConfigService {
 				"insert into layer_target_config (id, config_json, updated_at) values (1, ?, ?)";
 		Timestamp updatedAt = config.getUpdatedAt() == null ? null : Timestamp.from(config.getUpdatedAt().toInstant());
 		jdbcTemplate.update(insertSql, json, updatedAt);
+		configCache.invalidate();
 	}
 
 	private Optional<LayerTargetConfigModel> loadStoredConfig() {
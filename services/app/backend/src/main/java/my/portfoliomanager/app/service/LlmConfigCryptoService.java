@@ -12,6 +12,8 @@ import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class LlmConfigCryptoService {
@@ -21,9 +23,11 @@ public class LlmConfigCryptoService {
 	private static final int IV_LENGTH = 12;
 	private static final int KEY_LENGTH_BITS = 256;
 	private static final int KDF_ITERATIONS = 65_536;
+	private static final int MAX_DECRYPTED_ENTRIES = 32;
 
 	private final SecureRandom secureRandom = new SecureRandom();
 	private final String encryptionPassword;
+	private final Map<String, String> decrypted = new ConcurrentHashMap<>();
 
 	public LlmConfigCryptoService(my.portfoliomanager.app.config.AppProperties properties) {
 		String configured = properties == null ? null : properties.llmConfigEncryptionPassword();
@@ -65,6 +69,21 @@ public class LlmConfigCryptoService {
 		if (encryptedPayload == null || encryptedPayload.isBlank() || !isPasswordSet()) {
 			return null;
 		}
+		String cached = decrypted.get(encryptedPayload);
+		if (cached != null) {
+			return cached;
+		}
+		String value = decryptPayload(encryptedPayload);
+		if (value != null) {
+			if (decrypted.size() >= MAX_DECRYPTED_ENTRIES) {
+				decrypted.clear();
+			}
+			decrypted.put(encryptedPayload, value);
+		}
+		return value;
+	}
+
+	private String decryptPayload(String encryptedPayload) {
 		try {
 			byte[] payload = Base64.getDecoder().decode(encryptedPayload);
 			if (payload.length <= SALT_LENGTH + IV_LENGTH) {
@@ -0,0 +1,212 @@
+package my.portfoliomanager.app.service;
+
+import my.portfoliomanager.app.config.LlmProperties;
+import my.portfoliomanager.app.dto.LlmResponseCacheStatsDto;
+import my.portfoliomanager.app.llm.KnowledgeBaseLlmResponse;
+import my.portfoliomanager.app.llm.LlmActionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Service
+public class LlmResponseCacheService {
+	private static final Logger logger = LoggerFactory.getLogger(LlmResponseCacheService.class);
+	private static final int DEFAULT_TTL_HOURS = 720;
+	private static final int DEFAULT_MAX_ENTRIES = 5000;
+	private static final int EVICTION_INTERVAL = 32;
+	private static final ThreadLocal<Boolean> BYPASS = new ThreadLocal<>();
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate outsideTransaction;
+	private final Clock clock;
+	private final Duration ttl;
+	private final int maxEntries;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong bypassed = new AtomicLong();
+	private final AtomicLong stores = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	public LlmResponseCacheService(JdbcTemplate jdbcTemplate, LlmProperties properties, Clock clock,
+								   PlatformTransactionManager transactionManager) {
+		this.jdbcTemplate = jdbcTemplate;
+		// Cache reads and writes are best effort and their failures are swallowed. Inside the caller's transaction a
+		// failed statement would leave it aborted on PostgreSQL, so they run with that transaction suspended.
+		this.outsideTransaction = new TransactionTemplate(transactionManager);
+		this.outsideTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+		this.clock = clock == null ? Clock.systemUTC() : clock;
+		Integer ttlHours = properties == null ? null : properties.responseCacheTtlHours();
+		Integer configuredMax = properties == null ? null : properties.responseCacheMaxEntries();
+		this.ttl = Duration.ofHours(ttlHours == null || ttlHours < 0 ? DEFAULT_TTL_HOURS : ttlHours);
+		this.maxEntries = configuredMax == null || configuredMax < 0 ? DEFAULT_MAX_ENTRIES : configuredMax;
+	}
+
+	public static <T> T bypass(Supplier<T> action) {
+		Boolean previous = BYPASS.get();
+		BYPASS.set(Boolean.TRUE);
+		try {
+			return action.get();
+		} finally {
+			if (previous == null) {
+				BYPASS.remove();
+			} else {
+				BYPASS.set(previous);
+			}
+		}
+	}
+
+	public static boolean isBypassed() {
+		return Boolean.TRUE.equals(BYPASS.get());
+	}
+
+	public boolean isEnabled() {
+		return !ttl.isZero() && maxEntries > 0;
+	}
+
+	public KnowledgeBaseLlmResponse getOrCompute(LlmActionType actionType,
+												 String model,
+												 String schemaName,
+												 String prompt,
+												 Supplier<KnowledgeBaseLlmResponse> call) {
+		if (!isEnabled() || actionType == null || model == null || prompt == null) {
+			return call.get();
+		}
+		String key = cacheKey(actionType, model, schemaName, prompt);
+		if (Boolean.TRUE.equals(BYPASS.get())) {
+			bypassed.incrementAndGet();
+		} else {
+			KnowledgeBaseLlmResponse cached = outsideTransaction.execute(status -> lookup(key));
+			if (cached != null) {
+				hits.incrementAndGet();
+				return cached;
+			}
+			misses.incrementAndGet();
+		}
+		KnowledgeBaseLlmResponse response = call.get();
+		if (isCacheable(response)) {
+			outsideTransaction.executeWithoutResult(status -> store(key, actionType, model, schemaName, response));
+		}
+		return response;
+	}
+
+	public LlmResponseCacheStatsDto stats() {
+		long entries = 0;
+		try {
+			Long count = jdbcTemplate.queryForObject("select count(*) from llm_response_cache", Long.class);
+			entries = count == null ? 0 : count;
+		} catch (DataAccessException ex) {
+			logger.warn("LLM response cache count failed: {}", ex.getMessage());
+		}
+		return new LlmResponseCacheStatsDto(isEnabled(), entries, hits.get(), misses.get(), bypassed.get(),
+				stores.get(), evictions.get());
+	}
+
+	public int clear() {
+		int removed = jdbcTemplate.update("delete from llm_response_cache");
+		evictions.addAndGet(removed);
+		return removed;
+	}
+
+	static String cacheKey(LlmActionType actionType, String model, String schemaName, String prompt) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (String part : List.of(actionType.name(), model, schemaName == null ? "" : schemaName, prompt)) {
+				byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+				digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.US_ASCII));
+				digest.update((byte) ':');
+				digest.update(bytes);
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 not available", ex);
+		}
+	}
+
+	private KnowledgeBaseLlmResponse lookup(String key) {
+		Timestamp now = Timestamp.from(clock.instant());
+		try {
+			List<KnowledgeBaseLlmResponse> rows = jdbcTemplate.query("""
+					update llm_response_cache
+					set hit_count = hit_count + 1, last_hit_at = ?
+					where cache_key = ? and expires_at > ?
+					returning response_output, response_model
+					""",
+					(rs, rowNum) -> new KnowledgeBaseLlmResponse(rs.getString("response_output"), rs.getString("response_model")),
+					now, key, now);
+			return rows.isEmpty() ? null : rows.getFirst();
+		} catch (DataAccessException ex) {
+			logger.warn("LLM response cache lookup failed: {}", ex.getMessage());
+			return null;
+		}
+	}
+
+	private void store(String key, LlmActionType actionType, String model, String schemaName, KnowledgeBaseLlmResponse response) {
+		Instant now = clock.instant();
+		try {
+			jdbcTemplate.update("""
+					insert into llm_response_cache (cache_key, action_type, model, schema_name, response_output,
+						response_model, created_at, expires_at, last_hit_at, hit_count)
+					values (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)
+					on conflict (cache_key) do update set
+						response_output = excluded.response_output,
+						response_model = excluded.response_model,
+						created_at = excluded.created_at,
+						expires_at = excluded.expires_at,
+						last_hit_at = excluded.last_hit_at
+					""",
+					key,
+					actionType.name(),
+					model,
+					schemaName,
+					response.output(),
+					response.model(),
+					Timestamp.from(now),
+					Timestamp.from(now.plus(ttl)),
+					Timestamp.from(now));
+			if (stores.incrementAndGet() % EVICTION_INTERVAL == 1) {
+				evict(now);
+			}
+		} catch (DataAccessException ex) {
+			logger.warn("LLM response cache store failed: {}", ex.getMessage());
+		}
+	}
+
+	private void evict(Instant now) {
+		int expired = jdbcTemplate.update("delete from llm_response_cache where expires_at <= ?", Timestamp.from(now));
+		int overflow = jdbcTemplate.update("""
+				delete from llm_response_cache
+				where cache_key in (
+					select cache_key from llm_response_cache
+					order by last_hit_at desc, created_at desc
+					offset ?
+				)
+				""", maxEntries);
+		evictions.addAndGet(expired + overflow);
+	}
+
+	private boolean isCacheable(KnowledgeBaseLlmResponse response) {
+		if (response == null || response.output() == null) {
+			return false;
+		}
+		String output = response.output().strip();
+		// Only structured JSON answers are replayed; free text usually means the model refused or failed.
+		return output.startsWith("{") && output.endsWith("}");
+	}
+}
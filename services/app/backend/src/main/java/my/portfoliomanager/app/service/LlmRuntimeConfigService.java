@@ -7,6 +7,7 @@ import my.portfoliomanager.app.dto.LlmRuntimeConfigDto;
 import my.portfoliomanager.app.dto.LlmRuntimeConfigUpdateDto;
 import my.portfoliomanager.app.llm.LlmActionType;
 import my.portfoliomanager.app.repository.LlmConfigRepository;
+import my.portfoliomanager.app.service.util.VersionedConfigCache;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -16,6 +17,7 @@ import tools.jackson.databind.ObjectMapper;
 import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class LlmRuntimeConfigService {
@@ -28,6 +30,8 @@ public class LlmRuntimeConfigService {
 	private final ObjectMapper objectMapper;
 	private final LlmConfigCryptoService cryptoService;
 	private final AppProperties.LegacyLlm legacyLlm;
+	private final AtomicLong configVersion = new AtomicLong();
+	private final VersionedConfigCache<StoredConfig> storedConfigCache = new VersionedConfigCache<>();
 
 	public LlmRuntimeConfigService(LlmConfigRepository repository,
 							   ObjectMapper objectMapper,
@@ -77,6 +81,10 @@ public class LlmRuntimeConfigService {
 		return new ResolvedActionConfig(actionType, provider, baseUrl, model, apiKey, enabled, external, disableReason);
 	}
 
+	public long configVersion() {
+		return configVersion.get();
+	}
+
 	public LlmConfigBackupDto exportBackupConfig() {
 		LlmConfig entity = repository.findById(CONFIG_ID).orElse(null);
 		if (entity == null || entity.getConfigJson() == null) {
@@ -287,6 +295,8 @@ public class LlmRuntimeConfigService {
 		entity.setConfigJson(objectMapper.valueToTree(config));
 		entity.setUpdatedAt(LocalDateTime.now());
 		repository.save(entity);
+		storedConfigCache.invalidate();
+		configVersion.incrementAndGet();
 	}
 
 	private LlmRuntimeConfigDto toDto(StoredConfig stored) {
@@ -331,6 +341,10 @@ public class LlmRuntimeConfigService {
 	}
 
 	private StoredConfig loadStoredConfig() {
+		return storedConfigCache.get(() -> repository.findVersionById(CONFIG_ID), this::readStoredConfig);
+	}
+
+	private StoredConfig readStoredConfig() {
 		LlmConfig entity = repository.findById(CONFIG_ID).orElse(null);
 		if (entity == null || entity.getConfigJson() == null) {
 			return defaults();
@@ -1,9 +1,10 @@
 package my.portfoliomanager.app.service;
 
-import my.portfoliomanager.app.domain.Instrument;
+import my.portfoliomanager.app.domain.InstrumentEdit;
 import my.portfoliomanager.app.domain.InstrumentOverride;
 import my.portfoliomanager.app.dto.InstrumentOverrideRequest;
 import my.portfoliomanager.app.dto.OverridesImportResultDto;
+import my.portfoliomanager.app.repository.BulkUpsertRepository;
 import my.portfoliomanager.app.repository.InstrumentRepository;
 import my.portfoliomanager.app.repository.InstrumentOverrideRepository;
 import my.portfoliomanager.app.util.CsvParsing;
@@ -21,7 +22,10 @@ import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -42,13 +46,16 @@ public class OverridesService {
 	private final InstrumentRepository instrumentRepository;
 	private final InstrumentOverrideRepository overrideRepository;
 	private final AuditService auditService;
+	private final BulkUpsertRepository bulkUpsertRepository;
 
 	public OverridesService(InstrumentRepository instrumentRepository,
 							InstrumentOverrideRepository overrideRepository,
-							AuditService auditService) {
+							AuditService auditService,
+							BulkUpsertRepository bulkUpsertRepository) {
 		this.instrumentRepository = instrumentRepository;
 		this.overrideRepository = overrideRepository;
 		this.auditService = auditService;
+		this.bulkUpsertRepository = bulkUpsertRepository;
 	}
 
 	public String exportCsv() {
@@ -99,9 +106,14 @@ public class OverridesService {
 		int skippedMissing = 0;
 		int imported = 0;
 
-		Set<String> knownIsins = instrumentRepository.findAll().stream()
-				.map(Instrument::getIsin)
-				.collect(java.util.stream.Collectors.toSet());
+		Set<String> knownIsins = new HashSet<>(instrumentRepository.findAllIsins());
+		Map<String, InstrumentOverride> existing = new HashMap<>();
+		for (InstrumentOverride override : overrideRepository.findAll()) {
+			existing.put(override.getIsin(), override);
+		}
+		// Changes are applied to detached copies, then written with one JDBC upsert batch and one audit batch.
+		Map<String, InstrumentOverride> pending = new LinkedHashMap<>();
+		List<InstrumentEdit> edits = new ArrayList<>();
 
 		for (CSVRecord record : records) {
 			if (record == null || record.toMap().values().stream().allMatch(v -> v == null || v.isBlank())) {
@@ -126,23 +138,20 @@ public class OverridesService {
 				continue;
 			}
 
-			InstrumentOverride override = overrideRepository.findById(isin).orElseGet(() -> {
-				InstrumentOverride created = new InstrumentOverride();
-				created.setIsin(isin);
-				return created;
-			});
-
-			updateField(override.getName(), name, "name", override::setName, isin, editedBy, SOURCE_OVERRIDE_IMPORT);
-			updateField(override.getInstrumentType(), instrumentType, FIELD_INSTRUMENT_TYPE, override::setInstrumentType,
-					isin, editedBy, SOURCE_OVERRIDE_IMPORT);
-			updateField(override.getAssetClass(), assetClass, FIELD_ASSET_CLASS, override::setAssetClass,
-					isin, editedBy, SOURCE_OVERRIDE_IMPORT);
-			updateField(override.getSubClass(), subClass, FIELD_SUB_CLASS, override::setSubClass, isin, editedBy,
-					SOURCE_OVERRIDE_IMPORT);
+			InstrumentOverride override = pending.computeIfAbsent(isin, key -> copyOf(key, existing.get(key)));
+
+			collectField(override.getName(), name, "name", override::setName, isin, editedBy, SOURCE_OVERRIDE_IMPORT,
+					edits);
+			collectField(override.getInstrumentType(), instrumentType, FIELD_INSTRUMENT_TYPE, override::setInstrumentType,
+					isin, editedBy, SOURCE_OVERRIDE_IMPORT, edits);
+			collectField(override.getAssetClass(), assetClass, FIELD_ASSET_CLASS, override::setAssetClass,
+					isin, editedBy, SOURCE_OVERRIDE_IMPORT, edits);
+			collectField(override.getSubClass(), subClass, FIELD_SUB_CLASS, override::setSubClass, isin, editedBy,
+					SOURCE_OVERRIDE_IMPORT, edits);
 			if (layer != null) {
-				updateField(override.getLayer() == null ? null : override.getLayer().toString(),
+				collectField(override.getLayer() == null ? null : override.getLayer().toString(),
 						layer.toString(), FIELD_LAYER, val -> override.setLayer(val == null ? null : Integer.valueOf(val)),
-						isin, editedBy, SOURCE_OVERRIDE_IMPORT);
+						isin, editedBy, SOURCE_OVERRIDE_IMPORT, edits);
 				if (layerLastChanged == null) {
 					layerLastChanged = LocalDate.now();
 				}
@@ -150,12 +159,13 @@ public class OverridesService {
 			if (layerLastChanged != null) {
 				override.setLayerLastChanged(layerLastChanged);
 			}
-			updateField(override.getLayerNotes(), layerNotes, FIELD_LAYER_NOTES, override::setLayerNotes, isin, editedBy,
-					SOURCE_OVERRIDE_IMPORT);
+			collectField(override.getLayerNotes(), layerNotes, FIELD_LAYER_NOTES, override::setLayerNotes, isin, editedBy,
+					SOURCE_OVERRIDE_IMPORT, edits);
 			override.setUpdatedAt(java.time.LocalDateTime.now());
-			overrideRepository.save(override);
 			imported += 1;
 		}
+		bulkUpsertRepository.upsertOverrides(new ArrayList<>(pending.values()));
+		auditService.recordEdits(edits);
 
 		return new OverridesImportResultDto(imported, skippedMissing, skippedEmpty);
 	}
@@ -216,9 +226,25 @@ public class OverridesService {
 		overrideRepository.deleteById(normalizedIsin);
 	}
 
-	private void updateField(String oldValue, String newValue, String field,
-							 java.util.function.Consumer<String> updater,
-							 String isin, String editedBy, String source) {
+	private InstrumentOverride copyOf(String isin, InstrumentOverride source) {
+		InstrumentOverride copy = new InstrumentOverride();
+		copy.setIsin(isin);
+		if (source != null) {
+			copy.setName(source.getName());
+			copy.setInstrumentType(source.getInstrumentType());
+			copy.setAssetClass(source.getAssetClass());
+			copy.setSubClass(source.getSubClass());
+			copy.setLayer(source.getLayer());
+			copy.setLayerLastChanged(source.getLayerLastChanged());
+			copy.setLayerNotes(source.getLayerNotes());
+			copy.setUpdatedAt(source.getUpdatedAt());
+		}
+		return copy;
+	}
+
+	private void collectField(String oldValue, String newValue, String field,
+							  java.util.function.Consumer<String> updater,
+							  String isin, String editedBy, String source, List<InstrumentEdit> edits) {
 		if (oldValue == null && newValue == null) {
 			return;
 		}
@@ -226,7 +252,15 @@ public class OverridesService {
 			return;
 		}
 		updater.accept(newValue);
-		auditService.recordEdit(isin, field, oldValue, newValue, editedBy, source);
+		edits.add(AuditService.newEdit(isin, field, oldValue, newValue, editedBy, source));
+	}
+
+	private void updateField(String oldValue, String newValue, String field,
+							 java.util.function.Consumer<String> updater,
+							 String isin, String editedBy, String source) {
+		List<InstrumentEdit> edits = new ArrayList<>(1);
+		collectField(oldValue, newValue, field, updater, isin, editedBy, source, edits);
+		auditService.recordEdits(edits);
 	}
 
 	private String get(CSVRecord record, Map<String, String> headerMap, String key) {
@@ -1,103 +1,90 @@
 package my.portfoliomanager.app.service;
 
-import jakarta.annotation.PreDestroy;
 import my.portfoliomanager.app.dto.AdvisorRunDetailDto;
 import my.portfoliomanager.app.dto.AdvisorSummaryDto;
 import my.portfoliomanager.app.dto.RebalancerRunJobResponseDto;
 import my.portfoliomanager.app.dto.RebalancerRunJobStatus;
 import my.portfoliomanager.app.dto.RebalancerRunRequestDto;
 import my.portfoliomanager.app.dto.RebalancerRunResponseDto;
+import my.portfoliomanager.app.repository.projection.JobRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Duration;
-import java.time.Instant;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.Locale;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Semaphore;
 
 @Service
 public class RebalancerJobService {
 	private static final Logger logger = LoggerFactory.getLogger(RebalancerJobService.class);
+	static final String JOB_TYPE = "rebalancer-run";
 	private static final Duration JOB_TTL = Duration.ofMinutes(30);
 	private static final int MAX_CONCURRENT_JOBS = 2;
+	private static final int MAX_ATTEMPTS = 1;
+	private static final String CACHE_KIND = "rebalancer";
 
 	private final RebalancerService rebalancerService;
-	private final Map<String, JobState> jobs = new ConcurrentHashMap<>();
-	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
-	private final Semaphore concurrency = new Semaphore(MAX_CONCURRENT_JOBS);
-
-	public RebalancerJobService(RebalancerService rebalancerService) {
+	private final RunResultCacheService resultCache;
+	private final JobQueueService jobQueue;
+	private final JobEventStreamService jobEvents;
+
+	public RebalancerJobService(RebalancerService rebalancerService,
+								RunResultCacheService resultCache,
+								JobQueueService jobQueue,
+								JobEventStreamService jobEvents) {
 		this.rebalancerService = rebalancerService;
+		this.resultCache = resultCache;
+		this.jobQueue = jobQueue;
+		this.jobEvents = jobEvents;
+		jobQueue.register(new JobQueueService.JobDefinition(JOB_TYPE, MAX_CONCURRENT_JOBS, MAX_ATTEMPTS, JOB_TTL),
+				this::runJob);
 	}
 
 	public RebalancerRunJobResponseDto start(RebalancerRunRequestDto request) {
-		cleanupExpired();
-		String jobId = UUID.randomUUID().toString();
-		JobState job = new JobState(jobId, request, Instant.now());
-		jobs.put(jobId, job);
-		executor.submit(() -> runJob(jobId));
-		return toDto(job);
+		if (isCacheable(request)) {
+			RebalancerRunResponseDto cached = resultCache.get(CACHE_KIND, parseAsOf(request), resultCache.fingerprint());
+			if (cached != null) {
+				return toDto(jobQueue.record(JOB_TYPE, request, null, cached, null, null));
+			}
+		}
+		return toDto(jobQueue.enqueue(JOB_TYPE, request, null, null, null));
 	}
 
 	public RebalancerRunJobResponseDto get(String jobId) {
-		cleanupExpired();
-		JobState job = jobs.get(jobId);
-		if (job == null) {
-			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Rebalancer job not found");
-		}
+		JobRow job = jobQueue.find(JOB_TYPE, jobId)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Rebalancer job not found"));
 		return toDto(job);
 	}
 
-	@PreDestroy
-	public void shutdown() {
-		executor.shutdownNow();
+	public SseEmitter stream(String jobId, String lastEventId) {
+		return jobEvents.stream(JOB_TYPE, jobId, lastEventId, this::toDto)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Rebalancer job not found"));
 	}
 
-	private void runJob(String jobId) {
-		JobState job = jobs.get(jobId);
-		if (job == null) {
-			return;
-		}
+	private JobQueueService.JobOutcome runJob(JobQueueService.JobContext context) {
+		RebalancerRunRequestDto request = context.payload(RebalancerRunRequestDto.class);
 		try {
-			concurrency.acquire();
-		} catch (InterruptedException ex) {
-			Thread.currentThread().interrupt();
-			job.status = RebalancerRunJobStatus.FAILED;
-			job.error = failWithReference(job, ex);
-			job.finishedAt = Instant.now();
-			return;
-		}
-		try {
-			job.status = RebalancerRunJobStatus.RUNNING;
-			job.result = run(job.request);
-			job.status = RebalancerRunJobStatus.DONE;
+			// Taken before the run, so inputs changing while it computes make the cached result stale.
+			RunResultCacheService.Fingerprint fingerprint = isCacheable(request) ? resultCache.fingerprint() : null;
+			RebalancerRunResponseDto result = run(request);
+			if (fingerprint != null) {
+				resultCache.put(CACHE_KIND, parseAsOf(request), fingerprint, result);
+			}
+			return JobQueueService.JobOutcome.done(result, null);
 		} catch (Exception ex) {
-			job.status = RebalancerRunJobStatus.FAILED;
-			job.error = failWithReference(job, ex);
-		} finally {
-			job.finishedAt = Instant.now();
-			concurrency.release();
+			return JobQueueService.JobOutcome.failed(null, null, failWithReference(context.jobId(), request, ex));
 		}
 	}
 
 	private RebalancerRunResponseDto run(RebalancerRunRequestDto request) {
-		LocalDate asOf = null;
-		boolean saveRun = false;
-		if (request != null) {
-			saveRun = Boolean.TRUE.equals(request.saveRun());
-			if (request.asOf() != null && !request.asOf().isBlank()) {
-				asOf = LocalDate.parse(request.asOf());
-			}
-		}
+		LocalDate asOf = parseAsOf(request);
+		boolean saveRun = request != null && Boolean.TRUE.equals(request.saveRun());
 		if (saveRun) {
 			AdvisorRunDetailDto savedRun = rebalancerService.saveRun(asOf);
 			return new RebalancerRunResponseDto(savedRun == null ? null : savedRun.summary(), savedRun);
@@ -106,29 +93,49 @@ public class RebalancerJobService {
 		return new RebalancerRunResponseDto(summary, null);
 	}
 
-	private RebalancerRunJobResponseDto toDto(JobState job) {
+	private LocalDate parseAsOf(RebalancerRunRequestDto request) {
+		if (request == null || request.asOf() == null || request.asOf().isBlank()) {
+			return null;
+		}
+		return LocalDate.parse(request.asOf());
+	}
+
+	// Saved runs persist a row, and unparseable dates should fail inside the job as before.
+	private boolean isCacheable(RebalancerRunRequestDto request) {
+		if (request != null && Boolean.TRUE.equals(request.saveRun())) {
+			return false;
+		}
+		try {
+			parseAsOf(request);
+			return true;
+		} catch (DateTimeParseException ex) {
+			return false;
+		}
+	}
+
+	private RebalancerRunJobResponseDto toDto(JobRow job) {
 		return new RebalancerRunJobResponseDto(
-				job.jobId,
-				job.status,
-				job.result,
-				job.error
+				job.jobId(),
+				toStatus(job),
+				jobQueue.read(job.result(), RebalancerRunResponseDto.class),
+				job.error()
 		);
 	}
 
-	private void cleanupExpired() {
-		Instant now = Instant.now();
-		jobs.entrySet().removeIf(entry -> {
-			JobState job = entry.getValue();
-			Instant base = job.finishedAt == null ? job.createdAt : job.finishedAt;
-			return base.plus(JOB_TTL).isBefore(now);
-		});
+	private RebalancerRunJobStatus toStatus(JobRow job) {
+		return switch (job.status()) {
+			case QUEUED -> RebalancerRunJobStatus.PENDING;
+			case RUNNING -> RebalancerRunJobStatus.RUNNING;
+			case DONE -> RebalancerRunJobStatus.DONE;
+			case FAILED, CANCELED -> RebalancerRunJobStatus.FAILED;
+		};
 	}
 
-	private String failWithReference(JobState job, Exception ex) {
+	private String failWithReference(String jobId, RebalancerRunRequestDto request, Exception ex) {
 		String message = ex == null ? null : ex.getMessage();
 		String reference = "RB-" + UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase(Locale.ROOT);
 		logger.error("Rebalancer job failed (ref={}, jobId={}, request={}, error={})",
-				reference, job.jobId, formatRequest(job.request), message, ex);
+				reference, jobId, formatRequest(request), message, ex);
 		return "Error ref " + reference;
 	}
 
@@ -138,22 +145,4 @@ public class RebalancerJobService {
 		}
 		return "{asOf=" + request.asOf() + ", saveRun=" + request.saveRun() + "}";
 	}
-
-	private static final class JobState {
-		private final String jobId;
-		private final RebalancerRunRequestDto request;
-		private final Instant createdAt;
-
-		private volatile Instant finishedAt;
-		private volatile RebalancerRunJobStatus status;
-		private volatile RebalancerRunResponseDto result;
-		private volatile String error;
-
-		private JobState(String jobId, RebalancerRunRequestDto request, Instant createdAt) {
-			this.jobId = jobId;
-			this.request = request;
-			this.createdAt = createdAt;
-			this.status = RebalancerRunJobStatus.PENDING;
-		}
-	}
 }
@@ -18,6 +18,7 @@ import my.portfoliomanager.app.dto.SavingPlanProposalLayerDto;
 import my.portfoliomanager.app.dto.SavingPlanSummaryDto;
 import my.portfoliomanager.app.model.LayerTargetEffectiveConfig;
 import my.portfoliomanager.app.model.LayerTargetRiskThresholds;
+import my.portfoliomanager.app.repository.DataVersionRepository;
 import my.portfoliomanager.app.service.util.RiskThresholdsUtil;
 import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
@@ -36,6 +37,7 @@ import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -44,6 +46,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class RebalancerService {
@@ -69,6 +72,7 @@ public class RebalancerService {
 	private static final String CONSTRAINT_CORE_MIN = "core_min";
 	private static final String CONSTRAINT_LAYER4_MAX = "layer4_max";
 	private static final String CONSTRAINT_LAYER5_MAX = "layer5_max";
+	private static final int AGGREGATE_MEMO_LIMIT = 32;
 
 	private final JdbcTemplate jdbcTemplate;
 	private final ObjectMapper summaryMapper;
@@ -80,7 +84,9 @@ public class RebalancerService {
 	private final LayerTargetConfigService layerTargetConfigService;
 	private final InstrumentBlacklistService blacklistService;
 	private final LlmPromptPolicy llmPromptPolicy;
+	private final DataVersionRepository dataVersionRepository;
 	private volatile Boolean isPostgres;
+	private final Map<AggregateKey, PortfolioAggregate> aggregateMemo = new ConcurrentHashMap<>();
 	private static final String ADVISOR_RUN_INSERT_SQL = """
 			insert into advisor_runs (as_of_date, depot_scope, summary_json, narrative_md, warnings)
 			values (?, ?, ?, ?, ?)
@@ -142,7 +148,8 @@ public class RebalancerService {
 					  AssessorInstrumentAssessmentService instrumentAssessmentService,
 					  LayerTargetConfigService layerTargetConfigService,
 					  LlmPromptPolicy llmPromptPolicy,
-					  InstrumentBlacklistService blacklistService) {
+					  InstrumentBlacklistService blacklistService,
+					  DataVersionRepository dataVersionRepository) {
 		this.jdbcTemplate = jdbcTemplate;
 		this.summaryMapper = new ObjectMapper();
 		this.llmNarrativeService = llmNarrativeService;
@@ -153,20 +160,19 @@ public class RebalancerService {
 		this.layerTargetConfigService = layerTargetConfigService;
 		this.llmPromptPolicy = llmPromptPolicy;
 		this.blacklistService = blacklistService;
+		this.dataVersionRepository = dataVersionRepository;
 	}
 
 	public AdvisorSummaryDto summary(LocalDate asOf) {
-		double total = sumTotal(asOf);
-		List<AllocationDto> layers = loadAllocations(asOf, COLUMN_LAYER, total);
-		List<AllocationDto> assetClasses = loadAllocations(asOf, "asset_class", total);
-		List<PositionDto> topPositions = loadTopPositions(asOf, total);
+		PortfolioAggregate aggregate = loadPortfolioAggregate(asOf);
 		SavingPlanMetrics savingPlanMetrics = loadSavingPlanMetrics();
 		SavingPlanSummaryDto savingPlanSummary = toSavingPlanSummary(savingPlanMetrics);
 		LayerTargetEffectiveConfig targetConfig = layerTargetConfigService.loadEffectiveConfig();
 		List<LayerTargetDto> targets = toTargetDtos(targetConfig == null ? null : targetConfig.effectiveLayerTargets());
-		Map<Integer, BigDecimal> holdingsByLayer = loadHoldingsByLayer(asOf);
+		Map<Integer, BigDecimal> holdingsByLayer = new HashMap<>(aggregate.holdingsByLayer());
 		SavingPlanProposalDto proposal = buildSavingPlanProposal(savingPlanMetrics, targetConfig, holdingsByLayer);
-		return new AdvisorSummaryDto(layers, assetClasses, topPositions, savingPlanSummary, targets, proposal);
+		return new AdvisorSummaryDto(aggregate.layerAllocations(), aggregate.assetClassAllocations(), aggregate.topPositions(),
+				savingPlanSummary, targets, proposal);
 	}
 
 	public AdvisorRunDetailDto saveRun(LocalDate asOf) {
@@ -231,55 +237,55 @@ public class RebalancerService {
 		), runId);
 	}
 
-	private double sumTotal(LocalDate asOf) {
-		String sql = "select sum(sp.value_eur) from snapshot_positions sp "
-				+ joinSnapshots(asOf);
-		Double total = asOf == null
-				? jdbcTemplate.queryForObject(sql, Double.class)
-				: jdbcTemplate.queryForObject(sql, Double.class, Date.valueOf(asOf));
-		return total == null ? 0.0d : total;
+	private PortfolioAggregate loadPortfolioAggregate(LocalDate asOf) {
+		// Read the version before the positions so a concurrent commit can only make the memoized data newer.
+		AggregateKey key = resolveAggregateKey(asOf);
+		if (key != null) {
+			PortfolioAggregate cached = aggregateMemo.get(key);
+			if (cached != null) {
+				return cached;
+			}
+		}
+		PortfolioAggregate aggregate = computePortfolioAggregate(asOf);
+		if (key != null) {
+			if (aggregateMemo.size() >= AGGREGATE_MEMO_LIMIT) {
+				aggregateMemo.clear();
+			}
+			aggregateMemo.put(key, aggregate);
+		}
+		return aggregate;
 	}
 
-	private List<AllocationDto> loadAllocations(LocalDate asOf, String field, double total) {
-		String column = "ie." + field;
-		String sql = "select " + column + " as label, sum(sp.value_eur) as value_eur "
-				+ "from snapshot_positions sp "
-				+ "join instruments_effective ie on ie.isin = sp.isin "
-				+ joinSnapshots(asOf)
-				+ "group by " + column + " order by value_eur desc";
-		return asOf == null
-				? jdbcTemplate.query(sql, (rs, rowNum) -> new AllocationDto(
-							rs.getString("label"),
-							rs.getDouble(COLUMN_VALUE_EUR),
-							percentage(rs.getDouble(COLUMN_VALUE_EUR), total)
-					))
-				: jdbcTemplate.query(sql, (rs, rowNum) -> new AllocationDto(
-							rs.getString("label"),
-							rs.getDouble(COLUMN_VALUE_EUR),
-							percentage(rs.getDouble(COLUMN_VALUE_EUR), total)
-					), Date.valueOf(asOf));
-	}
-
-	private List<PositionDto> loadTopPositions(LocalDate asOf, double total) {
-		String sql = "select sp.isin, coalesce(sp.name, ie.name) as name, sum(sp.value_eur) as value_eur "
+	private AggregateKey resolveAggregateKey(LocalDate asOf) {
+		if (!isPostgres()) {
+			return null;
+		}
+		List<Long> versions = dataVersionRepository.read(DataVersionRepository.PORTFOLIO_TABLES);
+		return versions == null ? null : new AggregateKey(asOf, versions);
+	}
+
+	private PortfolioAggregate computePortfolioAggregate(LocalDate asOf) {
+		String sql = "select sp.isin, coalesce(sp.name, ie.name) as name, ie.isin is not null as effective, "
+				+ "ie.layer as layer, ie.asset_class as asset_class, sum(sp.value_eur) as value_eur "
 				+ "from snapshot_positions sp "
-				+ "join instruments_effective ie on ie.isin = sp.isin "
+				+ "left join instruments_effective ie on ie.isin = sp.isin "
 				+ joinSnapshots(asOf)
-				+ "group by sp.isin, coalesce(sp.name, ie.name) "
-				+ "order by value_eur desc limit 10";
-		return asOf == null
-				? jdbcTemplate.query(sql, (rs, rowNum) -> new PositionDto(
-							rs.getString("isin"),
-							rs.getString("name"),
-							rs.getDouble(COLUMN_VALUE_EUR),
-							percentage(rs.getDouble(COLUMN_VALUE_EUR), total)
-					))
-				: jdbcTemplate.query(sql, (rs, rowNum) -> new PositionDto(
-							rs.getString("isin"),
-							rs.getString("name"),
-							rs.getDouble(COLUMN_VALUE_EUR),
-							percentage(rs.getDouble(COLUMN_VALUE_EUR), total)
-					), Date.valueOf(asOf));
+				+ "group by sp.isin, coalesce(sp.name, ie.name), ie.isin, ie.layer, ie.asset_class";
+		PortfolioAggregator aggregator = new PortfolioAggregator();
+		RowCallbackHandler handler = rs -> aggregator.add(
+				rs.getString("isin"),
+				rs.getString("name"),
+				rs.getBoolean("effective"),
+				rs.getObject(COLUMN_LAYER, Integer.class),
+				rs.getString("asset_class"),
+				toBigDecimal(rs.getObject(COLUMN_VALUE_EUR))
+		);
+		if (asOf == null) {
+			jdbcTemplate.query(sql, handler);
+		} else {
+			jdbcTemplate.query(sql, handler, Date.valueOf(asOf));
+		}
+		return aggregator.build();
 	}
 
 	private String joinSnapshots(LocalDate asOf) {
@@ -486,36 +492,6 @@ public class RebalancerService {
 		));
 	}
 
-	private Map<Integer, BigDecimal> loadHoldingsByLayer(LocalDate asOf) {
-		Map<Integer, BigDecimal> holdings = initLayerAmounts();
-		String sql = "select ie.layer as layer, sum(sp.value_eur) as value_eur "
-				+ "from snapshot_positions sp "
-				+ "join instruments_effective ie on ie.isin = sp.isin "
-				+ joinSnapshots(asOf)
-				+ "group by ie.layer";
-		if (asOf == null) {
-			jdbcTemplate.query(sql, (RowCallbackHandler) rs ->
-					addHoldingRow(holdings, rs.getObject(COLUMN_LAYER), rs.getObject(COLUMN_VALUE_EUR)));
-			return holdings;
-		}
-		jdbcTemplate.query(sql,
-				(RowCallbackHandler) rs -> addHoldingRow(holdings, rs.getObject(COLUMN_LAYER), rs.getObject(COLUMN_VALUE_EUR)),
-				Date.valueOf(asOf));
-		return holdings;
-	}
-
-	private void addHoldingRow(Map<Integer, BigDecimal> holdings, Object layerRaw, Object valueRaw) {
-		if (layerRaw == null) {
-			return;
-		}
-		int normalized = normalizeLayer(((Number) layerRaw).intValue());
-		BigDecimal value = toBigDecimal(valueRaw);
-		if (value == null) {
-			value = BigDecimal.ZERO;
-		}
-		holdings.put(normalized, holdings.getOrDefault(normalized, BigDecimal.ZERO).add(value));
-	}
-
 	private SavingPlanSummaryDto toSavingPlanSummary(SavingPlanMetrics metrics) {
 		if (metrics == null) {
 			return new SavingPlanSummaryDto(0.0d, 0.0d, 0, 0, Collections.emptyList());
@@ -2521,6 +2497,61 @@ public class RebalancerService {
 								   Map<Integer, Integer> monthlyCounts) {
 	}
 
+	private record AggregateKey(LocalDate asOf, List<Long> versions) {
+	}
+
+	private record PortfolioAggregate(List<AllocationDto> layerAllocations,
+									  List<AllocationDto> assetClassAllocations,
+									  List<PositionDto> topPositions,
+									  Map<Integer, BigDecimal> holdingsByLayer) {
+	}
+
+	private final class PortfolioAggregator {
+		private BigDecimal total = BigDecimal.ZERO;
+		private final Map<String, BigDecimal> byLayer = new LinkedHashMap<>();
+		private final Map<String, BigDecimal> byAssetClass = new LinkedHashMap<>();
+		private final Map<Integer, BigDecimal> holdings = initLayerAmounts();
+		private final List<PositionDto> positions = new ArrayList<>();
+
+		private void add(String isin, String name, boolean effective, Integer layer, String assetClass, BigDecimal value) {
+			BigDecimal amount = value == null ? BigDecimal.ZERO : value;
+			total = total.add(amount);
+			if (!effective) {
+				return;
+			}
+			byLayer.merge(layer == null ? null : layer.toString(), amount, BigDecimal::add);
+			byAssetClass.merge(assetClass, amount, BigDecimal::add);
+			if (layer != null) {
+				holdings.merge(normalizeLayer(layer), amount, BigDecimal::add);
+			}
+			positions.add(new PositionDto(isin, name, amount.doubleValue(), null));
+		}
+
+		private PortfolioAggregate build() {
+			double totalValue = total.doubleValue();
+			List<PositionDto> topPositions = positions.stream()
+					.sorted(Comparator.comparingDouble(PositionDto::valueEur).reversed())
+					.limit(10)
+					.map(position -> new PositionDto(position.isin(), position.name(), position.valueEur(),
+							percentage(position.valueEur(), totalValue)))
+					.toList();
+			return new PortfolioAggregate(
+					toAllocations(byLayer, totalValue),
+					toAllocations(byAssetClass, totalValue),
+					topPositions,
+					Map.copyOf(holdings)
+			);
+		}
+
+		private List<AllocationDto> toAllocations(Map<String, BigDecimal> values, double totalValue) {
+			return values.entrySet().stream()
+					.sorted(Map.Entry.<String, BigDecimal>comparingByValue().reversed())
+					.map(entry -> new AllocationDto(entry.getKey(), entry.getValue().doubleValue(),
+							percentage(entry.getValue().doubleValue(), totalValue)))
+					.toList();
+		}
+	}
+
 	private record SnapshotScope(long snapshotId, LocalDate asOfDate, String depotCode) {
 	}
 
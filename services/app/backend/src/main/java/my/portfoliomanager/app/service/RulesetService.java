@@ -5,6 +5,7 @@ import my.portfoliomanager.app.dto.RulesetDetailDto;
 import my.portfoliomanager.app.dto.RulesetSummaryDto;
 import my.portfoliomanager.app.dto.RulesetValidateResponse;
 import my.portfoliomanager.app.repository.RulesetRepository;
+import my.portfoliomanager.app.rules.CompiledRuleset;
 import my.portfoliomanager.app.rules.RulesetDefinition;
 import my.portfoliomanager.app.rules.RulesetParser;
 import my.portfoliomanager.app.rules.RulesetValidator;
@@ -13,13 +14,18 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class RulesetService {
+	private static final int MAX_COMPILED_RULESETS = 32;
+
 	private final RulesetRepository rulesetRepository;
 	private final RulesetParser parser;
 	private final RulesetValidator validator;
+	private final Map<CompiledKey, CompiledRuleset> compiledRulesets = new ConcurrentHashMap<>();
 
 	public RulesetService(RulesetRepository rulesetRepository) {
 		this.rulesetRepository = rulesetRepository;
@@ -96,7 +102,33 @@ public class RulesetService {
 		return validator.validate(definition);
 	}
 
+	public CompiledRuleset compileValidated(String contentJson, String errorPrefix) {
+		RulesetDefinition definition = parseRuleset(contentJson);
+		List<String> errors = validateDefinition(definition);
+		if (!errors.isEmpty()) {
+			throw new IllegalArgumentException(errorPrefix + ": " + String.join("; ", errors));
+		}
+		return CompiledRuleset.compile(definition);
+	}
+
+	public CompiledRuleset compileStored(Ruleset ruleset) {
+		CompiledKey key = new CompiledKey(ruleset.getId(), ruleset.getVersion(), ruleset.getContentYaml());
+		CompiledRuleset compiled = compiledRulesets.get(key);
+		if (compiled != null) {
+			return compiled;
+		}
+		compiled = compileValidated(ruleset.getContentYaml(), "Active ruleset invalid");
+		if (compiledRulesets.size() >= MAX_COMPILED_RULESETS) {
+			compiledRulesets.clear();
+		}
+		compiledRulesets.put(key, compiled);
+		return compiled;
+	}
+
 	private RulesetDetailDto toDetailDto(Ruleset ruleset) {
 		return new RulesetDetailDto(ruleset.getName(), ruleset.getVersion(), ruleset.isActive(), ruleset.getContentYaml());
 	}
+
+	private record CompiledKey(Long id, Integer version, String content) {
+	}
 }
@@ -0,0 +1,65 @@
+package my.portfoliomanager.app.service;
+
+import my.portfoliomanager.app.repository.DataVersionRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+@Service
+public class RunResultCacheService {
+	static final int MAX_ENTRIES = 64;
+	private static final List<String> TABLES = Stream.concat(DataVersionRepository.PORTFOLIO_TABLES.stream(),
+			DataVersionRepository.RUN_INPUT_TABLES.stream()).toList();
+
+	private final DataVersionRepository dataVersionRepository;
+	private final Clock clock;
+	private final Map<CacheKey, Object> entries = new ConcurrentHashMap<>();
+
+	public RunResultCacheService(DataVersionRepository dataVersionRepository, Clock clock) {
+		this.dataVersionRepository = dataVersionRepository;
+		this.clock = clock == null ? Clock.systemDefaultZone() : clock;
+	}
+
+	// Take the fingerprint before computing a result, so a concurrent write can only leave an entry behind
+	// under a fingerprint that is already outdated.
+	public Fingerprint fingerprint() {
+		List<Long> versions = dataVersionRepository.read(TABLES);
+		if (versions == null) {
+			return null;
+		}
+		int split = DataVersionRepository.PORTFOLIO_TABLES.size();
+		return new Fingerprint(versions.subList(0, split), versions.subList(split, versions.size()), LocalDate.now(clock));
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> T get(String kind, Object request, Fingerprint fingerprint) {
+		if (fingerprint == null) {
+			return null;
+		}
+		return (T) entries.get(new CacheKey(kind, request, fingerprint));
+	}
+
+	public void put(String kind, Object request, Fingerprint fingerprint, Object result) {
+		if (fingerprint == null || result == null) {
+			return;
+		}
+		if (entries.size() >= MAX_ENTRIES) {
+			entries.keySet().removeIf(key -> !key.fingerprint().equals(fingerprint));
+			if (entries.size() >= MAX_ENTRIES) {
+				entries.clear();
+			}
+		}
+		entries.put(new CacheKey(kind, request, fingerprint), result);
+	}
+
+	public record Fingerprint(List<Long> portfolioVersions, List<Long> inputVersions, LocalDate day) {
+	}
+
+	private record CacheKey(String kind, Object request, Fingerprint fingerprint) {
+	}
+}
@@ -10,6 +10,7 @@ import my.portfoliomanager.app.dto.SavingPlanApprovalApplyResponseDto;
 import my.portfoliomanager.app.dto.SavingPlanDto;
 import my.portfoliomanager.app.dto.SavingPlanImportResultDto;
 import my.portfoliomanager.app.dto.SavingPlanUpsertRequest;
+import my.portfoliomanager.app.repository.BulkUpsertRepository;
 import my.portfoliomanager.app.repository.DepotRepository;
 import my.portfoliomanager.app.repository.InstrumentRepository;
 import my.portfoliomanager.app.repository.SavingPlanRepository;
@@ -33,6 +34,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -48,17 +50,20 @@ public class SavingPlanService {
 	private final InstrumentRepository instrumentRepository;
 	private final InstrumentMaterializationService instrumentMaterializationService;
 	private final InstrumentBlacklistService instrumentBlacklistService;
+	private final BulkUpsertRepository bulkUpsertRepository;
 
 	public SavingPlanService(SavingPlanRepository savingPlanRepository,
 					   DepotRepository depotRepository,
 					   InstrumentRepository instrumentRepository,
 					   InstrumentMaterializationService instrumentMaterializationService,
-					   InstrumentBlacklistService instrumentBlacklistService) {
+					   InstrumentBlacklistService instrumentBlacklistService,
+					   BulkUpsertRepository bulkUpsertRepository) {
 		this.savingPlanRepository = savingPlanRepository;
 		this.depotRepository = depotRepository;
 		this.instrumentRepository = instrumentRepository;
 		this.instrumentMaterializationService = instrumentMaterializationService;
 		this.instrumentBlacklistService = instrumentBlacklistService;
+		this.bulkUpsertRepository = bulkUpsertRepository;
 	}
 
 	public List<SavingPlanDto> list() {
@@ -252,9 +257,17 @@ public class SavingPlanService {
 		}
 
 		List<String> isins = parsed.values().stream().map(row -> row.isin).distinct().toList();
-		Set<String> existingIsins = instrumentRepository.findByIsinIn(isins).stream()
-				.map(Instrument::getIsin)
-				.collect(java.util.stream.Collectors.toSet());
+		Set<String> existingIsins = new HashSet<>(instrumentRepository.findExistingIsins(isins));
+
+		List<Long> depotIds = depotMap.values().stream().map(Depot::getDepotId).toList();
+		Map<Long, String> depotCodesById = new HashMap<>();
+		for (Depot depot : depotMap.values()) {
+			depotCodesById.put(depot.getDepotId(), depot.getDepotCode());
+		}
+		Map<RowKey, SavingPlan> existingPlans = new HashMap<>();
+		for (SavingPlan savingPlan : savingPlanRepository.findByDepotIdInAndIsinIn(depotIds, isins)) {
+			existingPlans.put(new RowKey(depotCodesById.get(savingPlan.getDepotId()), savingPlan.getIsin()), savingPlan);
+		}
 
 		int created = 0;
 		int updated = 0;
@@ -265,13 +278,15 @@ public class SavingPlanService {
 				.sorted(Comparator.comparing((SavingPlanCsvRow row) -> row.depotCode).thenComparing(row -> row.isin))
 				.toList();
 
+		// The loaded plans stay untouched; changes go to detached copies that are upserted in one JDBC batch.
+		List<SavingPlan> toUpsert = new ArrayList<>();
 		for (SavingPlanCsvRow row : rows) {
 			if (!existingIsins.contains(row.isin)) {
 				skippedMissing += 1;
 				continue;
 			}
 			Depot depot = depotMap.get(row.depotCode);
-			SavingPlan savingPlan = savingPlanRepository.findByDepotIdAndIsin(depot.getDepotId(), row.isin).orElse(null);
+			SavingPlan savingPlan = existingPlans.get(new RowKey(row.depotCode, row.isin));
 			if (savingPlan == null) {
 				SavingPlan createdEntity = new SavingPlan();
 				createdEntity.setDepotId(depot.getDepotId());
@@ -282,7 +297,7 @@ public class SavingPlanService {
 				createdEntity.setDayOfMonth(row.dayOfMonth);
 				createdEntity.setActive(row.active);
 				createdEntity.setLastChanged(row.lastChanged == null ? LocalDate.now() : row.lastChanged);
-				savingPlanRepository.save(createdEntity);
+				toUpsert.add(createdEntity);
 				created += 1;
 				continue;
 			}
@@ -303,18 +318,23 @@ public class SavingPlanService {
 			}
 
 			if (changed || !equalsNullable(savingPlan.getLastChanged(), lastChanged)) {
-				savingPlan.setName(name);
-				savingPlan.setAmountEur(row.amountEur);
-				savingPlan.setFrequency(frequency);
-				savingPlan.setDayOfMonth(day);
-				savingPlan.setActive(active);
-				savingPlan.setLastChanged(lastChanged);
-				savingPlanRepository.save(savingPlan);
+				SavingPlan updatedEntity = new SavingPlan();
+				updatedEntity.setSavingPlanId(savingPlan.getSavingPlanId());
+				updatedEntity.setDepotId(savingPlan.getDepotId());
+				updatedEntity.setIsin(savingPlan.getIsin());
+				updatedEntity.setName(name);
+				updatedEntity.setAmountEur(row.amountEur);
+				updatedEntity.setFrequency(frequency);
+				updatedEntity.setDayOfMonth(day);
+				updatedEntity.setActive(active);
+				updatedEntity.setLastChanged(lastChanged);
+				toUpsert.add(updatedEntity);
 				updated += 1;
 			} else {
 				skippedUnchanged += 1;
 			}
 		}
+		bulkUpsertRepository.upsertSavingPlans(toUpsert);
 
 		return new SavingPlanImportResultDto(created, updated, skippedMissing, skippedUnchanged, skippedEmpty);
 	}
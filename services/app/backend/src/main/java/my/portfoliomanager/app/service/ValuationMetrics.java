@@ -0,0 +1,325 @@
+package my.portfoliomanager.app.service;
+
+import my.portfoliomanager.app.dto.InstrumentDossierExtractionPayload;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+public record ValuationMetrics(
+		Double earningsYieldLongterm,
+		Double earningsYieldHoldings,
+		Double earningsYieldCurrent,
+		Double dividendYield,
+		Double priceToBook,
+		Double evToEbitda,
+		Double ebitdaEur,
+		Double netIncomeEur,
+		Double revenueEur
+) {
+	private static final BigDecimal DEFAULT_EPS_FLOOR = new BigDecimal("0.10");
+	public static final ValuationMetrics EMPTY = new ValuationMetrics(null, null, null, null, null, null, null, null, null);
+
+	// The derivations keep BigDecimal arithmetic so the stored doubles match what the scorers computed before.
+	public static ValuationMetrics from(InstrumentDossierExtractionPayload payload) {
+		if (payload == null) {
+			return EMPTY;
+		}
+		InstrumentDossierExtractionPayload.ValuationPayload valuation = payload.valuation();
+		return new ValuationMetrics(
+				toDouble(extractLongtermEarningsYield(valuation)),
+				toDouble(extractHoldingsEarningsYield(valuation)),
+				toDouble(extractCurrentEarningsYield(valuation)),
+				toDouble(extractDividendYield(payload)),
+				toDouble(extractPriceToBook(valuation)),
+				toDouble(extractEvToEbitda(valuation)),
+				toDouble(extractEbitdaEur(valuation)),
+				toDouble(extractNetIncomeEur(payload)),
+				toDouble(extractRevenueEur(payload))
+		);
+	}
+
+	private static Double toDouble(BigDecimal value) {
+		return value == null ? null : value.doubleValue();
+	}
+
+	private static BigDecimal extractLongtermEarningsYield(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
+		if (valuation == null) {
+			return null;
+		}
+		BigDecimal yield = valuation.earningsYieldLongterm();
+		if (yield != null) {
+			return yield;
+		}
+		BigDecimal pe = valuation.peLongterm();
+		if (pe != null && pe.compareTo(BigDecimal.ZERO) > 0) {
+			return BigDecimal.ONE.divide(pe, 8, RoundingMode.HALF_UP);
+		}
+		BigDecimal computedYield = computeLongtermEarningsYield(valuation);
+		if (computedYield != null) {
+			return computedYield;
+		}
+		return null;
+	}
+
+	private static BigDecimal extractHoldingsEarningsYield(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
+		if (valuation == null) {
+			return null;
+		}
+		BigDecimal yield = valuation.earningsYieldTtmHoldings();
+		if (yield != null) {
+			return yield;
+		}
+		BigDecimal peHoldings = valuation.peTtmHoldings();
+		if (peHoldings != null && peHoldings.compareTo(BigDecimal.ZERO) > 0) {
+			return BigDecimal.ONE.divide(peHoldings, 8, RoundingMode.HALF_UP);
+		}
+		return null;
+	}
+
+	private static BigDecimal extractCurrentEarningsYield(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
+		if (valuation == null) {
+			return null;
+		}
+		BigDecimal peCurrent = valuation.peCurrent();
+		if (peCurrent != null && peCurrent.compareTo(BigDecimal.ZERO) > 0) {
+			return BigDecimal.ONE.divide(peCurrent, 8, RoundingMode.HALF_UP);
+		}
+		return null;
+	}
+
+	private static BigDecimal extractPriceToBook(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
+		if (valuation == null) {
+			return null;
+		}
+		return valuation.pbCurrent();
+	}
+
+	private static BigDecimal computeLongtermEarningsYield(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
+		BigDecimal epsNorm = computeEpsNormFromHistory(valuation);
+		BigDecimal price = extractPrice(valuation);
+		if (epsNorm == null || price == null) {
+			return null;
+		}
+		if (epsNorm.compareTo(BigDecimal.ZERO) <= 0 || price.compareTo(BigDecimal.ZERO) <= 0) {
+			return null;
+		}
+		return epsNorm.divide(price, 8, RoundingMode.HALF_UP);
+	}
+
+	private static BigDecimal computeEpsNormFromHistory(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
+		List<InstrumentDossierExtractionPayload.EpsHistoryPayload> history = valuation == null ? null : valuation.epsHistory();
+		if (history == null || history.isEmpty()) {
+			return null;
+		}
+		List<InstrumentDossierExtractionPayload.EpsHistoryPayload> selected = selectPreferredEpsHistory(history);
+		List<BigDecimal> values = new ArrayList<>();
+		selected.stream()
+				.filter(entry -> entry != null && entry.year() != null && entry.eps() != null)
+				.sorted(Comparator.comparing(InstrumentDossierExtractionPayload.EpsHistoryPayload::year).reversed())
+				.limit(7)
+				.forEach(entry -> values.add(applyEpsFloor(entry.eps(), valuation)));
+		if (values.size() < 3) {
+			return null;
+		}
+		values.sort(Comparator.naturalOrder());
+		int mid = values.size() / 2;
+		if (values.size() % 2 == 1) {
+			return values.get(mid);
+		}
+		return values.get(mid - 1).add(values.get(mid)).divide(BigDecimal.valueOf(2), 8, RoundingMode.HALF_UP);
+	}
+
+	private static List<InstrumentDossierExtractionPayload.EpsHistoryPayload> selectPreferredEpsHistory(
+			List<InstrumentDossierExtractionPayload.EpsHistoryPayload> history) {
+		boolean hasAdjusted = history.stream().anyMatch(entry -> isAdjustedEpsType(entry == null ? null : entry.epsType()));
+		if (!hasAdjusted) {
+			return history;
+		}
+		return history.stream()
+				.filter(entry -> isAdjustedEpsType(entry == null ? null : entry.epsType()))
+				.toList();
+	}
+
+	private static boolean isAdjustedEpsType(String epsType) {
+		if (epsType == null || epsType.isBlank()) {
+			return false;
+		}
+		String normalized = epsType.trim().toLowerCase(Locale.ROOT);
+		return normalized.contains("adjusted")
+				|| normalized.contains("normalized")
+				|| normalized.contains("non-gaap")
+				|| normalized.contains("non gaap");
+	}
+
+	private static BigDecimal applyEpsFloor(BigDecimal value, InstrumentDossierExtractionPayload.ValuationPayload valuation) {
+		if (value == null) {
+			return null;
+		}
+		if (value.compareTo(BigDecimal.ZERO) <= 0) {
+			return value;
+		}
+		if (!shouldApplyEpsFloor(valuation == null ? null : valuation.epsFloorPolicy())) {
+			return value;
+		}
+		BigDecimal floor = valuation == null || valuation.epsFloorValue() == null
+				? DEFAULT_EPS_FLOOR
+				: valuation.epsFloorValue();
+		if (floor == null || floor.compareTo(BigDecimal.ZERO) <= 0) {
+			return value;
+		}
+		return value.compareTo(floor) < 0 ? floor : value;
+	}
+
+	private static boolean shouldApplyEpsFloor(String policy) {
+		if (policy == null || policy.isBlank()) {
+			return true;
+		}
+		String normalized = policy.trim().toLowerCase(Locale.ROOT);
+		return !(normalized.equals("none") || normalized.equals("off") || normalized.equals("no_floor"));
+	}
+
+	private static BigDecimal extractPrice(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
+		if (valuation == null) {
+			return null;
+		}
+		BigDecimal price = valuation.price();
+		if (price != null) {
+			return price;
+		}
+		BigDecimal marketCap = valuation.marketCap();
+		BigDecimal shares = valuation.sharesOutstanding();
+		if (marketCap != null && shares != null && shares.compareTo(BigDecimal.ZERO) > 0) {
+			return marketCap.divide(shares, 8, RoundingMode.HALF_UP);
+		}
+		return null;
+	}
+
+	private static BigDecimal extractEvToEbitda(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
+		if (valuation == null) {
+			return null;
+		}
+		BigDecimal evToEbitda = valuation.evToEbitda();
+		if (evToEbitda != null) {
+			return evToEbitda;
+		}
+		BigDecimal enterpriseValue = valuation.enterpriseValue();
+		BigDecimal ebitda = valuation.ebitda();
+		if (enterpriseValue != null && ebitda != null && ebitda.compareTo(BigDecimal.ZERO) > 0) {
+			return enterpriseValue.divide(ebitda, 8, RoundingMode.HALF_UP);
+		}
+		return null;
+	}
+
+	private static BigDecimal extractEbitdaEur(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
+		if (valuation == null) {
+			return null;
+		}
+		return extractProfitabilityEur(valuation);
+	}
+
+	private static BigDecimal extractProfitabilityEur(InstrumentDossierExtractionPayload.ValuationPayload valuation) {
+		if (valuation == null) {
+			return null;
+		}
+		BigDecimal ebitdaEur = valuation.ebitdaEur();
+		if (ebitdaEur != null) {
+			return ebitdaEur;
+		}
+		BigDecimal ebitda = convertMetricToEur(valuation.ebitda(), valuation.ebitdaCurrency(), valuation.fxRateToEur());
+		if (ebitda != null) {
+			return ebitda;
+		}
+		BigDecimal affo = convertMetricToEur(valuation.affo(), valuation.affoCurrency(), valuation.fxRateToEur());
+		if (affo != null) {
+			return affo;
+		}
+		BigDecimal ffo = convertMetricToEur(valuation.ffo(), valuation.ffoCurrency(), valuation.fxRateToEur());
+		if (ffo != null) {
+			return ffo;
+		}
+		BigDecimal noi = convertMetricToEur(valuation.noi(), valuation.noiCurrency(), valuation.fxRateToEur());
+		if (noi != null) {
+			return noi;
+		}
+		return convertMetricToEur(valuation.netRent(), valuation.netRentCurrency(), valuation.fxRateToEur());
+	}
+
+	private static BigDecimal extractNetIncomeEur(InstrumentDossierExtractionPayload payload) {
+		if (payload == null || payload.financials() == null) {
+			return null;
+		}
+		InstrumentDossierExtractionPayload.FinancialsPayload financials = payload.financials();
+		if (financials.netIncomeEur() != null) {
+			return financials.netIncomeEur();
+		}
+		BigDecimal fxRate = resolveFinancialsFxRate(financials, payload);
+		return convertMetricToEur(financials.netIncome(), financials.netIncomeCurrency(), fxRate);
+	}
+
+	private static BigDecimal extractRevenueEur(InstrumentDossierExtractionPayload payload) {
+		if (payload == null || payload.financials() == null) {
+			return null;
+		}
+		InstrumentDossierExtractionPayload.FinancialsPayload financials = payload.financials();
+		if (financials.revenueEur() != null) {
+			return financials.revenueEur();
+		}
+		BigDecimal fxRate = resolveFinancialsFxRate(financials, payload);
+		return convertMetricToEur(financials.revenue(), financials.revenueCurrency(), fxRate);
+	}
+
+	private static BigDecimal extractDividendYield(InstrumentDossierExtractionPayload payload) {
+		if (payload == null || payload.financials() == null || payload.valuation() == null) {
+			return null;
+		}
+		InstrumentDossierExtractionPayload.FinancialsPayload financials = payload.financials();
+		BigDecimal dividend = financials.dividendPerShare();
+		if (dividend == null || dividend.compareTo(BigDecimal.ZERO) <= 0) {
+			return null;
+		}
+		BigDecimal price = extractPrice(payload.valuation());
+		if (price == null || price.compareTo(BigDecimal.ZERO) <= 0) {
+			return null;
+		}
+		String dividendCcy = financials.dividendCurrency();
+		String priceCcy = payload.valuation().priceCurrency();
+		if (dividendCcy != null && priceCcy != null && !dividendCcy.equalsIgnoreCase(priceCcy)) {
+			BigDecimal fxDividend = resolveFinancialsFxRate(financials, payload);
+			BigDecimal dividendEur = convertMetricToEur(dividend, dividendCcy, fxDividend);
+			BigDecimal priceEur = convertMetricToEur(price, priceCcy, payload.valuation().fxRateToEur());
+			if (dividendEur == null || priceEur == null || priceEur.compareTo(BigDecimal.ZERO) <= 0) {
+				return null;
+			}
+			return dividendEur.divide(priceEur, 8, RoundingMode.HALF_UP);
+		}
+		return dividend.divide(price, 8, RoundingMode.HALF_UP);
+	}
+
+	private static BigDecimal resolveFinancialsFxRate(InstrumentDossierExtractionPayload.FinancialsPayload financials,
+											   InstrumentDossierExtractionPayload payload) {
+		if (financials != null && financials.fxRateToEur() != null) {
+			return financials.fxRateToEur();
+		}
+		if (payload != null && payload.valuation() != null) {
+			return payload.valuation().fxRateToEur();
+		}
+		return null;
+	}
+
+	private static BigDecimal convertMetricToEur(BigDecimal value, String currency, BigDecimal fxRate) {
+		if (value == null) {
+			return null;
+		}
+		if (currency == null || currency.isBlank() || currency.equalsIgnoreCase("EUR")) {
+			return value;
+		}
+		if (fxRate == null || fxRate.compareTo(BigDecimal.ZERO) <= 0) {
+			return null;
+		}
+		return value.multiply(fxRate);
+	}
+}
@@ -7,40 +7,43 @@ import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 import java.util.Arrays;
 
 public final class BackupContainerCrypto {
 
-	private static final byte[] MAGIC = new byte[] {'P', 'M', 'B', 'K', '1'};
+	private static final byte[] MAGIC_V1 = new byte[] {'P', 'M', 'B', 'K', '1'};
+	private static final byte[] MAGIC_V2 = new byte[] {'P', 'M', 'B', 'K', '2'};
+	private static final int MAGIC_LENGTH = 5;
 	private static final String CIPHER_ALGO = "AES/GCM/NoPadding";
 	private static final String KDF_ALGO = "PBKDF2WithHmacSHA256";
 	private static final int SALT_LENGTH = 16;
 	private static final int IV_LENGTH = 12;
+	private static final int TAG_LENGTH = 16;
 	private static final int KEY_LENGTH_BITS = 256;
 	private static final int KDF_ITERATIONS = 65_536;
+	private static final int SEGMENT_SIZE = 1024 * 1024;
+	private static final int MIN_SEGMENT_SIZE = 4 * 1024;
+	private static final int MAX_SEGMENT_SIZE = 16 * 1024 * 1024;
+	private static final int V2_HEADER_LENGTH = MAGIC_LENGTH + SALT_LENGTH + Integer.BYTES;
 	private static final SecureRandom SECURE_RANDOM = new SecureRandom();
 
 	private BackupContainerCrypto() {
 	}
 
 	public static boolean isEncrypted(byte[] payload) {
-		if (payload == null || payload.length < MAGIC.length) {
-			return false;
-		}
-		for (int i = 0; i < MAGIC.length; i++) {
-			if (payload[i] != MAGIC[i]) {
-				return false;
-			}
-		}
-		return true;
+		return startsWith(payload, MAGIC_V1) || startsWith(payload, MAGIC_V2);
 	}
 
 	public static int headerLength() {
-		return MAGIC.length;
+		return MAGIC_LENGTH;
 	}
 
 	public static byte[] encrypt(byte[] plaintext, String password) {
@@ -48,26 +51,31 @@ public final class BackupContainerCrypto {
 		if (plaintext == null) {
 			throw new IllegalArgumentException("Plaintext is required.");
 		}
+		ByteArrayOutputStream payload = new ByteArrayOutputStream(plaintext.length + V2_HEADER_LENGTH + 64);
+		try (OutputStream encrypted = encrypt(payload, password)) {
+			encrypted.write(plaintext);
+		} catch (IOException ex) {
+			throw new IllegalStateException("Failed to encrypt backup container.", ex);
+		}
+		return payload.toByteArray();
+	}
+
+	public static OutputStream encrypt(OutputStream target, String password) throws IOException {
+		requirePassword(password);
+		if (target == null) {
+			throw new IllegalArgumentException("Target stream is required.");
+		}
 		try {
 			byte[] salt = new byte[SALT_LENGTH];
 			SECURE_RANDOM.nextBytes(salt);
-			byte[] iv = new byte[IV_LENGTH];
-			SECURE_RANDOM.nextBytes(iv);
-
-			Cipher cipher = Cipher.getInstance(CIPHER_ALGO);
-			cipher.init(Cipher.ENCRYPT_MODE, deriveKey(password, salt), new GCMParameterSpec(128, iv));
-			byte[] ciphertext = cipher.doFinal(plaintext);
-
-			byte[] payload = new byte[MAGIC.length + salt.length + iv.length + ciphertext.length];
-			int offset = 0;
-			System.arraycopy(MAGIC, 0, payload, offset, MAGIC.length);
-			offset += MAGIC.length;
-			System.arraycopy(salt, 0, payload, offset, salt.length);
-			offset += salt.length;
-			System.arraycopy(iv, 0, payload, offset, iv.length);
-			offset += iv.length;
-			System.arraycopy(ciphertext, 0, payload, offset, ciphertext.length);
-			return payload;
+			byte[] header = ByteBuffer.allocate(V2_HEADER_LENGTH)
+					.put(MAGIC_V2)
+					.put(salt)
+					.putInt(SEGMENT_SIZE)
+					.array();
+			SecretKey key = deriveKey(password, salt);
+			target.write(header);
+			return new SegmentEncryptingOutputStream(target, key, header, SEGMENT_SIZE);
 		} catch (GeneralSecurityException ex) {
 			throw new IllegalStateException("Failed to encrypt backup container.", ex);
 		}
@@ -75,11 +83,57 @@ public final class BackupContainerCrypto {
 
 	public static byte[] decrypt(byte[] payload, String password) {
 		requirePassword(password);
-		if (!isEncrypted(payload) || payload.length <= MAGIC.length + SALT_LENGTH + IV_LENGTH) {
+		if (!isEncrypted(payload)) {
+			throw new IllegalArgumentException("Unable to decrypt backup container.");
+		}
+		if (startsWith(payload, MAGIC_V1)) {
+			return decryptV1(payload, password);
+		}
+		try (InputStream decrypted = decrypt(new ByteArrayInputStream(payload), password)) {
+			return decrypted.readAllBytes();
+		} catch (IOException ex) {
+			throw new IllegalArgumentException("Unable to decrypt backup container.", ex);
+		}
+	}
+
+	public static InputStream decrypt(InputStream payload, String password) throws IOException {
+		requirePassword(password);
+		try {
+			byte[] magic = payload.readNBytes(MAGIC_LENGTH);
+			if (Arrays.equals(magic, MAGIC_V1)) {
+				return decryptV1(payload, password);
+			}
+			if (!Arrays.equals(magic, MAGIC_V2)) {
+				throw new IllegalArgumentException("Unable to decrypt backup container.");
+			}
+			byte[] salt = payload.readNBytes(SALT_LENGTH);
+			byte[] segmentSizeBytes = payload.readNBytes(Integer.BYTES);
+			if (salt.length != SALT_LENGTH || segmentSizeBytes.length != Integer.BYTES) {
+				throw new IllegalArgumentException("Unable to decrypt backup container.");
+			}
+			int segmentSize = ByteBuffer.wrap(segmentSizeBytes).getInt();
+			if (segmentSize < MIN_SEGMENT_SIZE || segmentSize > MAX_SEGMENT_SIZE) {
+				throw new IllegalArgumentException("Unable to decrypt backup container.");
+			}
+			byte[] header = ByteBuffer.allocate(V2_HEADER_LENGTH)
+					.put(magic)
+					.put(salt)
+					.put(segmentSizeBytes)
+					.array();
+			return new SegmentDecryptingInputStream(payload, deriveKey(password, salt), header, segmentSize);
+		} catch (IllegalArgumentException ex) {
+			throw ex;
+		} catch (IOException | GeneralSecurityException ex) {
+			throw new IllegalArgumentException("Unable to decrypt backup container.", ex);
+		}
+	}
+
+	private static byte[] decryptV1(byte[] payload, String password) {
+		if (payload.length <= MAGIC_LENGTH + SALT_LENGTH + IV_LENGTH) {
 			throw new IllegalArgumentException("Unable to decrypt backup container.");
 		}
 		try {
-			int offset = MAGIC.length;
+			int offset = MAGIC_LENGTH;
 			byte[] salt = Arrays.copyOfRange(payload, offset, offset + SALT_LENGTH);
 			offset += SALT_LENGTH;
 			byte[] iv = Arrays.copyOfRange(payload, offset, offset + IV_LENGTH);
@@ -87,29 +141,42 @@ public final class BackupContainerCrypto {
 			byte[] ciphertext = Arrays.copyOfRange(payload, offset, payload.length);
 
 			Cipher cipher = Cipher.getInstance(CIPHER_ALGO);
-			cipher.init(Cipher.DECRYPT_MODE, deriveKey(password, salt), new GCMParameterSpec(128, iv));
+			cipher.init(Cipher.DECRYPT_MODE, deriveKey(password, salt), new GCMParameterSpec(TAG_LENGTH * 8, iv));
 			return cipher.doFinal(ciphertext);
 		} catch (GeneralSecurityException ex) {
 			throw new IllegalArgumentException("Unable to decrypt backup container.", ex);
 		}
 	}
 
-	public static InputStream decrypt(InputStream payload, String password) throws IOException {
-		requirePassword(password);
-		try {
-			byte[] salt = payload.readNBytes(SALT_LENGTH);
-			byte[] iv = payload.readNBytes(IV_LENGTH);
-			if (salt.length != SALT_LENGTH || iv.length != IV_LENGTH) {
-				throw new IllegalArgumentException("Unable to decrypt backup container.");
+	private static InputStream decryptV1(InputStream payload, String password) throws IOException, GeneralSecurityException {
+		byte[] salt = payload.readNBytes(SALT_LENGTH);
+		byte[] iv = payload.readNBytes(IV_LENGTH);
+		if (salt.length != SALT_LENGTH || iv.length != IV_LENGTH) {
+			throw new IllegalArgumentException("Unable to decrypt backup container.");
+		}
+		Cipher cipher = Cipher.getInstance(CIPHER_ALGO);
+		cipher.init(Cipher.DECRYPT_MODE, deriveKey(password, salt), new GCMParameterSpec(TAG_LENGTH * 8, iv));
+		return new CipherInputStream(payload, cipher);
+	}
+
+	private static boolean startsWith(byte[] payload, byte[] magic) {
+		if (payload == null || payload.length < magic.length) {
+			return false;
+		}
+		for (int i = 0; i < magic.length; i++) {
+			if (payload[i] != magic[i]) {
+				return false;
 			}
-			Cipher cipher = Cipher.getInstance(CIPHER_ALGO);
-			cipher.init(Cipher.DECRYPT_MODE, deriveKey(password, salt), new GCMParameterSpec(128, iv));
-			return new CipherInputStream(payload, cipher);
-		} catch (IllegalArgumentException ex) {
-			throw ex;
-		} catch (IOException | GeneralSecurityException ex) {
-			throw new IllegalArgumentException("Unable to decrypt backup container.", ex);
 		}
+		return true;
+	}
+
+	private static byte[] segmentAad(byte[] header, long index, boolean last) {
+		return ByteBuffer.allocate(header.length + Long.BYTES + 1)
+				.put(header)
+				.putLong(index)
+				.put((byte) (last ? 1 : 0))
+				.array();
 	}
 
 	private static void requirePassword(String password) {
@@ -124,4 +191,160 @@ public final class BackupContainerCrypto {
 		byte[] encoded = factory.generateSecret(spec).getEncoded();
 		return new SecretKeySpec(encoded, "AES");
 	}
+
+	private static final class SegmentEncryptingOutputStream extends OutputStream {
+		private final OutputStream target;
+		private final SecretKey key;
+		private final byte[] header;
+		private final byte[] buffer;
+		private final Cipher cipher;
+		private int buffered;
+		private long segmentIndex;
+		private boolean closed;
+
+		private SegmentEncryptingOutputStream(OutputStream target, SecretKey key, byte[] header, int segmentSize)
+				throws GeneralSecurityException {
+			this.target = target;
+			this.key = key;
+			this.header = header;
+			this.buffer = new byte[segmentSize];
+			this.cipher = Cipher.getInstance(CIPHER_ALGO);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (closed) {
+				throw new IOException("Stream closed.");
+			}
+			while (len > 0) {
+				if (buffered == buffer.length) {
+					// Only seal a full segment once more data arrives, so the last segment is always marked final.
+					writeSegment(false);
+				}
+				int chunk = Math.min(len, buffer.length - buffered);
+				System.arraycopy(b, off, buffer, buffered, chunk);
+				buffered += chunk;
+				off += chunk;
+				len -= chunk;
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			target.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			try {
+				writeSegment(true);
+				target.flush();
+			} finally {
+				target.close();
+			}
+		}
+
+		private void writeSegment(boolean last) throws IOException {
+			try {
+				byte[] iv = new byte[IV_LENGTH];
+				SECURE_RANDOM.nextBytes(iv);
+				cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, iv));
+				cipher.updateAAD(segmentAad(header, segmentIndex, last));
+				byte[] ciphertext = cipher.doFinal(buffer, 0, buffered);
+				target.write(iv);
+				target.write(ciphertext);
+				segmentIndex++;
+				buffered = 0;
+			} catch (GeneralSecurityException ex) {
+				throw new IOException("Failed to encrypt backup container segment.", ex);
+			}
+		}
+	}
+
+	private static final class SegmentDecryptingInputStream extends InputStream {
+		private final InputStream source;
+		private final SecretKey key;
+		private final byte[] header;
+		private final byte[] segment;
+		private final Cipher cipher;
+		private byte[] plaintext = new byte[0];
+		private int position;
+		private long segmentIndex;
+		private int lookahead = -1;
+		private boolean finished;
+
+		private SegmentDecryptingInputStream(InputStream source, SecretKey key, byte[] header, int segmentSize)
+				throws GeneralSecurityException {
+			this.source = source;
+			this.key = key;
+			this.header = header;
+			this.segment = new byte[IV_LENGTH + segmentSize + TAG_LENGTH];
+			this.cipher = Cipher.getInstance(CIPHER_ALGO);
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] single = new byte[1];
+			int read = read(single, 0, 1);
+			return read == -1 ? -1 : single[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			while (position >= plaintext.length) {
+				if (finished) {
+					return -1;
+				}
+				readSegment();
+			}
+			int chunk = Math.min(len, plaintext.length - position);
+			System.arraycopy(plaintext, position, b, off, chunk);
+			position += chunk;
+			return chunk;
+		}
+
+		@Override
+		public void close() throws IOException {
+			source.close();
+		}
+
+		private void readSegment() throws IOException {
+			int length = 0;
+			if (lookahead >= 0) {
+				segment[length++] = (byte) lookahead;
+				lookahead = -1;
+			}
+			length += source.readNBytes(segment, length, segment.length - length);
+			boolean last = length < segment.length;
+			if (!last) {
+				lookahead = source.read();
+				last = lookahead < 0;
+			}
+			if (length < IV_LENGTH + TAG_LENGTH) {
+				throw new IOException("Backup container is truncated.");
+			}
+			try {
+				cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, segment, 0, IV_LENGTH));
+				cipher.updateAAD(segmentAad(header, segmentIndex, last));
+				plaintext = cipher.doFinal(segment, IV_LENGTH, length - IV_LENGTH);
+			} catch (GeneralSecurityException ex) {
+				throw new IOException("Backup container segment " + segmentIndex + " failed authentication.", ex);
+			}
+			position = 0;
+			segmentIndex++;
+			finished = last;
+		}
+	}
 }
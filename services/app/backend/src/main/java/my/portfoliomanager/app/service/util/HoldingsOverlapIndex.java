@@ -0,0 +1,288 @@
+package my.portfoliomanager.app.service.util;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+public final class HoldingsOverlapIndex {
+	private final Map<String, Integer> labelIds;
+	private final Map<String, Integer> positions;
+	private final int[][] names;
+	private final int[][] weightLabels;
+	private final double[][] weights;
+	private final double[] totals;
+	private volatile double[][] nameMatrix;
+	private volatile double[][] weightMatrix;
+
+	private HoldingsOverlapIndex(Map<String, Integer> labelIds,
+								 Map<String, Integer> positions,
+								 int[][] names,
+								 int[][] weightLabels,
+								 double[][] weights,
+								 double[] totals) {
+		this.labelIds = labelIds;
+		this.positions = positions;
+		this.names = names;
+		this.weightLabels = weightLabels;
+		this.weights = weights;
+		this.totals = totals;
+	}
+
+	public static HoldingsOverlapIndex build(Map<String, Set<String>> names,
+											 Map<String, Map<String, BigDecimal>> weights) {
+		Map<String, Set<String>> nameEntries = names == null ? Map.of() : names;
+		Map<String, Map<String, BigDecimal>> weightEntries = weights == null ? Map.of() : weights;
+		Map<String, Integer> positions = new LinkedHashMap<>();
+		for (String key : nameEntries.keySet()) {
+			positions.putIfAbsent(key, positions.size());
+		}
+		for (String key : weightEntries.keySet()) {
+			positions.putIfAbsent(key, positions.size());
+		}
+		int size = positions.size();
+		Map<String, Integer> labelIds = new HashMap<>();
+		int[][] nameIds = new int[size][];
+		int[][] weightIds = new int[size][];
+		double[][] weightValues = new double[size][];
+		double[] totals = new double[size];
+		for (Map.Entry<String, Set<String>> entry : nameEntries.entrySet()) {
+			Set<String> labels = entry.getValue();
+			if (labels == null || labels.isEmpty()) {
+				continue;
+			}
+			int[] ids = new int[labels.size()];
+			int index = 0;
+			for (String label : labels) {
+				ids[index++] = labelIds.computeIfAbsent(label, ignored -> labelIds.size());
+			}
+			Arrays.sort(ids);
+			nameIds[positions.get(entry.getKey())] = ids;
+		}
+		for (Map.Entry<String, Map<String, BigDecimal>> entry : weightEntries.entrySet()) {
+			Map<String, BigDecimal> vector = entry.getValue();
+			if (vector == null || vector.isEmpty()) {
+				continue;
+			}
+			int position = positions.get(entry.getKey());
+			long[] packed = new long[vector.size()];
+			double[] values = new double[vector.size()];
+			int index = 0;
+			double total = 0.0d;
+			for (Map.Entry<String, BigDecimal> weight : vector.entrySet()) {
+				double value = weight.getValue() == null ? 0.0d : weight.getValue().doubleValue();
+				int id = labelIds.computeIfAbsent(weight.getKey(), ignored -> labelIds.size());
+				packed[index] = ((long) id << 32) | index;
+				values[index] = value;
+				total += value;
+				index += 1;
+			}
+			Arrays.sort(packed);
+			int[] ids = new int[packed.length];
+			double[] sorted = new double[packed.length];
+			for (int i = 0; i < packed.length; i++) {
+				ids[i] = (int) (packed[i] >>> 32);
+				sorted[i] = values[(int) packed[i]];
+			}
+			weightIds[position] = ids;
+			weightValues[position] = sorted;
+			totals[position] = total;
+		}
+		return new HoldingsOverlapIndex(labelIds, positions, nameIds, weightIds, weightValues, totals);
+	}
+
+	// Average weighted overlap of one indexed entry with all other usable entries, or -1 when the entry has no
+	// usable weights or nothing to compare with.
+	public double averageWeightedOverlap(String key) {
+		Integer position = positions.get(key);
+		if (position == null || !hasWeights(position)) {
+			return -1.0d;
+		}
+		double[] row = weightMatrix()[position];
+		double sum = 0.0d;
+		int count = 0;
+		for (int other = 0; other < row.length; other++) {
+			if (other == position || !hasWeights(other)) {
+				continue;
+			}
+			sum += row[other];
+			count += 1;
+		}
+		return count == 0 ? -1.0d : sum / (double) count;
+	}
+
+	// Average name overlap of one indexed entry, spread over instrumentCount - 1 peers.
+	public double averageOverlap(String key, int instrumentCount) {
+		Integer position = positions.get(key);
+		if (position == null || names[position] == null || instrumentCount <= 1) {
+			return 0.0d;
+		}
+		double[] row = nameMatrix()[position];
+		double sum = 0.0d;
+		for (int other = 0; other < row.length; other++) {
+			if (other != position && names[other] != null) {
+				sum += row[other];
+			}
+		}
+		return sum / (double) (instrumentCount - 1);
+	}
+
+	public double averageWeightedOverlapWith(Map<String, BigDecimal> base) {
+		if (base == null || base.isEmpty()) {
+			return -1.0d;
+		}
+		double baseTotal = 0.0d;
+		long[] packed = new long[base.size()];
+		double[] values = new double[base.size()];
+		int known = 0;
+		for (Map.Entry<String, BigDecimal> entry : base.entrySet()) {
+			double value = entry.getValue() == null ? 0.0d : entry.getValue().doubleValue();
+			baseTotal += value;
+			Integer id = labelIds.get(entry.getKey());
+			if (id != null) {
+				packed[known] = ((long) id << 32) | known;
+				values[known] = value;
+				known += 1;
+			}
+		}
+		if (baseTotal <= 0.0d) {
+			return -1.0d;
+		}
+		Arrays.sort(packed, 0, known);
+		int[] ids = new int[known];
+		double[] sorted = new double[known];
+		for (int i = 0; i < known; i++) {
+			ids[i] = (int) (packed[i] >>> 32);
+			sorted[i] = values[(int) packed[i]];
+		}
+		double sum = 0.0d;
+		int count = 0;
+		for (int other = 0; other < totals.length; other++) {
+			if (!hasWeights(other)) {
+				continue;
+			}
+			double overlap = intersectMin(ids, sorted, weightLabels[other], weights[other]);
+			sum += overlap / Math.max(baseTotal, totals[other]);
+			count += 1;
+		}
+		return count == 0 ? -1.0d : sum / (double) count;
+	}
+
+	public double averageOverlapWith(Set<String> base) {
+		if (base == null || base.isEmpty()) {
+			return -1.0d;
+		}
+		int[] ids = new int[base.size()];
+		int known = 0;
+		for (String label : base) {
+			Integer id = labelIds.get(label);
+			if (id != null) {
+				ids[known++] = id;
+			}
+		}
+		ids = Arrays.copyOf(ids, known);
+		Arrays.sort(ids);
+		double sum = 0.0d;
+		int count = 0;
+		for (int[] other : names) {
+			if (other == null) {
+				continue;
+			}
+			sum += (double) intersectCount(ids, other) / (double) Math.max(base.size(), other.length);
+			count += 1;
+		}
+		return count == 0 ? -1.0d : sum / (double) count;
+	}
+
+	private boolean hasWeights(int position) {
+		return weightLabels[position] != null && totals[position] > 0.0d;
+	}
+
+	private double[][] weightMatrix() {
+		double[][] matrix = weightMatrix;
+		if (matrix == null) {
+			int size = totals.length;
+			matrix = new double[size][size];
+			for (int left = 0; left < size; left++) {
+				if (!hasWeights(left)) {
+					continue;
+				}
+				for (int right = left + 1; right < size; right++) {
+					if (!hasWeights(right)) {
+						continue;
+					}
+					double overlap = intersectMin(weightLabels[left], weights[left], weightLabels[right], weights[right])
+							/ Math.max(totals[left], totals[right]);
+					matrix[left][right] = overlap;
+					matrix[right][left] = overlap;
+				}
+			}
+			weightMatrix = matrix;
+		}
+		return matrix;
+	}
+
+	private double[][] nameMatrix() {
+		double[][] matrix = nameMatrix;
+		if (matrix == null) {
+			int size = names.length;
+			matrix = new double[size][size];
+			for (int left = 0; left < size; left++) {
+				if (names[left] == null) {
+					continue;
+				}
+				for (int right = left + 1; right < size; right++) {
+					if (names[right] == null) {
+						continue;
+					}
+					double overlap = (double) intersectCount(names[left], names[right])
+							/ (double) Math.max(names[left].length, names[right].length);
+					matrix[left][right] = overlap;
+					matrix[right][left] = overlap;
+				}
+			}
+			nameMatrix = matrix;
+		}
+		return matrix;
+	}
+
+	private static double intersectMin(int[] leftIds, double[] leftWeights, int[] rightIds, double[] rightWeights) {
+		double sum = 0.0d;
+		int left = 0;
+		int right = 0;
+		while (left < leftIds.length && right < rightIds.length) {
+			int leftId = leftIds[left];
+			int rightId = rightIds[right];
+			if (leftId == rightId) {
+				sum += Math.min(leftWeights[left++], rightWeights[right++]);
+			} else if (leftId < rightId) {
+				left += 1;
+			} else {
+				right += 1;
+			}
+		}
+		return sum;
+	}
+
+	private static int intersectCount(int[] leftIds, int[] rightIds) {
+		int common = 0;
+		int left = 0;
+		int right = 0;
+		while (left < leftIds.length && right < rightIds.length) {
+			int leftId = leftIds[left];
+			int rightId = rightIds[right];
+			if (leftId == rightId) {
+				common += 1;
+				left += 1;
+				right += 1;
+			} else if (leftId < rightId) {
+				left += 1;
+			} else {
+				right += 1;
+			}
+		}
+		return common;
+	}
+}
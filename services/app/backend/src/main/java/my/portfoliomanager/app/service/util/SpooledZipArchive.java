@@ -0,0 +1,144 @@
+package my.portfoliomanager.app.service.util;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public final class SpooledZipArchive implements Closeable {
+	private static final int MAX_ENTRIES = 200;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final Path file;
+	private final ZipFile zipFile;
+	private final long maxUncompressedBytes;
+	private long uncompressedBytesRead;
+
+	private SpooledZipArchive(Path file, ZipFile zipFile, long maxUncompressedBytes) {
+		this.file = file;
+		this.zipFile = zipFile;
+		this.maxUncompressedBytes = maxUncompressedBytes;
+	}
+
+	public static SpooledZipArchive spool(InputStream source, long maxBytes) throws IOException {
+		Path file = Files.createTempFile("pm-archive-", ".zip");
+		try {
+			try (OutputStream outputStream = Files.newOutputStream(file)) {
+				byte[] chunk = new byte[BUFFER_SIZE];
+				long total = 0;
+				int read;
+				while ((read = source.read(chunk)) != -1) {
+					total += read;
+					if (total > maxBytes) {
+						throw new IOException("Zip archive exceeds maximum allowed size.");
+					}
+					outputStream.write(chunk, 0, read);
+				}
+			}
+			ZipFile zipFile = new ZipFile(file.toFile());
+			try {
+				validateEntries(zipFile);
+			} catch (IOException ex) {
+				zipFile.close();
+				throw ex;
+			}
+			return new SpooledZipArchive(file, zipFile, maxBytes);
+		} catch (IOException | RuntimeException ex) {
+			Files.deleteIfExists(file);
+			throw ex;
+		}
+	}
+
+	public boolean contains(String name) {
+		ZipEntry entry = zipFile.getEntry(name);
+		return entry != null && !entry.isDirectory();
+	}
+
+	public InputStream open(String name) throws IOException {
+		ZipEntry entry = zipFile.getEntry(name);
+		if (entry == null || entry.isDirectory()) {
+			return null;
+		}
+		return new CountingInputStream(zipFile.getInputStream(entry));
+	}
+
+	public byte[] readAllBytes(String name, int maxBytes) throws IOException {
+		try (InputStream inputStream = open(name)) {
+			if (inputStream == null) {
+				return null;
+			}
+			byte[] data = inputStream.readNBytes(maxBytes + 1);
+			if (data.length > maxBytes) {
+				throw new IOException("Zip entry exceeds maximum allowed size.");
+			}
+			return data;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			zipFile.close();
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	private static void validateEntries(ZipFile zipFile) throws IOException {
+		Set<String> names = new HashSet<>();
+		Enumeration<? extends ZipEntry> entries = zipFile.entries();
+		int entryCount = 0;
+		while (entries.hasMoreElements()) {
+			ZipEntry entry = entries.nextElement();
+			if (entry.isDirectory()) {
+				continue;
+			}
+			entryCount++;
+			if (entryCount > MAX_ENTRIES) {
+				throw new IOException("Zip archive contains too many entries.");
+			}
+			if (!names.add(entry.getName())) {
+				throw new IOException("Zip archive contains duplicate entries.");
+			}
+		}
+	}
+
+	private final class CountingInputStream extends FilterInputStream {
+		private CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int value = super.read();
+			if (value != -1) {
+				count(1);
+			}
+			return value;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = super.read(b, off, len);
+			if (read > 0) {
+				count(read);
+			}
+			return read;
+		}
+
+		private void count(int bytes) throws IOException {
+			uncompressedBytesRead += bytes;
+			if (uncompressedBytesRead > maxUncompressedBytes) {
+				throw new IOException("Zip archive exceeds maximum allowed size.");
+			}
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package my.portfoliomanager.app.service.util;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+public final class VersionedConfigCache<T> {
+	private volatile Entry<T> entry;
+
+	public T get(Supplier<String> versionProbe, Supplier<T> loader) {
+		String version = versionProbe.get();
+		Entry<T> current = entry;
+		if (current != null && Objects.equals(current.version(), version)) {
+			return current.value();
+		}
+		T value = loader.get();
+		entry = new Entry<>(version, value);
+		return value;
+	}
+
+	public void invalidate() {
+		entry = null;
+	}
+
+	private record Entry<T>(String version, T value) {
+	}
+}
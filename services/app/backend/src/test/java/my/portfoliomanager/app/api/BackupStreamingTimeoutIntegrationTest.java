@@ -0,0 +1,96 @@
+package my.portfoliomanager.app.api;
+
+import com.jayway.jsonpath.JsonPath;
+import my.portfoliomanager.app.service.BackupService;
+import my.portfoliomanager.app.support.TestDatabaseCleaner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+// Runs against the real container: MockMvc does not enforce async request timeouts.
+@SpringBootTest(classes = my.portfoliomanager.app.AppApplication.class,
+		webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class BackupStreamingTimeoutIntegrationTest {
+	private static final String JWT_SECRET = UUID.randomUUID().toString();
+	// Longer than the 30s default async timeout of the servlet container.
+	private static final Duration STREAM_DURATION = Duration.ofSeconds(35);
+
+	@Autowired
+	private Environment environment;
+
+	@MockitoBean
+	private BackupService backupService;
+
+	@Autowired
+	private TestDatabaseCleaner databaseCleaner;
+
+	@DynamicPropertySource
+	static void registerProperties(DynamicPropertyRegistry registry) {
+		registry.add("app.security.admin-user", () -> "admin");
+		registry.add("app.security.admin-pass", () -> "admin");
+		registry.add("app.jwt.secret", () -> JWT_SECRET);
+		registry.add("app.jwt.issuer", () -> "test-issuer");
+	}
+
+	@AfterEach
+	void tearDown() {
+		databaseCleaner.clean();
+	}
+
+	@Test
+	void exportStreamsPastTheDefaultAsyncTimeout() throws Exception {
+		doAnswer(invocation -> {
+			OutputStream out = invocation.getArgument(0);
+			out.write("first-".getBytes(StandardCharsets.UTF_8));
+			out.flush();
+			Thread.sleep(STREAM_DURATION.toMillis());
+			out.write("last".getBytes(StandardCharsets.UTF_8));
+			return null;
+		}).when(backupService).exportBackup(any(OutputStream.class), anyString());
+
+		HttpClient client = HttpClient.newHttpClient();
+		HttpResponse<String> tokenResponse = client.send(HttpRequest.newBuilder(uri("/api/auth/token"))
+						.header("Content-Type", "application/json")
+						.POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"admin\"}"))
+						.build(),
+				HttpResponse.BodyHandlers.ofString());
+		assertThat(tokenResponse.statusCode()).isEqualTo(200);
+		String token = JsonPath.read(tokenResponse.body(), "$.token");
+
+		HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri("/api/backups/export"))
+						.header("Authorization", "Bearer " + token)
+						.header("Content-Type", "application/json")
+						.timeout(STREAM_DURATION.plusSeconds(30))
+						.POST(HttpRequest.BodyPublishers.ofString("{\"password\":\"backup-password-123\"}"))
+						.build(),
+				HttpResponse.BodyHandlers.ofByteArray());
+
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(new String(response.body(), StandardCharsets.UTF_8)).isEqualTo("first-last");
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + environment.getProperty("local.server.port") + path);
+	}
+}
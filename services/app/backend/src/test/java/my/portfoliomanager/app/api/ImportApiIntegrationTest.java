@@ -0,0 +1,165 @@
+package my.portfoliomanager.app.api;
+
+import my.portfoliomanager.app.support.TestDatabaseCleaner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = my.portfoliomanager.app.AppApplication.class)
+@ActiveProfiles("test")
+class ImportApiIntegrationTest {
+	private static final String JWT_SECRET = UUID.randomUUID().toString();
+	private static final String CSV = "\uFEFFWertpapier;St_Nom;Wert;ISIN\n"
+			+ "Alpha Fonds;1.000,00;2.000,00;DE0000000001\n"
+			+ "Beta Fonds;3,00;4,00;DE0000000002\n";
+
+	private MockMvc mockMvc;
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TestDatabaseCleaner databaseCleaner;
+
+	@DynamicPropertySource
+	static void registerProperties(DynamicPropertyRegistry registry) {
+		registry.add("app.security.admin-user", () -> "admin");
+		registry.add("app.security.admin-pass", () -> "admin");
+		registry.add("app.jwt.secret", () -> JWT_SECRET);
+		registry.add("app.jwt.issuer", () -> "test-issuer");
+	}
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context)
+				.apply(springSecurity())
+				.build();
+		databaseCleaner.clean();
+		jdbcTemplate.update("insert into depots (depot_id, depot_code, name, provider) values (1, 'deka', 'Deka Depot', 'Deka')");
+	}
+
+	@AfterEach
+	void tearDown() {
+		databaseCleaner.clean();
+	}
+
+	private RequestPostProcessor adminJwt() {
+		return jwt().authorities(new SimpleGrantedAuthority("ROLE_ADMIN"));
+	}
+
+	@Test
+	void importJobParsesUploadOnWorkerAndSkipsDuplicateWithoutQueueing() throws Exception {
+		MvcResult started = mockMvc.perform(multipart("/api/imports/depot-statement/jobs")
+						.file(csvFile())
+						.param("depotCode", "deka")
+						.param("applyRules", "false")
+						.with(adminJwt()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.job_id").isString())
+				.andReturn();
+		String jobId = read(started, "$.job_id").toString();
+
+		String json = awaitJob(jobId).getResponse().getContentAsString();
+		assertThat(read(json, "$.status")).isEqualTo("DONE");
+		assertThat(read(json, "$.result.snapshotStatus")).isEqualTo("imported");
+		assertThat(read(json, "$.result.positions")).isEqualTo(2);
+		assertThat(read(json, "$.progress.phase")).isEqualTo("writing");
+		assertThat(jdbcTemplate.queryForObject("select count(*) from snapshot_positions", Integer.class)).isEqualTo(2);
+		assertThat(jdbcTemplate.queryForObject("select count(*) from import_uploads", Integer.class)).isZero();
+		assertThat(jdbcTemplate.queryForObject("select count(*) from import_upload_chunks", Integer.class)).isZero();
+
+		mockMvc.perform(multipart("/api/imports/depot-statement/jobs")
+						.file(csvFile())
+						.param("depotCode", "deka")
+						.with(adminJwt()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.status").value("DONE"))
+				.andExpect(jsonPath("$.result.snapshotStatus").value("skipped"));
+	}
+
+	@Test
+	void syncImportStillAnswersWithResult() throws Exception {
+		mockMvc.perform(multipart("/api/imports/depot-statement")
+						.file(csvFile())
+						.param("depotCode", "deka")
+						.param("applyRules", "false")
+						.with(adminJwt()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.snapshotStatus").value("imported"))
+				.andExpect(jsonPath("$.instrumentsImported").value(2));
+	}
+
+	@Test
+	void importJobRejectsWrongSuffixBeforeQueueing() throws Exception {
+		mockMvc.perform(multipart("/api/imports/depot-statement/jobs")
+						.file(new MockMultipartFile("file", "deka.pdf", "application/pdf", new byte[]{1}))
+						.param("depotCode", "deka")
+						.with(adminJwt()))
+				.andExpect(status().isBadRequest());
+		assertThat(jdbcTemplate.queryForObject("select count(*) from jobs", Integer.class)).isZero();
+	}
+
+	@Test
+	void unknownImportJobReturnsNotFound() throws Exception {
+		mockMvc.perform(get("/api/imports/depot-statement/jobs/missing")
+						.with(adminJwt()))
+				.andExpect(status().isNotFound());
+	}
+
+	private MockMultipartFile csvFile() {
+		return new MockMultipartFile("file", "deka_20240131.csv", "text/csv", CSV.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private MvcResult awaitJob(String jobId) throws Exception {
+		for (int i = 0; i < 50; i++) {
+			MvcResult result = mockMvc.perform(get("/api/imports/depot-statement/jobs/" + jobId)
+							.with(adminJwt()))
+					.andExpect(status().isOk())
+					.andReturn();
+			String status = read(result, "$.status").toString();
+			if ("DONE".equals(status) || "FAILED".equals(status)) {
+				return result;
+			}
+			Thread.sleep(200L);
+		}
+		return mockMvc.perform(get("/api/imports/depot-statement/jobs/" + jobId)
+						.with(adminJwt()))
+				.andExpect(status().isOk())
+				.andReturn();
+	}
+
+	private static Object read(MvcResult result, String path) throws Exception {
+		return read(result.getResponse().getContentAsString(), path);
+	}
+
+	private static Object read(String json, String path) {
+		return com.jayway.jsonpath.JsonPath.read(json, path);
+	}
+}
@@ -36,6 +36,7 @@ import org.springframework.test.web.servlet.request.RequestPostProcessor;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -266,6 +267,51 @@ class KnowledgeBaseApiIntegrationTest {
 		assertThat(isinPrefix.path("items").size()).isGreaterThanOrEqualTo(3);
 	}
 
+	@Test
+	void dossiersSearchPagesWithCursor() throws Exception {
+		createDossier("DE9977700001", "CursorToken Alpha");
+		createDossier("DE9977700002", "CursorToken Beta");
+		createDossier("DE9977700003", "CursorToken Gamma");
+
+		List<String> isins = new ArrayList<>();
+		String cursor = null;
+		do {
+			var request = get("/api/kb/dossiers")
+					.with(adminJwt())
+					.param("q", "cursortoken")
+					.param("sortBy", "status")
+					.param("sortDirection", "desc")
+					.param("size", "2");
+			if (cursor != null) {
+				request.param("cursor", cursor);
+			}
+			JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+					.andExpect(status().isOk())
+					.andReturn()
+					.getResponse()
+					.getContentAsString());
+			assertThat(page.path("total").asInt()).isEqualTo(3);
+			page.path("items").forEach(item -> isins.add(item.path("isin").asText()));
+			cursor = page.hasNonNull("nextCursor") ? page.path("nextCursor").asText() : null;
+		} while (cursor != null && isins.size() < 10);
+
+		assertThat(isins).containsExactly("DE9977700001", "DE9977700002", "DE9977700003");
+
+		jdbcTemplate.update("update instrument_dossiers set display_name = 'CursorToken Renamed' where isin = 'DE9977700002'");
+		mockMvc.perform(get("/api/kb/dossiers")
+						.with(adminJwt())
+						.param("q", "token renamed"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.total").value(1))
+				.andExpect(jsonPath("$.items[0].isin").value("DE9977700002"));
+
+		mockMvc.perform(get("/api/kb/dossiers")
+						.with(adminJwt())
+						.param("sortBy", "isin")
+						.param("cursor", "not-a-cursor"))
+				.andExpect(status().isBadRequest());
+	}
+
 	@Test
 	void dossiersSearchSupportsBlacklistApprovalExtractionAndFreshnessFilters() throws Exception {
 		mockMvc.perform(post("/api/kb/dossiers")
@@ -16,6 +16,7 @@ import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.RequestPostProcessor;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
@@ -25,11 +26,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(classes = my.portfoliomanager.app.AppApplication.class)
@@ -118,8 +121,8 @@ class RebalancerApiIntegrationTest {
 		String jobId = JsonHelper.read(result, "$.job_id").toString();
 		MvcResult doneResult = awaitJob(jobId);
 		String json = doneResult.getResponse().getContentAsString();
-		org.assertj.core.api.Assertions.assertThat(JsonHelper.read(json, "$.status")).isEqualTo("DONE");
-		org.assertj.core.api.Assertions.assertThat(JsonHelper.read(json, "$.result.summary.savingPlanSummary.totalActiveAmountEur"))
+		assertThat(JsonHelper.read(json, "$.status")).isEqualTo("DONE");
+		assertThat(JsonHelper.read(json, "$.result.summary.savingPlanSummary.totalActiveAmountEur"))
 				.isEqualTo(25.0);
 	}
 
@@ -152,12 +155,12 @@ class RebalancerApiIntegrationTest {
 		java.util.List<Number> currentTargetAmounts = (java.util.List<Number>) JsonHelper.read(detailResult, "$.result.summary.savingPlanProposal.layers[*].currentTargetTotalAmountEur");
 		@SuppressWarnings("unchecked")
 		java.util.List<Number> currentTargetWeights = (java.util.List<Number>) JsonHelper.read(detailResult, "$.result.summary.savingPlanProposal.layers[*].currentTargetTotalWeightPct");
-		org.assertj.core.api.Assertions.assertThat(currentTargetAmounts)
+		assertThat(currentTargetAmounts)
 				.isNotEmpty()
-				.anySatisfy(value -> org.assertj.core.api.Assertions.assertThat(value.doubleValue()).isGreaterThan(0.0d));
-		org.assertj.core.api.Assertions.assertThat(currentTargetWeights)
+				.anySatisfy(value -> assertThat(value.doubleValue()).isGreaterThan(0.0d));
+		assertThat(currentTargetWeights)
 				.isNotEmpty()
-				.anySatisfy(value -> org.assertj.core.api.Assertions.assertThat(value.doubleValue()).isGreaterThan(0.0d));
+				.anySatisfy(value -> assertThat(value.doubleValue()).isGreaterThan(0.0d));
 	}
 
 	@Test
@@ -224,6 +227,37 @@ class RebalancerApiIntegrationTest {
 		}
 	}
 
+	@Test
+	void eventsEndpointStreamsJobEventsAndResumesFromLastEventId() throws Exception {
+		MvcResult started = mockMvc.perform(post("/api/rebalancer/run")
+						.with(adminJwt()))
+				.andExpect(status().isOk())
+				.andReturn();
+		String jobId = JsonHelper.read(started, "$.job_id").toString();
+
+		String stream = awaitStream(get("/api/rebalancer/run/" + jobId + "/events").with(adminJwt()));
+		assertThat(stream)
+				.contains("event:status")
+				.containsPattern("\"status\":\\s*\"DONE\"")
+				.contains("event:job");
+		String jobEvent = stream.substring(stream.lastIndexOf("event:job"));
+		assertThat(jobEvent)
+				.contains("\"job_id\":\"" + jobId + "\"")
+				.contains("savingPlanSummary");
+
+		String lastEventId = stream.substring(stream.lastIndexOf("id:") + 3, stream.indexOf('\n', stream.lastIndexOf("id:")));
+		String resumed = awaitStream(get("/api/rebalancer/run/" + jobId + "/events")
+				.header("Last-Event-ID", lastEventId)
+				.with(adminJwt()));
+		assertThat(resumed)
+				.doesNotContain("event:status")
+				.contains("event:job");
+
+		mockMvc.perform(get("/api/rebalancer/run/missing/events")
+						.with(adminJwt()))
+				.andExpect(status().isNotFound());
+	}
+
 	private static final class JsonHelper {
 		private static Object read(MvcResult result, String path) throws Exception {
 			return read(result.getResponse().getContentAsString(), path);
@@ -251,4 +285,12 @@ class RebalancerApiIntegrationTest {
 				.andExpect(status().isOk())
 				.andReturn();
 	}
+
+	private String awaitStream(MockHttpServletRequestBuilder builder) throws Exception {
+		MvcResult result = mockMvc.perform(builder)
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		result.getAsyncResult(10_000L);
+		return result.getResponse().getContentAsString();
+	}
 }
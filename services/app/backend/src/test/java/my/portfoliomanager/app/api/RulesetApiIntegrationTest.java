@@ -16,6 +16,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.RequestPostProcessor;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
@@ -23,14 +24,18 @@ import my.portfoliomanager.app.support.TestDatabaseCleaner;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(classes = my.portfoliomanager.app.AppApplication.class)
@@ -121,6 +126,47 @@ class RulesetApiIntegrationTest {
 				.andExpect(jsonPath("$[0].impact.valueEur").value(1000.0));
 	}
 
+	@Test
+	void simulateStreamWritesOneJsonLinePerInstrument() throws Exception {
+		jdbcTemplate.update("insert into instruments (isin, name, depot_code, layer, is_deleted) values ('DE000B', 'Test Bond', 'tr', 5, false)");
+		String rulesetJson = """
+				{
+				  "schema_version": 1,
+				  "name": "default",
+				  "mode": "layer scoring",
+				  "rules": [
+				    {
+				      "id": "etf-layer",
+				      "priority": 10,
+				      "score": 90,
+				      "match": { "field": "name_norm", "operator": "CONTAINS", "value": "etf" },
+				      "actions": { "layer": 1 }
+				    }
+				  ]
+				}
+				""";
+
+		String body = "{\"contentJson\": " + quoteJson(rulesetJson) + "}";
+
+		MvcResult started = mockMvc.perform(post("/api/rulesets/default/simulate/stream")
+						.with(adminJwt())
+						.accept(MediaType.APPLICATION_NDJSON)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(body))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		String content = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andReturn()
+				.getResponse()
+				.getContentAsString();
+		List<String> lines = content.lines().filter(line -> !line.isBlank()).toList();
+		assertThat(lines).hasSize(2);
+		assertThat(lines).anySatisfy(line -> assertThat(line).contains("\"isin\":\"DE000A\"").contains("\"layer\":1"));
+		assertThat(lines).anySatisfy(line -> assertThat(line).contains("\"isin\":\"DE000B\""));
+	}
+
 	@Test
 	void policyDowngradesLayerWhenNoSavingPlan() throws Exception {
 		jdbcTemplate.update("delete from sparplans");
@@ -3,6 +3,7 @@ package my.portfoliomanager.app.config;
 import my.portfoliomanager.app.llm.DbBackedLlmClient;
 import my.portfoliomanager.app.llm.KnowledgeBaseLlmProvider;
 import my.portfoliomanager.app.llm.LlmClient;
+import my.portfoliomanager.app.llm.LlmConcurrencyLimiter;
 import my.portfoliomanager.app.llm.NoopLlmClient;
 import my.portfoliomanager.app.service.LlmRuntimeConfigService;
 import org.junit.jupiter.api.Test;
@@ -14,7 +15,7 @@ class LlmConfigTest {
 	@Test
 	void createsDbBackedClientBean() {
 		LlmRuntimeConfigService runtimeConfigService = Mockito.mock(LlmRuntimeConfigService.class);
-		LlmClient llmClient = new LlmConfig().llmClient(runtimeConfigService);
+		LlmClient llmClient = new LlmConfig().llmClient(runtimeConfigService, new LlmConcurrencyLimiter(2), null, null);
 
 		assertThat(llmClient).isInstanceOf(DbBackedLlmClient.class);
 	}
@@ -22,7 +23,7 @@ class LlmConfigTest {
 	@Test
 	void exposesKnowledgeBaseProviderWhenClientImplementsProvider() {
 		LlmRuntimeConfigService runtimeConfigService = Mockito.mock(LlmRuntimeConfigService.class);
-		LlmClient llmClient = new LlmConfig().llmClient(runtimeConfigService);
+		LlmClient llmClient = new LlmConfig().llmClient(runtimeConfigService, new LlmConcurrencyLimiter(2), null, null);
 
 		KnowledgeBaseLlmProvider provider = new LlmConfig().knowledgeBaseLlmProvider(llmClient);
 		assertThat(provider).isSameAs(llmClient);
@@ -0,0 +1,80 @@
+package my.portfoliomanager.app.llm;
+
+import com.sun.net.httpserver.HttpServer;
+import my.portfoliomanager.app.service.LlmRuntimeConfigService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class DbBackedLlmClientTest {
+	@Test
+	void reusesClientUntilConfigChanges() throws IOException {
+		AtomicInteger requests = new AtomicInteger();
+		HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+		server.createContext("/chat/completions", exchange -> {
+			requests.incrementAndGet();
+			exchange.getRequestBody().readAllBytes();
+			byte[] bytes = "{\"choices\":[{\"message\":{\"content\":\"ok\"}}]}".getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, bytes.length);
+			try (OutputStream os = exchange.getResponseBody()) {
+				os.write(bytes);
+			}
+		});
+		server.start();
+		String baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+		try {
+			LlmRuntimeConfigService configService = Mockito.mock(LlmRuntimeConfigService.class);
+			when(configService.resolveAction(LlmActionType.NARRATIVE)).thenReturn(resolved(baseUrl, "key-1"));
+			when(configService.configVersion()).thenReturn(1L);
+			DbBackedLlmClient client = new DbBackedLlmClient(configService, new LlmConcurrencyLimiter(2));
+
+			assertThat(client.suggestReclassification("a").suggestion()).isEqualTo("ok");
+			assertThat(client.suggestReclassification("b").suggestion()).isEqualTo("ok");
+			assertThat(cachedClients(client)).hasSize(1);
+
+			when(configService.resolveAction(LlmActionType.NARRATIVE)).thenReturn(resolved(baseUrl, "key-2"));
+			when(configService.configVersion()).thenReturn(2L);
+			assertThat(client.suggestReclassification("c").suggestion()).isEqualTo("ok");
+			assertThat(cachedClients(client)).hasSize(1);
+			assertThat(requests.get()).isEqualTo(3);
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	@Test
+	void returnsNoopClientWhenActionDisabled() {
+		LlmRuntimeConfigService configService = Mockito.mock(LlmRuntimeConfigService.class);
+		when(configService.resolveAction(LlmActionType.NARRATIVE)).thenReturn(
+				new LlmRuntimeConfigService.ResolvedActionConfig(LlmActionType.NARRATIVE, "openai",
+						"https://api.openai.com/v1", "gpt-test", null, false, false, "missing api key"));
+		DbBackedLlmClient client = new DbBackedLlmClient(configService, new LlmConcurrencyLimiter(2));
+
+		assertThat(client.suggestReclassification("context").rationale()).contains("disabled");
+		assertThat(cachedClients(client)).isEmpty();
+	}
+
+	private LlmRuntimeConfigService.ResolvedActionConfig resolved(String baseUrl, String apiKey) {
+		return new LlmRuntimeConfigService.ResolvedActionConfig(LlmActionType.NARRATIVE, "openai", baseUrl,
+				"gpt-test", apiKey, true, false, null);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<Object, Object> cachedClients(DbBackedLlmClient client) {
+		Object cache = ((AtomicReference<Object>) ReflectionTestUtils.getField(client, "clients")).get();
+		return (Map<Object, Object>) ReflectionTestUtils.invokeMethod(cache, "clients");
+	}
+}
@@ -0,0 +1,99 @@
+package my.portfoliomanager.app.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncrementalJsonValidatorTest {
+	@Test
+	void acceptsDocumentSplitAcrossChunks() {
+		IncrementalJsonValidator validator = new IncrementalJsonValidator(Set.of("isin", "items"));
+
+		validator.feed("{\"is");
+		validator.feed("in\": \"DE000\", \"items\": [{\"unknown\": \"}\"}");
+		assertThat(validator.isComplete()).isFalse();
+		validator.feed("]}\n");
+
+		assertThat(validator.failure()).isNull();
+		assertThat(validator.isComplete()).isTrue();
+	}
+
+	@Test
+	void rejectsUnknownTopLevelPropertyAsSoonAsKeyIsClosed() {
+		IncrementalJsonValidator validator = IncrementalJsonValidator.forSchema(Map.of(
+				"type", "object",
+				"additionalProperties", false,
+				"properties", Map.of("isin", Map.of("type", "string"))
+		));
+
+		validator.feed("{\"isin\": \"DE000\", \"comment");
+		assertThat(validator.failure()).isNull();
+		validator.feed("\": ");
+
+		assertThat(validator.failure()).contains("comment");
+	}
+
+	@Test
+	void decodesUnicodeEscapesInKeys() {
+		IncrementalJsonValidator validator = new IncrementalJsonValidator(Set.of("isin"));
+
+		validator.feed("{\"\\u0069sin\": \"DE0\\u0022\"}");
+
+		assertThat(validator.failure()).isNull();
+		assertThat(validator.isComplete()).isTrue();
+	}
+
+	@Test
+	void keepsScanningAfterEscapedQuoteInKey() {
+		IncrementalJsonValidator validator = new IncrementalJsonValidator(null);
+
+		validator.feed("{\"\\u0022x\": {\"a\": [1, \"]\"]}}");
+
+		assertThat(validator.failure()).isNull();
+		assertThat(validator.isComplete()).isTrue();
+
+		IncrementalJsonValidator strict = new IncrementalJsonValidator(Set.of("isin"));
+		strict.feed("{\"\\u0022x\": 1}");
+
+		assertThat(strict.failure()).isEqualTo("Unexpected property '\"x'");
+	}
+
+	@Test
+	void rejectsMalformedUnicodeEscape() {
+		IncrementalJsonValidator validator = new IncrementalJsonValidator(null);
+
+		validator.feed("{\"\\u00zz\": 1}");
+
+		assertThat(validator.failure()).contains("unicode escape");
+	}
+
+	@Test
+	void rejectsProseAndTrailingContent() {
+		IncrementalJsonValidator prose = new IncrementalJsonValidator(null);
+		prose.feed("  Sure, here is the JSON");
+		assertThat(prose.failure()).contains("does not start");
+
+		IncrementalJsonValidator trailing = new IncrementalJsonValidator(null);
+		trailing.feed("{\"a\": 1} extra");
+		assertThat(trailing.failure()).contains("after JSON document");
+
+		IncrementalJsonValidator mismatched = new IncrementalJsonValidator(null);
+		mismatched.feed("{\"a\": [1}");
+		assertThat(mismatched.failure()).contains("Mismatched");
+	}
+
+	@Test
+	void ignoresSchemaWithoutClosedProperties() {
+		IncrementalJsonValidator validator = IncrementalJsonValidator.forSchema(Map.of(
+				"type", "object",
+				"properties", Map.of("isin", Map.of("type", "string"))
+		));
+
+		validator.feed("{\"other\": \"value\"}");
+
+		assertThat(validator.failure()).isNull();
+	}
+}
@@ -5,15 +5,20 @@ import tools.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class LlmClientTest {
 	@Test
@@ -176,6 +181,196 @@ class LlmClientTest {
 		assertThat(format.get("schema")).isInstanceOf(Map.class);
 	}
 
+	@Test
+	void openAiClientStreamsJsonPromptAndReportsProgress() throws IOException {
+		ObjectMapper mapper = new ObjectMapper();
+		AtomicReference<Map<String, Object>> captured = new AtomicReference<>();
+		HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+		server.createContext("/responses", exchange -> {
+			captured.set(mapper.readValue(exchange.getRequestBody().readAllBytes(), Map.class));
+			sendEvents(exchange, List.of(
+					"{\"type\":\"response.created\"}",
+					"{\"type\":\"response.output_text.delta\",\"delta\":\"{\\\"isin\\\": \"}",
+					"{\"type\":\"response.output_text.delta\",\"delta\":\"\\\"DE000\\\"}\"}",
+					"{\"type\":\"response.completed\",\"response\":{}}"
+			));
+		});
+		server.start();
+		int port = server.getAddress().getPort();
+		List<Integer> progress = new ArrayList<>();
+		AtomicReference<KnowledgeBaseLlmResponse> response = new AtomicReference<>();
+
+		try {
+			OpenAiLlmClient client = new OpenAiLlmClient("http://localhost:" + port, "test-key", "gpt-test",
+					new SimpleClientHttpRequestFactory(), true);
+			LlmStreamProgress.run(progress::add, () -> response.set(client.runJsonPrompt("prompt", "kb_extraction",
+					Map.of("type", "object", "additionalProperties", false,
+							"properties", Map.of("isin", Map.of("type", "string"))))));
+		} finally {
+			server.stop(0);
+		}
+
+		assertThat(captured.get().get("stream")).isEqualTo(Boolean.TRUE);
+		assertThat(response.get().output()).isEqualTo("{\"isin\": \"DE000\"}");
+		assertThat(progress).containsExactly(9, 17);
+	}
+
+	@Test
+	void openAiClientAbortsStreamWhenOutputBreaksSchema() throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+		server.createContext("/responses", exchange -> sendEvents(exchange, List.of(
+				"{\"type\":\"response.output_text.delta\",\"delta\":\"{\\\"notes\\\": \"}",
+				"{\"type\":\"response.completed\",\"response\":{}}"
+		)));
+		server.start();
+		int port = server.getAddress().getPort();
+
+		try {
+			OpenAiLlmClient client = new OpenAiLlmClient("http://localhost:" + port, "test-key", "gpt-test",
+					new SimpleClientHttpRequestFactory(), true);
+			Map<String, Object> schema = Map.of("type", "object", "additionalProperties", false,
+					"properties", Map.of("isin", Map.of("type", "string")));
+
+			assertThatThrownBy(() -> client.runJsonPrompt("prompt", "kb_extraction", schema))
+					.isInstanceOf(LlmRequestException.class)
+					.hasMessageContaining("notes");
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	@Test
+	void openAiClientMapsStreamedRateLimitToThrottledStatus() throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+		server.createContext("/responses", exchange -> sendEvents(exchange, List.of(
+				"{\"type\":\"response.created\"}",
+				"{\"type\":\"error\",\"code\":\"rate_limit_exceeded\",\"message\":\"slow down\"}"
+		)));
+		server.start();
+		int port = server.getAddress().getPort();
+
+		try {
+			OpenAiLlmClient client = new OpenAiLlmClient("http://localhost:" + port, "test-key", "gpt-test",
+					new SimpleClientHttpRequestFactory(), true);
+
+			assertThatThrownBy(() -> client.runJsonPrompt("prompt"))
+					.isInstanceOfSatisfying(LlmRequestException.class, ex -> {
+						assertThat(ex.getMessage()).isEqualTo("slow down");
+						assertThat(ex.getStatusCode()).isEqualTo(429);
+						assertThat(ex.isThrottled()).isTrue();
+						assertThat(ex.isRetryable()).isTrue();
+					});
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	@Test
+	void openAiClientMapsStreamedServerErrorToServerStatus() throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+		server.createContext("/responses", exchange -> sendEvents(exchange, List.of(
+				"{\"type\":\"response.failed\",\"response\":{\"error\":{\"code\":\"server_error\",\"message\":\"boom\"}}}"
+		)));
+		server.start();
+		int port = server.getAddress().getPort();
+
+		try {
+			OpenAiLlmClient client = new OpenAiLlmClient("http://localhost:" + port, "test-key", "gpt-test",
+					new SimpleClientHttpRequestFactory(), true);
+
+			assertThatThrownBy(() -> client.runJsonPrompt("prompt"))
+					.isInstanceOfSatisfying(LlmRequestException.class, ex -> {
+						assertThat(ex.getStatusCode()).isEqualTo(500);
+						assertThat(ex.isThrottled()).isTrue();
+					});
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	@Test
+	void openAiClientKeepsPartialOutputOfIncompleteStream() throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+		server.createContext("/responses", exchange -> sendEvents(exchange, List.of(
+				"{\"type\":\"response.output_text.delta\",\"delta\":\"{\\\"isin\\\": \\\"DE0\"}",
+				"{\"type\":\"response.incomplete\",\"response\":{\"incomplete_details\":{\"reason\":\"max_output_tokens\"}}}"
+		)));
+		server.start();
+		int port = server.getAddress().getPort();
+
+		try {
+			OpenAiLlmClient client = new OpenAiLlmClient("http://localhost:" + port, "test-key", "gpt-test",
+					new SimpleClientHttpRequestFactory(), true);
+
+			assertThat(client.runJsonPrompt("prompt").output()).isEqualTo("{\"isin\": \"DE0");
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	@Test
+	void openAiClientReportsRetryAfterOnChatCompletions() throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+		server.createContext("/chat/completions", exchange -> sendThrottled(exchange, 429, "7"));
+		server.start();
+		int port = server.getAddress().getPort();
+
+		try {
+			OpenAiLlmClient client = new OpenAiLlmClient("http://localhost:" + port, "test-key", "gpt-test");
+
+			assertThatThrownBy(() -> client.suggestSavingPlanProposal("context"))
+					.isInstanceOfSatisfying(LlmRequestException.class, ex -> {
+						assertThat(ex.getStatusCode()).isEqualTo(429);
+						assertThat(ex.isThrottled()).isTrue();
+						assertThat(ex.getRetryAfter()).isEqualTo(Duration.ofSeconds(7));
+					});
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	@Test
+	void openAiClientReportsRetryAfterOnBufferedResponses() throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+		server.createContext("/responses", exchange -> sendThrottled(exchange, 503, "3"));
+		server.start();
+		int port = server.getAddress().getPort();
+
+		try {
+			OpenAiLlmClient client = new OpenAiLlmClient("http://localhost:" + port, "test-key", "gpt-test");
+
+			assertThatThrownBy(() -> client.runJsonPrompt("prompt"))
+					.isInstanceOfSatisfying(LlmRequestException.class, ex -> {
+						assertThat(ex.getStatusCode()).isEqualTo(503);
+						assertThat(ex.isRetryable()).isTrue();
+						assertThat(ex.getRetryAfter()).isEqualTo(Duration.ofSeconds(3));
+					});
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	private static void sendThrottled(HttpExchange exchange, int status, String retryAfter) throws IOException {
+		byte[] bytes = "{\"error\":{\"message\":\"slow down\"}}".getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.getResponseHeaders().add("Retry-After", retryAfter);
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream os = exchange.getResponseBody()) {
+			os.write(bytes);
+		}
+	}
+
+	private static void sendEvents(HttpExchange exchange, List<String> events) throws IOException {
+		exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+		exchange.sendResponseHeaders(200, 0);
+		try (OutputStream os = exchange.getResponseBody()) {
+			for (String event : events) {
+				os.write(("data: " + event + "\n\n").getBytes(StandardCharsets.UTF_8));
+				os.flush();
+			}
+		}
+	}
+
 	private static class JsonHandler implements HttpHandler {
 		@Override
 		public void handle(HttpExchange exchange) throws IOException {
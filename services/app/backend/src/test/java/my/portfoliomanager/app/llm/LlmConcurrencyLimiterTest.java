@@ -0,0 +1,48 @@
+package my.portfoliomanager.app.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LlmConcurrencyLimiterTest {
+	@Test
+	void halvesLimitAndPausesOnThrottling() {
+		LlmConcurrencyLimiter limiter = new LlmConcurrencyLimiter(8);
+		LlmRequestException throttled = new LlmRequestException("rate limited", 429, true, Duration.ofSeconds(3), null);
+
+		assertThatThrownBy(() -> limiter.call(() -> {
+			throw throttled;
+		})).isSameAs(throttled);
+
+		assertThat(limiter.currentLimit()).isEqualTo(4);
+		assertThat(limiter.pauseRemainingMillis()).isBetween(2000L, 3000L);
+	}
+
+	@Test
+	void ignoresNonThrottlingErrors() {
+		LlmConcurrencyLimiter limiter = new LlmConcurrencyLimiter(4);
+
+		assertThatThrownBy(() -> limiter.call(() -> {
+			throw new LlmRequestException("bad request", 400, false, null);
+		})).isInstanceOf(LlmRequestException.class);
+
+		assertThat(limiter.currentLimit()).isEqualTo(4);
+		assertThat(limiter.pauseRemainingMillis()).isZero();
+		assertThat(limiter.call(() -> "ok")).isEqualTo("ok");
+	}
+
+	@Test
+	void retryDelayHonoursRetryAfter() {
+		LlmRequestException withHeader = new LlmRequestException("rate limited", 429, true, Duration.ofSeconds(30), null);
+		LlmRequestException withoutHeader = new LlmRequestException("unavailable", 503, true, null);
+
+		assertThat(LlmConcurrencyLimiter.retryDelay(withHeader, 1, 1, 10)).isGreaterThanOrEqualTo(Duration.ofSeconds(30));
+		assertThat(LlmConcurrencyLimiter.retryDelay(withoutHeader, 1, 2, 10))
+				.isBetween(Duration.ofSeconds(1), Duration.ofSeconds(3));
+		assertThat(LlmConcurrencyLimiter.retryDelay(withoutHeader, 10, 2, 10))
+				.isBetween(Duration.ofSeconds(5), Duration.ofSeconds(15));
+	}
+}
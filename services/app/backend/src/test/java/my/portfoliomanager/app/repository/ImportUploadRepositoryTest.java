@@ -0,0 +1,75 @@
+package my.portfoliomanager.app.repository;
+
+import my.portfoliomanager.app.service.JobQueueService;
+import my.portfoliomanager.app.support.TestDatabaseCleaner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = my.portfoliomanager.app.AppApplication.class)
+@ActiveProfiles("test")
+class ImportUploadRepositoryTest {
+	private static final String JWT_SECRET = UUID.randomUUID().toString();
+
+	@Autowired
+	private ImportUploadRepository uploadRepository;
+
+	@Autowired
+	private JobQueueService jobQueue;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TestDatabaseCleaner databaseCleaner;
+
+	@TempDir
+	Path tempDir;
+
+	@DynamicPropertySource
+	static void registerProperties(DynamicPropertyRegistry registry) {
+		registry.add("app.security.admin-user", () -> "admin");
+		registry.add("app.security.admin-pass", () -> "admin");
+		registry.add("app.jwt.secret", () -> JWT_SECRET);
+		registry.add("app.jwt.issuer", () -> "test-issuer");
+	}
+
+	@AfterEach
+	void tearDown() {
+		databaseCleaner.clean();
+	}
+
+	@Test
+	void storesContentInChunksAndCopiesItBack() throws Exception {
+		byte[] content = new byte[ImportUploadRepository.CHUNK_SIZE * 2 + 17];
+		new Random(42).nextBytes(content);
+		Path source = Files.write(tempDir.resolve("upload.bin"), content);
+		String jobId = jobQueue.record("depot-import", null, null, null, null, "test").jobId();
+
+		uploadRepository.insert(jobId, source);
+
+		assertThat(jdbcTemplate.queryForObject("select count(*) from import_upload_chunks where job_id = ?",
+				Integer.class, jobId)).isEqualTo(3);
+		Path target = tempDir.resolve("copy.bin");
+		assertThat(uploadRepository.copyContent(jobId, target)).isTrue();
+		assertThat(Files.readAllBytes(target)).isEqualTo(content);
+
+		uploadRepository.delete(jobId);
+
+		assertThat(uploadRepository.copyContent(jobId, tempDir.resolve("missing.bin"))).isFalse();
+		assertThat(jdbcTemplate.queryForObject("select count(*) from import_upload_chunks", Integer.class)).isZero();
+	}
+}
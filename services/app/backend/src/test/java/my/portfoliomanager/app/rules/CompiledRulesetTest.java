@@ -0,0 +1,70 @@
+package my.portfoliomanager.app.rules;
+
+import my.portfoliomanager.app.domain.Instrument;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledRulesetTest {
+	@Test
+	void indexesRulesByFieldInPriorityOrder() {
+		RulesetDefinition ruleset = new RulesetDefinition();
+		ruleset.setRules(List.of(
+				rule("low", "name_norm", "CONTAINS", "bond", 1),
+				rule("high", "name_norm", "REGEX", "^global", 9),
+				rule("type", "instrument_type", "IN", null, 5),
+				rule("unknown", "does_not_exist", "EQ", "x", 20)
+		));
+
+		CompiledRuleset compiled = CompiledRuleset.compile(ruleset);
+
+		assertThat(compiled.rules()).extracting(rule -> rule.definition().getId())
+				.containsExactly("unknown", "high", "type", "low");
+		assertThat(compiled.rulesByField()).containsOnlyKeys(FactField.NAME_NORM);
+		assertThat(compiled.rulesByField().get(FactField.NAME_NORM))
+				.extracting(rule -> rule.definition().getId())
+				.containsExactly("high", "low");
+	}
+
+	@Test
+	void matchesPrecompiledOperatorsCaseInsensitively() {
+		MatchDefinition in = new MatchDefinition();
+		in.setField("instrument_type");
+		in.setOperator("IN");
+		in.setValues(List.of("ETF", "Fund"));
+		RuleDefinition inRule = rule("in", "instrument_type", "IN", null, 3);
+		inRule.setMatch(in);
+
+		RulesetDefinition ruleset = new RulesetDefinition();
+		ruleset.setRules(List.of(
+				inRule,
+				rule("regex", "name", "REGEX", "world\\s+index", 2),
+				rule("eq", "isin", "EQ", "de0001", 1)
+		));
+		CompiledRuleset compiled = CompiledRuleset.compile(ruleset);
+		assertThat(compiled.rules().get(1).match().pattern()).isNotNull();
+
+		Instrument instrument = new Instrument();
+		instrument.setIsin("DE0001");
+		instrument.setName("MSCI World  Index");
+		instrument.setInstrumentType("etf");
+
+		boolean[] matched = compiled.match(RuleFacts.of(instrument, false));
+
+		assertThat(matched).containsExactly(true, true, true);
+	}
+
+	private RuleDefinition rule(String id, String field, String operator, String value, int priority) {
+		RuleDefinition rule = new RuleDefinition();
+		rule.setId(id);
+		rule.setPriority(priority);
+		MatchDefinition match = new MatchDefinition();
+		match.setField(field);
+		match.setOperator(operator);
+		match.setValue(value);
+		rule.setMatch(match);
+		return rule;
+	}
+}
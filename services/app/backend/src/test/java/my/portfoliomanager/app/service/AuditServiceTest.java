@@ -1,21 +1,24 @@
 package my.portfoliomanager.app.service;
 
-import my.portfoliomanager.app.domain.InstrumentEdit;
-import my.portfoliomanager.app.repository.InstrumentEditRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class AuditServiceTest {
 	@Mock
-	private InstrumentEditRepository repository;
+	private JdbcTemplate jdbcTemplate;
 
 	@InjectMocks
 	private AuditService auditService;
@@ -24,16 +27,18 @@ class AuditServiceTest {
 	void recordEditPersistsAuditEntry() {
 		auditService.recordEdit("ISIN1", "layer", "5", "2", "tester", "apply");
 
-		ArgumentCaptor<InstrumentEdit> captor = ArgumentCaptor.forClass(InstrumentEdit.class);
-		verify(repository).save(captor.capture());
-		InstrumentEdit edit = captor.getValue();
-
-		assertThat(edit.getIsin()).isEqualTo("ISIN1");
-		assertThat(edit.getField()).isEqualTo("layer");
-		assertThat(edit.getOldValue()).isEqualTo("5");
-		assertThat(edit.getNewValue()).isEqualTo("2");
-		assertThat(edit.getEditedBy()).isEqualTo("tester");
-		assertThat(edit.getSource()).isEqualTo("apply");
-		assertThat(edit.getEditedAt()).isNotNull();
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate).batchUpdate(anyString(), captor.capture());
+		assertThat(captor.getValue()).hasSize(1);
+		Object[] row = captor.getValue().get(0);
+
+		assertThat(row[0]).isEqualTo("ISIN1");
+		assertThat(row[1]).isEqualTo("layer");
+		assertThat(row[2]).isEqualTo("5");
+		assertThat(row[3]).isEqualTo("2");
+		assertThat(row[4]).isInstanceOf(Timestamp.class);
+		assertThat(row[5]).isEqualTo("tester");
+		assertThat(row[6]).isEqualTo("apply");
 	}
 }
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
@@ -27,6 +28,12 @@ class AuthTokenServiceTest {
 	@Autowired
 	private AuthTokenRepository authTokenRepository;
 
+	@Autowired
+	private JwtTokenHasher hasher;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
 	@Autowired
 	private TestDatabaseCleaner databaseCleaner;
 
@@ -68,6 +75,82 @@ class AuthTokenServiceTest {
 		assertThat(authTokenService.isTokenActive(jti, Instant.now())).isFalse();
 	}
 
+	@Test
+	void cachesActiveDecisionUntilRevoked() {
+		Instant now = Instant.now();
+		Instant expiresAt = now.plusSeconds(600);
+		String jti = UUID.randomUUID().toString();
+		authTokenService.storeToken(jti, "admin", now, expiresAt);
+		long hitsBefore = authTokenService.cacheStats().hits();
+
+		assertThat(authTokenService.isTokenActive(jti, expiresAt, now)).isTrue();
+		assertThat(authTokenService.isTokenActive(jti, expiresAt, now)).isTrue();
+		assertThat(authTokenService.cacheStats().hits()).isEqualTo(hitsBefore + 1);
+
+		authTokenService.revokeToken(jti);
+
+		assertThat(authTokenService.isTokenActive(jti, expiresAt, Instant.now())).isFalse();
+	}
+
+	@Test
+	void revocationNotificationFromAnotherNodeEvictsCachedDecision() throws Exception {
+		Instant now = Instant.now();
+		Instant expiresAt = now.plusSeconds(600);
+		String jti = UUID.randomUUID().toString();
+		authTokenService.storeToken(jti, "admin", now, expiresAt);
+		assertThat(authTokenService.isTokenActive(jti, expiresAt, now)).isTrue();
+
+		String hash = hasher.hashJti(jti);
+		jdbcTemplate.update("update auth_tokens set revoked_at = now() where jti_hash = ?", hash);
+		jdbcTemplate.query("select pg_notify(?, ?)", rs -> {
+		}, AuthTokenService.REVOCATION_CHANNEL, hash);
+
+		boolean active = true;
+		for (int i = 0; i < 50 && active; i++) {
+			active = authTokenService.isTokenActive(jti, expiresAt, Instant.now());
+			if (active) {
+				Thread.sleep(100);
+			}
+		}
+		assertThat(active).isFalse();
+	}
+
+	@Test
+	void revokeAllNotificationDropsEveryCachedDecision() throws Exception {
+		Instant now = Instant.now();
+		Instant expiresAt = now.plusSeconds(600);
+		String jti = UUID.randomUUID().toString();
+		authTokenService.storeToken(jti, "admin", now, expiresAt);
+		assertThat(authTokenService.isTokenActive(jti, expiresAt, now)).isTrue();
+
+		jdbcTemplate.update("delete from auth_tokens where jti_hash = ?", hasher.hashJti(jti));
+		jdbcTemplate.query("select pg_notify(?, ?)", rs -> {
+		}, AuthTokenService.REVOCATION_CHANNEL, AuthTokenService.REVOKE_ALL_PAYLOAD);
+
+		boolean active = true;
+		for (int i = 0; i < 50 && active; i++) {
+			active = authTokenService.isTokenActive(jti, expiresAt, Instant.now());
+			if (active) {
+				Thread.sleep(100);
+			}
+		}
+		assertThat(active).isFalse();
+	}
+
+	@Test
+	void invalidateCachedDecisionsForgetsTokensRemovedByARestore() {
+		Instant now = Instant.now();
+		Instant expiresAt = now.plusSeconds(600);
+		String jti = UUID.randomUUID().toString();
+		authTokenService.storeToken(jti, "admin", now, expiresAt);
+		assertThat(authTokenService.isTokenActive(jti, expiresAt, now)).isTrue();
+
+		jdbcTemplate.update("delete from auth_tokens where jti_hash = ?", hasher.hashJti(jti));
+		authTokenService.invalidateCachedDecisions();
+
+		assertThat(authTokenService.isTokenActive(jti, expiresAt, Instant.now())).isFalse();
+	}
+
 	@Test
 	void storeTokenRejectsBlankJti() {
 		Instant now = Instant.now();
@@ -0,0 +1,161 @@
+package my.portfoliomanager.app.service;
+
+import my.portfoliomanager.app.config.BackupProperties;
+import my.portfoliomanager.app.support.TestDatabaseCleaner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = my.portfoliomanager.app.AppApplication.class)
+@ActiveProfiles("test")
+class BackupExportIntegrationTest {
+	private static final String JWT_SECRET = UUID.randomUUID().toString();
+	private static final ObjectMapper JSON = JsonMapper.builder().build();
+
+	@Autowired
+	private BackupService backupService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private LlmRuntimeConfigService llmRuntimeConfigService;
+
+	@Autowired
+	private AuthTokenService authTokenService;
+
+	@Autowired
+	private TestDatabaseCleaner databaseCleaner;
+
+	@DynamicPropertySource
+	static void registerProperties(DynamicPropertyRegistry registry) {
+		registry.add("app.security.admin-user", () -> "admin");
+		registry.add("app.security.admin-pass", () -> "admin");
+		registry.add("app.jwt.secret", () -> JWT_SECRET);
+		registry.add("app.jwt.issuer", () -> "test-issuer");
+		registry.add("app.llm-config-encryption-password", () -> "backup-test-password");
+	}
+
+	@BeforeEach
+	void setUp() {
+		databaseCleaner.clean();
+		jdbcTemplate.update("insert into depots (depot_id, depot_code, name, provider) values (1, 'tr', 'Trade Republic', 'TR')");
+		// More rows than one cursor fetch, so the export has to page through the result set.
+		jdbcTemplate.update("""
+				insert into instruments (isin, name, depot_code, layer, is_deleted)
+				select 'DE' || lpad(i::text, 10, '0'), 'Instrument ' || i, 'tr', 5, false
+				from generate_series(1, 1200) i
+				""");
+	}
+
+	@AfterEach
+	void tearDown() {
+		databaseCleaner.clean();
+	}
+
+	@Test
+	void streamedExportLeavesTargetOpenAndMatchesMetadata() throws Exception {
+		TrackingOutputStream output = new TrackingOutputStream();
+
+		backupService.exportBackup(output);
+
+		assertThat(output.closed).isFalse();
+		Map<String, byte[]> entries = unzip(output.toByteArray());
+		JsonNode metadata = JSON.readTree(entries.get("metadata.json"));
+		JsonNode instruments = findTable(metadata, "instruments");
+		assertThat(instruments.get("rowCount").asInt()).isEqualTo(1200);
+		for (JsonNode table : metadata.get("tables")) {
+			byte[] data = entries.get("data/" + table.get("name").asText() + ".json");
+			assertThat(data).as(table.get("name").asText()).isNotNull();
+			assertThat(sha256(data)).isEqualTo(table.get("sha256").asText());
+		}
+		assertThat(JSON.readTree(entries.get("data/instruments.json")).size()).isEqualTo(1200);
+	}
+
+	@Test
+	void parallelExportMatchesSerialExportAndRestores() throws Exception {
+		BackupService serial = new BackupService(jdbcTemplate, namedParameterJdbcTemplate, dataSource,
+				llmRuntimeConfigService, authTokenService, new BackupProperties(null, 1, null));
+		ByteArrayOutputStream serialOutput = new ByteArrayOutputStream();
+		serial.exportBackup(serialOutput);
+		ByteArrayOutputStream parallelOutput = new ByteArrayOutputStream();
+		backupService.exportBackup(parallelOutput);
+
+		JsonNode serialTables = JSON.readTree(unzip(serialOutput.toByteArray()).get("metadata.json")).get("tables");
+		JsonNode parallelTables = JSON.readTree(unzip(parallelOutput.toByteArray()).get("metadata.json")).get("tables");
+		assertThat(parallelTables.size()).isEqualTo(serialTables.size());
+		for (int i = 0; i < serialTables.size(); i++) {
+			assertThat(parallelTables.get(i).get("name")).isEqualTo(serialTables.get(i).get("name"));
+			assertThat(parallelTables.get(i).get("rowCount")).isEqualTo(serialTables.get(i).get("rowCount"));
+			assertThat(parallelTables.get(i).get("sha256")).isEqualTo(serialTables.get(i).get("sha256"));
+		}
+
+		databaseCleaner.clean();
+		backupService.importBackup(new MockMultipartFile("file", "backup.zip", "application/zip",
+				parallelOutput.toByteArray()));
+		assertThat(jdbcTemplate.queryForObject("select count(*) from instruments", Integer.class)).isEqualTo(1200);
+	}
+
+	private JsonNode findTable(JsonNode metadata, String name) {
+		for (JsonNode table : metadata.get("tables")) {
+			if (name.equals(table.get("name").asText())) {
+				return table;
+			}
+		}
+		throw new AssertionError("Table missing from metadata: " + name);
+	}
+
+	private Map<String, byte[]> unzip(byte[] archive) throws Exception {
+		Map<String, byte[]> entries = new HashMap<>();
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+			ZipEntry entry;
+			while ((entry = zip.getNextEntry()) != null) {
+				entries.put(entry.getName(), zip.readAllBytes());
+			}
+		}
+		return entries;
+	}
+
+	private String sha256(byte[] data) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+	}
+
+	private static final class TrackingOutputStream extends ByteArrayOutputStream {
+		private boolean closed;
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+}
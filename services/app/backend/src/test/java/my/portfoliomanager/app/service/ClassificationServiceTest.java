@@ -1,31 +1,39 @@
 package my.portfoliomanager.app.service;
 
 import my.portfoliomanager.app.domain.Instrument;
+import my.portfoliomanager.app.domain.InstrumentEdit;
+import my.portfoliomanager.app.domain.InstrumentOverride;
 import my.portfoliomanager.app.dto.ClassificationDto;
 import my.portfoliomanager.app.repository.InstrumentRepository;
 import my.portfoliomanager.app.repository.InstrumentOverrideRepository;
 import my.portfoliomanager.app.repository.SavingPlanRepository;
 import my.portfoliomanager.app.repository.SnapshotPositionRepository;
+import my.portfoliomanager.app.dto.ReclassificationDto;
 import my.portfoliomanager.app.rules.ActionsDefinition;
+import my.portfoliomanager.app.rules.CompiledRuleset;
 import my.portfoliomanager.app.rules.MatchDefinition;
 import my.portfoliomanager.app.rules.PoliciesDefinition;
 import my.portfoliomanager.app.rules.RuleDefinition;
 import my.portfoliomanager.app.rules.RulesetDefinition;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -50,14 +58,23 @@ class ClassificationServiceTest {
 	@Mock
 	private KnowledgeBaseClassificationService knowledgeBaseClassificationService;
 
-	@InjectMocks
+	private ForkJoinPool evaluationPool;
+
 	private ClassificationService classificationService;
 
 	@BeforeEach
-	void stubKnowledgeBase() {
+	void setUp() {
+		evaluationPool = new ForkJoinPool(4);
+		classificationService = new ClassificationService(instrumentRepository, overrideRepository, savingPlanRepository,
+				snapshotPositionRepository, auditService, knowledgeBaseClassificationService, evaluationPool);
 		when(knowledgeBaseClassificationService.findSuggestions(anyList())).thenReturn(Map.of());
 	}
 
+	@AfterEach
+	void tearDown() {
+		evaluationPool.close();
+	}
+
 	@Test
 	void applyUpdatesLayerAndWritesAudit() {
 		Instrument instrument = new Instrument();
@@ -66,11 +83,8 @@ class ClassificationServiceTest {
 		instrument.setLayer(5);
 		instrument.setInstrumentType("ETF");
 
-		when(instrumentRepository.findAll()).thenReturn(List.of(instrument));
-		when(instrumentRepository.findById("ISIN1")).thenReturn(java.util.Optional.of(instrument));
-		when(instrumentRepository.save(any(Instrument.class))).thenAnswer(invocation -> invocation.getArgument(0));
-		when(overrideRepository.findById("ISIN1")).thenReturn(java.util.Optional.empty());
-		when(savingPlanRepository.existsActiveByIsin("ISIN1")).thenReturn(false);
+		when(instrumentRepository.findByIsinIn(List.of("ISIN1"))).thenReturn(List.of(instrument));
+		when(overrideRepository.findAllById(any())).thenReturn(List.of());
 		when(savingPlanRepository.sumActiveAmountsByIsin()).thenReturn(List.of());
 		when(snapshotPositionRepository.sumValueEurByIsinActiveSnapshots())
 				.thenReturn(List.<Object[]>of(new Object[]{"ISIN1", BigDecimal.valueOf(1000)}));
@@ -100,10 +114,57 @@ class ClassificationServiceTest {
 		assertThat(results).hasSize(1);
 		assertThat(results.get(0).policyAdjusted().layer()).isEqualTo(2);
 
-		ArgumentCaptor<Instrument> captor = ArgumentCaptor.forClass(Instrument.class);
-		verify(instrumentRepository).save(captor.capture());
-		assertThat(captor.getValue().getLayer()).isEqualTo(2);
-		verify(auditService, times(1)).recordEdit(any(), any(), any(), any(), any(), any());
+		ArgumentCaptor<List<Instrument>> captor = ArgumentCaptor.captor();
+		verify(instrumentRepository).saveAll(captor.capture());
+		assertThat(captor.getValue()).singleElement().extracting(Instrument::getLayer).isEqualTo(2);
+		ArgumentCaptor<List<InstrumentEdit>> edits = ArgumentCaptor.captor();
+		verify(auditService, times(1)).recordEdits(edits.capture());
+		assertThat(edits.getValue()).singleElement().extracting(InstrumentEdit::getField).isEqualTo("layer");
+		verify(instrumentRepository, never()).findAll();
+		verify(savingPlanRepository, never()).existsActiveByIsin(any());
+	}
+
+	@Test
+	void applyBatchesOverrideChangesWithInstrumentEdits() {
+		Instrument instrument = new Instrument();
+		instrument.setIsin("ISIN4");
+		instrument.setName("World ETF");
+		instrument.setLayer(5);
+		InstrumentOverride override = new InstrumentOverride();
+		override.setIsin("ISIN4");
+		override.setLayer(4);
+
+		when(instrumentRepository.findByIsinIn(List.of("ISIN4"))).thenReturn(List.of(instrument));
+		when(overrideRepository.findAllById(any())).thenReturn(List.of(override));
+		when(savingPlanRepository.sumActiveAmountsByIsin()).thenReturn(List.of());
+		when(snapshotPositionRepository.sumValueEurByIsinActiveSnapshots()).thenReturn(List.of());
+		when(snapshotPositionRepository.sumValueEurActiveSnapshots()).thenReturn(0.0);
+
+		RulesetDefinition ruleset = new RulesetDefinition();
+		ruleset.setSchemaVersion(1);
+		ruleset.setName("default");
+		RuleDefinition rule = new RuleDefinition();
+		rule.setId("r1");
+		rule.setPriority(10);
+		rule.setScore(50);
+		MatchDefinition match = new MatchDefinition();
+		match.setField("name_norm");
+		match.setOperator("CONTAINS");
+		match.setValue("etf");
+		rule.setMatch(match);
+		ActionsDefinition actions = new ActionsDefinition();
+		actions.setLayer(3);
+		rule.setActions(actions);
+		ruleset.setRules(List.of(rule));
+
+		classificationService.apply(ruleset, false, "tester", List.of("ISIN4", "ISIN4"));
+
+		assertThat(override.getLayer()).isEqualTo(3);
+		verify(overrideRepository).saveAll(List.of(override));
+		ArgumentCaptor<List<InstrumentEdit>> edits = ArgumentCaptor.captor();
+		verify(auditService).recordEdits(edits.capture());
+		assertThat(edits.getValue()).extracting(InstrumentEdit::getSource)
+				.containsExactly("ruleset_apply", "ruleset_apply_override");
 	}
 
 	@Test
@@ -113,9 +174,9 @@ class ClassificationServiceTest {
 		instrument.setName("Global ETF");
 		instrument.setLayer(5);
 
-		when(instrumentRepository.findAll()).thenReturn(List.of(instrument));
-		when(savingPlanRepository.existsActiveByIsin("ISIN2")).thenReturn(true);
-		when(savingPlanRepository.sumActiveAmountsByIsin()).thenReturn(List.of());
+		when(instrumentRepository.findByIsinIn(List.of("ISIN2"))).thenReturn(List.of(instrument));
+		when(savingPlanRepository.sumActiveAmountsByIsin())
+				.thenReturn(List.<Object[]>of(new Object[]{"ISIN2", BigDecimal.valueOf(100)}));
 		when(snapshotPositionRepository.sumValueEurByIsinActiveSnapshots()).thenReturn(List.of());
 		when(snapshotPositionRepository.sumValueEurActiveSnapshots()).thenReturn(0.0);
 
@@ -138,8 +199,9 @@ class ClassificationServiceTest {
 
 		var results = classificationService.apply(ruleset, true, "tester", List.of("ISIN2"));
 		assertThat(results).hasSize(1);
-		verify(instrumentRepository, times(0)).save(any());
-		verify(auditService, times(0)).recordEdit(any(), any(), any(), any(), any(), any());
+		assertThat(results.get(0).policyAdjusted().layer()).isEqualTo(1);
+		verify(instrumentRepository, times(0)).saveAll(any());
+		verify(auditService, times(0)).recordEdits(any());
 	}
 
 	@Test
@@ -150,7 +212,6 @@ class ClassificationServiceTest {
 		instrument.setLayer(5);
 
 		when(instrumentRepository.findAll()).thenReturn(List.of(instrument));
-		when(savingPlanRepository.existsActiveByIsin("ISIN-KB")).thenReturn(false);
 		when(savingPlanRepository.sumActiveAmountsByIsin()).thenReturn(List.of());
 		when(snapshotPositionRepository.sumValueEurByIsinActiveSnapshots()).thenReturn(List.of());
 		when(snapshotPositionRepository.sumValueEurActiveSnapshots()).thenReturn(0.0);
@@ -188,6 +249,82 @@ class ClassificationServiceTest {
 		assertThat(results.get(0).confidence()).isEqualTo(1.0d);
 	}
 
+	@Test
+	void simulateKeepsInstrumentOrderForLargeUniverse() {
+		List<Instrument> instruments = new java.util.ArrayList<>();
+		for (int i = 0; i < 1200; i++) {
+			Instrument instrument = new Instrument();
+			instrument.setIsin(String.format("ISIN%04d", i));
+			instrument.setName(i % 2 == 0 ? "Global ETF " + i : "Corporate Bond " + i);
+			instrument.setLayer(5);
+			instruments.add(instrument);
+		}
+
+		when(instrumentRepository.findAll()).thenReturn(instruments);
+		when(savingPlanRepository.sumActiveAmountsByIsin()).thenReturn(List.of());
+		when(snapshotPositionRepository.sumValueEurByIsinActiveSnapshots()).thenReturn(List.of());
+		when(snapshotPositionRepository.sumValueEurActiveSnapshots()).thenReturn(0.0);
+
+		RulesetDefinition ruleset = new RulesetDefinition();
+		ruleset.setSchemaVersion(1);
+		ruleset.setName("default");
+		RuleDefinition rule = new RuleDefinition();
+		rule.setId("r1");
+		rule.setPriority(10);
+		rule.setScore(10);
+		MatchDefinition match = new MatchDefinition();
+		match.setField("name_norm");
+		match.setOperator("CONTAINS");
+		match.setValue("etf");
+		rule.setMatch(match);
+		ActionsDefinition actions = new ActionsDefinition();
+		actions.setLayer(2);
+		rule.setActions(actions);
+		ruleset.setRules(List.of(rule));
+
+		var results = classificationService.simulate(ruleset);
+
+		assertThat(results).extracting(r -> r.isin())
+				.containsExactlyElementsOf(instruments.stream().map(Instrument::getIsin).toList());
+		assertThat(results.get(0).proposed().layer()).isEqualTo(2);
+		assertThat(results.get(1).proposed().layer()).isEqualTo(5);
+	}
+
+	@Test
+	void simulateStreamPagesInstrumentsByIsin() {
+		List<Instrument> firstPage = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			Instrument instrument = new Instrument();
+			instrument.setIsin(String.format("ISIN%04d", i));
+			instrument.setName("Global ETF " + i);
+			instrument.setLayer(5);
+			firstPage.add(instrument);
+		}
+		Instrument last = new Instrument();
+		last.setIsin("ISIN9999");
+		last.setName("Corporate Bond");
+		last.setLayer(5);
+
+		when(instrumentRepository.findByIsinGreaterThanOrderByIsinAsc(eq(""), any())).thenReturn(firstPage);
+		when(instrumentRepository.findByIsinGreaterThanOrderByIsinAsc(eq("ISIN0499"), any())).thenReturn(List.of(last));
+		when(savingPlanRepository.sumActiveAmountsByIsin()).thenReturn(List.of());
+		when(snapshotPositionRepository.sumValueEurByIsinActiveSnapshots()).thenReturn(List.of());
+		when(snapshotPositionRepository.sumValueEurActiveSnapshots()).thenReturn(0.0);
+		RulesetDefinition ruleset = new RulesetDefinition();
+		ruleset.setSchemaVersion(1);
+		ruleset.setName("default");
+		ruleset.setRules(List.of());
+
+		List<List<ReclassificationDto>> chunks = new ArrayList<>();
+		classificationService.simulateStream(CompiledRuleset.compile(ruleset), null, chunks::add);
+
+		assertThat(chunks).hasSize(2);
+		assertThat(chunks.get(0)).hasSize(500);
+		assertThat(chunks.get(1)).extracting(ReclassificationDto::isin).containsExactly("ISIN9999");
+		verify(instrumentRepository, never()).findAll();
+		verify(knowledgeBaseClassificationService, times(2)).findSuggestions(anyList());
+	}
+
 	@Test
 	void simulateAsOfUsesAsOfQueries() {
 		Instrument instrument = new Instrument();
@@ -196,7 +333,6 @@ class ClassificationServiceTest {
 		instrument.setLayer(5);
 
 		when(instrumentRepository.findAll()).thenReturn(List.of(instrument));
-		when(savingPlanRepository.existsActiveByIsin("ISIN3")).thenReturn(false);
 		when(savingPlanRepository.sumActiveAmountsByIsin()).thenReturn(List.of());
 		when(snapshotPositionRepository.sumValueEurByIsinAsOf(any()))
 				.thenReturn(List.<Object[]>of(new Object[]{"ISIN3", BigDecimal.valueOf(200)}));
@@ -2,23 +2,30 @@ package my.portfoliomanager.app.service;
 
 import my.portfoliomanager.app.domain.Depot;
 import my.portfoliomanager.app.domain.ImportFile;
+import my.portfoliomanager.app.domain.Instrument;
 import my.portfoliomanager.app.domain.Ruleset;
 import my.portfoliomanager.app.domain.Snapshot;
+import my.portfoliomanager.app.domain.SnapshotPosition;
 import my.portfoliomanager.app.dto.ImportResultDto;
+import my.portfoliomanager.app.repository.BulkUpsertRepository;
 import my.portfoliomanager.app.repository.DepotRepository;
 import my.portfoliomanager.app.repository.ImportFileRepository;
 import my.portfoliomanager.app.repository.InstrumentRepository;
-import my.portfoliomanager.app.repository.SnapshotPositionRepository;
 import my.portfoliomanager.app.repository.SnapshotRepository;
 import my.portfoliomanager.app.rules.RulesetDefinition;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.nio.file.Files;
+import java.security.MessageDigest;
 import java.time.LocalDate;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +34,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -42,7 +50,7 @@ class ImportServiceTest {
 	private SnapshotRepository snapshotRepository;
 
 	@Mock
-	private SnapshotPositionRepository snapshotPositionRepository;
+	private BulkUpsertRepository bulkUpsertRepository;
 
 	@Mock
 	private ImportFileRepository importFileRepository;
@@ -53,6 +61,9 @@ class ImportServiceTest {
 	@Mock
 	private ClassificationService classificationService;
 
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
 	@InjectMocks
 	private ImportService importService;
 
@@ -71,7 +82,7 @@ class ImportServiceTest {
 		when(depotRepository.findByDepotCode("deka")).thenReturn(Optional.of(depot));
 		when(importFileRepository.findByDepotCodeAndFileHashAndStatus(eq("deka"), any(), eq("imported")))
 				.thenReturn(Optional.empty());
-		when(instrumentRepository.findByIsinIn(anyList())).thenReturn(List.of());
+		when(instrumentRepository.findExistingIsins(anyList())).thenReturn(List.of());
 		when(snapshotRepository.findByDepotIdAndAsOfDateAndSourceAndFileHash(eq(1L), any(LocalDate.class), any(), any()))
 				.thenReturn(Optional.empty());
 		when(snapshotRepository.save(any(Snapshot.class))).thenAnswer(invocation -> {
@@ -81,7 +92,6 @@ class ImportServiceTest {
 			}
 			return snapshot;
 		});
-		when(snapshotPositionRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
 		when(importFileRepository.findByDepotCodeAndFileHash(eq("deka"), any())).thenReturn(Optional.empty());
 		when(importFileRepository.save(any(ImportFile.class))).thenAnswer(invocation -> invocation.getArgument(0));
 		when(rulesetService.getActiveRuleset("default")).thenReturn(Optional.empty());
@@ -93,6 +103,48 @@ class ImportServiceTest {
 		verify(instrumentRepository).markDeletedForDepot(eq("deka"), anyList());
 	}
 
+	@Test
+	void importDepotStatementUpsertsInstrumentsInOneBatch() {
+		String csv = "Wertpapier;St_Nom;Wert;ISIN\n"
+				+ "Alpha Fonds;1.000,00;2.000,00;DE0000000001\n"
+				+ "Beta Fonds;3,00;4,00;DE0000000002\n";
+		MockMultipartFile file = new MockMultipartFile("file", "deka.csv", "text/csv", csv.getBytes());
+
+		Depot depot = new Depot();
+		depot.setDepotId(1L);
+		depot.setDepotCode("deka");
+		depot.setName("Deka Depot");
+		depot.setProvider("Deka");
+
+		when(depotRepository.findByDepotCode("deka")).thenReturn(Optional.of(depot));
+		when(importFileRepository.findByDepotCodeAndFileHashAndStatus(eq("deka"), any(), eq("imported")))
+				.thenReturn(Optional.empty());
+		when(instrumentRepository.findExistingIsins(anyList())).thenReturn(List.of("DE0000000001"));
+		when(snapshotRepository.findByDepotIdAndAsOfDateAndSourceAndFileHash(eq(1L), any(LocalDate.class), any(), any()))
+				.thenReturn(Optional.empty());
+		when(snapshotRepository.save(any(Snapshot.class))).thenAnswer(invocation -> {
+			Snapshot snapshot = invocation.getArgument(0);
+			snapshot.setSnapshotId(13L);
+			return snapshot;
+		});
+		when(importFileRepository.findByDepotCodeAndFileHash(eq("deka"), any())).thenReturn(Optional.empty());
+		when(importFileRepository.save(any(ImportFile.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		ImportResultDto result = importService.importDepotStatement(file, "deka", false, false, false, "tester");
+
+		assertThat(result.instrumentsImported()).isEqualTo(1);
+		assertThat(result.positions()).isEqualTo(2);
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<Instrument>> instruments = ArgumentCaptor.forClass(List.class);
+		verify(bulkUpsertRepository).upsertInstruments(instruments.capture());
+		assertThat(instruments.getValue()).extracting(Instrument::getIsin)
+				.containsExactly("DE0000000001", "DE0000000002");
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<SnapshotPosition>> positions = ArgumentCaptor.forClass(List.class);
+		verify(bulkUpsertRepository).upsertSnapshotPositions(positions.capture());
+		assertThat(positions.getValue()).extracting(sp -> sp.getId().getSnapshotId()).containsOnly(13L);
+	}
+
 	@Test
 	void importDepotStatementSkipsDuplicateHash() {
 		String csv = "Wertpapier;St_Nom;Wert;ISIN\n"
@@ -108,10 +160,15 @@ class ImportServiceTest {
 		Snapshot snapshot = new Snapshot();
 		snapshot.setSnapshotId(42L);
 
+		ImportFile importFile = new ImportFile();
+		importFile.setSource("DEKA");
+		importFile.setAsOfDate(LocalDate.of(2024, 1, 31));
+
 		when(depotRepository.findByDepotCode("deka")).thenReturn(Optional.of(depot));
 		when(importFileRepository.findByDepotCodeAndFileHashAndStatus(eq("deka"), any(), eq("imported")))
-				.thenReturn(Optional.of(new ImportFile()));
-		when(snapshotRepository.findByDepotIdAndAsOfDateAndSourceAndFileHash(eq(1L), any(LocalDate.class), any(), any()))
+				.thenReturn(Optional.of(importFile));
+		when(snapshotRepository.findByDepotIdAndAsOfDateAndSourceAndFileHash(eq(1L), eq(LocalDate.of(2024, 1, 31)),
+				eq("DEKA"), any()))
 				.thenReturn(Optional.of(snapshot));
 		when(depotRepository.save(any(Depot.class))).thenAnswer(invocation -> invocation.getArgument(0));
 		ImportResultDto result = importService.importDepotStatement(file, "deka", false, true, true, "tester");
@@ -119,6 +176,7 @@ class ImportServiceTest {
 		assertThat(result.snapshotStatus()).isEqualTo("skipped");
 		assertThat(result.snapshotId()).isNull();
 		assertThat(depot.getActiveSnapshotId()).isEqualTo(42L);
+		verify(bulkUpsertRepository, never()).upsertSnapshotPositions(anyList());
 	}
 
 	@Test
@@ -144,7 +202,7 @@ class ImportServiceTest {
 		when(depotRepository.findByDepotCode("deka")).thenReturn(Optional.of(depot));
 		when(importFileRepository.findByDepotCodeAndFileHashAndStatus(eq("deka"), any(), eq("imported")))
 				.thenReturn(Optional.empty());
-		when(instrumentRepository.findByIsinIn(anyList())).thenReturn(List.of());
+		when(instrumentRepository.findExistingIsins(anyList())).thenReturn(List.of());
 		when(snapshotRepository.findByDepotIdAndAsOfDateAndSourceAndFileHash(eq(1L), any(LocalDate.class), any(), any()))
 				.thenReturn(Optional.empty());
 		when(snapshotRepository.save(any(Snapshot.class))).thenAnswer(invocation -> {
@@ -154,7 +212,6 @@ class ImportServiceTest {
 			}
 			return snapshot;
 		});
-		when(snapshotPositionRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
 		when(importFileRepository.findByDepotCodeAndFileHash(eq("deka"), any())).thenReturn(Optional.empty());
 		when(importFileRepository.save(any(ImportFile.class))).thenAnswer(invocation -> invocation.getArgument(0));
 			when(rulesetService.getActiveRuleset("default")).thenReturn(Optional.of(ruleset));
@@ -189,11 +246,10 @@ class ImportServiceTest {
 		when(depotRepository.findByDepotCode("deka")).thenReturn(Optional.of(depot));
 		when(importFileRepository.findByDepotCodeAndFileHashAndStatus(eq("deka"), any(), eq("imported")))
 				.thenReturn(Optional.empty());
-		when(instrumentRepository.findByIsinIn(anyList())).thenReturn(List.of());
+		when(instrumentRepository.findExistingIsins(anyList())).thenReturn(List.of());
 		when(snapshotRepository.findByDepotIdAndAsOfDateAndSourceAndFileHash(eq(1L), any(LocalDate.class), any(), any()))
 				.thenReturn(Optional.empty());
 		when(snapshotRepository.save(any(Snapshot.class))).thenAnswer(invocation -> invocation.getArgument(0));
-		when(snapshotPositionRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
 		when(importFileRepository.findByDepotCodeAndFileHash(eq("deka"), any())).thenReturn(Optional.empty());
 			when(importFileRepository.save(any(ImportFile.class))).thenAnswer(invocation -> invocation.getArgument(0));
 			when(rulesetService.getActiveRuleset("default")).thenReturn(Optional.of(ruleset));
@@ -205,6 +261,24 @@ class ImportServiceTest {
 					.hasMessageContaining("Active ruleset invalid");
 	}
 
+	@Test
+	void stageSpoolsUploadAndHashesContent() throws Exception {
+		byte[] payload = "Wertpapier;St_Nom;Wert;ISIN\n".getBytes();
+		MockMultipartFile file = new MockMultipartFile("file", "deka.csv", "text/csv", payload);
+
+		ImportService.StagedUpload staged = importService.stage(file, " DEKA ");
+		try {
+			assertThat(staged.depotCode()).isEqualTo("deka");
+			assertThat(staged.filename()).isEqualTo("deka.csv");
+			assertThat(Files.readAllBytes(staged.path())).isEqualTo(payload);
+			assertThat(staged.fileHash()).isEqualTo(HexFormat.of()
+					.formatHex(MessageDigest.getInstance("SHA-256").digest(payload)));
+		} finally {
+			importService.discard(staged);
+		}
+		assertThat(Files.exists(staged.path())).isFalse();
+	}
+
 	@Test
 	void importDepotStatementRejectsUnsupportedDepot() {
 		MockMultipartFile file = new MockMultipartFile("file", "file.csv", "text/csv", "a".getBytes());
@@ -258,7 +332,7 @@ class ImportServiceTest {
 		when(depotRepository.findByDepotCode("deka")).thenReturn(Optional.of(depot));
 		when(importFileRepository.findByDepotCodeAndFileHashAndStatus(eq("deka"), any(), eq("imported")))
 				.thenReturn(Optional.empty());
-		when(instrumentRepository.findByIsinIn(anyList())).thenReturn(List.of());
+		when(instrumentRepository.findExistingIsins(anyList())).thenReturn(List.of());
 		when(snapshotRepository.findByDepotIdAndAsOfDateAndSourceAndFileHash(eq(1L), any(LocalDate.class), any(), any()))
 				.thenReturn(Optional.empty());
 		when(snapshotRepository.save(any(Snapshot.class))).thenAnswer(invocation -> {
@@ -266,7 +340,6 @@ class ImportServiceTest {
 			snapshot.setSnapshotId(12L);
 			return snapshot;
 		});
-			when(snapshotPositionRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
 			when(importFileRepository.findByDepotCodeAndFileHash(eq("deka"), any())).thenReturn(Optional.empty());
 			when(importFileRepository.save(any(ImportFile.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -291,7 +364,7 @@ class ImportServiceTest {
 		when(depotRepository.findByDepotCode("deka")).thenReturn(Optional.of(depot));
 		when(importFileRepository.findByDepotCodeAndFileHashAndStatus(eq("deka"), any(), eq("imported")))
 				.thenReturn(Optional.empty());
-		when(instrumentRepository.findByIsinIn(anyList())).thenReturn(List.of());
+		when(instrumentRepository.findExistingIsins(anyList())).thenReturn(List.of());
 		when(snapshotRepository.findByDepotIdAndAsOfDateAndSourceAndFileHash(eq(1L), any(LocalDate.class), any(), any()))
 				.thenReturn(Optional.empty());
 		when(snapshotRepository.save(any(Snapshot.class))).thenAnswer(invocation -> {
@@ -301,17 +374,17 @@ class ImportServiceTest {
 			}
 			return snapshot;
 		});
-		when(snapshotPositionRepository.saveAll(any())).thenAnswer(invocation -> {
-			List<?> saved = invocation.getArgument(0);
-			assertThat(saved).hasSize(1);
-			var sp = (my.portfoliomanager.app.domain.SnapshotPosition) saved.get(0);
-			assertThat(sp.getShares()).isNull();
-			assertThat(sp.getValueEur()).isNull();
-			return saved;
-			});
 			when(importFileRepository.findByDepotCodeAndFileHash(eq("deka"), any())).thenReturn(Optional.empty());
 			when(importFileRepository.save(any(ImportFile.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
 			importService.importDepotStatement(file, "deka", false, false, false, "tester");
+
+			@SuppressWarnings("unchecked")
+			ArgumentCaptor<List<SnapshotPosition>> captor = ArgumentCaptor.forClass(List.class);
+			verify(bulkUpsertRepository).upsertSnapshotPositions(captor.capture());
+			assertThat(captor.getValue()).hasSize(1);
+			SnapshotPosition sp = captor.getValue().get(0);
+			assertThat(sp.getShares()).isNull();
+			assertThat(sp.getValueEur()).isNull();
 		}
 	}
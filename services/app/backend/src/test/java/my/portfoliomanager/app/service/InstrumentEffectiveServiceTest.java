@@ -0,0 +1,176 @@
+package my.portfoliomanager.app.service;
+
+import my.portfoliomanager.app.dto.InstrumentEffectiveDto;
+import my.portfoliomanager.app.dto.InstrumentEffectivePageDto;
+import my.portfoliomanager.app.support.TestDatabaseCleaner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = my.portfoliomanager.app.AppApplication.class)
+@ActiveProfiles("test")
+class InstrumentEffectiveServiceTest {
+	private static final String JWT_SECRET = UUID.randomUUID().toString();
+
+	@Autowired
+	private InstrumentEffectiveService instrumentEffectiveService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TestDatabaseCleaner databaseCleaner;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@DynamicPropertySource
+	static void registerProperties(DynamicPropertyRegistry registry) {
+		registry.add("app.security.admin-user", () -> "admin");
+		registry.add("app.security.admin-pass", () -> "admin");
+		registry.add("app.jwt.secret", () -> JWT_SECRET);
+		registry.add("app.jwt.issuer", () -> "test-issuer");
+	}
+
+	@BeforeEach
+	void setup() {
+		databaseCleaner.clean();
+		jdbcTemplate.update("insert into depots (depot_id, depot_code, name, provider) values (1, 'tr', 'Trade Republic', 'TR')");
+		jdbcTemplate.update("insert into instruments (isin, name, depot_code, layer, is_deleted) values ('DE000A', 'Test ETF', 'tr', 5, false)");
+	}
+
+	@AfterEach
+	void cleanup() {
+		databaseCleaner.clean();
+	}
+
+	@Test
+	void triggersKeepMaterializedRowsInSync() {
+		assertThat(effectiveLayer("DE000A")).isEqualTo(5);
+
+		jdbcTemplate.update("insert into instrument_classifications (isin, rule_id, layer, updated_at) values ('DE000A', 'r1', 3, now())");
+		assertThat(effectiveLayer("DE000A")).isEqualTo(3);
+
+		jdbcTemplate.update("insert into instrument_overrides (isin, layer, updated_at) values ('DE000A', 2, now())");
+		assertThat(effectiveLayer("DE000A")).isEqualTo(2);
+		assertThat(jdbcTemplate.queryForObject("select has_override from instruments_effective where isin = 'DE000A'", Boolean.class))
+				.isTrue();
+
+		jdbcTemplate.update("delete from instrument_overrides where isin = 'DE000A'");
+		assertThat(effectiveLayer("DE000A")).isEqualTo(3);
+
+		jdbcTemplate.update("update instruments set is_deleted = true where isin = 'DE000A'");
+		assertThat(jdbcTemplate.queryForObject("select count(*) from instruments_effective", Integer.class)).isZero();
+	}
+
+	@Test
+	void concurrentRefreshesOfSameIsinApplyInCommitOrder() throws Exception {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		CountDownLatch overrideWritten = new CountDownLatch(1);
+		CountDownLatch releaseOverride = new CountDownLatch(1);
+		CompletableFuture<Void> overrideWriter = CompletableFuture.runAsync(() -> tx.executeWithoutResult(status -> {
+			jdbcTemplate.update("insert into instrument_overrides (isin, layer, updated_at) values ('DE000A', 2, now())");
+			overrideWritten.countDown();
+			await(releaseOverride);
+		}));
+		await(overrideWritten);
+		// Without the per-ISIN lock this refresh would read the source before the override commits and win last.
+		CompletableFuture<Void> classificationWriter = CompletableFuture.runAsync(() -> tx.executeWithoutResult(status ->
+				jdbcTemplate.update("insert into instrument_classifications (isin, rule_id, layer, updated_at) values ('DE000A', 'r1', 3, now())")));
+		awaitAdvisoryLockWaiter();
+
+		releaseOverride.countDown();
+		overrideWriter.get(10, TimeUnit.SECONDS);
+		classificationWriter.get(10, TimeUnit.SECONDS);
+
+		assertThat(effectiveLayer("DE000A")).isEqualTo(2);
+		assertThat(jdbcTemplate.queryForObject("select applied_rule_id from instruments_effective where isin = 'DE000A'", String.class))
+				.isEqualTo("r1");
+	}
+
+	@Test
+	void repairDriftRestoresRowsFromSource() {
+		jdbcTemplate.update("update instruments_effective set layer = 1 where isin = 'DE000A'");
+		jdbcTemplate.update("insert into instruments (isin, name, depot_code, layer, is_deleted) values ('DE000B', 'Test Bond', 'tr', 4, false)");
+		jdbcTemplate.update("delete from instruments_effective where isin = 'DE000B'");
+
+		assertThat(instrumentEffectiveService.repairDrift()).isEqualTo(2);
+
+		assertThat(effectiveLayer("DE000A")).isEqualTo(5);
+		assertThat(effectiveLayer("DE000B")).isEqualTo(4);
+		assertThat(instrumentEffectiveService.repairDrift()).isZero();
+	}
+
+	@Test
+	void listEffectivePagesByCursorAndKeepsCountsCurrent() {
+		jdbcTemplate.update("insert into instruments (isin, name, depot_code, layer, is_deleted) values ('DE000B', 'Test Bond', 'tr', 4, false)");
+		jdbcTemplate.update("insert into instruments (isin, name, depot_code, layer, is_deleted) values ('DE000C', 'Other Fund', 'tr', 4, false)");
+
+		InstrumentEffectivePageDto first = instrumentEffectiveService.listEffective("test", false, 1, 0, null);
+		assertThat(first.total()).isEqualTo(2);
+		assertThat(first.items()).extracting(InstrumentEffectiveDto::isin).containsExactly("DE000A");
+		assertThat(first.nextCursor()).isEqualTo("DE000A");
+
+		InstrumentEffectivePageDto second = instrumentEffectiveService.listEffective("test", false, 1, 0, first.nextCursor());
+		assertThat(second.items()).extracting(InstrumentEffectiveDto::isin).containsExactly("DE000B");
+		assertThat(second.nextCursor()).isNull();
+
+		jdbcTemplate.update("insert into instruments (isin, name, depot_code, layer, is_deleted) values ('DE000D', 'Test Stock', 'tr', 3, false)");
+		assertThat(instrumentEffectiveService.listEffective("test", false, 10, 0, null).total()).isEqualTo(3);
+
+		jdbcTemplate.update("update instruments set is_deleted = true where isin = 'DE000B'");
+		assertThat(instrumentEffectiveService.listEffective("test", false, 10, 0, null).total()).isEqualTo(2);
+	}
+
+	@Test
+	void listEffectiveMatchesExactIsin() {
+		jdbcTemplate.update("insert into instruments (isin, name, depot_code, layer, is_deleted) values ('DE0005140008', 'Deutsche Bank', 'tr', 3, false)");
+
+		InstrumentEffectivePageDto page = instrumentEffectiveService.listEffective(" de0005140008 ", false, 50, 0, null);
+
+		assertThat(page.total()).isEqualTo(1);
+		assertThat(page.items()).extracting(InstrumentEffectiveDto::effectiveName).containsExactly("Deutsche Bank");
+	}
+
+	private void awaitAdvisoryLockWaiter() throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			Integer waiting = jdbcTemplate.queryForObject(
+					"select count(*) from pg_locks where locktype = 'advisory' and not granted", Integer.class);
+			if (waiting != null && waiting > 0) {
+				return;
+			}
+			Thread.sleep(50L);
+		}
+		throw new AssertionError("Second refresh did not wait for the first");
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			if (!latch.await(10, TimeUnit.SECONDS)) {
+				throw new IllegalStateException("Timed out waiting for latch");
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private Integer effectiveLayer(String isin) {
+		return jdbcTemplate.queryForObject("select layer from instruments_effective where isin = ?", Integer.class, isin);
+	}
+}
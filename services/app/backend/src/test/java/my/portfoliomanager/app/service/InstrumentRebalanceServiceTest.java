@@ -477,8 +477,10 @@ class InstrumentRebalanceServiceTest {
 
 		ObjectMapper mapper = new ObjectMapper();
 		AppProperties properties = buildProperties(kbEnabled);
-		AssessorInstrumentAssessmentService assessmentService = new AssessorInstrumentAssessmentService(jdbcTemplate, mapper, properties);
-		return new InstrumentRebalanceService(jdbcTemplate, mapper, properties, new SavingPlanDeltaAllocator(), assessmentService);
+		KnowledgeBaseProfileStore profileStore = new KnowledgeBaseProfileStore(jdbcTemplate, mapper);
+		AssessorInstrumentAssessmentService assessmentService =
+				new AssessorInstrumentAssessmentService(jdbcTemplate, properties, profileStore);
+		return new InstrumentRebalanceService(properties, new SavingPlanDeltaAllocator(), assessmentService, profileStore);
 	}
 
 	private AppProperties buildProperties(boolean kbEnabled) {
@@ -0,0 +1,306 @@
+package my.portfoliomanager.app.service;
+
+import my.portfoliomanager.app.config.JobQueueProperties;
+import my.portfoliomanager.app.domain.JobStatus;
+import my.portfoliomanager.app.repository.JobQueueRepository;
+import my.portfoliomanager.app.repository.projection.JobEventRow;
+import my.portfoliomanager.app.repository.projection.JobRow;
+import my.portfoliomanager.app.support.TestDatabaseCleaner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = my.portfoliomanager.app.AppApplication.class)
+@ActiveProfiles("test")
+class JobQueueServiceTest {
+	private static final String JWT_SECRET = UUID.randomUUID().toString();
+
+	@Autowired
+	private JobQueueService jobQueue;
+
+	@Autowired
+	private JobQueueRepository repository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private TestDatabaseCleaner databaseCleaner;
+
+	@DynamicPropertySource
+	static void registerProperties(DynamicPropertyRegistry registry) {
+		registry.add("app.security.admin-user", () -> "admin");
+		registry.add("app.security.admin-pass", () -> "admin");
+		registry.add("app.jwt.secret", () -> JWT_SECRET);
+		registry.add("app.jwt.issuer", () -> "test-issuer");
+	}
+
+	@BeforeEach
+	void setup() {
+		databaseCleaner.clean();
+	}
+
+	@AfterEach
+	void cleanup() {
+		databaseCleaner.clean();
+	}
+
+	@Test
+	void runsQueuedJobAndPersistsProgressAndResult() throws Exception {
+		String type = uniqueType();
+		jobQueue.register(new JobQueueService.JobDefinition(type, 1, 1, Duration.ofMinutes(5)), context -> {
+			Map<?, ?> payload = context.payload(Map.class);
+			context.report("Halfway", Map.of("step", 1), null);
+			return JobQueueService.JobOutcome.done(Map.of("echo", payload.get("value")), "Finished");
+		});
+
+		JobRow queued = jobQueue.enqueue(type, Map.of("value", "abc"), null, null, "tester");
+		assertThat(queued.status()).isEqualTo(JobStatus.QUEUED);
+
+		JobRow done = await(type, queued.jobId(), row -> row.status() == JobStatus.DONE);
+		assertThat(done.message()).isEqualTo("Finished");
+		assertThat(done.createdBy()).isEqualTo("tester");
+		assertThat(done.attempts()).isEqualTo(1);
+		assertThat(done.finishedAt()).isNotNull();
+		assertThat(jobQueue.read(done.result(), Map.class)).containsEntry("echo", "abc");
+		assertThat(jobQueue.read(done.progress(), Map.class)).containsEntry("step", 1);
+	}
+
+	@Test
+	void limitsConcurrencyPerTypeAndCancelsRunningJob() throws Exception {
+		String type = uniqueType();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		jobQueue.register(new JobQueueService.JobDefinition(type, 1, 1, Duration.ofMinutes(5)), context -> {
+			started.countDown();
+			while (!context.isCancelRequested()) {
+				if (release.await(50, TimeUnit.MILLISECONDS)) {
+					return JobQueueService.JobOutcome.done(null, null);
+				}
+			}
+			return JobQueueService.JobOutcome.canceled(null, "Stopped");
+		});
+
+		JobRow first = jobQueue.enqueue(type, null, null, null, null);
+		JobRow second = jobQueue.enqueue(type, null, null, null, null);
+		assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+		JobRow running = await(type, first.jobId(), row -> row.status() != JobStatus.QUEUED
+				|| jobQueue.find(type, second.jobId()).orElseThrow().status() != JobStatus.QUEUED);
+		String runningId = running.status() == JobStatus.RUNNING ? first.jobId() : second.jobId();
+		String queuedId = runningId.equals(first.jobId()) ? second.jobId() : first.jobId();
+		assertThat(jobQueue.find(type, runningId).orElseThrow().status()).isEqualTo(JobStatus.RUNNING);
+		assertThat(jobQueue.find(type, queuedId).orElseThrow().status()).isEqualTo(JobStatus.QUEUED);
+
+		assertThat(jobQueue.requestCancel(type, queuedId).orElseThrow().status()).isEqualTo(JobStatus.CANCELED);
+		jobQueue.requestCancel(type, runningId);
+
+		JobRow canceled = await(type, runningId, row -> row.status() == JobStatus.CANCELED);
+		assertThat(canceled.cancelRequested()).isTrue();
+		assertThat(jobQueue.requestCancel(type, runningId)).isEmpty();
+		assertThat(jobQueue.deleteFinished(type, runningId)).isTrue();
+		assertThat(jobQueue.find(type, runningId)).isEmpty();
+		release.countDown();
+	}
+
+	@Test
+	void recordsFinishedJobWithoutRunningIt() {
+		String type = uniqueType();
+		jobQueue.register(new JobQueueService.JobDefinition(type, 1, 1, Duration.ofMinutes(5)), context -> {
+			throw new IllegalStateException("should not run");
+		});
+
+		JobRow recorded = jobQueue.record(type, Map.of("value", 1), null, Map.of("cached", true), null, null);
+
+		assertThat(recorded.status()).isEqualTo(JobStatus.DONE);
+		assertThat(jobQueue.read(recorded.result(), Map.class)).containsEntry("cached", true);
+		assertThat(jobQueue.list(type)).extracting(JobRow::jobId).containsExactly(recorded.jobId());
+		assertThat(jobQueue.find("other-type", recorded.jobId())).isEmpty();
+	}
+
+	@Test
+	void recordsStatusProgressAndPublishedEventsInOrder() throws Exception {
+		String type = uniqueType();
+		jobQueue.register(new JobQueueService.JobDefinition(type, 1, 1, Duration.ofMinutes(5)), context -> {
+			context.report("Working", Map.of("done", 1), null);
+			context.publish("item", Map.of("isin", "DE0000000001"));
+			return JobQueueService.JobOutcome.done(null, "Finished");
+		});
+
+		JobRow queued = jobQueue.enqueue(type, null, null, null, null);
+		await(type, queued.jobId(), row -> row.status() == JobStatus.DONE);
+
+		List<JobEventRow> events = repository.findEvents(queued.jobId(), 0, 100);
+		assertThat(events).extracting(JobEventRow::eventType)
+				.containsExactly("status", "status", "progress", "item", "status");
+		assertThat(jobQueue.read(events.get(0).data(), Map.class)).containsEntry("status", "QUEUED");
+		assertThat(jobQueue.read(events.get(1).data(), Map.class)).containsEntry("status", "RUNNING");
+		assertThat(jobQueue.read(events.get(2).data(), Map.class)).containsEntry("message", "Working");
+		assertThat(jobQueue.read(events.get(3).data(), Map.class)).containsEntry("isin", "DE0000000001");
+		assertThat(jobQueue.read(events.get(4).data(), Map.class)).containsEntry("status", "DONE");
+		assertThat(repository.findEvents(queued.jobId(), events.get(2).eventId(), 100)).hasSize(2);
+	}
+
+	@Test
+	void reclaimsJobWhoseLeaseExpiredWhileAttemptsRemain() throws Exception {
+		String type = uniqueType();
+		JobRow row = repository.insert(UUID.randomUUID().toString(), type, JobStatus.QUEUED, null, null, null, null,
+				null, 2, 300);
+		expireLease(row.jobId(), 1);
+		jobQueue.register(new JobQueueService.JobDefinition(type, 1, 2, Duration.ofMinutes(5)),
+				context -> JobQueueService.JobOutcome.done(Map.of("attempt", context.attempt()), null));
+
+		JobRow done = await(type, row.jobId(), candidate -> candidate.status() == JobStatus.DONE);
+
+		assertThat(done.attempts()).isEqualTo(2);
+		assertThat(jobQueue.read(done.result(), Map.class)).containsEntry("attempt", 2);
+	}
+
+	@Test
+	void failsAbandonedJobsThatRanOutOfAttemptsInsteadOfReclaimingThem() throws Exception {
+		String type = uniqueType();
+		AtomicBoolean ran = new AtomicBoolean();
+		JobRow abandoned = repository.insert(UUID.randomUUID().toString(), type, JobStatus.QUEUED, null, null, null,
+				null, null, 1, 300);
+		JobRow canceled = repository.insert(UUID.randomUUID().toString(), type, JobStatus.QUEUED, null, null, null,
+				null, null, 1, 300);
+		expireLease(abandoned.jobId(), 1);
+		expireLease(canceled.jobId(), 1);
+		jdbcTemplate.update("UPDATE jobs SET cancel_requested = TRUE WHERE job_id = ?", canceled.jobId());
+		jobQueue.register(new JobQueueService.JobDefinition(type, 1, 1, Duration.ofMinutes(5)), context -> {
+			ran.set(true);
+			return JobQueueService.JobOutcome.done(null, null);
+		});
+		Thread.sleep(300);
+
+		// The periodic cleanup may get there first; either way both rows end up finished.
+		repository.failAbandoned();
+
+		JobRow failed = jobQueue.find(type, abandoned.jobId()).orElseThrow();
+		assertThat(failed.status()).isEqualTo(JobStatus.FAILED);
+		assertThat(failed.error()).isEqualTo("Job lease expired");
+		assertThat(failed.finishedAt()).isNotNull();
+		assertThat(jobQueue.find(type, canceled.jobId()).orElseThrow().status()).isEqualTo(JobStatus.CANCELED);
+		assertThat(ran).isFalse();
+	}
+
+	@Test
+	void heartbeatRenewsLeaseAndStopsJobWhoseLeaseWasTakenOver() throws Exception {
+		String type = uniqueType();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch stopped = new CountDownLatch(1);
+		jobQueue.register(new JobQueueService.JobDefinition(type, 1, 1, Duration.ofMinutes(5)), context -> {
+			started.countDown();
+			while (!context.isCancelRequested()) {
+				Thread.sleep(20);
+			}
+			stopped.countDown();
+			return JobQueueService.JobOutcome.canceled(null, "Stopped");
+		});
+		JobRow job = jobQueue.enqueue(type, null, null, null, null);
+		assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+		jdbcTemplate.update("UPDATE jobs SET lease_expires_at = now() + interval '1 second' WHERE job_id = ?", job.jobId());
+		jobQueue.heartbeat();
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT lease_expires_at > now() + interval '30 seconds' FROM jobs WHERE job_id = ?", Boolean.class,
+				job.jobId())).isTrue();
+		assertThat(stopped.getCount()).isEqualTo(1);
+
+		jdbcTemplate.update("UPDATE jobs SET lease_owner = 'other-worker' WHERE job_id = ?", job.jobId());
+		jobQueue.heartbeat();
+		assertThat(stopped.await(10, TimeUnit.SECONDS)).isTrue();
+
+		// The outcome write is guarded by the lease owner, so the replica that took the job over keeps it.
+		Thread.sleep(300);
+		assertThat(jobQueue.find(type, job.jobId()).orElseThrow().status()).isEqualTo(JobStatus.RUNNING);
+		assertThat(leaseOwner(job.jobId())).isEqualTo("other-worker");
+	}
+
+	@Test
+	void shutdownStopsRunningJobsAndReleasesThemWithoutChargingTheAttempt() throws Exception {
+		String type = uniqueType();
+		JobQueueService replica = new JobQueueService(repository, objectMapper,
+				new JobQueueProperties(true, 50L, 60L, 60L, null, null, 5L));
+		CountDownLatch started = new CountDownLatch(1);
+		AtomicBoolean sawStop = new AtomicBoolean();
+		AtomicBoolean stoppedOutcomeFinal = new AtomicBoolean(true);
+		replica.register(new JobQueueService.JobDefinition(type, 1, 1, Duration.ofMinutes(5)), context -> {
+			started.countDown();
+			while (!context.isCancelRequested()) {
+				Thread.sleep(20);
+			}
+			sawStop.set(true);
+			JobQueueService.JobOutcome outcome = JobQueueService.JobOutcome.canceled(null, "Stopped");
+			stoppedOutcomeFinal.set(context.isFinal(outcome));
+			return outcome;
+		});
+		replica.start();
+		try {
+			JobRow job = replica.enqueue(type, null, null, null, null);
+			assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(replica.find(type, job.jobId()).orElseThrow().attempts()).isEqualTo(1);
+
+			replica.shutdown();
+
+			assertThat(sawStop).isTrue();
+			assertThat(stoppedOutcomeFinal).isFalse();
+			JobRow released = repository.findById(job.jobId()).orElseThrow();
+			assertThat(released.status()).isEqualTo(JobStatus.QUEUED);
+			assertThat(released.attempts()).isZero();
+			assertThat(released.finishedAt()).isNull();
+			assertThat(leaseOwner(job.jobId())).isNull();
+		} finally {
+			replica.shutdown();
+		}
+	}
+
+	private void expireLease(String jobId, int attempts) {
+		jdbcTemplate.update("""
+				UPDATE jobs
+				SET status = 'RUNNING', lease_owner = 'vanished-worker', lease_expires_at = now() - interval '1 minute',
+				    attempts = ?
+				WHERE job_id = ?
+				""", attempts, jobId);
+	}
+
+	private String leaseOwner(String jobId) {
+		return jdbcTemplate.queryForObject("SELECT lease_owner FROM jobs WHERE job_id = ?", String.class, jobId);
+	}
+
+	private JobRow await(String type, String jobId, Predicate<JobRow> condition) throws InterruptedException {
+		JobRow row = null;
+		for (int i = 0; i < 100; i++) {
+			row = jobQueue.find(type, jobId).orElseThrow();
+			if (condition.test(row)) {
+				return row;
+			}
+			Thread.sleep(100);
+		}
+		throw new AssertionError("Job " + jobId + " did not reach expected state, last status " + row.status());
+	}
+
+	private String uniqueType() {
+		return "test-" + UUID.randomUUID();
+	}
+}
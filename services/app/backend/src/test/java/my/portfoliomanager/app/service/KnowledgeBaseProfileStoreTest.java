@@ -0,0 +1,82 @@
+package my.portfoliomanager.app.service;
+
+import my.portfoliomanager.app.support.TestDatabaseCleaner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest(classes = my.portfoliomanager.app.AppApplication.class)
+@ActiveProfiles("test")
+class KnowledgeBaseProfileStoreTest {
+	private static final String JWT_SECRET = UUID.randomUUID().toString();
+
+	@Autowired
+	private KnowledgeBaseProfileStore profileStore;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TestDatabaseCleaner databaseCleaner;
+
+	@DynamicPropertySource
+	static void registerProperties(DynamicPropertyRegistry registry) {
+		registry.add("app.security.admin-user", () -> "admin");
+		registry.add("app.security.admin-pass", () -> "admin");
+		registry.add("app.jwt.secret", () -> JWT_SECRET);
+		registry.add("app.jwt.issuer", () -> "test-issuer");
+	}
+
+	@BeforeEach
+	void setup() {
+		databaseCleaner.clean();
+	}
+
+	@AfterEach
+	void cleanup() {
+		databaseCleaner.clean();
+	}
+
+	@Test
+	void reusesParsedExtractionUntilRowVersionChanges() {
+		LocalDateTime first = LocalDateTime.of(2024, 1, 10, 12, 0);
+		jdbcTemplate.update("""
+				insert into knowledge_base_extractions (isin, status, extracted_json, updated_at)
+				values ('DE000A', 'COMPLETE', cast(? as jsonb), ?)
+				""", payload("Alpha", 20), first);
+
+		Map<String, KnowledgeBaseProfileStore.StoredExtraction> loaded = profileStore.load(Set.of("DE000A"));
+		KnowledgeBaseProfileStore.StoredExtraction stored = loaded.get("DE000A");
+		assertThat(stored.payload().name()).isEqualTo("Alpha");
+		assertThat(stored.metrics().earningsYieldCurrent()).isCloseTo(0.05, within(1e-9));
+		assertThat(profileStore.load(Set.of("DE000A")).get("DE000A")).isSameAs(stored);
+
+		jdbcTemplate.update("update knowledge_base_extractions set extracted_json = cast(? as jsonb), updated_at = ? where isin = 'DE000A'",
+				payload("Alpha Updated", 10), first.plusMinutes(1));
+
+		KnowledgeBaseProfileStore.StoredExtraction refreshed = profileStore.loadByStatus(Set.of("COMPLETE")).get("DE000A");
+		assertThat(refreshed.payload().name()).isEqualTo("Alpha Updated");
+		assertThat(refreshed.metrics().earningsYieldCurrent()).isCloseTo(0.10, within(1e-9));
+
+		jdbcTemplate.update("delete from knowledge_base_extractions where isin = 'DE000A'");
+		assertThat(profileStore.load(Set.of("DE000A"))).isEmpty();
+	}
+
+	private static String payload(String name, int peCurrent) {
+		return "{\"isin\":\"DE000A\",\"name\":\"" + name + "\",\"valuation\":{\"pe_current\":" + peCurrent + "}}";
+	}
+}
@@ -8,7 +8,9 @@ import my.portfoliomanager.app.dto.KnowledgeBaseRefreshScopeDto;
 import my.portfoliomanager.app.domain.KnowledgeBaseRun;
 import my.portfoliomanager.app.domain.KnowledgeBaseRunAction;
 import my.portfoliomanager.app.domain.KnowledgeBaseRunStatus;
-import my.portfoliomanager.app.repository.InstrumentDossierRepository;
+import my.portfoliomanager.app.llm.LlmConcurrencyLimiter;
+import my.portfoliomanager.app.llm.LlmStreamProgress;
+import my.portfoliomanager.app.repository.InstrumentDossierSearchRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -17,9 +19,16 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
@@ -38,7 +47,7 @@ class KnowledgeBaseRefreshServiceTest {
 	private KnowledgeBaseRunService runService;
 
 	@Mock
-	private InstrumentDossierRepository dossierRepository;
+	private InstrumentDossierSearchRepository dossierSearchRepository;
 
 	@Test
 	void refreshBatch_respectsMaxBatchesPerRun() {
@@ -47,7 +56,8 @@ class KnowledgeBaseRefreshServiceTest {
 				knowledgeBaseService,
 				maintenanceService,
 				runService,
-				dossierRepository
+				dossierSearchRepository,
+				new LlmConcurrencyLimiter(2)
 		);
 		when(configService.getSnapshot()).thenReturn(snapshot(2, 100));
 		List<String> isins = sampleIsins(10);
@@ -71,7 +81,8 @@ class KnowledgeBaseRefreshServiceTest {
 				knowledgeBaseService,
 				maintenanceService,
 				runService,
-				dossierRepository
+				dossierSearchRepository,
+				new LlmConcurrencyLimiter(2)
 		);
 		when(configService.getSnapshot()).thenReturn(snapshot(5, 4));
 		List<String> isins = sampleIsins(10);
@@ -88,6 +99,93 @@ class KnowledgeBaseRefreshServiceTest {
 		assertThat(result.skipped()).isEqualTo(4);
 	}
 
+	@Test
+	void refreshBatch_runsInstrumentsConcurrentlyAndKeepsPlanOrder() {
+		KnowledgeBaseRefreshService service = new KnowledgeBaseRefreshService(
+				configService,
+				knowledgeBaseService,
+				maintenanceService,
+				runService,
+				dossierSearchRepository,
+				new LlmConcurrencyLimiter(2)
+		);
+		when(configService.getSnapshot()).thenReturn(snapshot(5, 100));
+		when(runService.startRun(anyString(), eq(KnowledgeBaseRunAction.REFRESH), anyString(), eq(null)))
+				.thenAnswer(invocation -> new KnowledgeBaseRun());
+		when(knowledgeBaseService.generateDossierDraftWithQualityRetries(
+				anyString(),
+				eq(null),
+				any(KnowledgeBaseConfigService.KnowledgeBaseConfigSnapshot.class),
+				anyBoolean()
+		)).thenThrow(new RuntimeException("llm unavailable"));
+		List<String> isins = sampleIsins(8);
+		KnowledgeBaseRefreshBatchRequestDto request = new KnowledgeBaseRefreshBatchRequestDto(
+				100,
+				3,
+				false,
+				new KnowledgeBaseRefreshScopeDto(isins)
+		);
+
+		KnowledgeBaseRefreshBatchResponseDto result = service.refreshBatch(request, "tester");
+
+		assertThat(result.processed()).isEqualTo(8);
+		assertThat(result.failed()).isEqualTo(8);
+		assertThat(result.items()).extracting(KnowledgeBaseRefreshItemDto::isin).containsExactlyElementsOf(isins);
+	}
+
+	@Test
+	void refreshBatch_overlapsInstrumentsAndKeepsCallerContext() {
+		KnowledgeBaseRefreshService service = new KnowledgeBaseRefreshService(
+				configService,
+				knowledgeBaseService,
+				maintenanceService,
+				runService,
+				dossierSearchRepository,
+				new LlmConcurrencyLimiter(2)
+		);
+		when(configService.getSnapshot()).thenReturn(snapshot(5, 100));
+		when(runService.startRun(anyString(), eq(KnowledgeBaseRunAction.REFRESH), anyString(), eq(null)))
+				.thenAnswer(invocation -> new KnowledgeBaseRun());
+		// Each refresh waits for the other one to start, so the batch only finishes in time if both run at once.
+		CountDownLatch started = new CountDownLatch(2);
+		Set<String> overlapped = ConcurrentHashMap.newKeySet();
+		Set<Boolean> bypassSeen = ConcurrentHashMap.newKeySet();
+		Set<IntConsumer> listenersSeen = ConcurrentHashMap.newKeySet();
+		when(knowledgeBaseService.generateDossierDraftWithQualityRetries(
+				anyString(),
+				eq(null),
+				any(KnowledgeBaseConfigService.KnowledgeBaseConfigSnapshot.class),
+				anyBoolean()
+		)).thenAnswer(invocation -> {
+			bypassSeen.add(LlmResponseCacheService.isBypassed());
+			IntConsumer listener = LlmStreamProgress.current();
+			if (listener != null) {
+				listenersSeen.add(listener);
+			}
+			started.countDown();
+			if (started.await(5, TimeUnit.SECONDS)) {
+				overlapped.add(invocation.getArgument(0));
+			}
+			throw new RuntimeException("llm unavailable");
+		});
+		List<String> isins = sampleIsins(2);
+		KnowledgeBaseRefreshBatchRequestDto request = new KnowledgeBaseRefreshBatchRequestDto(
+				100,
+				3,
+				false,
+				new KnowledgeBaseRefreshScopeDto(isins)
+		);
+		IntConsumer streamListener = received -> { };
+
+		KnowledgeBaseRefreshBatchResponseDto result = LlmResponseCacheService.bypass(
+				() -> service.refreshBatch(request, "tester", Set.of(), streamListener));
+
+		assertThat(result.failed()).isEqualTo(2);
+		assertThat(overlapped).containsExactlyInAnyOrderElementsOf(isins);
+		assertThat(bypassSeen).containsExactly(true);
+		assertThat(listenersSeen).containsExactly(streamListener);
+	}
+
 	@Test
 	void refreshSingle_skipsWhenRecentRunExists() {
 		KnowledgeBaseRefreshService service = new KnowledgeBaseRefreshService(
@@ -95,7 +193,8 @@ class KnowledgeBaseRefreshServiceTest {
 				knowledgeBaseService,
 				maintenanceService,
 				runService,
-				dossierRepository
+				dossierSearchRepository,
+				new LlmConcurrencyLimiter(2)
 		);
 		KnowledgeBaseConfigService.KnowledgeBaseConfigSnapshot configSnapshot = snapshot(5, 100);
 		when(configService.getSnapshot()).thenReturn(configSnapshot);
@@ -117,7 +216,8 @@ class KnowledgeBaseRefreshServiceTest {
 				knowledgeBaseService,
 				maintenanceService,
 				runService,
-				dossierRepository
+				dossierSearchRepository,
+				new LlmConcurrencyLimiter(2)
 		);
 		when(configService.getSnapshot()).thenReturn(snapshot(5, 100));
 		when(runService.startRun("DE0000000001", KnowledgeBaseRunAction.REFRESH, null, null))
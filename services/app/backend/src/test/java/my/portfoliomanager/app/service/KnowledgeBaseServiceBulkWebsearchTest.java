@@ -6,10 +6,12 @@ import my.portfoliomanager.app.llm.LlmClient;
 import my.portfoliomanager.app.llm.LlmSuggestion;
 import my.portfoliomanager.app.repository.InstrumentDossierExtractionRepository;
 import my.portfoliomanager.app.repository.InstrumentDossierRepository;
+import my.portfoliomanager.app.repository.InstrumentDossierSearchRepository;
 import my.portfoliomanager.app.repository.InstrumentFactRepository;
 import my.portfoliomanager.app.repository.InstrumentOverrideRepository;
 import my.portfoliomanager.app.repository.InstrumentRepository;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.List;
 import java.util.Map;
@@ -75,6 +77,7 @@ class KnowledgeBaseServiceBulkWebsearchTest {
 		KnowledgeBaseService service = new KnowledgeBaseService(
 				mock(InstrumentRepository.class),
 				mock(InstrumentDossierRepository.class),
+				mock(InstrumentDossierSearchRepository.class),
 				mock(InstrumentDossierExtractionRepository.class),
 				mock(InstrumentOverrideRepository.class),
 				mock(InstrumentFactRepository.class),
@@ -88,7 +91,8 @@ class KnowledgeBaseServiceBulkWebsearchTest {
 				new ObjectMapper(),
 				null,
 				null,
-				mock(InstrumentBlacklistService.class)
+				mock(InstrumentBlacklistService.class),
+				mock(PlatformTransactionManager.class)
 		);
 
 		KnowledgeBaseService.BulkWebsearchDraftResult result =
@@ -0,0 +1,137 @@
+package my.portfoliomanager.app.service;
+
+import my.portfoliomanager.app.llm.KnowledgeBaseLlmResponse;
+import my.portfoliomanager.app.llm.LlmActionType;
+import my.portfoliomanager.app.support.TestDatabaseCleaner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = my.portfoliomanager.app.AppApplication.class)
+@ActiveProfiles("test")
+class LlmResponseCacheServiceTest {
+	private static final String JWT_SECRET = UUID.randomUUID().toString();
+
+	@Autowired
+	private LlmResponseCacheService cacheService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TestDatabaseCleaner databaseCleaner;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@DynamicPropertySource
+	static void registerProperties(DynamicPropertyRegistry registry) {
+		registry.add("app.security.admin-user", () -> "admin");
+		registry.add("app.security.admin-pass", () -> "admin");
+		registry.add("app.jwt.secret", () -> JWT_SECRET);
+		registry.add("app.jwt.issuer", () -> "test-issuer");
+	}
+
+	@BeforeEach
+	void setup() {
+		databaseCleaner.clean();
+	}
+
+	@AfterEach
+	void cleanup() {
+		databaseCleaner.clean();
+	}
+
+	@Test
+	void replaysStoredResponseForIdenticalPrompt() {
+		AtomicInteger calls = new AtomicInteger();
+		long hitsBefore = cacheService.stats().hits();
+
+		KnowledgeBaseLlmResponse first = cacheService.getOrCompute(LlmActionType.EXTRACTION, "gpt-test",
+				"kb_extraction_response", "prompt", () -> response(calls));
+		KnowledgeBaseLlmResponse second = cacheService.getOrCompute(LlmActionType.EXTRACTION, "gpt-test",
+				"kb_extraction_response", "prompt", () -> response(calls));
+
+		assertThat(calls.get()).isEqualTo(1);
+		assertThat(second).isEqualTo(first);
+		assertThat(cacheService.stats().hits()).isEqualTo(hitsBefore + 1);
+		assertThat(jdbcTemplate.queryForObject("select hit_count from llm_response_cache", Long.class)).isEqualTo(1L);
+	}
+
+	@Test
+	void keysByModelSchemaAndPrompt() {
+		AtomicInteger calls = new AtomicInteger();
+
+		cacheService.getOrCompute(LlmActionType.EXTRACTION, "gpt-a", "schema", "prompt", () -> response(calls));
+		cacheService.getOrCompute(LlmActionType.EXTRACTION, "gpt-b", "schema", "prompt", () -> response(calls));
+		cacheService.getOrCompute(LlmActionType.EXTRACTION, "gpt-a", "other", "prompt", () -> response(calls));
+		cacheService.getOrCompute(LlmActionType.EXTRACTION, "gpt-a", "schema", "prompt 2", () -> response(calls));
+
+		assertThat(calls.get()).isEqualTo(4);
+		assertThat(cacheService.stats().entries()).isEqualTo(4);
+	}
+
+	@Test
+	void bypassSkipsLookupButRefreshesEntry() {
+		AtomicInteger calls = new AtomicInteger();
+		cacheService.getOrCompute(LlmActionType.EXTRACTION, "gpt-test", null, "prompt", () -> response(calls));
+
+		KnowledgeBaseLlmResponse refreshed = LlmResponseCacheService.bypass(() -> cacheService.getOrCompute(
+				LlmActionType.EXTRACTION, "gpt-test", null, "prompt", () -> response(calls)));
+		KnowledgeBaseLlmResponse cached = cacheService.getOrCompute(LlmActionType.EXTRACTION, "gpt-test", null,
+				"prompt", () -> response(calls));
+
+		assertThat(calls.get()).isEqualTo(2);
+		assertThat(cached).isEqualTo(refreshed);
+	}
+
+	@Test
+	void doesNotStoreNonJsonOutput() {
+		AtomicInteger calls = new AtomicInteger();
+
+		for (int i = 0; i < 2; i++) {
+			cacheService.getOrCompute(LlmActionType.EXTRACTION, "gpt-test", null, "prompt", () -> {
+				calls.incrementAndGet();
+				return new KnowledgeBaseLlmResponse("I cannot help with that.", "gpt-test");
+			});
+		}
+
+		assertThat(calls.get()).isEqualTo(2);
+		assertThat(cacheService.stats().entries()).isZero();
+	}
+
+	@Test
+	void cacheFailureDoesNotAbortCallersTransaction() {
+		AtomicInteger calls = new AtomicInteger();
+		jdbcTemplate.execute("alter table llm_response_cache rename to llm_response_cache_moved");
+		try {
+			Integer afterCall = new TransactionTemplate(transactionManager).execute(status -> {
+				KnowledgeBaseLlmResponse result = cacheService.getOrCompute(LlmActionType.EXTRACTION, "gpt-test",
+						"kb_extraction_response", "prompt", () -> response(calls));
+				assertThat(result.output()).isEqualTo("{\"call\":1}");
+				return jdbcTemplate.queryForObject("select 1", Integer.class);
+			});
+
+			assertThat(afterCall).isEqualTo(1);
+		} finally {
+			jdbcTemplate.execute("alter table llm_response_cache_moved rename to llm_response_cache");
+		}
+	}
+
+	private KnowledgeBaseLlmResponse response(AtomicInteger calls) {
+		return new KnowledgeBaseLlmResponse("{\"call\":" + calls.incrementAndGet() + "}", "gpt-test");
+	}
+}
@@ -1,9 +1,11 @@
 package my.portfoliomanager.app.service;
 
 import my.portfoliomanager.app.domain.Instrument;
+import my.portfoliomanager.app.domain.InstrumentEdit;
 import my.portfoliomanager.app.domain.InstrumentOverride;
 import my.portfoliomanager.app.dto.InstrumentOverrideRequest;
 import my.portfoliomanager.app.dto.OverridesImportResultDto;
+import my.portfoliomanager.app.repository.BulkUpsertRepository;
 import my.portfoliomanager.app.repository.InstrumentRepository;
 import my.portfoliomanager.app.repository.InstrumentOverrideRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,6 +27,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -40,6 +43,9 @@ class OverridesServiceTest {
 	@Mock
 	private AuditService auditService;
 
+	@Mock
+	private BulkUpsertRepository bulkUpsertRepository;
+
 	@InjectMocks
 	private OverridesService overridesService;
 
@@ -59,19 +65,48 @@ class OverridesServiceTest {
 				+ "DE0000000001,New Name,Stock,Equity,,2,2024-01-01,Note\n";
 		MockMultipartFile file = new MockMultipartFile("file", "overrides.csv", "text/csv", csv.getBytes());
 
-		when(instrumentRepository.findAll()).thenReturn(List.of(instrument));
-		when(overrideRepository.findById("DE0000000001")).thenReturn(Optional.empty());
-		when(overrideRepository.save(any(InstrumentOverride.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		when(instrumentRepository.findAllIsins()).thenReturn(List.of("DE0000000001"));
 
 		OverridesImportResultDto result = overridesService.importCsv(file, "tester");
 
 		assertThat(result.imported()).isEqualTo(1);
-		ArgumentCaptor<String> fieldCaptor = ArgumentCaptor.forClass(String.class);
-		verify(auditService, org.mockito.Mockito.atLeastOnce())
-				.recordEdit(org.mockito.Mockito.eq("DE0000000001"), fieldCaptor.capture(),
-						org.mockito.Mockito.any(), org.mockito.Mockito.any(), org.mockito.Mockito.eq("tester"),
-						org.mockito.Mockito.eq("override_import"));
-		assertThat(fieldCaptor.getAllValues()).contains("name");
+		List<InstrumentEdit> edits = captureEdits();
+		assertThat(edits).extracting(InstrumentEdit::getField).contains("name");
+		assertThat(edits).allSatisfy(edit -> {
+			assertThat(edit.getIsin()).isEqualTo("DE0000000001");
+			assertThat(edit.getEditedBy()).isEqualTo("tester");
+			assertThat(edit.getSource()).isEqualTo("override_import");
+		});
+		List<InstrumentOverride> written = captureOverrides();
+		assertThat(written).hasSize(1);
+		assertThat(written.get(0).getName()).isEqualTo("New Name");
+		assertThat(written.get(0).getLayer()).isEqualTo(2);
+		verify(overrideRepository, never()).save(any(InstrumentOverride.class));
+	}
+
+	@Test
+	void importCsvMergesRepeatedIsinIntoOneUpsert() {
+		String csv = "isin,name,layer\n"
+				+ "DE0000000001,First Name,\n"
+				+ "DE0000000001,First Name,4\n";
+		MockMultipartFile file = new MockMultipartFile("file", "overrides.csv", "text/csv", csv.getBytes());
+
+		InstrumentOverride existing = new InstrumentOverride();
+		existing.setIsin("DE0000000001");
+		existing.setName("Old Name");
+
+		when(instrumentRepository.findAllIsins()).thenReturn(List.of("DE0000000001"));
+		when(overrideRepository.findAll()).thenReturn(List.of(existing));
+
+		OverridesImportResultDto result = overridesService.importCsv(file, "tester");
+
+		assertThat(result.imported()).isEqualTo(2);
+		List<InstrumentOverride> written = captureOverrides();
+		assertThat(written).hasSize(1);
+		assertThat(written.get(0).getName()).isEqualTo("First Name");
+		assertThat(written.get(0).getLayer()).isEqualTo(4);
+		assertThat(existing.getName()).isEqualTo("Old Name");
+		assertThat(captureEdits()).extracting(InstrumentEdit::getField).containsExactly("name", "layer");
 	}
 
 	@Test
@@ -91,7 +126,7 @@ class OverridesServiceTest {
 				+ "DE0000000001,7\n";
 		MockMultipartFile file = new MockMultipartFile("file", "overrides.csv", "text/csv", csv.getBytes());
 
-		when(instrumentRepository.findAll()).thenReturn(List.of(instrument));
+		when(instrumentRepository.findAllIsins()).thenReturn(List.of("DE0000000001"));
 
 		assertThatThrownBy(() -> overridesService.importCsv(file, "tester"))
 				.isInstanceOf(IllegalArgumentException.class)
@@ -104,7 +139,7 @@ class OverridesServiceTest {
 				+ "DE0000000001,\n";
 		MockMultipartFile file = new MockMultipartFile("file", "overrides.csv", "text/csv", csv.getBytes());
 
-		when(instrumentRepository.findAll()).thenReturn(List.of(instrument));
+		when(instrumentRepository.findAllIsins()).thenReturn(List.of("DE0000000001"));
 
 		OverridesImportResultDto result = overridesService.importCsv(file, "tester");
 
@@ -118,7 +153,7 @@ class OverridesServiceTest {
 				+ "DE0000000002,Name\n";
 		MockMultipartFile file = new MockMultipartFile("file", "overrides.csv", "text/csv", csv.getBytes());
 
-		when(instrumentRepository.findAll()).thenReturn(List.of(instrument));
+		when(instrumentRepository.findAllIsins()).thenReturn(List.of("DE0000000001"));
 
 		OverridesImportResultDto result = overridesService.importCsv(file, "tester");
 
@@ -136,13 +171,13 @@ class OverridesServiceTest {
 		existing.setIsin("DE0000000001");
 		existing.setName("Old Name");
 
-		when(instrumentRepository.findAll()).thenReturn(List.of(instrument));
-		when(overrideRepository.findById("DE0000000001")).thenReturn(Optional.of(existing));
-		when(overrideRepository.save(any(InstrumentOverride.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		when(instrumentRepository.findAllIsins()).thenReturn(List.of("DE0000000001"));
+		when(overrideRepository.findAll()).thenReturn(List.of(existing));
 
 		OverridesImportResultDto result = overridesService.importCsv(file, "tester");
 
 		assertThat(result.imported()).isEqualTo(1);
+		assertThat(captureEdits()).isEmpty();
 		verify(auditService, org.mockito.Mockito.never())
 				.recordEdit(any(), any(), any(), any(), any(), any());
 	}
@@ -153,7 +188,7 @@ class OverridesServiceTest {
 				+ "DE0000000001,2024-13-01\n";
 		MockMultipartFile file = new MockMultipartFile("file", "overrides.csv", "text/csv", csv.getBytes());
 
-		when(instrumentRepository.findAll()).thenReturn(List.of(instrument));
+		when(instrumentRepository.findAllIsins()).thenReturn(List.of("DE0000000001"));
 
 		assertThatThrownBy(() -> overridesService.importCsv(file, "tester"))
 				.isInstanceOf(IllegalArgumentException.class)
@@ -166,7 +201,7 @@ class OverridesServiceTest {
 				+ "INVALID,Name\n";
 		MockMultipartFile file = new MockMultipartFile("file", "overrides.csv", "text/csv", csv.getBytes());
 
-		when(instrumentRepository.findAll()).thenReturn(List.of(instrument));
+		when(instrumentRepository.findAllIsins()).thenReturn(List.of("DE0000000001"));
 
 		assertThatThrownBy(() -> overridesService.importCsv(file, "tester"))
 				.isInstanceOf(IllegalArgumentException.class)
@@ -179,15 +214,16 @@ class OverridesServiceTest {
 		byte[] payload = csv.getBytes(java.nio.charset.StandardCharsets.ISO_8859_1);
 		MockMultipartFile file = new MockMultipartFile("file", "overrides.csv", "text/csv", payload);
 
-		when(instrumentRepository.findAll()).thenReturn(List.of(instrument));
-		when(overrideRepository.findById("DE0000000001")).thenReturn(Optional.empty());
-		when(overrideRepository.save(any(InstrumentOverride.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		when(instrumentRepository.findAllIsins()).thenReturn(List.of("DE0000000001"));
 
 		OverridesImportResultDto result = overridesService.importCsv(file, "tester");
 
 		assertThat(result.imported()).isEqualTo(1);
-		verify(auditService).recordEdit(eq("DE0000000001"), eq("name"), eq(null), eq("Ä"), eq("tester"),
-				eq("override_import"));
+		List<InstrumentEdit> edits = captureEdits();
+		assertThat(edits).hasSize(1);
+		assertThat(edits.get(0).getField()).isEqualTo("name");
+		assertThat(edits.get(0).getOldValue()).isNull();
+		assertThat(edits.get(0).getNewValue()).isEqualTo("Ä");
 	}
 
 	@Test
@@ -224,8 +260,15 @@ class OverridesServiceTest {
 		overridesService.upsertOverride("DE0000000001", request, "tester");
 
 		verify(overrideRepository).save(any(InstrumentOverride.class));
-		verify(auditService).recordEdit(eq("DE0000000001"), eq("name"), eq(null), eq("New Name"), eq("tester"),
-				eq("override_ui"));
+		assertThat(captureAllEdits())
+				.anySatisfy(edit -> {
+					assertThat(edit.getIsin()).isEqualTo("DE0000000001");
+					assertThat(edit.getField()).isEqualTo("name");
+					assertThat(edit.getOldValue()).isNull();
+					assertThat(edit.getNewValue()).isEqualTo("New Name");
+					assertThat(edit.getEditedBy()).isEqualTo("tester");
+					assertThat(edit.getSource()).isEqualTo("override_ui");
+				});
 	}
 
 	@Test
@@ -254,6 +297,7 @@ class OverridesServiceTest {
 		ReflectionTestUtils.invokeMethod(overridesService, "updateField",
 				null, null, "name", updater, "DE0000000001", "tester", "override_test");
 
+		assertThat(captureEdits()).isEmpty();
 		verify(auditService, never()).recordEdit(any(), any(), any(), any(), any(), any());
 	}
 
@@ -272,4 +316,25 @@ class OverridesServiceTest {
 
 		verify(auditService, never()).recordEdit(any(), any(), any(), any(), any(), any());
 	}
+
+	@SuppressWarnings("unchecked")
+	private List<InstrumentEdit> captureEdits() {
+		ArgumentCaptor<List<InstrumentEdit>> captor = ArgumentCaptor.forClass(List.class);
+		verify(auditService).recordEdits(captor.capture());
+		return captor.getValue();
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<InstrumentEdit> captureAllEdits() {
+		ArgumentCaptor<List<InstrumentEdit>> captor = ArgumentCaptor.forClass(List.class);
+		verify(auditService, atLeastOnce()).recordEdits(captor.capture());
+		return captor.getAllValues().stream().flatMap(List::stream).toList();
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<InstrumentOverride> captureOverrides() {
+		ArgumentCaptor<List<InstrumentOverride>> captor = ArgumentCaptor.forClass(List.class);
+		verify(bulkUpsertRepository).upsertOverrides(captor.capture());
+		return captor.getValue();
+	}
 }
@@ -128,6 +128,24 @@ class RebalancerServiceTest {
 				.anyMatch(allocation -> "Themes".equals(allocation.label()) && allocation.valueEur() == 2000.0d);
 	}
 
+	@Test
+	void summaryRollupsFollowPositionAndClassificationChanges() {
+		var first = rebalancerService.summary(null);
+		assertThat(rebalancerService.summary(null).topPositions()).isEqualTo(first.topPositions());
+		assertThat(first.topPositions()).singleElement()
+				.satisfies(position -> assertThat(position.weightPct()).isEqualTo(100.0d));
+
+		jdbcTemplate.update("insert into snapshot_positions (snapshot_id, isin, name, value_eur, currency) values (11, 'DE000S', 'Stock ETF', 6000.00, 'EUR')");
+		var second = rebalancerService.summary(null);
+		assertThat(second.topPositions()).extracting(position -> position.isin()).containsExactly("DE000S", "DE000B");
+		assertThat(second.layerAllocations())
+				.anyMatch(allocation -> "1".equals(allocation.label()) && allocation.weightPct() == 75.0d);
+
+		jdbcTemplate.update("insert into instrument_overrides (isin, layer) values ('DE000S', 3)");
+		var third = rebalancerService.summary(null);
+		assertThat(third.layerAllocations()).extracting(allocation -> allocation.label()).containsExactly("3", "2");
+	}
+
 	@Test
 	void targetTotalsMatchHoldingsPlusProjectedContributions() {
 		layerTargetConfigService.resetToDefault();
@@ -0,0 +1,90 @@
+package my.portfoliomanager.app.service;
+
+import my.portfoliomanager.app.support.TestDatabaseCleaner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = my.portfoliomanager.app.AppApplication.class)
+@ActiveProfiles("test")
+class RunResultCacheServiceTest {
+	private static final String JWT_SECRET = UUID.randomUUID().toString();
+
+	@Autowired
+	private RunResultCacheService runResultCacheService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TestDatabaseCleaner databaseCleaner;
+
+	@DynamicPropertySource
+	static void registerProperties(DynamicPropertyRegistry registry) {
+		registry.add("app.security.admin-user", () -> "admin");
+		registry.add("app.security.admin-pass", () -> "admin");
+		registry.add("app.jwt.secret", () -> JWT_SECRET);
+		registry.add("app.jwt.issuer", () -> "test-issuer");
+	}
+
+	@BeforeEach
+	void setup() {
+		databaseCleaner.clean();
+		jdbcTemplate.update("insert into depots (depot_id, depot_code, name, provider) values (1, 'tr', 'Trade Republic', 'TR')");
+		jdbcTemplate.update("insert into instruments (isin, name, depot_code, layer, is_deleted) values ('DE000A', 'Test ETF', 'tr', 1, false)");
+	}
+
+	@AfterEach
+	void cleanup() {
+		databaseCleaner.clean();
+	}
+
+	@Test
+	void cachedResultIsDroppedWhenRunInputsChange() {
+		LocalDate asOf = LocalDate.of(2024, 1, 31);
+		RunResultCacheService.Fingerprint before = runResultCacheService.fingerprint();
+		assertThat(before).isNotNull();
+		runResultCacheService.put("rebalancer", asOf, before, "result");
+
+		assertThat(runResultCacheService.<String>get("rebalancer", asOf, runResultCacheService.fingerprint())).isEqualTo("result");
+		assertThat(runResultCacheService.<String>get("assessor", asOf, before)).isNull();
+
+		jdbcTemplate.update("insert into sparplans (sparplan_id, depot_id, isin, amount_eur, frequency, active) values (1, 1, 'DE000A', 50.00, 'monthly', true)");
+
+		RunResultCacheService.Fingerprint afterSavingPlan = runResultCacheService.fingerprint();
+		assertThat(afterSavingPlan.inputVersions()).isNotEqualTo(before.inputVersions());
+		assertThat(afterSavingPlan.portfolioVersions()).isEqualTo(before.portfolioVersions());
+		// Only the sparplans row moved; the other input tables keep their versions.
+		int changed = 0;
+		for (int i = 0; i < before.inputVersions().size(); i++) {
+			if (!afterSavingPlan.inputVersions().get(i).equals(before.inputVersions().get(i))) {
+				changed++;
+			}
+		}
+		assertThat(changed).isEqualTo(1);
+		assertThat(runResultCacheService.<String>get("rebalancer", asOf, afterSavingPlan)).isNull();
+	}
+
+	@Test
+	void portfolioChangesAdvanceFingerprint() {
+		RunResultCacheService.Fingerprint before = runResultCacheService.fingerprint();
+
+		jdbcTemplate.update("update instruments set layer = 2 where isin = 'DE000A'");
+
+		RunResultCacheService.Fingerprint after = runResultCacheService.fingerprint();
+		assertThat(after.portfolioVersions()).isNotEqualTo(before.portfolioVersions());
+		assertThat(after.inputVersions()).isEqualTo(before.inputVersions());
+		assertThat(after).isNotEqualTo(before);
+	}
+}
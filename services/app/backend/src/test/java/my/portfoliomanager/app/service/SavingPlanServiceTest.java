@@ -6,12 +6,14 @@ import my.portfoliomanager.app.domain.SavingPlan;
 import my.portfoliomanager.app.dto.SavingPlanDto;
 import my.portfoliomanager.app.dto.SavingPlanImportResultDto;
 import my.portfoliomanager.app.dto.SavingPlanUpsertRequest;
+import my.portfoliomanager.app.repository.BulkUpsertRepository;
 import my.portfoliomanager.app.repository.DepotRepository;
 import my.portfoliomanager.app.repository.InstrumentRepository;
 import my.portfoliomanager.app.repository.SavingPlanRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -44,6 +46,9 @@ class SavingPlanServiceTest {
 	@Mock
 	private InstrumentBlacklistService instrumentBlacklistService;
 
+	@Mock
+	private BulkUpsertRepository bulkUpsertRepository;
+
 	@InjectMocks
 	private SavingPlanService savingPlanService;
 
@@ -71,9 +76,8 @@ class SavingPlanServiceTest {
 		MockMultipartFile file = new MockMultipartFile("file", "savingPlans.csv", "text/csv", csv.getBytes());
 
 		when(depotRepository.findAll()).thenReturn(List.of(depot));
-		when(instrumentRepository.findByIsinIn(List.of("DE0000000001"))).thenReturn(List.of(instrument));
-		when(savingPlanRepository.findByDepotIdAndIsin(1L, "DE0000000001")).thenReturn(Optional.empty());
-		when(savingPlanRepository.save(any(SavingPlan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		when(instrumentRepository.findExistingIsins(List.of("DE0000000001"))).thenReturn(List.of("DE0000000001"));
+		when(savingPlanRepository.findByDepotIdInAndIsinIn(any(), any())).thenReturn(List.of());
 
 		SavingPlanImportResultDto result = savingPlanService.importCsv(file);
 
@@ -202,14 +206,22 @@ class SavingPlanServiceTest {
 		existing.setLastChanged(LocalDate.of(2024, 2, 1));
 
 		when(depotRepository.findAll()).thenReturn(List.of(depot));
-		when(instrumentRepository.findByIsinIn(List.of("DE0000000001", "DE0000000002"))).thenReturn(List.of(instrument));
-		when(savingPlanRepository.findByDepotIdAndIsin(1L, "DE0000000001")).thenReturn(Optional.of(existing));
-		when(savingPlanRepository.save(any(SavingPlan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		when(instrumentRepository.findExistingIsins(List.of("DE0000000001", "DE0000000002"))).thenReturn(List.of("DE0000000001"));
+		when(savingPlanRepository.findByDepotIdInAndIsinIn(any(), any())).thenReturn(List.of(existing));
 
 		SavingPlanImportResultDto result = savingPlanService.importCsv(file);
 
 		assertThat(result.updated()).isEqualTo(1);
 		assertThat(result.skippedMissing()).isEqualTo(1);
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<SavingPlan>> captor = ArgumentCaptor.forClass(List.class);
+		org.mockito.Mockito.verify(bulkUpsertRepository).upsertSavingPlans(captor.capture());
+		assertThat(captor.getValue()).hasSize(1);
+		SavingPlan written = captor.getValue().get(0);
+		assertThat(written.getAmountEur()).isEqualByComparingTo("30.00");
+		assertThat(written.getFrequency()).isEqualTo("weekly");
+		assertThat(written.isActive()).isFalse();
+		assertThat(existing.getAmountEur()).isEqualByComparingTo("10");
 	}
 
 	@Test
@@ -297,9 +309,8 @@ class SavingPlanServiceTest {
 		MockMultipartFile file = new MockMultipartFile("file", "savingPlans.csv", "text/csv", csv.getBytes());
 
 		when(depotRepository.findAll()).thenReturn(List.of(depot));
-		when(instrumentRepository.findByIsinIn(List.of("DE0000000001"))).thenReturn(List.of(instrument));
-		when(savingPlanRepository.findByDepotIdAndIsin(1L, "DE0000000001")).thenReturn(Optional.empty());
-		when(savingPlanRepository.save(any(SavingPlan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		when(instrumentRepository.findExistingIsins(List.of("DE0000000001"))).thenReturn(List.of("DE0000000001"));
+		when(savingPlanRepository.findByDepotIdInAndIsinIn(any(), any())).thenReturn(List.of());
 
 		SavingPlanImportResultDto result = savingPlanService.importCsv(file);
 
@@ -313,9 +324,8 @@ class SavingPlanServiceTest {
 		MockMultipartFile file = new MockMultipartFile("file", "savingPlans.csv", "text/csv", csv.getBytes());
 
 		when(depotRepository.findAll()).thenReturn(List.of(depot));
-		when(instrumentRepository.findByIsinIn(List.of("DE0000000001"))).thenReturn(List.of(instrument));
-		when(savingPlanRepository.findByDepotIdAndIsin(1L, "DE0000000001")).thenReturn(Optional.empty());
-		when(savingPlanRepository.save(any(SavingPlan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		when(instrumentRepository.findExistingIsins(List.of("DE0000000001"))).thenReturn(List.of("DE0000000001"));
+		when(savingPlanRepository.findByDepotIdInAndIsinIn(any(), any())).thenReturn(List.of());
 
 		SavingPlanImportResultDto result = savingPlanService.importCsv(file);
 
@@ -329,9 +339,8 @@ class SavingPlanServiceTest {
 		MockMultipartFile file = new MockMultipartFile("file", "savingPlans.csv", "text/csv", csv.getBytes());
 
 		when(depotRepository.findAll()).thenReturn(List.of(depot));
-		when(instrumentRepository.findByIsinIn(List.of("DE0000000001"))).thenReturn(List.of(instrument));
-		when(savingPlanRepository.findByDepotIdAndIsin(1L, "DE0000000001")).thenReturn(Optional.empty());
-		when(savingPlanRepository.save(any(SavingPlan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		when(instrumentRepository.findExistingIsins(List.of("DE0000000001"))).thenReturn(List.of("DE0000000001"));
+		when(savingPlanRepository.findByDepotIdInAndIsinIn(any(), any())).thenReturn(List.of());
 
 		SavingPlanImportResultDto result = savingPlanService.importCsv(file);
 
@@ -355,8 +364,8 @@ class SavingPlanServiceTest {
 		existing.setLastChanged(LocalDate.of(2024, 2, 1));
 
 		when(depotRepository.findAll()).thenReturn(List.of(depot));
-		when(instrumentRepository.findByIsinIn(List.of("DE0000000001"))).thenReturn(List.of(instrument));
-		when(savingPlanRepository.findByDepotIdAndIsin(1L, "DE0000000001")).thenReturn(Optional.of(existing));
+		when(instrumentRepository.findExistingIsins(List.of("DE0000000001"))).thenReturn(List.of("DE0000000001"));
+		when(savingPlanRepository.findByDepotIdInAndIsinIn(any(), any())).thenReturn(List.of(existing));
 
 		SavingPlanImportResultDto result = savingPlanService.importCsv(file);
 
@@ -0,0 +1,124 @@
+package my.portfoliomanager.app.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BackupContainerCryptoTest {
+	private static final String PASSWORD = "backup-test-password";
+	private static final int SEGMENT_SIZE = 1024 * 1024;
+
+	@Test
+	void roundTripsMultiSegmentPayload() throws Exception {
+		byte[] plaintext = randomBytes(SEGMENT_SIZE * 2 + 123);
+
+		byte[] encrypted = BackupContainerCrypto.encrypt(plaintext, PASSWORD);
+
+		assertThat(new String(encrypted, 0, 5, StandardCharsets.US_ASCII)).isEqualTo("PMBK2");
+		assertThat(BackupContainerCrypto.isEncrypted(encrypted)).isTrue();
+		assertThat(BackupContainerCrypto.decrypt(encrypted, PASSWORD)).isEqualTo(plaintext);
+		try (InputStream decrypted = BackupContainerCrypto.decrypt(new ByteArrayInputStream(encrypted), PASSWORD)) {
+			assertThat(decrypted.readAllBytes()).isEqualTo(plaintext);
+		}
+	}
+
+	@Test
+	void roundTripsSegmentAlignedAndEmptyPayloads() {
+		byte[] aligned = randomBytes(SEGMENT_SIZE);
+
+		assertThat(BackupContainerCrypto.decrypt(BackupContainerCrypto.encrypt(aligned, PASSWORD), PASSWORD))
+				.isEqualTo(aligned);
+		assertThat(BackupContainerCrypto.decrypt(BackupContainerCrypto.encrypt(new byte[0], PASSWORD), PASSWORD))
+				.isEmpty();
+	}
+
+	@Test
+	void streamingEncryptMatchesByteArrayDecrypt() throws Exception {
+		byte[] plaintext = randomBytes(SEGMENT_SIZE + 17);
+		ByteArrayOutputStream target = new ByteArrayOutputStream();
+		try (var encrypted = BackupContainerCrypto.encrypt(target, PASSWORD)) {
+			for (int offset = 0; offset < plaintext.length; offset += 4096) {
+				encrypted.write(plaintext, offset, Math.min(4096, plaintext.length - offset));
+			}
+		}
+
+		assertThat(BackupContainerCrypto.decrypt(target.toByteArray(), PASSWORD)).isEqualTo(plaintext);
+	}
+
+	@Test
+	void detectsTamperedSegment() {
+		byte[] encrypted = BackupContainerCrypto.encrypt(randomBytes(SEGMENT_SIZE * 2), PASSWORD);
+		encrypted[encrypted.length - SEGMENT_SIZE / 2] ^= 0x01;
+
+		assertThatThrownBy(() -> BackupContainerCrypto.decrypt(encrypted, PASSWORD))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Unable to decrypt backup container");
+	}
+
+	@Test
+	void detectsTruncatedContainer() {
+		byte[] encrypted = BackupContainerCrypto.encrypt(randomBytes(SEGMENT_SIZE * 2 + 10), PASSWORD);
+		int segmentLength = 12 + SEGMENT_SIZE + 16;
+		int headerLength = 5 + 16 + 4;
+		byte[] truncated = Arrays.copyOf(encrypted, headerLength + segmentLength * 2);
+
+		assertThatThrownBy(() -> BackupContainerCrypto.decrypt(truncated, PASSWORD))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Unable to decrypt backup container");
+	}
+
+	@Test
+	void rejectsWrongPassword() {
+		byte[] encrypted = BackupContainerCrypto.encrypt(randomBytes(64), PASSWORD);
+
+		assertThatThrownBy(() -> BackupContainerCrypto.decrypt(encrypted, "wrong-password"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Unable to decrypt backup container");
+	}
+
+	@Test
+	void decryptsLegacyPmbk1Container() throws Exception {
+		byte[] plaintext = randomBytes(4096);
+		byte[] legacy = legacyContainer(plaintext);
+
+		assertThat(BackupContainerCrypto.isEncrypted(legacy)).isTrue();
+		assertThat(BackupContainerCrypto.decrypt(legacy, PASSWORD)).isEqualTo(plaintext);
+		try (InputStream decrypted = BackupContainerCrypto.decrypt(new ByteArrayInputStream(legacy), PASSWORD)) {
+			assertThat(decrypted.readAllBytes()).isEqualTo(plaintext);
+		}
+	}
+
+	private byte[] legacyContainer(byte[] plaintext) throws Exception {
+		byte[] salt = randomBytes(16);
+		byte[] iv = randomBytes(12);
+		PBEKeySpec spec = new PBEKeySpec(PASSWORD.toCharArray(), salt, 65_536, 256);
+		byte[] key = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+		Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+		cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new GCMParameterSpec(128, iv));
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		payload.write("PMBK1".getBytes(StandardCharsets.US_ASCII));
+		payload.write(salt);
+		payload.write(iv);
+		payload.write(cipher.doFinal(plaintext));
+		return payload.toByteArray();
+	}
+
+	private byte[] randomBytes(int length) {
+		byte[] bytes = new byte[length];
+		new Random(length).nextBytes(bytes);
+		return bytes;
+	}
+}
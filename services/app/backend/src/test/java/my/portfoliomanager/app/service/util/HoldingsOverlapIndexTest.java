@@ -0,0 +1,65 @@
+package my.portfoliomanager.app.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HoldingsOverlapIndexTest {
+	@Test
+	void averagesPairwiseOverlapOfIndexedEntries() {
+		HoldingsOverlapIndex index = HoldingsOverlapIndex.build(names(), weights());
+
+		assertThat(index.averageWeightedOverlap("A")).isCloseTo(0.35, within(1e-9));
+		assertThat(index.averageWeightedOverlap("B")).isCloseTo(0.40, within(1e-9));
+		assertThat(index.averageWeightedOverlap("C")).isCloseTo(0.45, within(1e-9));
+		assertThat(index.averageWeightedOverlap("D")).isEqualTo(-1.0);
+
+		assertThat(index.averageOverlap("A", 4)).isCloseTo(1.0 / 3.0, within(1e-9));
+		assertThat(index.averageOverlap("D", 4)).isEqualTo(0.0);
+	}
+
+	@Test
+	void comparesUnindexedCandidateAgainstAllEntries() {
+		HoldingsOverlapIndex index = HoldingsOverlapIndex.build(names(), weights());
+
+		Map<String, BigDecimal> candidate = new LinkedHashMap<>();
+		candidate.put("x", new BigDecimal("0.5"));
+		candidate.put("unknown", new BigDecimal("0.5"));
+
+		assertThat(index.averageWeightedOverlapWith(candidate)).isCloseTo(0.8 / 3.0, within(1e-9));
+		assertThat(index.averageOverlapWith(Set.of("x", "unknown"))).isCloseTo(1.0 / 3.0, within(1e-9));
+		assertThat(index.averageWeightedOverlapWith(Map.of())).isEqualTo(-1.0);
+		assertThat(index.averageOverlapWith(Set.of())).isEqualTo(-1.0);
+	}
+
+	@Test
+	void emptyIndexHasNothingToCompare() {
+		HoldingsOverlapIndex index = HoldingsOverlapIndex.build(Map.of(), Map.of());
+
+		assertThat(index.averageWeightedOverlapWith(Map.of("x", BigDecimal.ONE))).isEqualTo(-1.0);
+		assertThat(index.averageOverlapWith(Set.of("x"))).isEqualTo(-1.0);
+		assertThat(index.averageWeightedOverlap("A")).isEqualTo(-1.0);
+	}
+
+	private static Map<String, Set<String>> names() {
+		Map<String, Set<String>> names = new LinkedHashMap<>();
+		names.put("A", Set.of("x", "y"));
+		names.put("B", Set.of("x", "z"));
+		names.put("C", Set.of("y", "z"));
+		return names;
+	}
+
+	private static Map<String, Map<String, BigDecimal>> weights() {
+		Map<String, Map<String, BigDecimal>> weights = new LinkedHashMap<>();
+		weights.put("A", Map.of("x", new BigDecimal("0.6"), "y", new BigDecimal("0.4")));
+		weights.put("B", Map.of("x", new BigDecimal("0.3"), "z", new BigDecimal("0.7")));
+		weights.put("C", Map.of("y", new BigDecimal("0.5"), "z", new BigDecimal("0.5")));
+		return weights;
+	}
+}
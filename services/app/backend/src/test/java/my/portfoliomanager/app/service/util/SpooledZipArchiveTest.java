@@ -0,0 +1,63 @@
+package my.portfoliomanager.app.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpooledZipArchiveTest {
+	@Test
+	void readsEntriesInAnyOrder() throws Exception {
+		byte[] zipBytes = zip("data/b.json", "[2]", "data/a.json", "[1]", "metadata.json", "{}");
+
+		try (SpooledZipArchive archive = SpooledZipArchive.spool(new ByteArrayInputStream(zipBytes), 1024 * 1024)) {
+			assertThat(archive.readAllBytes("metadata.json", 1024)).isEqualTo("{}".getBytes(StandardCharsets.UTF_8));
+			try (InputStream inputStream = archive.open("data/a.json")) {
+				assertThat(inputStream.readAllBytes()).isEqualTo("[1]".getBytes(StandardCharsets.UTF_8));
+			}
+			assertThat(archive.contains("data/b.json")).isTrue();
+			assertThat(archive.open("data/missing.json")).isNull();
+		}
+	}
+
+	@Test
+	void rejectsArchiveAboveSizeLimit() throws Exception {
+		byte[] zipBytes = zip("a.json", "x".repeat(4096));
+
+		assertThatThrownBy(() -> SpooledZipArchive.spool(new ByteArrayInputStream(zipBytes), 16))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("maximum allowed size");
+	}
+
+	@Test
+	void rejectsOversizedEntryRead() throws Exception {
+		byte[] zipBytes = zip("a.json", "x".repeat(4096));
+
+		try (SpooledZipArchive archive = SpooledZipArchive.spool(new ByteArrayInputStream(zipBytes), 1024 * 1024)) {
+			assertThatThrownBy(() -> archive.readAllBytes("a.json", 128))
+					.isInstanceOf(IOException.class)
+					.hasMessageContaining("maximum allowed size");
+		}
+	}
+
+	private byte[] zip(String... namesAndContents) throws Exception {
+		try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			 ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream, StandardCharsets.UTF_8)) {
+			for (int i = 0; i < namesAndContents.length; i += 2) {
+				zipOutputStream.putNextEntry(new ZipEntry(namesAndContents[i]));
+				zipOutputStream.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+				zipOutputStream.closeEntry();
+			}
+			zipOutputStream.finish();
+			return outputStream.toByteArray();
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package my.portfoliomanager.app.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VersionedConfigCacheTest {
+	@Test
+	void reloadsOnlyWhenVersionChanges() {
+		VersionedConfigCache<String> cache = new VersionedConfigCache<>();
+		AtomicReference<String> version = new AtomicReference<>("1");
+		AtomicInteger loads = new AtomicInteger();
+
+		assertThat(cache.get(version::get, () -> "config-" + loads.incrementAndGet())).isEqualTo("config-1");
+		assertThat(cache.get(version::get, () -> "config-" + loads.incrementAndGet())).isEqualTo("config-1");
+
+		version.set("2");
+		assertThat(cache.get(version::get, () -> "config-" + loads.incrementAndGet())).isEqualTo("config-2");
+
+		version.set(null);
+		assertThat(cache.get(version::get, () -> "config-" + loads.incrementAndGet())).isEqualTo("config-3");
+		assertThat(cache.get(version::get, () -> "config-" + loads.incrementAndGet())).isEqualTo("config-3");
+	}
+
+	@Test
+	void invalidateForcesReloadWithSameVersion() {
+		VersionedConfigCache<String> cache = new VersionedConfigCache<>();
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.get(() -> "1", () -> "config-" + loads.incrementAndGet());
+		cache.invalidate();
+
+		assertThat(cache.get(() -> "1", () -> "config-" + loads.incrementAndGet())).isEqualTo("config-2");
+	}
+}
@@ -186,4 +186,93 @@ export async function apiDownload(path, options = {}) {
   return response
 }
 
+async function readLines(response, onLine) {
+  const reader = response.body.getReader()
+  const decoder = new TextDecoder()
+  let buffer = ''
+  for (;;) {
+    const { done, value } = await reader.read()
+    if (done) {
+      break
+    }
+    buffer += decoder.decode(value, { stream: true })
+    let newline = buffer.indexOf('\n')
+    while (newline >= 0) {
+      onLine(buffer.slice(0, newline).replace(/\r$/, ''))
+      buffer = buffer.slice(newline + 1)
+      newline = buffer.indexOf('\n')
+    }
+  }
+  buffer += decoder.decode()
+  if (buffer) {
+    onLine(buffer.replace(/\r$/, ''))
+  }
+}
+
+// Reads an application/x-ndjson response and hands each item to onItem as soon as its line arrives.
+export async function apiStreamNdjson(path, options = {}, onItem) {
+  const response = await apiDownload(path, {
+    ...options,
+    headers: {
+      'Content-Type': 'application/json',
+      Accept: 'application/x-ndjson',
+      ...(options.headers || {})
+    }
+  })
+  await readLines(response, (line) => {
+    if (line.trim()) {
+      onItem(JSON.parse(line))
+    }
+  })
+}
+
+// Follows a text/event-stream response over fetch, which unlike EventSource can send the bearer token. Each event is
+// handed to onEvent as { id, event, data } with JSON data parsed; resolves with the last event id once the server
+// closes the stream, so a caller can resume with options.lastEventId.
+export async function apiEventStream(path, options = {}, onEvent) {
+  const { lastEventId, ...fetchOptions } = options
+  const response = await apiDownload(path, {
+    ...fetchOptions,
+    headers: {
+      Accept: 'text/event-stream',
+      ...(lastEventId ? { 'Last-Event-ID': String(lastEventId) } : {}),
+      ...(options.headers || {})
+    }
+  })
+  let id = lastEventId ?? null
+  let event = ''
+  let data = []
+  await readLines(response, (line) => {
+    if (line === '') {
+      if (data.length) {
+        const raw = data.join('\n')
+        let parsed = raw
+        try {
+          parsed = JSON.parse(raw)
+        } catch (err) {
+          // Plain text data is passed on as is.
+        }
+        onEvent({ id, event: event || 'message', data: parsed })
+      }
+      event = ''
+      data = []
+      return
+    }
+    if (line.startsWith(':')) {
+      return
+    }
+    const colon = line.indexOf(':')
+    const field = colon >= 0 ? line.slice(0, colon) : line
+    const value = colon >= 0 ? line.slice(colon + 1).replace(/^ /, '') : ''
+    if (field === 'id') {
+      id = value
+    } else if (field === 'event') {
+      event = value
+    } else if (field === 'data') {
+      data.push(value)
+    }
+  })
+  return id
+}
+
 export { getJwtToken, storeJwtToken, clearJwtToken }
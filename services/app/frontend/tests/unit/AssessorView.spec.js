@@ -4,7 +4,8 @@ import AssessorView from '../../src/views/AssessorView.vue'
 import { apiRequest } from '../../src/api'
 
 vi.mock('../../src/api', () => ({
-  apiRequest: vi.fn()
+  apiRequest: vi.fn(),
+  apiEventStream: vi.fn(() => Promise.resolve(null))
 }))
 
 const flushPromises = () => new Promise((resolve) => setTimeout(resolve, 0))
@@ -1,10 +1,11 @@
 import { mount } from '@vue/test-utils'
 import { describe, it, expect, vi } from 'vitest'
 import RebalancerView from '../../src/views/RebalancerView.vue'
-import { apiRequest } from '../../src/api'
+import { apiEventStream, apiRequest } from '../../src/api'
 
 vi.mock('../../src/api', () => ({
-  apiRequest: vi.fn()
+  apiRequest: vi.fn(),
+  apiEventStream: vi.fn(() => Promise.resolve(null))
 }))
 
 const flushPromises = () => new Promise((resolve) => setTimeout(resolve, 0))
@@ -391,4 +392,39 @@ describe('RebalancerView', () => {
 
     expect(wrapper.text()).toContain("Can't apply this proposal for DE0006599905 because it already has active saving plans in more than one depot.")
   })
+
+  it('takes the finished run from the job event stream without polling', async () => {
+    const summary = {
+      layerAllocations: [],
+      assetClassAllocations: [],
+      topPositions: [],
+      savingPlanSummary: null,
+      savingPlanTargets: [],
+      savingPlanProposal: null
+    }
+    apiRequest.mockReset()
+    apiRequest.mockImplementation((url) => {
+      if (url === '/layer-targets') {
+        return Promise.resolve({ layerNames: {} })
+      }
+      if (url === '/rebalancer/run') {
+        return Promise.resolve({ job_id: 'job-5', status: 'PENDING' })
+      }
+      return Promise.reject(new Error(`Unexpected request: ${url}`))
+    })
+    apiEventStream.mockImplementationOnce((path, options, onEvent) => {
+      onEvent({ id: '3', event: 'status', data: { status: 'RUNNING' } })
+      onEvent({ id: '3', event: 'job', data: { job_id: 'job-5', status: 'DONE', result: { summary } } })
+      return Promise.resolve('3')
+    })
+
+    const wrapper = mount(RebalancerView)
+    await flushPromises()
+    await flushPromises()
+
+    expect(apiEventStream).toHaveBeenCalledWith('/rebalancer/run/job-5/events', expect.anything(), expect.any(Function))
+    expect(apiRequest).not.toHaveBeenCalledWith('/rebalancer/run/job-5')
+    expect(wrapper.text()).not.toContain('Running rebalancer...')
+    expect(wrapper.text()).not.toContain('Unexpected request')
+  })
 })
@@ -1,5 +1,5 @@
 import { describe, it, expect, beforeEach, vi } from 'vitest'
-import { apiRequest, authRequest, apiUpload, apiDownload } from '../../src/api'
+import { apiRequest, authRequest, apiUpload, apiDownload, apiStreamNdjson, apiEventStream } from '../../src/api'
 
 const makeResponse = (status, payload) => ({
   status,
@@ -7,6 +7,20 @@ const makeResponse = (status, payload) => ({
   json: async () => payload
 })
 
+const makeStreamResponse = (chunks) => {
+  const encoder = new TextEncoder()
+  const queue = chunks.map((chunk) => encoder.encode(chunk))
+  return {
+    status: 200,
+    ok: true,
+    body: {
+      getReader: () => ({
+        read: async () => (queue.length ? { done: false, value: queue.shift() } : { done: true, value: undefined })
+      })
+    }
+  }
+}
+
 describe('api helpers', () => {
   beforeEach(() => {
     sessionStorage.clear()
@@ -63,4 +77,42 @@ describe('api helpers', () => {
       })
     }))
   })
+
+  it('apiStreamNdjson emits items across chunk boundaries', async () => {
+    sessionStorage.setItem('jwt', 'token')
+    global.fetch.mockResolvedValue(makeStreamResponse(['{"isin":"A"}\n{"is', 'in":"B"}\n', '{"isin":"C"}']))
+    const items = []
+
+    await apiStreamNdjson('/rulesets/default/simulate/stream', { method: 'POST', body: '{}' }, (item) => items.push(item))
+
+    expect(items.map((item) => item.isin)).toEqual(['A', 'B', 'C'])
+    expect(global.fetch).toHaveBeenCalledWith('/api/rulesets/default/simulate/stream', expect.objectContaining({
+      method: 'POST',
+      headers: expect.objectContaining({ Authorization: 'Bearer token', Accept: 'application/x-ndjson' })
+    }))
+  })
+
+  it('apiEventStream parses server-sent events and resumes from the last id', async () => {
+    sessionStorage.setItem('jwt', 'token')
+    global.fetch.mockResolvedValue(makeStreamResponse([
+      ': keep-alive\n\nid: 4\nevent: progress\ndata: {"mess',
+      'age":"Working"}\n\nid: 5\nevent: job\ndata: {"status":"DONE"}\n\n'
+    ]))
+    const events = []
+
+    const lastId = await apiEventStream('/rebalancer/run/job-1/events', { lastEventId: '3' }, (event) => events.push(event))
+
+    expect(events).toEqual([
+      { id: '4', event: 'progress', data: { message: 'Working' } },
+      { id: '5', event: 'job', data: { status: 'DONE' } }
+    ])
+    expect(lastId).toBe('5')
+    expect(global.fetch).toHaveBeenCalledWith('/api/rebalancer/run/job-1/events', expect.objectContaining({
+      headers: expect.objectContaining({
+        Authorization: 'Bearer token',
+        Accept: 'text/event-stream',
+        'Last-Event-ID': '3'
+      })
+    }))
+  })
 })